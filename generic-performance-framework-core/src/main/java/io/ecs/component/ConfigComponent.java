@@ -1,15 +1,18 @@
 package io.ecs.component;
 
 import io.ecs.config.Scenario;
+import io.ecs.model.CapacitySearchConfig;
 import io.ecs.model.Request;
 import io.ecs.model.ExecutionConfig;
 import io.ecs.config.YamlConfig;
+import io.ecs.feeder.Feeder;
 import io.ecs.model.Response;
 import io.ecs.util.EcsLogger;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -27,6 +30,10 @@ public class ConfigComponent {
     private final List<Scenario> loadedScenarios;
     private final YamlConfig yamlConfig;
     
+    // Run settings: whether scenarios run at once, and the deadline of the run in seconds
+    private boolean parallel = false;
+    private int deadline = 0;
+    
     /**
      * Create a new ConfigComponent with default values
      */
@@ -84,6 +91,10 @@ public class ConfigComponent {
                 globalVariables.putAll(configVars);
             }
             
+            // Extract the run settings
+            parallel = Boolean.parseBoolean(getStringValue(configMap, "parallel", "false"));
+            deadline = getIntValue(configMap, "deadline", 0);
+            
             // Process scenarios from the configuration
             if (configMap.containsKey("scenarios")) {
                 Object scenariosObj = configMap.get("scenarios");
@@ -130,6 +141,10 @@ public class ConfigComponent {
                             scenario.setEngine(getStringValue(scenarioConfig, "engine", "jmdsl"));
                         }
                         
+                        if (scenarioConfig.containsKey("executor")) {
+                            scenario.setExecutor(getStringValue(scenarioConfig, "executor", "platform"));
+                        }
+                        
                         // Process requests
                         if (scenarioConfig.containsKey("requests")) {
                             List<Map<String, Object>> requestConfigs = 
@@ -204,6 +219,18 @@ public class ConfigComponent {
             scenario.setHold(getIntValue(scenarioConfig, "hold", 0));
         }
         
+        if (scenarioConfig.containsKey("warmUp")) {
+            scenario.setWarmUp(getIntValue(scenarioConfig, "warmUp", 0));
+        }
+        
+        if (scenarioConfig.containsKey("warmUpIterations")) {
+            scenario.setWarmUpIterations(getIntValue(scenarioConfig, "warmUpIterations", 0));
+        }
+        
+        if (scenarioConfig.containsKey("startOffset")) {
+            scenario.setStartOffset(getIntValue(scenarioConfig, "startOffset", 0));
+        }
+        
         if (scenarioConfig.containsKey("successThreshold")) {
             scenario.setSuccessThreshold(getDoubleValue(scenarioConfig, "successThreshold", 100.0));
         }
@@ -212,6 +239,10 @@ public class ConfigComponent {
             scenario.setEngine(getStringValue(scenarioConfig, "engine", "jmdsl"));
         }
         
+        if (scenarioConfig.containsKey("executor")) {
+            scenario.setExecutor(getStringValue(scenarioConfig, "executor", "platform"));
+        }
+        
         // Process requests
         if (scenarioConfig.containsKey("requests")) {
             Object requestsObj = scenarioConfig.get("requests");
@@ -247,6 +278,50 @@ public class ConfigComponent {
             }
         }
         
+        // Process data files
+        if (scenarioConfig.containsKey("dataFiles")) {
+            Object dataFilesObj = scenarioConfig.get("dataFiles");
+            
+            if (dataFilesObj instanceof Map) {
+                Map<String, String> dataFiles = new LinkedHashMap<>();
+                Map<String, Object> filesMap = (Map<String, Object>) dataFilesObj;
+                
+                for (Map.Entry<String, Object> entry : filesMap.entrySet()) {
+                    dataFiles.put(entry.getKey(), processDataFileConfig(entry.getValue()));
+                }
+                
+                scenario.setDataFiles(dataFiles);
+            }
+        }
+        
+        // Process abort criteria, a single criterion or a list of them
+        if (scenarioConfig.containsKey("abortOn")) {
+            Object abortOnObj = scenarioConfig.get("abortOn");
+            List<String> abortOn = new ArrayList<>();
+            if (abortOnObj instanceof List) {
+                for (Object criterion : (List<Object>) abortOnObj) {
+                    abortOn.add(String.valueOf(criterion));
+                }
+            } else if (abortOnObj != null) {
+                abortOn.add(String.valueOf(abortOnObj));
+            }
+            scenario.setAbortOn(abortOn);
+        }
+        
+        // Process capacity search settings
+        if (scenarioConfig.get("capacitySearch") instanceof Map) {
+            Map<String, Object> searchMap = (Map<String, Object>) scenarioConfig.get("capacitySearch");
+            CapacitySearchConfig search = new CapacitySearchConfig();
+            search.setStartUsers(getIntValue(searchMap, "startUsers", search.getStartUsers()));
+            search.setStepUsers(getIntValue(searchMap, "stepUsers", search.getStepUsers()));
+            search.setMaxUsers(getIntValue(searchMap, "maxUsers", search.getMaxUsers()));
+            search.setStepSeconds(getIntValue(searchMap, "stepSeconds", search.getStepSeconds()));
+            search.setMaxErrorRate(getDoubleValue(searchMap, "maxErrorRate", search.getMaxErrorRate()));
+            search.setMaxP95Millis(getIntValue(searchMap, "maxP95", (int) search.getMaxP95Millis()));
+            search.setRefineSteps(getIntValue(searchMap, "refineSteps", search.getRefineSteps()));
+            scenario.setCapacitySearch(search);
+        }
+        
         // Generate ID for scenario if it doesn't have one
         if (scenario.getId() == null) {
             scenario.setId(UUID.randomUUID().toString());
@@ -255,6 +330,40 @@ public class ConfigComponent {
         return scenario;
     }
     
+    /**
+     * Convert a data file entry to a feeder spec
+     * 
+     * An entry is either a spec string such as "data/users.csv|unique", or a map with
+     * "file" or "generate" and an optional "strategy"
+     * 
+     * @param dataFileConfig The data file entry
+     * @return The feeder spec
+     */
+    @SuppressWarnings("unchecked")
+    private String processDataFileConfig(Object dataFileConfig) {
+        if (!(dataFileConfig instanceof Map)) {
+            return String.valueOf(dataFileConfig);
+        }
+        
+        Map<String, Object> fileMap = (Map<String, Object>) dataFileConfig;
+        String strategy = fileMap.containsKey("strategy") ? String.valueOf(fileMap.get("strategy")) : null;
+        Object generate = fileMap.get("generate");
+        if (generate instanceof Map) {
+            StringBuilder definition = new StringBuilder(Feeder.GENERATED_PREFIX);
+            for (Map.Entry<String, Object> column : ((Map<String, Object>) generate).entrySet()) {
+                if (definition.length() > Feeder.GENERATED_PREFIX.length()) {
+                    definition.append(';');
+                }
+                definition.append(column.getKey()).append('=').append(column.getValue());
+            }
+            return Feeder.toSpec(definition.toString(), strategy);
+        }
+        if (!fileMap.containsKey("file")) {
+            throw new IllegalArgumentException("Data file entry needs 'file' or 'generate': " + fileMap);
+        }
+        return Feeder.toSpec(String.valueOf(fileMap.get("file")), strategy);
+    }
+    
     /**
      * Process a request configuration map into a Request object
      * 
@@ -413,13 +522,19 @@ public class ConfigComponent {
         modelScenario.setIterations(configScenario.getIterations());
         modelScenario.setRampUp(configScenario.getRampUp());
         modelScenario.setHold(configScenario.getHold());
+        modelScenario.setWarmUp(configScenario.getWarmUp());
+        modelScenario.setWarmUpIterations(configScenario.getWarmUpIterations());
+        modelScenario.setStartOffset(configScenario.getStartOffset());
         modelScenario.setEngine(configScenario.getEngine());
+        modelScenario.setExecutor(configScenario.getExecutor());
         modelScenario.setSuccessThreshold(configScenario.getSuccessThreshold());
         
         // Copy collections
         modelScenario.setRequests(new ArrayList<>(configScenario.getRequests()));
         modelScenario.setVariables(new HashMap<>(configScenario.getVariables()));
         modelScenario.setDataFiles(new HashMap<>(configScenario.getDataFiles()));
+        modelScenario.setAbortOn(new ArrayList<>(configScenario.getAbortOn()));
+        modelScenario.setCapacitySearch(configScenario.getCapacitySearch());
         
         return modelScenario;
     }
@@ -497,6 +612,24 @@ public class ConfigComponent {
         return new HashMap<>(globalVariables);
     }
     
+    /**
+     * Check whether the loaded configuration runs its scenarios at the same time
+     * 
+     * @return true if the configuration sets parallel: true
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+    
+    /**
+     * Get the wall-clock deadline of the loaded configuration's run
+     * 
+     * @return seconds from the start of the run, 0 for none
+     */
+    public int getDeadline() {
+        return deadline;
+    }
+    
     /**
      * Add a global variable
      * 
@@ -9,6 +9,8 @@ import io.ecs.protocols.HttpProtocol;
 import io.ecs.util.DynamicVariableResolver;
 import io.ecs.util.EcsLogger;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -96,6 +98,19 @@ public class ProtocolComponent {
         return currentProtocol;
     }
     
+    /**
+     * Release the resources of the current protocol, such as its connection pool
+     */
+    public void close() {
+        if (currentProtocol instanceof Closeable) {
+            try {
+                ((Closeable) currentProtocol).close();
+            } catch (IOException e) {
+                logger.warn("Error closing protocol {}: {}", currentProtocol.getName(), e.getMessage());
+            }
+        }
+    }
+    
     /**
      * Execute a request using the current protocol
      * 
@@ -84,6 +84,17 @@ public class ReportingComponent {
      * @return Path to the generated report
      */
     public String generateReport(TestResult testResult) {
+        return generateReport(testResult, null);
+    }
+    
+    /**
+     * Generate a report for the last result of a scenario that may have been stopped early
+     * 
+     * @param testResult Test result to generate a report for
+     * @param abortReason Why the scenario was aborted, or null if it ran to the end
+     * @return Path to the generated report
+     */
+    public String generateReport(TestResult testResult, String abortReason) {
         try {
             // Finalize the JTL file
             JtlReporter reporter = jtlReporters.get(testResult.getScenarioId());
@@ -98,11 +109,15 @@ public class ReportingComponent {
             // Convert TestResult to a Map of metrics for the report generator
             Map<String, Object> metrics = new HashMap<>();
             metrics.put("scenarioName", testResult.getScenarioName());
-            metrics.put("success", testResult.isSuccess());
+            metrics.put("success", testResult.isSuccess() && abortReason == null);
             metrics.put("statusCode", testResult.getStatusCode());
             metrics.put("responseTime", testResult.getResponseTime());
             metrics.put("startTime", testResult.getStartTime());
             metrics.put("endTime", testResult.getEndTime());
+            if (abortReason != null) {
+                metrics.put("aborted", true);
+                metrics.put("abortReason", abortReason);
+            }
             
             String generatedPath = ReportGenerator.generateReport(testResult.getScenarioName(), metrics);
             generatedReports.add(generatedPath);
@@ -127,27 +142,25 @@ public class ReportingComponent {
         JtlReporter reporter = jtlReporters.get(scenarioId);
         if (reporter != null) {
             try {
-                // Convert TestResult to a sample for JtlReporter
-                Map<String, Object> sample = new HashMap<>();
-                sample.put("timeStamp", testResult.getStartTime());
-                sample.put("elapsed", testResult.getResponseTime());
-                sample.put("label", testResult.getTestName());
-                sample.put("responseCode", String.valueOf(testResult.getStatusCode()));
-                sample.put("responseMessage", testResult.isSuccess() ? "OK" : "Error");
-                sample.put("threadName", "Thread-1"); // Default thread name
-                sample.put("dataType", "text");
-                sample.put("success", testResult.isSuccess());
-                sample.put("failureMessage", testResult.getError() != null ? testResult.getError() : "");
-                sample.put("bytes", 0); // Default bytes
-                sample.put("sentBytes", 0); // Default sent bytes
-                sample.put("grpThreads", 1); // Default group threads
-                sample.put("allThreads", 1); // Default all threads
-                sample.put("URL", ""); // Default URL
-                sample.put("Latency", 0); // Default latency
-                sample.put("IdleTime", 0); // Default idle time
-                sample.put("Connect", 0); // Default connect time
-                
-                reporter.recordSample(scenarioId, sample);
+                // Queue the TestResult as a sample for JtlReporter
+                reporter.recordSample(scenarioId,
+                        testResult.getStartTime(),                  // timeStamp
+                        testResult.getResponseTime(),               // elapsed
+                        testResult.getTestName(),                   // label
+                        String.valueOf(testResult.getStatusCode()), // responseCode
+                        testResult.isSuccess() ? "OK" : "Error",    // responseMessage
+                        "Thread-1",                                 // threadName (default)
+                        "text",                                     // dataType
+                        testResult.isSuccess(),                     // success
+                        testResult.getError() != null ? testResult.getError() : "", // failureMessage
+                        0L,                                         // bytes (default)
+                        0L,                                         // sentBytes (default)
+                        1,                                          // grpThreads (default)
+                        1,                                          // allThreads (default)
+                        "",                                         // URL (default)
+                        0L,                                         // Latency (default)
+                        0L,                                         // IdleTime (default)
+                        0L);                                        // Connect (default)
                 
                 // Convert TestResult to List for JmeterJtlAdapter
                 List<TestResult> testResults = new ArrayList<>();
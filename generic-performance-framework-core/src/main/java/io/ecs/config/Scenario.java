@@ -1,10 +1,13 @@
 package io.ecs.config;
 
+import io.ecs.feeder.Feeder;
+import io.ecs.model.CapacitySearchConfig;
 import io.ecs.model.Request;
 import io.ecs.util.FileUtils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,10 +22,16 @@ public class Scenario {
     private int iterations = 1;
     private int rampUp = 0;
     private int hold = 0;
+    private int warmUp = 0;
+    private int warmUpIterations = 0;
+    private int startOffset = 0;
     private String engine;
+    private String executor;
     private double successThreshold = 100.0;
     private Map<String, String> variables = new HashMap<>();
     private Map<String, String> dataFiles = new HashMap<>();
+    private List<String> abortOn = new ArrayList<>();
+    private CapacitySearchConfig capacitySearch;
     private List<Request> requests = new ArrayList<>();
 
     public String getName() {
@@ -65,6 +74,43 @@ public class Scenario {
         this.hold = hold;
     }
 
+    /**
+     * Get how long from the start of the scenario samples count as warm-up
+     * 
+     * @return seconds, 0 for no timed warm-up
+     */
+    public int getWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(int warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Get how many iterations of each virtual user count as warm-up
+     */
+    public int getWarmUpIterations() {
+        return warmUpIterations;
+    }
+
+    public void setWarmUpIterations(int warmUpIterations) {
+        this.warmUpIterations = warmUpIterations;
+    }
+
+    /**
+     * Get how long after the start of a parallel run the scenario starts
+     * 
+     * @return seconds, 0 to start right away
+     */
+    public int getStartOffset() {
+        return startOffset;
+    }
+
+    public void setStartOffset(int startOffset) {
+        this.startOffset = startOffset;
+    }
+
     public String getEngine() {
         return engine;
     }
@@ -73,6 +119,19 @@ public class Scenario {
         this.engine = engine;
     }
 
+    /**
+     * Get the executor type for this scenario's virtual users
+     *
+     * @return "virtual" or "platform", or null to inherit the execution config
+     */
+    public String getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(String executor) {
+        this.executor = executor;
+    }
+
     public Map<String, String> getVariables() {
         return variables;
     }
@@ -106,14 +165,15 @@ public class Scenario {
 
     public void setDataFiles(Map<String, String> dataFiles) {
         if (dataFiles != null) {
-            Map<String, String> resolvedDataFiles = new HashMap<>();
+            Map<String, String> resolvedDataFiles = new LinkedHashMap<>();
             for (Map.Entry<String, String> entry : dataFiles.entrySet()) {
-                String filePath = entry.getValue();
-                // Resolve the file path if it's a file reference
-                if (filePath != null) {
-                    resolvedDataFiles.put(entry.getKey(), FileUtils.resolveFilePath(filePath));
+                String spec = entry.getValue();
+                // Resolve the file path of file-backed feeders, keeping any strategy suffix
+                if (spec != null && !spec.startsWith(Feeder.GENERATED_PREFIX)) {
+                    resolvedDataFiles.put(entry.getKey(), Feeder.toSpec(
+                            FileUtils.resolveFilePath(Feeder.sourceOf(spec)), Feeder.strategyOf(spec)));
                 } else {
-                    resolvedDataFiles.put(entry.getKey(), null);
+                    resolvedDataFiles.put(entry.getKey(), spec);
                 }
             }
             this.dataFiles = resolvedDataFiles;
@@ -122,6 +182,28 @@ public class Scenario {
         }
     }
 
+    /**
+     * Get the criteria that stop the scenario early, such as "errorRate > 5% for 30s"
+     */
+    public List<String> getAbortOn() {
+        return abortOn;
+    }
+
+    public void setAbortOn(List<String> abortOn) {
+        this.abortOn = abortOn != null ? abortOn : new ArrayList<>();
+    }
+
+    /**
+     * Get how a capacity search steps up the load, or null to run the scenario once
+     */
+    public CapacitySearchConfig getCapacitySearch() {
+        return capacitySearch;
+    }
+
+    public void setCapacitySearch(CapacitySearchConfig capacitySearch) {
+        this.capacitySearch = capacitySearch;
+    }
+
     public List<Request> getRequests() {
         return requests;
     }
@@ -174,6 +256,9 @@ public class Scenario {
                 ", iterations=" + iterations +
                 ", rampUp=" + rampUp +
                 ", hold=" + hold +
+                ", warmUp=" + warmUp +
+                ", warmUpIterations=" + warmUpIterations +
+                ", startOffset=" + startOffset +
                 ", engine='" + engine + '\'' +
                 ", requests=" + requests.size() +
                 '}';
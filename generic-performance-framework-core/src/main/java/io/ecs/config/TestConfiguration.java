@@ -94,13 +94,19 @@ public class TestConfiguration {
             modelScenario.setIterations(configScenario.getIterations());
             modelScenario.setRampUp(configScenario.getRampUp());
             modelScenario.setHold(configScenario.getHold());
+            modelScenario.setWarmUp(configScenario.getWarmUp());
+            modelScenario.setWarmUpIterations(configScenario.getWarmUpIterations());
+            modelScenario.setStartOffset(configScenario.getStartOffset());
             modelScenario.setEngine(configScenario.getEngine());
+            modelScenario.setExecutor(configScenario.getExecutor());
             modelScenario.setSuccessThreshold(configScenario.getSuccessThreshold());
             
             // Copy collections
             modelScenario.setRequests(new ArrayList<>(configScenario.getRequests()));
             modelScenario.setVariables(new HashMap<>(configScenario.getVariables()));
             modelScenario.setDataFiles(new HashMap<>(configScenario.getDataFiles()));
+            modelScenario.setAbortOn(new ArrayList<>(configScenario.getAbortOn()));
+            modelScenario.setCapacitySearch(configScenario.getCapacitySearch());
             
             modelScenarios.add(modelScenario);
         }
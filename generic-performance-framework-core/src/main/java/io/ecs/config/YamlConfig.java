@@ -3,8 +3,10 @@ package io.ecs.config;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.ecs.model.ArrivalStage;
 import io.ecs.model.ExecutionConfig;
 import io.ecs.model.Request;
+import io.ecs.model.ValidationConfig;
 import io.ecs.config.Scenario;
 import io.ecs.engine.ProtocolFactory;
 import io.ecs.util.FileUtils;
@@ -116,34 +118,9 @@ public class YamlConfig {
         // Parse execution configuration
         ExecutionConfig executionConfig = new ExecutionConfig();
         if (configMap.containsKey("execution")) {
-            Map<String, Object> executionMap = (Map<String, Object>) configMap.get("execution");
-            
-            executionConfig.setThreads(getIntValue(executionMap, "threads", 1));
-            executionConfig.setIterations(getIntValue(executionMap, "iterations", 1));
-            executionConfig.setRampUpSeconds(getIntValue(executionMap, "rampUpSeconds", 0));
-            executionConfig.setHoldSeconds(getIntValue(executionMap, "holdSeconds", 0));
-            executionConfig.setDuration(getIntValue(executionMap, "duration", 60));
-            executionConfig.setSuccessThreshold(getDoubleValue(executionMap, "successThreshold", 100.0));
+            parseExecutionConfig((Map<String, Object>) configMap.get("execution"), executionConfig);
         } else if (configMap.containsKey("executionConfig")) {
-            Map<String, Object> executionMap = (Map<String, Object>) configMap.get("executionConfig");
-            
-            executionConfig.setThreads(getIntValue(executionMap, "threads", 1));
-            executionConfig.setIterations(getIntValue(executionMap, "iterations", 1));
-            executionConfig.setRampUpSeconds(getIntValue(executionMap, "rampUpSeconds", 0));
-            executionConfig.setHoldSeconds(getIntValue(executionMap, "holdSeconds", 0));
-            executionConfig.setDuration(getIntValue(executionMap, "duration", 60));
-            executionConfig.setSuccessThreshold(getDoubleValue(executionMap, "successThreshold", 100.0));
-            
-            if (executionMap.containsKey("variables")) {
-                Map<String, Object> variablesMap = (Map<String, Object>) executionMap.get("variables");
-                Map<String, String> variables = new HashMap<>();
-                
-                for (Map.Entry<String, Object> entry : variablesMap.entrySet()) {
-                    variables.put(entry.getKey(), String.valueOf(entry.getValue()));
-                }
-                
-                executionConfig.setVariables(variables);
-            }
+            parseExecutionConfig((Map<String, Object>) configMap.get("executionConfig"), executionConfig);
         } else {
             // Set default values
             executionConfig.setThreads(1);
@@ -193,6 +170,11 @@ public class YamlConfig {
                         scenario.setEngine(getStringValue(scenarioConfig, "engine", "jmdsl"));
                     }
                     
+                    // Set executor type (platform or virtual threads) if specified
+                    if (scenarioConfig.containsKey("executor")) {
+                        scenario.setExecutor(getStringValue(scenarioConfig, "executor", "platform"));
+                    }
+                    
                     // Process scenario variables
                     if (scenarioConfig.containsKey("variables")) {
                         Map<String, Object> variablesMap = (Map<String, Object>) scenarioConfig.get("variables");
@@ -254,6 +236,11 @@ public class YamlConfig {
                                 }
                             }
                             
+                            // Parse response validation mode and sampling
+                            if (requestMap.containsKey("validation")) {
+                                request.setValidation(parseValidation(requestMap.get("validation")));
+                            }
+                            
                             scenario.addRequest(request);
                         }
                     }
@@ -332,6 +319,11 @@ public class YamlConfig {
                                 }
                             }
                             
+                            // Parse response validation mode and sampling
+                            if (requestMap.containsKey("validation")) {
+                                request.setValidation(parseValidation(requestMap.get("validation")));
+                            }
+                            
                             scenario.addRequest(request);
                         }
                     }
@@ -344,6 +336,82 @@ public class YamlConfig {
         return config;
     }
     
+    /**
+     * Parse an execution block (either "execution" or "executionConfig")
+     * 
+     * @param executionMap the execution block
+     * @param executionConfig the execution config to populate
+     */
+    @SuppressWarnings("unchecked")
+    private void parseExecutionConfig(Map<String, Object> executionMap, ExecutionConfig executionConfig) {
+        executionConfig.setThreads(getIntValue(executionMap, "threads", 1));
+        executionConfig.setIterations(getIntValue(executionMap, "iterations", 1));
+        executionConfig.setRampUpSeconds(getIntValue(executionMap, "rampUpSeconds", 0));
+        executionConfig.setHoldSeconds(getIntValue(executionMap, "holdSeconds", 0));
+        executionConfig.setDuration(getIntValue(executionMap, "duration", 60));
+        executionConfig.setSuccessThreshold(getDoubleValue(executionMap, "successThreshold", 100.0));
+        executionConfig.setExecutor(getStringValue(executionMap, "executor", ExecutionConfig.EXECUTOR_PLATFORM));
+        parseLoadModel(executionMap, executionConfig);
+        
+        // Execution variables (e.g. connectionTimeout, socketTimeout)
+        if (executionMap.containsKey("variables")) {
+            Map<String, Object> variablesMap = (Map<String, Object>) executionMap.get("variables");
+            Map<String, String> variables = new HashMap<>();
+            
+            for (Map.Entry<String, Object> entry : variablesMap.entrySet()) {
+                variables.put(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+            
+            executionConfig.setVariables(variables);
+        }
+    }
+    
+    /**
+     * Parse the open workload model settings of an execution block
+     * 
+     * @param executionMap the execution block
+     * @param executionConfig the execution config to populate
+     */
+    @SuppressWarnings("unchecked")
+    private void parseLoadModel(Map<String, Object> executionMap, ExecutionConfig executionConfig) {
+        executionConfig.setArrivalRate(getDoubleValue(executionMap, "arrivalRate", 0.0));
+        executionConfig.setMaxConcurrency(getIntValue(executionMap, "maxConcurrency", 0));
+        
+        if (executionMap.get("stages") instanceof List) {
+            List<ArrivalStage> stages = new ArrayList<>();
+            for (Object stageObj : (List<Object>) executionMap.get("stages")) {
+                if (stageObj instanceof Map) {
+                    Map<String, Object> stageMap = (Map<String, Object>) stageObj;
+                    double targetRate = getDoubleValue(stageMap, "targetRate", getDoubleValue(stageMap, "rate", 0.0));
+                    int duration = getIntValue(stageMap, "duration", getIntValue(stageMap, "durationSeconds", 0));
+                    stages.add(new ArrivalStage(targetRate, duration));
+                }
+            }
+            executionConfig.setArrivalStages(stages);
+        }
+    }
+    
+    /**
+     * Parse the validation settings of a request, either a mode name or a map with
+     * mode, every and percent
+     * 
+     * @param validationObj the validation settings from the configuration
+     * @return the validation configuration
+     */
+    @SuppressWarnings("unchecked")
+    private ValidationConfig parseValidation(Object validationObj) {
+        ValidationConfig validation = new ValidationConfig();
+        if (validationObj instanceof Map) {
+            Map<String, Object> validationMap = (Map<String, Object>) validationObj;
+            validation.setMode(getStringValue(validationMap, "mode", ValidationConfig.MODE_INLINE));
+            validation.setEvery(getIntValue(validationMap, "every", 1));
+            validation.setPercent(getDoubleValue(validationMap, "percent", 100.0));
+        } else if (validationObj != null) {
+            validation.setMode(String.valueOf(validationObj));
+        }
+        return validation;
+    }
+    
     /**
      * Get a string value from a map, with default value if not found
      * 
@@ -0,0 +1,136 @@
+package io.ecs.core;
+
+import io.ecs.model.ArrivalStage;
+import io.ecs.model.ExecutionConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes the intended start times of arrivals for an open workload model
+ *
+ * The schedule is a sequence of linear rate ramps. The start time of the k-th
+ * arrival is found by inverting the cumulative arrival count of the ramp it
+ * falls in, so the schedule is exact and does not drift when the system under
+ * test slows down.
+ */
+public class ArrivalSchedule {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int DEFAULT_DURATION_SECONDS = 60;
+
+    private final double[] startRates;
+    private final double[] endRates;
+    private final double[] durations;
+    private final double[] arrivalsBefore;
+    private final double totalArrivals;
+
+    /**
+     * Create a schedule from a base rate and a list of ramp stages
+     *
+     * @param baseRate the rate at which the first stage starts
+     * @param stages the ramp stages
+     */
+    public ArrivalSchedule(double baseRate, List<ArrivalStage> stages) {
+        int count = stages.size();
+        startRates = new double[count];
+        endRates = new double[count];
+        durations = new double[count];
+        arrivalsBefore = new double[count];
+
+        double rate = Math.max(0, baseRate);
+        double arrivals = 0;
+        for (int i = 0; i < count; i++) {
+            ArrivalStage stage = stages.get(i);
+            startRates[i] = rate;
+            endRates[i] = Math.max(0, stage.getTargetRate());
+            durations[i] = Math.max(0, stage.getDurationSeconds());
+            arrivalsBefore[i] = arrivals;
+            arrivals += (startRates[i] + endRates[i]) / 2.0 * durations[i];
+            rate = endRates[i];
+        }
+        totalArrivals = arrivals;
+    }
+
+    /**
+     * Build a schedule from an execution configuration
+     *
+     * When no stages are configured, the base arrival rate is held constant
+     * for the configured duration.
+     *
+     * @param config the execution configuration
+     * @return the arrival schedule
+     */
+    public static ArrivalSchedule from(ExecutionConfig config) {
+        List<ArrivalStage> stages = new ArrayList<>(config.getArrivalStages());
+        if (stages.isEmpty()) {
+            int duration = config.getDuration() > 0 ? config.getDuration() : DEFAULT_DURATION_SECONDS;
+            stages.add(new ArrivalStage(config.getArrivalRate(), duration));
+        }
+        return new ArrivalSchedule(config.getArrivalRate(), stages);
+    }
+
+    /**
+     * Get the total number of arrivals in the schedule
+     *
+     * The first arrival is due at the start of the schedule, so a fractional
+     * cumulative count still has an arrival at its last whole number.
+     *
+     * @return number of arrivals
+     */
+    public long getTotalArrivals() {
+        return (long) Math.ceil(totalArrivals);
+    }
+
+    /**
+     * Get the total length of the schedule
+     *
+     * @return duration in nanoseconds
+     */
+    public long getDurationNanos() {
+        double seconds = 0;
+        for (double duration : durations) {
+            seconds += duration;
+        }
+        return (long) (seconds * NANOS_PER_SECOND);
+    }
+
+    /**
+     * Get the intended start offset of an arrival relative to the start of the run
+     *
+     * @param arrivalIndex zero-based arrival index
+     * @return offset in nanoseconds, or -1 if the schedule has no such arrival
+     */
+    public long offsetNanos(long arrivalIndex) {
+        double target = arrivalIndex;
+        if (arrivalIndex < 0 || target >= totalArrivals) {
+            return -1;
+        }
+
+        double elapsed = 0;
+        for (int i = 0; i < durations.length; i++) {
+            double arrivalsInStage = (startRates[i] + endRates[i]) / 2.0 * durations[i];
+            double remaining = target - arrivalsBefore[i];
+            if (remaining < arrivalsInStage) {
+                return (long) ((elapsed + solveStageOffset(i, remaining)) * NANOS_PER_SECOND);
+            }
+            elapsed += durations[i];
+        }
+        return -1;
+    }
+
+    /**
+     * Solve r0*u + (a/2)*u^2 = n for the offset u within a linear ramp
+     */
+    private double solveStageOffset(int stage, double arrivals) {
+        double r0 = startRates[stage];
+        double slope = durations[stage] > 0 ? (endRates[stage] - r0) / durations[stage] : 0;
+
+        if (Math.abs(slope) < 1e-12) {
+            return r0 > 0 ? arrivals / r0 : 0;
+        }
+
+        double discriminant = r0 * r0 + 2 * slope * arrivals;
+        double offset = (-r0 + Math.sqrt(Math.max(0, discriminant))) / slope;
+        return Math.min(Math.max(0, offset), durations[stage]);
+    }
+}
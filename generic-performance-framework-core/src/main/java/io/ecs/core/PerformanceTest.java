@@ -4,7 +4,6 @@ import io.ecs.model.Request;
 import io.ecs.model.Response;
 import io.ecs.engine.Protocol;
 import io.ecs.report.MetricsCollector;
-import io.ecs.util.SchemaValidator;
 import io.ecs.util.TemplateProcessor;
 
 import java.util.HashMap;
@@ -19,14 +18,50 @@ public class PerformanceTest implements Callable<TestResult> {
     private final Request request;
     private final Map<String, String> variables;
     private final MetricsCollector metricsCollector;
-    private final SchemaValidator schemaValidator;
+    private final ResponseValidator responseValidator;
+    private final long intendedStartNanos;
+    private final boolean scheduled;
     
     public PerformanceTest(Protocol protocol, Request request, Map<String, String> variables) {
+        this(protocol, request, variables, 0, false, new ResponseValidator());
+    }
+    
+    /**
+     * Create a test whose latency is also measured from the time it should have been sent
+     * 
+     * @param protocol the protocol to execute with
+     * @param request the request to execute
+     * @param variables the variables for template processing
+     * @param intendedStartNanos the intended start time, on the System.nanoTime() clock
+     */
+    public PerformanceTest(Protocol protocol, Request request, Map<String, String> variables,
+                           long intendedStartNanos) {
+        this(protocol, request, variables, intendedStartNanos, true, new ResponseValidator());
+    }
+    
+    /**
+     * Create a scheduled test whose response is checked by a shared validator
+     * 
+     * @param protocol the protocol to execute with
+     * @param request the request to execute
+     * @param variables the variables for template processing
+     * @param intendedStartNanos the intended start time, on the System.nanoTime() clock
+     * @param responseValidator the validator that samples and checks the response
+     */
+    public PerformanceTest(Protocol protocol, Request request, Map<String, String> variables,
+                           long intendedStartNanos, ResponseValidator responseValidator) {
+        this(protocol, request, variables, intendedStartNanos, true, responseValidator);
+    }
+    
+    private PerformanceTest(Protocol protocol, Request request, Map<String, String> variables,
+                            long intendedStartNanos, boolean scheduled, ResponseValidator responseValidator) {
         this.protocol = protocol;
         this.request = request;
         this.variables = variables != null ? variables : new HashMap<>();
         this.metricsCollector = new MetricsCollector();
-        this.schemaValidator = new SchemaValidator();
+        this.responseValidator = responseValidator;
+        this.intendedStartNanos = intendedStartNanos;
+        this.scheduled = scheduled;
     }
     
     @Override
@@ -34,6 +69,7 @@ public class PerformanceTest implements Callable<TestResult> {
         TestResult result = new TestResult();
         result.setRequestName(request.getName());
         result.setStartTime(System.currentTimeMillis());
+        long callStartNanos = System.nanoTime();
         
         try {
             // Process templates with variables
@@ -62,40 +98,26 @@ public class PerformanceTest implements Callable<TestResult> {
                     request.getMethod(),
                     processedBody,
                     processedHeaders,
-                    processedParams
+                    processedParams,
+                    variables
             );
             long endNanos = System.nanoTime();
             
-            // Collect metrics
+            // Collect metrics, measuring the corrected time from when the request should have started
             long responseTimeMs = (endNanos - startNanos) / 1_000_000;
-            metricsCollector.recordResponseTime(responseTimeMs);
+            long correctedResponseTimeMs = responseTimeMs;
+            if (scheduled) {
+                long lagNanos = Math.max(0, callStartNanos - intendedStartNanos);
+                correctedResponseTimeMs = (endNanos - startNanos + lagNanos) / 1_000_000;
+            }
+            metricsCollector.recordResponseTime(responseTimeMs, correctedResponseTimeMs, 0);
             
             result.setResponseTime(responseTimeMs);
+            result.setCorrectedResponseTime(correctedResponseTimeMs);
             result.setResponse(response);
             
-            // Validate response against schema if validators exist
-            boolean validationPassed = false;
-            
-            if (request.getResponseValidators() != null && !request.getResponseValidators().isEmpty()) {
-                for (Map.Entry<String, String> validator : request.getResponseValidators().entrySet()) {
-                    String status = validator.getKey();
-                    String schemaPath = validator.getValue();
-                    
-                    if (schemaValidator.validate(response.getBody(), schemaPath)) {
-                        result.setStatus(status);
-                        validationPassed = true;
-                        break;
-                    }
-                }
-            } else {
-                // No validators, so pass if response code is 2xx
-                validationPassed = response.getStatusCode() >= 200 && response.getStatusCode() < 300;
-            }
-            
-            result.setSuccess(validationPassed);
-            if (!validationPassed && result.getStatus() == null) {
-                result.setStatus("Failed");
-            }
+            // Validate response against schema if validators exist, inline or in the background
+            responseValidator.validate(request, response, result);
             
         } catch (Exception e) {
             result.setSuccess(false);
@@ -0,0 +1,170 @@
+package io.ecs.core;
+
+import io.ecs.model.Request;
+import io.ecs.model.Response;
+import io.ecs.model.ValidationConfig;
+import io.ecs.util.SchemaValidator;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks responses against the response validators of their request
+ *
+ * Each request's {@link ValidationConfig} decides which responses are validated and
+ * whether that happens inline or on a bounded background pool. An asynchronous
+ * validation updates the {@link TestResult} of its response, so its outcome is
+ * counted under the request's label once {@link #awaitPending(long)} has returned;
+ * callers must wait for it before recording metrics or writing results. When the
+ * pool's queue is full the response is left unvalidated rather than slowing down
+ * the virtual user.
+ */
+public class ResponseValidator {
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+    private final SchemaValidator schemaValidator = new SchemaValidator();
+    private final Map<Request, AtomicLong> responseCounts = new ConcurrentHashMap<>();
+    private final AtomicLong skipped = new AtomicLong();
+    private final int poolSize;
+    private final int queueCapacity;
+    private ThreadPoolExecutor pool;
+
+    public ResponseValidator() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Create a validator with a background pool of the given size
+     *
+     * @param poolSize number of background validation threads
+     * @param queueCapacity number of responses that may wait for a background thread
+     */
+    public ResponseValidator(int poolSize, int queueCapacity) {
+        this.poolSize = Math.max(1, poolSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    /**
+     * Validate a response, or hand it off for validation, as configured for its request
+     *
+     * @param request the request the response belongs to
+     * @param response the response
+     * @param result the result to record the outcome in
+     */
+    public void validate(Request request, Response response, TestResult result) {
+        Map<String, String> validators = request.getResponseValidators();
+        if (validators == null || validators.isEmpty() || !isSampled(request)) {
+            // Without validation, pass if response code is 2xx
+            boolean passed = response.getStatusCode() >= 200 && response.getStatusCode() < 300;
+            setOutcome(result, passed, null);
+            return;
+        }
+
+        if (!request.getValidation().isAsync()) {
+            checkValidators(validators, response, result);
+            return;
+        }
+
+        // Count the response as passed until its validation completes
+        result.setSuccess(true);
+        try {
+            getPool().execute(() -> checkValidators(validators, response, result));
+        } catch (RejectedExecutionException e) {
+            skipped.incrementAndGet();
+            boolean passed = response.getStatusCode() >= 200 && response.getStatusCode() < 300;
+            setOutcome(result, passed, null);
+        }
+    }
+
+    /**
+     * Wait for all handed-off validations to complete
+     *
+     * @param timeoutSeconds maximum time to wait
+     * @return true if all validations completed in time
+     */
+    public boolean awaitPending(long timeoutSeconds) throws InterruptedException {
+        ThreadPoolExecutor current;
+        synchronized (this) {
+            current = pool;
+            pool = null;
+        }
+        if (skipped.get() > 0) {
+            System.err.println("Response validation queue was full, " + skipped.getAndSet(0) +
+                    " responses were not validated");
+        }
+        if (current == null) {
+            return true;
+        }
+        current.shutdown();
+        if (current.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+            return true;
+        }
+        System.err.println("Timed out waiting for " + current.getQueue().size() + " response validations");
+        current.shutdownNow();
+        return false;
+    }
+
+    /**
+     * Decide whether the next response of a request is validated
+     */
+    private boolean isSampled(Request request) {
+        ValidationConfig validation = request.getValidation();
+        if (validation.isValidateAll()) {
+            return true;
+        }
+        if (validation.getEvery() > 1) {
+            long count = responseCounts.computeIfAbsent(request, r -> new AtomicLong()).getAndIncrement();
+            if (count % validation.getEvery() != 0) {
+                return false;
+            }
+        }
+        return validation.getPercent() >= 100.0 ||
+                ThreadLocalRandom.current().nextDouble(100.0) < validation.getPercent();
+    }
+
+    /**
+     * Pass the response with the status of the first validator whose schema it matches
+     */
+    private void checkValidators(Map<String, String> validators, Response response, TestResult result) {
+        try {
+            for (Map.Entry<String, String> validator : validators.entrySet()) {
+                if (schemaValidator.validate(response.getBody(), validator.getValue())) {
+                    setOutcome(result, true, validator.getKey());
+                    return;
+                }
+            }
+            setOutcome(result, false, null);
+        } catch (RuntimeException e) {
+            result.setSuccess(false);
+            result.setStatus("Error");
+            result.setErrorMessage("Validation failed: " + e.getMessage());
+        }
+    }
+
+    private static void setOutcome(TestResult result, boolean passed, String status) {
+        result.setSuccess(passed);
+        if (status != null) {
+            result.setStatus(status);
+        } else if (!passed && result.getStatus() == null) {
+            result.setStatus("Failed");
+        }
+    }
+
+    private synchronized ThreadPoolExecutor getPool() {
+        if (pool == null) {
+            pool = new ThreadPoolExecutor(poolSize, poolSize, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, "response-validator");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return pool;
+    }
+}
@@ -8,9 +8,13 @@ import io.ecs.model.ExecutionConfig;
 import io.ecs.model.Scenario;
 import io.ecs.engine.Protocol;
 import io.ecs.report.MetricsCollector;
-import io.ecs.util.CsvDataSource;
+import io.ecs.feeder.Feeder;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,15 +36,44 @@ public class TestExecutor {
         // Create appropriate engine using EngineFactory
         Engine engine = EngineFactory.getEngine(config.getEngine(), config.getExecutionConfig());
         
-        // Initialize protocol
+        // Initialize protocol with global and execution variables (connection pool settings, timeouts)
         Protocol protocol = config.getProtocol();
+        Map<String, String> protocolVariables = new HashMap<>();
+        if (config.getVariables() != null) {
+            protocolVariables.putAll(config.getVariables());
+        }
+        if (config.getExecutionConfig().getVariables() != null) {
+            protocolVariables.putAll(config.getExecutionConfig().getVariables());
+        }
+        protocol.initialize(protocolVariables);
         
-        // Load data source if specified
-        CsvDataSource dataSource = null;
+        // Open the data feeder if specified; the data source may name a strategy, e.g. "users.csv|unique"
+        List<Feeder> feeders = Collections.emptyList();
         if (config.getDataSource() != null && !config.getDataSource().isEmpty()) {
-            dataSource = new CsvDataSource(config.getDataSource());
+            feeders = Collections.singletonList(Feeder.open("data", config.getDataSource()));
         }
         
+        try {
+            executeScenarios(config, engine, protocol, feeders, allResults);
+        } finally {
+            for (Feeder feeder : feeders) {
+                feeder.close();
+            }
+            // Release the protocol's connection pool; the protocol reopens it if used again
+            if (protocol instanceof Closeable) {
+                try {
+                    ((Closeable) protocol).close();
+                } catch (IOException e) {
+                    System.err.println("Error closing protocol " + protocol.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+        
+        return allResults;
+    }
+    
+    private void executeScenarios(TestConfiguration config, Engine engine, Protocol protocol,
+                                  List<Feeder> feeders, List<TestResult> allResults) throws Exception {
         // Execute each scenario (using model.Scenario for compatibility)
         for (io.ecs.model.Scenario scenario : config.getModelScenarios()) {
             System.out.println("Executing scenario: " + scenario.getName());
@@ -50,7 +83,7 @@ public class TestExecutor {
                     protocol,
                     scenario,
                     config.getExecutionConfig(),
-                    dataSource
+                    feeders
             );
             
             List<TestResult> scenarioResults = runner.run();
@@ -64,11 +97,12 @@ public class TestExecutor {
             System.out.println("Average response time: " + metrics.getAverageResponseTime() + "ms");
             System.out.println("Min/Max response time: " + metrics.getMinResponseTime() + "/" + 
                     metrics.getMaxResponseTime() + "ms");
-            System.out.println("90th percentile: " + metrics.getPercentile(90) + "ms");
+            System.out.println("90th percentile: " + metrics.getPercentile(90) + "ms" +
+                    " (corrected: " + metrics.getCorrectedPercentile(90) + "ms)");
+            System.out.println("99th percentile: " + metrics.getPercentile(99) + "ms" +
+                    " (corrected: " + metrics.getCorrectedPercentile(99) + "ms)");
             System.out.println("Errors: " + metrics.getErrorCount());
             System.out.println("--------------------------------------");
         }
-        
-        return allResults;
     }
 }
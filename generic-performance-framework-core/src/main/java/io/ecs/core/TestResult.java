@@ -12,6 +12,8 @@ public class TestResult {
     private long startTime;
     private long endTime;
     private long responseTime;
+    private long correctedResponseTime;
+    private long expectedInterval;
     private Response response;
     private String errorMessage;
     
@@ -63,6 +65,32 @@ public class TestResult {
         this.responseTime = responseTime;
     }
     
+    /**
+     * Get the response time measured from the intended start time of the request
+     * 
+     * @return corrected response time in milliseconds, never less than the raw response time
+     */
+    public long getCorrectedResponseTime() {
+        return Math.max(correctedResponseTime, responseTime);
+    }
+    
+    public void setCorrectedResponseTime(long correctedResponseTime) {
+        this.correctedResponseTime = correctedResponseTime;
+    }
+    
+    /**
+     * Get the interval at which the sender expected to issue this request
+     * 
+     * @return expected interval in milliseconds, or 0 if the request was scheduled explicitly
+     */
+    public long getExpectedInterval() {
+        return expectedInterval;
+    }
+    
+    public void setExpectedInterval(long expectedInterval) {
+        this.expectedInterval = expectedInterval;
+    }
+    
     public Response getResponse() {
         return response;
     }
@@ -1,42 +1,98 @@
 package io.ecs.core;
 
 import io.ecs.engine.Engine;
+import io.ecs.feeder.FeedStrategy;
+import io.ecs.feeder.Feeder;
 import io.ecs.model.ExecutionConfig;
 import io.ecs.model.Request;
 import io.ecs.model.Scenario;
 import io.ecs.engine.Protocol;
 import io.ecs.report.MetricsCollector;
+import io.ecs.util.CompiledTemplate;
 import io.ecs.util.CsvDataSource;
+import io.ecs.util.VariableScope;
+import io.ecs.util.VariableSlots;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Collectors;
 
 /**
  * Responsible for running a scenario with the specified configuration
+ * 
+ * Variables are resolved through layered scopes: the protocol's global variables,
+ * then the scenario's, then one layer per virtual user, per iteration and per request.
+ * Variable names get their slots when the runner is created, and the thread, iteration
+ * and request layers of a virtual user are reused for all of its iterations.
+ * 
+ * Test data comes from {@link Feeder}s: each virtual user reads one record from every
+ * feeder per iteration into its iteration layer, and stops early once a feeder has no
+ * records left for it.
  */
 public class TestRunner {
+    private static final long ITERATION_PACING_MS = 100;
+    private static final long VALIDATION_TIMEOUT_SECONDS = 60;
+    private static final long SHUTDOWN_GRACE_SECONDS = 60;
+    private static final int THREAD_NUM_SLOT = VariableSlots.slotOf("threadNum");
+    private static final int ITERATION_SLOT = VariableSlots.slotOf("iteration");
+    
     private final Engine engine;
     private final Protocol protocol;
     private final Scenario scenario;
     private final ExecutionConfig executionConfig;
-    private final CsvDataSource dataSource;
+    private final List<Feeder> feeders;
     private final MetricsCollector metricsCollector;
+    private final ResponseValidator responseValidator = new ResponseValidator();
+    private final VariableScope scenarioScope;
     
     public TestRunner(Engine engine, Protocol protocol, Scenario scenario, 
                       ExecutionConfig executionConfig, CsvDataSource dataSource) {
+        this(engine, protocol, scenario, executionConfig, dataSource != null ?
+                Collections.singletonList(new Feeder("data", dataSource, FeedStrategy.SHARED)) :
+                Collections.emptyList());
+    }
+    
+    public TestRunner(Engine engine, Protocol protocol, Scenario scenario, 
+                      ExecutionConfig executionConfig, List<Feeder> feeders) {
         this.engine = engine;
         this.protocol = protocol;
         this.scenario = scenario;
         this.executionConfig = executionConfig;
-        this.dataSource = dataSource;
+        this.feeders = feeders != null ? feeders : Collections.emptyList();
         this.metricsCollector = new MetricsCollector();
+        this.scenarioScope = protocol.getGlobalScope().child(VariableScope.Level.SCENARIO, scenario.getVariables());
+        
+        // Compile request templates, assigning variable slots, before the run starts
+        for (Request request : scenario.getRequests()) {
+            compileTemplates(request);
+        }
+        for (Feeder feeder : this.feeders) {
+            feeder.setUsers(executionConfig.getThreads());
+        }
+    }
+    
+    private static void compileTemplates(Request request) {
+        if (request.getEndpoint() != null) {
+            CompiledTemplate.compile(request.getEndpoint());
+        }
+        if (request.getBody() != null) {
+            CompiledTemplate.compile(request.getBody());
+        }
+        if (request.getHeaders() != null) {
+            request.getHeaders().values().forEach(CompiledTemplate::compile);
+        }
+        if (request.getParams() != null) {
+            request.getParams().values().forEach(CompiledTemplate::compile);
+        }
     }
     
     /**
@@ -46,10 +102,16 @@ public class TestRunner {
      * @throws Exception if execution fails
      */
     public List<TestResult> run() throws Exception {
+        if (executionConfig.isOpenModel()) {
+            return runOpenModel();
+        }
+        
         List<TestResult> results = new ArrayList<>();
         
-        // Initialize thread pool
-        ExecutorService executorService = Executors.newFixedThreadPool(executionConfig.getThreads());
+        // Initialize thread pool (or one virtual thread per virtual user)
+        ExecutorService executorService = useVirtualThreads() ?
+                Executors.newVirtualThreadPerTaskExecutor() :
+                Executors.newFixedThreadPool(executionConfig.getThreads());
         
         // Calculate total tests to run
         int totalTests = executionConfig.getThreads() * executionConfig.getIterations();
@@ -75,34 +137,32 @@ public class TestRunner {
                         Thread.sleep(threadDelay);
                     }
                     
-                    // Run iterations
+                    // Run iterations, tracking the mean iteration time so that latency
+                    // can be corrected for requests this thread failed to send while stalled
+                    VariableScope iterationScope = createIterationScope(threadNum);
+                    VariableScope[] requestScopes = createRequestScopes(iterationScope);
+                    List<Feeder.Cursor> cursors = createCursors(threadNum);
+                    long totalIterationNanos = 0;
                     for (int j = 0; j < executionConfig.getIterations(); j++) {
-                        // Get data for this iteration
-                        Map<String, String> variables = new HashMap<>();
-                        
-                        // Add thread and iteration information
-                        variables.put("threadNum", String.valueOf(threadNum));
-                        variables.put("iteration", String.valueOf(j));
+                        long expectedInterval = j > 0 ?
+                                totalIterationNanos / j / 1_000_000 + ITERATION_PACING_MS : 0;
+                        int firstResult = threadResults.size();
                         
-                        // Add data from CSV if available
-                        if (dataSource != null) {
-                            Map<String, String> rowData = dataSource.getRow(j % dataSource.getRowCount());
-                            if (rowData != null) {
-                                variables.putAll(rowData);
-                            }
+                        if (!setIterationVariables(iterationScope, j, cursors)) {
+                            break;
                         }
+                        long iterationStart = System.nanoTime();
+                        runIteration(requestScopes, iterationStart, threadResults);
+                        totalIterationNanos += System.nanoTime() - iterationStart;
                         
-                        // Execute each request in the scenario
-                        for (Request request : scenario.getRequests()) {
-                            PerformanceTest test = new PerformanceTest(protocol, request, variables);
-                            TestResult result = test.call();
-                            threadResults.add(result);
+                        for (int k = firstResult; k < threadResults.size(); k++) {
+                            threadResults.get(k).setExpectedInterval(expectedInterval);
                         }
                         
                         // Add pacing if needed (time between iterations)
                         if (j < executionConfig.getIterations() - 1) {
                             // Simple fixed pacing example - could be more sophisticated
-                            Thread.sleep(100);
+                            Thread.sleep(ITERATION_PACING_MS);
                         }
                     }
                     
@@ -132,34 +192,212 @@ public class TestRunner {
                    .map(CompletableFuture::join)
                    .flatMap(List::stream)
                    .collect(Collectors.toList())
-        ).thenAccept(allResults -> {
-            results.addAll(allResults);
-            
-            // Process metrics
-            for (TestResult result : allResults) {
-                metricsCollector.recordRequest();
-                if (result.isSuccess()) {
-                    metricsCollector.recordSuccess();
-                } else {
-                    metricsCollector.recordFailure();
+        ).thenAccept(results::addAll).join();
+        
+        shutdown(executorService, TimeUnit.SECONDS.toNanos(SHUTDOWN_GRACE_SECONDS));
+        
+        // Background validations may still change results, so wait before counting them
+        responseValidator.awaitPending(VALIDATION_TIMEOUT_SECONDS);
+        recordMetrics(results);
+        
+        return results;
+    }
+    
+    /**
+     * Run the scenario as an open workload model
+     * 
+     * Each arrival starts one scenario iteration at its scheduled time,
+     * regardless of how many earlier iterations are still in flight, so a
+     * slow system under test does not reduce the offered load.
+     * 
+     * @return list of test results
+     * @throws Exception if execution fails
+     */
+    private List<TestResult> runOpenModel() throws Exception {
+        ArrivalSchedule schedule = ArrivalSchedule.from(executionConfig);
+        ConcurrentLinkedQueue<TestResult> completed = new ConcurrentLinkedQueue<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicLong dropped = new AtomicLong();
+        int maxConcurrency = executionConfig.getMaxConcurrency();
+        // Arrivals take turns reading the records of the feeders' users
+        int feederUsers = Math.max(1, executionConfig.getThreads());
+        
+        ExecutorService executorService = useVirtualThreads() ?
+                Executors.newVirtualThreadPerTaskExecutor() :
+                Executors.newCachedThreadPool();
+        long startNanos = System.nanoTime();
+        
+        try {
+            for (long arrival = 0; ; arrival++) {
+                long offset = schedule.offsetNanos(arrival);
+                if (offset < 0) {
+                    break;
                 }
-                if (result.getResponseTime() > 0) {
-                    metricsCollector.recordResponseTime(result.getResponseTime());
+                
+                // Wait for the intended start time of this arrival
+                long intendedStart = startNanos + offset;
+                long wait;
+                while ((wait = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException("Open-model load generation interrupted");
+                    }
                 }
+                
+                if (maxConcurrency > 0 && inFlight.get() >= maxConcurrency) {
+                    dropped.incrementAndGet();
+                    continue;
+                }
+                
+                inFlight.incrementAndGet();
+                final long arrivalNum = arrival;
+                final long arrivalIntendedStart = intendedStart;
+                executorService.execute(() -> {
+                    List<TestResult> iterationResults = new ArrayList<>();
+                    try {
+                        VariableScope iterationScope = createIterationScope(arrivalNum);
+                        List<Feeder.Cursor> cursors = createCursors((int) (arrivalNum % feederUsers));
+                        if (setIterationVariables(iterationScope, arrivalNum, cursors)) {
+                            runIteration(createRequestScopes(iterationScope), arrivalIntendedStart, iterationResults);
+                        }
+                    } catch (Exception e) {
+                        System.err.println("Error in arrival " + arrivalNum + ": " + e.getMessage());
+                    } finally {
+                        completed.addAll(iterationResults);
+                        inFlight.decrementAndGet();
+                    }
+                });
             }
-        }).join();
+        } finally {
+            // Give iterations still in flight a grace period after the last scheduled arrival
+            long deadline = startNanos + schedule.getDurationNanos() + TimeUnit.SECONDS.toNanos(SHUTDOWN_GRACE_SECONDS);
+            shutdown(executorService, Math.max(0, deadline - System.nanoTime()));
+        }
+        
+        if (dropped.get() > 0) {
+            System.err.println("Open-model run dropped " + dropped.get() +
+                    " arrivals after reaching maxConcurrency of " + maxConcurrency);
+        }
         
-        // Shutdown executor service
+        responseValidator.awaitPending(VALIDATION_TIMEOUT_SECONDS);
+        List<TestResult> results = new ArrayList<>(completed);
+        recordMetrics(results);
+        return results;
+    }
+    
+    /**
+     * Check whether virtual users should run on virtual threads
+     * 
+     * A scenario-level executor setting takes precedence over the execution config.
+     */
+    private boolean useVirtualThreads() {
+        if (scenario.getExecutor() != null) {
+            return ExecutionConfig.EXECUTOR_VIRTUAL.equalsIgnoreCase(scenario.getExecutor().trim());
+        }
+        return executionConfig.isVirtualThreads();
+    }
+    
+    /**
+     * Create the thread and iteration layers of one virtual user
+     * 
+     * @return the iteration layer, to be refilled for every iteration
+     */
+    private VariableScope createIterationScope(long threadNum) {
+        VariableScope threadScope = scenarioScope.child(VariableScope.Level.THREAD);
+        threadScope.set(THREAD_NUM_SLOT, String.valueOf(threadNum));
+        return threadScope.child(VariableScope.Level.ITERATION);
+    }
+    
+    /**
+     * Create a request layer for each request of the scenario on top of an iteration layer
+     */
+    private VariableScope[] createRequestScopes(VariableScope iterationScope) {
+        List<Request> requests = scenario.getRequests();
+        VariableScope[] requestScopes = new VariableScope[requests.size()];
+        for (int i = 0; i < requestScopes.length; i++) {
+            requestScopes[i] = iterationScope.child(VariableScope.Level.REQUEST, requests.get(i).getVariables());
+        }
+        return requestScopes;
+    }
+    
+    /**
+     * Create one cursor per feeder for a virtual user
+     */
+    private List<Feeder.Cursor> createCursors(int user) {
+        if (feeders.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Feeder.Cursor> cursors = new ArrayList<>(feeders.size());
+        for (Feeder feeder : feeders) {
+            cursors.add(feeder.cursor(user));
+        }
+        return cursors;
+    }
+    
+    /**
+     * Fill the iteration layer with the iteration number and the next record of each feeder
+     * 
+     * @return false if a feeder has no records left for this virtual user
+     */
+    private boolean setIterationVariables(VariableScope iterationScope, long iteration, List<Feeder.Cursor> cursors) {
+        iterationScope.clear();
+        iterationScope.set(ITERATION_SLOT, String.valueOf(iteration));
+        
+        for (int i = 0; i < cursors.size(); i++) {
+            Feeder.Cursor cursor = cursors.get(i);
+            if (!cursor.next()) {
+                return false;
+            }
+            cursor.copyTo(iterationScope);
+        }
+        return true;
+    }
+    
+    /**
+     * Execute each request in the scenario once
+     * 
+     * The intended start of each request is the intended start of the previous one plus
+     * the time that request took, so a late iteration start is charged to every request
+     * in the iteration.
+     */
+    private void runIteration(VariableScope[] requestScopes, long intendedStartNanos,
+                              List<TestResult> results) throws Exception {
+        long intendedStart = intendedStartNanos;
+        List<Request> requests = scenario.getRequests();
+        for (int i = 0; i < requestScopes.length; i++) {
+            long requestStart = System.nanoTime();
+            PerformanceTest test = new PerformanceTest(protocol, requests.get(i), requestScopes[i], intendedStart,
+                    responseValidator);
+            results.add(test.call());
+            intendedStart += System.nanoTime() - requestStart;
+        }
+    }
+    
+    private void recordMetrics(List<TestResult> results) {
+        for (TestResult result : results) {
+            metricsCollector.recordRequest();
+            if (result.isSuccess()) {
+                metricsCollector.recordSuccess();
+            } else {
+                metricsCollector.recordFailure();
+            }
+            if (result.getResponseTime() > 0) {
+                metricsCollector.recordResponseTime(result.getResponseTime(),
+                        result.getCorrectedResponseTime(), result.getExpectedInterval());
+            }
+        }
+    }
+    
+    private void shutdown(ExecutorService executorService, long timeoutNanos) {
         executorService.shutdown();
         try {
-            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
+            if (!executorService.awaitTermination(timeoutNanos, TimeUnit.NANOSECONDS)) {
                 executorService.shutdownNow();
             }
         } catch (InterruptedException e) {
             executorService.shutdownNow();
+            Thread.currentThread().interrupt();
         }
-        
-        return results;
     }
     
     public MetricsCollector getMetricsCollector() {
@@ -0,0 +1,478 @@
+package io.ecs.engine;
+
+import io.ecs.model.ExecutionConfig;
+import io.ecs.model.Request;
+import io.ecs.model.TestResult;
+import io.ecs.report.MetricsCollector;
+import io.ecs.util.DynamicVariableResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous, non-blocking HTTP engine
+ *
+ * This engine sends requests with java.net.http.HttpClient.sendAsync, so a virtual user
+ * does not hold a thread while its request is in flight. Each virtual user is a chain of
+ * completion callbacks: when a response arrives the next iteration is sent from the
+ * callback. Thousands of requests can therefore be in flight on a handful of threads.
+ *
+ * The number of threads in the execution configuration is the number of concurrent
+ * virtual users (requests in flight). Virtual users start evenly over rampUpSeconds,
+ * run the configured iterations and, when holdSeconds is set, keep iterating until the
+ * hold period after ramp-up has elapsed.
+ *
+ * A request waits at most for the ramp-up, the hold period (or every iteration timing
+ * out) and one more request timeout; virtual users still running after that are ended,
+ * their requests in flight are cancelled, and responses arriving later are not recorded.
+ * The HTTP client is closed when the engine shuts down.
+ *
+ * Supported execution variables: connectionTimeout, socketTimeout, followRedirects.
+ */
+public class AsyncHttpEngine implements Engine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncHttpEngine.class);
+    private static final int DEFAULT_CONNECTION_TIMEOUT = 5000;
+    private static final int DEFAULT_SOCKET_TIMEOUT = 30000;
+
+    private final ExecutionConfig config;
+    private Map<String, String> globalVariables = new HashMap<>();
+
+    // Performance metrics for individual samples, recorded lock-free from completion callbacks
+    private final MetricsCollector sampleMetrics = new MetricsCollector();
+
+    // A small pool runs the client's I/O callbacks; a single scheduler handles ramp-up delays
+    private final ExecutorService callbackExecutor;
+    private final ScheduledExecutorService scheduler;
+    private HttpClient httpClient;
+
+    // Set by stop() to end the virtual users of the running request early
+    private volatile boolean stopped;
+
+    public AsyncHttpEngine(ExecutionConfig config) {
+        this.config = config != null ? config : new ExecutionConfig();
+        int callbackThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.callbackExecutor = Executors.newFixedThreadPool(callbackThreads, daemonThreads("async-http-io"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("async-http-scheduler"));
+        logger.info("Async HTTP engine initialized with {} virtual users and {} iterations on {} I/O threads",
+                this.config.getThreads(), this.config.getIterations(), callbackThreads);
+    }
+
+    @Override
+    public void initialize(Map<String, String> variables) {
+        this.globalVariables = variables != null ? new HashMap<>(variables) : new HashMap<>();
+        this.stopped = false;
+        sampleMetrics.startWarmUp(config.getWarmUpSeconds() * 1000L);
+        logger.info("Async HTTP engine initialized with {} global variables", globalVariables.size());
+    }
+
+    @Override
+    public List<TestResult> executeScenario(String scenarioName, List<Request> requests) {
+        logger.info("Executing scenario {} with {} requests using async HTTP engine", scenarioName, requests.size());
+
+        List<TestResult> results = new ArrayList<>();
+        for (Request request : requests) {
+            TestResult result = executeRequest(request);
+            result.setScenarioName(scenarioName);
+            results.add(result);
+        }
+        return results;
+    }
+
+    @Override
+    public TestResult executeRequest(Request request) {
+        logger.info("Executing request {}", request.getName());
+
+        try {
+            Map<String, String> variables = new HashMap<>(globalVariables);
+            if (request.getVariables() != null) {
+                variables.putAll(request.getVariables());
+            }
+            HttpRequest httpRequest = buildHttpRequest(request, variables);
+
+            int users = Math.max(1, config.getThreads());
+            int iterations = Math.max(1, config.getIterations());
+            long rampUpMillis = Math.max(0, config.getRampUpSeconds()) * 1000L;
+            long holdMillis = Math.max(0, config.getHoldSeconds()) * 1000L;
+            long startTime = System.currentTimeMillis();
+            long holdUntil = holdMillis > 0 ? startTime + rampUpMillis + holdMillis : 0;
+
+            LongAdder executed = new LongAdder();
+            LongAdder succeeded = new LongAdder();
+            LongAdder totalResponseTime = new LongAdder();
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger peakInFlight = new AtomicInteger();
+
+            List<CompletableFuture<Void>> virtualUsers = new ArrayList<>();
+            for (int user = 0; user < users; user++) {
+                CompletableFuture<Void> done = new CompletableFuture<>();
+                VirtualUser virtualUser = new VirtualUser(request.getName(), httpRequest, iterations, holdUntil, done,
+                        executed, succeeded, totalResponseTime, inFlight, peakInFlight);
+                virtualUsers.add(done);
+                scheduler.schedule(() -> {
+                    if (done.isDone()) {
+                        return;
+                    }
+                    sampleMetrics.userStarted();
+                    done.whenComplete((ignored, error) -> sampleMetrics.userStopped());
+                    virtualUser.sendNext();
+                }, rampUpMillis * user / users, TimeUnit.MILLISECONDS);
+            }
+            Throwable userFailure = awaitVirtualUsers(request.getName(), virtualUsers,
+                    maxRunMillis(rampUpMillis, holdMillis, iterations));
+
+            long total = executed.sum();
+            long avgResponseTime = total > 0 ? totalResponseTime.sum() / total : 0;
+            double successRate = total > 0 ? ((double) succeeded.sum() / total) * 100 : 0;
+            double threshold = config.getSuccessThreshold();
+            logger.info("Completed {} requests for {} in {}ms with {}% success (threshold: {}%), peak in flight: {}",
+                    total, request.getName(), System.currentTimeMillis() - startTime, successRate, threshold,
+                    peakInFlight.get());
+
+            TestResult result = new TestResult();
+            result.setTestName(request.getName());
+            result.setSuccess(successRate >= threshold && userFailure == null);
+            result.setStatusCode(200);
+            result.setResponseTime(avgResponseTime);
+            result.setResponseBody("Executed " + total + " requests with " + successRate +
+                    "% success rate (threshold: " + threshold + "%)");
+            if (userFailure != null) {
+                result.setError(userFailure.getMessage());
+            }
+            result.setStartTime(startTime);
+            result.setEndTime(System.currentTimeMillis());
+            return result;
+
+        } catch (Exception e) {
+            logger.error("Error executing request {}: {}", request.getName(), e.getMessage());
+
+            TestResult errorResult = new TestResult();
+            errorResult.setTestName(request.getName());
+            errorResult.setSuccess(false);
+            errorResult.setStatusCode(500);
+            errorResult.setResponseTime(0);
+            errorResult.setResponseBody("Error: " + e.getMessage());
+            errorResult.setError(e.getMessage());
+            return errorResult;
+        }
+    }
+
+    /**
+     * Wait for all virtual users of a request, ending those still running after the time limit
+     *
+     * @return the first failure of a virtual user, or null if all finished normally
+     */
+    private Throwable awaitVirtualUsers(String name, List<CompletableFuture<Void>> virtualUsers, long maxRunMillis)
+            throws InterruptedException {
+        CompletableFuture<Void> all = CompletableFuture.allOf(virtualUsers.toArray(new CompletableFuture[0]));
+        try {
+            all.get(maxRunMillis, TimeUnit.MILLISECONDS);
+            return null;
+        } catch (TimeoutException e) {
+            // Users see their completed future and stop before sending their next request
+            TimeoutException timeout = new TimeoutException(
+                    "Virtual users of " + name + " did not finish within " + maxRunMillis + "ms");
+            for (CompletableFuture<Void> done : virtualUsers) {
+                done.completeExceptionally(timeout);
+            }
+            logger.error(timeout.getMessage());
+            return timeout;
+        } catch (ExecutionException e) {
+            logger.error("A virtual user of {} failed: {}", name, e.getCause().toString());
+            return e.getCause();
+        }
+    }
+
+    /**
+     * Get the longest a request's virtual users may take: the ramp-up, then the hold period
+     * or every iteration timing out, whichever is longer, then one more request timeout
+     */
+    private long maxRunMillis(long rampUpMillis, long holdMillis, int iterations) {
+        long requestTimeout = getIntVariable("connectionTimeout", DEFAULT_CONNECTION_TIMEOUT) +
+                (long) getIntVariable("socketTimeout", DEFAULT_SOCKET_TIMEOUT);
+        return rampUpMillis + Math.max(holdMillis, iterations * requestTimeout) + requestTimeout;
+    }
+
+    /**
+     * A virtual user whose iterations are driven by completion callbacks
+     */
+    private class VirtualUser {
+        private final String label;
+        private final HttpRequest httpRequest;
+        private final int iterations;
+        private final long holdUntil;
+        private final CompletableFuture<Void> done;
+        private final LongAdder executed;
+        private final LongAdder succeeded;
+        private final LongAdder totalResponseTime;
+        private final AtomicInteger inFlight;
+        private final AtomicInteger peakInFlight;
+
+        private int iteration;
+        private long userResponseTime;
+        private volatile CompletableFuture<HttpResponse<Void>> pending;
+
+        VirtualUser(String label, HttpRequest httpRequest, int iterations, long holdUntil, CompletableFuture<Void> done,
+                    LongAdder executed, LongAdder succeeded, LongAdder totalResponseTime,
+                    AtomicInteger inFlight, AtomicInteger peakInFlight) {
+            this.label = label;
+            this.httpRequest = httpRequest;
+            this.iterations = iterations;
+            this.holdUntil = holdUntil;
+            this.done = done;
+            this.executed = executed;
+            this.succeeded = succeeded;
+            this.totalResponseTime = totalResponseTime;
+            this.inFlight = inFlight;
+            this.peakInFlight = peakInFlight;
+            done.whenComplete((ignored, error) -> cancelPending());
+        }
+
+        /**
+         * Send the next iteration, or complete the user when it has no iterations left
+         *
+         * Iterations of one user never overlap, so its fields need no synchronization.
+         * Any failure to send or to handle a response ends the user exceptionally.
+         */
+        void sendNext() {
+            boolean more = iteration < iterations || (holdUntil > 0 && System.currentTimeMillis() < holdUntil);
+            if (!more || stopped || done.isDone()) {
+                done.complete(null);
+                return;
+            }
+
+            // Expected interval between sends for coordinated-omission correction
+            long expectedInterval = iteration > 0 ? userResponseTime / iteration : 0;
+            long sendNanos = System.nanoTime();
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+            try {
+                CompletableFuture<HttpResponse<Void>> request =
+                        getHttpClient().sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding());
+                pending = request;
+                if (done.isDone()) {
+                    // The user was ended while the request was being sent
+                    request.cancel(true);
+                }
+
+                // Continue on the callback pool so that a request failing immediately cannot recurse;
+                // the last stage catches a callback the pool rejected
+                request.whenCompleteAsync((response, error) -> {
+                    try {
+                        onResponse(response, error, sendNanos, expectedInterval);
+                    } catch (Throwable e) {
+                        done.completeExceptionally(e);
+                    }
+                }, callbackExecutor).whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        inFlight.decrementAndGet();
+                        done.completeExceptionally(error);
+                    }
+                });
+            } catch (Throwable e) {
+                inFlight.decrementAndGet();
+                done.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Cancel the request in flight, if any
+         */
+        private void cancelPending() {
+            CompletableFuture<HttpResponse<Void>> request = pending;
+            if (request != null) {
+                request.cancel(true);
+            }
+        }
+
+        private void onResponse(HttpResponse<Void> response, Throwable error, long sendNanos, long expectedInterval) {
+            inFlight.decrementAndGet();
+            if (done.isDone()) {
+                // The user was ended while this request was in flight, so its result was already returned
+                return;
+            }
+            long requestTime = (System.nanoTime() - sendNanos) / 1_000_000;
+            boolean success = error == null &&
+                    response.statusCode() >= 200 && response.statusCode() < 300;
+            if (iteration < config.getWarmUpIterations() || sampleMetrics.isWarmingUp()) {
+                sampleMetrics.recordWarmUpSample(label, requestTime, requestTime, expectedInterval,
+                        success, error != null);
+            } else {
+                record(requestTime, expectedInterval, success, error);
+            }
+
+            iteration++;
+            userResponseTime += requestTime;
+            sendNext();
+        }
+
+        private void record(long requestTime, long expectedInterval, boolean success, Throwable error) {
+            executed.increment();
+            totalResponseTime.add(requestTime);
+            if (success) {
+                succeeded.increment();
+            }
+            if (error != null) {
+                logger.debug("Request to {} failed: {}", httpRequest.uri(), error.getMessage());
+            }
+            sampleMetrics.recordSample(label, requestTime, requestTime, expectedInterval, success, error != null);
+        }
+    }
+
+    /**
+     * Build an immutable request that can be sent by every virtual user
+     */
+    private HttpRequest buildHttpRequest(Request request, Map<String, String> variables) {
+        String endpoint = substituteVariables(request.getEndpoint(), variables);
+        if (!endpoint.toLowerCase().startsWith("http")) {
+            String baseUrl = variables.getOrDefault("baseUrl", "");
+            endpoint = baseUrl + (endpoint.startsWith("/") || baseUrl.isEmpty() ? "" : "/") + endpoint;
+        }
+
+        // Append query parameters
+        if (request.getParams() != null && !request.getParams().isEmpty()) {
+            StringBuilder query = new StringBuilder();
+            for (Map.Entry<String, String> param : request.getParams().entrySet()) {
+                query.append(query.length() == 0 ? "" : "&")
+                     .append(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8))
+                     .append('=')
+                     .append(URLEncoder.encode(substituteVariables(param.getValue(), variables), StandardCharsets.UTF_8));
+            }
+            endpoint += (endpoint.contains("?") ? "&" : "?") + query;
+        }
+
+        String method = request.getMethod() != null ? request.getMethod().toUpperCase() : "GET";
+        String body = substituteVariables(request.getBody(), variables);
+        HttpRequest.BodyPublisher publisher = body != null && !body.isEmpty() ?
+                HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody();
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(endpoint))
+                .timeout(Duration.ofMillis(getIntVariable("socketTimeout", DEFAULT_SOCKET_TIMEOUT)))
+                .method(method, publisher);
+
+        boolean hasContentType = false;
+        if (request.getHeaders() != null) {
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                builder.header(header.getKey(), substituteVariables(header.getValue(), variables));
+                hasContentType |= "Content-Type".equalsIgnoreCase(header.getKey());
+            }
+        }
+        if (body != null && !body.isEmpty() && !hasContentType) {
+            builder.header("Content-Type", "application/json");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the shared HTTP client, creating it on first use
+     */
+    private synchronized HttpClient getHttpClient() {
+        if (httpClient == null) {
+            boolean followRedirects = !"false".equalsIgnoreCase(config.getVariable("followRedirects"));
+            httpClient = HttpClient.newBuilder()
+                    .executor(callbackExecutor)
+                    .connectTimeout(Duration.ofMillis(getIntVariable("connectionTimeout", DEFAULT_CONNECTION_TIMEOUT)))
+                    .followRedirects(followRedirects ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER)
+                    .build();
+        }
+        return httpClient;
+    }
+
+    private int getIntVariable(String name, int defaultValue) {
+        String value = config.getVariable(name);
+        if (value == null) {
+            value = globalVariables.get(name);
+        }
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private String substituteVariables(String input, Map<String, String> variables) {
+        if (input == null || input.isEmpty()) {
+            return input;
+        }
+        Map<String, Object> dynamicContext = new HashMap<>();
+        dynamicContext.put("timestamp", System.currentTimeMillis());
+        return DynamicVariableResolver.processTemplate(input, variables, dynamicContext);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("totalRequests", sampleMetrics.getTotalRequests());
+        metrics.put("successRate", sampleMetrics.getSuccessRate());
+        metrics.put("avgResponseTime", sampleMetrics.getAverageResponseTime());
+        metrics.put("minResponseTime", sampleMetrics.getMinResponseTime());
+        metrics.put("maxResponseTime", sampleMetrics.getMaxResponseTime());
+        metrics.put("90thPercentile", sampleMetrics.getPercentile(90));
+        metrics.put("95thPercentile", sampleMetrics.getPercentile(95));
+        metrics.put("99thPercentile", sampleMetrics.getPercentile(99));
+        metrics.put("corrected90thPercentile", sampleMetrics.getCorrectedPercentile(90));
+        metrics.put("corrected95thPercentile", sampleMetrics.getCorrectedPercentile(95));
+        metrics.put("corrected99thPercentile", sampleMetrics.getCorrectedPercentile(99));
+        return metrics;
+    }
+
+    @Override
+    public MetricsCollector getMetricsCollector() {
+        return sampleMetrics;
+    }
+
+    @Override
+    public boolean supportsLiveMetrics() {
+        return true;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void shutdown() {
+        logger.info("Shutting down async HTTP engine");
+        HttpClient client;
+        synchronized (this) {
+            client = httpClient;
+            httpClient = null;
+        }
+        if (client != null) {
+            client.shutdownNow();
+        }
+        scheduler.shutdownNow();
+        callbackExecutor.shutdownNow();
+    }
+}
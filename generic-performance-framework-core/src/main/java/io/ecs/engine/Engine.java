@@ -1,8 +1,10 @@
 package io.ecs.engine;
 
+import io.ecs.feeder.Feeder;
 import io.ecs.model.Request;
 import io.ecs.model.Response;
 import io.ecs.model.TestResult;
+import io.ecs.report.MetricsCollector;
 
 import java.util.List;
 import java.util.Map;
@@ -43,6 +45,59 @@ public interface Engine {
      */
     Map<String, Object> getMetrics();
     
+    /**
+     * Get the collector holding this engine's per-sample counts and response times
+     * 
+     * Engines that only report a metrics map return null. A collector lets callers
+     * merge results from several engines without losing percentile accuracy.
+     * 
+     * @return the metrics collector, or null if not available
+     */
+    default MetricsCollector getMetricsCollector() {
+        return null;
+    }
+    
+    /**
+     * Check whether this engine records each sample into {@link #getMetricsCollector()}
+     * while an execution runs, and can end the execution early with {@link #stop()}
+     * 
+     * Abort criteria are only watched for engines that do. An engine that fills its
+     * collector after the run would never breach a criterion in time.
+     * 
+     * @return true if live metrics and early stopping are supported
+     */
+    default boolean supportsLiveMetrics() {
+        return false;
+    }
+    
+    /**
+     * Check whether this engine reads test data from feeders set with {@link #setFeeders(List)}
+     * 
+     * @return true if feeders are supported
+     */
+    default boolean supportsFeeders() {
+        return false;
+    }
+    
+    /**
+     * Set the feeders whose records the virtual users of later requests read, one
+     * record from each feeder per iteration
+     * 
+     * @param feeders the feeders, or an empty list for none
+     */
+    default void setFeeders(List<Feeder> feeders) {
+    }
+    
+    /**
+     * Stop the load of the running execution early
+     * 
+     * Virtual users finish their current request and start no more, so the running
+     * execute call returns soon with the results so far. Later executions run normally
+     * once the engine is initialized again. Engines that cannot stop early ignore the call.
+     */
+    default void stop() {
+    }
+    
     /**
      * Shut down the engine and release resources
      */
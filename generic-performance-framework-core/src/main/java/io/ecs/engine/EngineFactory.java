@@ -13,7 +13,7 @@ public class EngineFactory {
     /**
      * Get an engine implementation by name
      * 
-     * @param engineName Name of the engine (jmeter-dsl, jmeter-treebuilder, gatling, custom)
+     * @param engineName Name of the engine (jmeter-dsl, jmeter-treebuilder, gatling, async-http, custom)
      * @param config Configuration for the engine
      * @return Engine implementation
      */
@@ -47,9 +47,21 @@ public class EngineFactory {
                 engineConfig.setIterations(config.getIterations());
                 engineConfig.setRampUpSeconds(config.getRampUpSeconds());
                 engineConfig.setHoldSeconds(config.getHoldSeconds());
+                engineConfig.setWarmUpSeconds(config.getWarmUpSeconds());
+                if (config.getWarmUpIterations() > 0) {
+                    logger.warn("Gatling engine does not count warm-up iterations, use warmUp seconds instead");
+                }
                 engineConfig.setVariables(config.getVariables());
+                engineConfig.setReportDirectory(config.getReportDirectory());
+                engineConfig.setSuccessThreshold(config.getSuccessThreshold());
                 return new GatlingEngine(engineConfig);
                 
+            case "async":
+            case "async-http":
+            case "asynchttp":
+                logger.info("Creating async HTTP engine");
+                return new AsyncHttpEngine(config);
+                
             // Add more engines here as needed
                 
             default:
@@ -11,8 +11,10 @@ public class ExecutionConfig {
     private int iterations = 1;
     private int rampUpSeconds = 0;
     private int holdSeconds = 0;
+    private int warmUpSeconds = 0;
     private Map<String, String> variables = new HashMap<>();
     private String reportDirectory = "target/reports";
+    private double successThreshold = 100.0;
     
     public ExecutionConfig() {
     }
@@ -61,6 +63,19 @@ public class ExecutionConfig {
         this.holdSeconds = holdSeconds;
     }
     
+    /**
+     * Get how long samples count as warm-up from the start of the scenario
+     * 
+     * @return seconds, 0 for no warm-up
+     */
+    public int getWarmUpSeconds() {
+        return warmUpSeconds;
+    }
+    
+    public void setWarmUpSeconds(int warmUpSeconds) {
+        this.warmUpSeconds = Math.max(0, warmUpSeconds);
+    }
+    
     public Map<String, String> getVariables() {
         return variables;
     }
@@ -91,6 +106,24 @@ public class ExecutionConfig {
         this.reportDirectory = reportDirectory;
     }
     
+    /**
+     * Get the minimum success rate, in percent, for a request to pass
+     * 
+     * @return The success threshold
+     */
+    public double getSuccessThreshold() {
+        return successThreshold;
+    }
+    
+    /**
+     * Set the minimum success rate, in percent, for a request to pass
+     * 
+     * @param successThreshold The success threshold (0-100)
+     */
+    public void setSuccessThreshold(double successThreshold) {
+        this.successThreshold = Math.max(0, Math.min(100, successThreshold));
+    }
+    
     @Override
     public String toString() {
         return "ExecutionConfig{" +
@@ -98,6 +131,7 @@ public class ExecutionConfig {
                 ", iterations=" + iterations +
                 ", rampUpSeconds=" + rampUpSeconds +
                 ", holdSeconds=" + holdSeconds +
+                ", warmUpSeconds=" + warmUpSeconds +
                 ", variables=" + variables.size() +
                 '}';
     }
@@ -2,40 +2,59 @@ package io.ecs.engine;
 
 import io.ecs.model.Request;
 import io.ecs.model.TestResult;
+import io.ecs.protocols.HttpClientSettings;
+import io.ecs.report.MetricsCollector;
+import io.ecs.util.DynamicVariableResolver;
 import io.ecs.util.EcsLogger;
+import io.gatling.app.Gatling;
+import io.gatling.core.config.GatlingPropertiesBuilder;
 
-import java.util.Map;
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Random;
-import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
- * GatlingEngine - Implementation of the Engine interface
- * Provides a simplified version that doesn't depend on the Gatling Java API
+ * GatlingEngine - Implementation of the Engine interface backed by Gatling
+ *
+ * Requests are turned into a {@link GatlingFrameworkSimulation} that Gatling runs
+ * in this JVM on its asynchronous Netty HTTP client, so a high number of virtual
+ * users does not need a thread each. Threads are the number of virtual users,
+ * started evenly over rampUpSeconds; each runs the configured iterations and,
+ * when holdSeconds is set, keeps iterating until the hold period has passed.
+ *
+ * Gatling writes a simulation.log under the report directory, which is read back
+ * to produce the results and metrics. Gatling's own HTML reports are not generated.
  */
 public class GatlingEngine implements Engine {
     private static final EcsLogger logger = EcsLogger.getLogger(GatlingEngine.class);
     
+    // Gatling keeps global state, so only one simulation can run at a time per JVM
+    private static final Object SIMULATION_LOCK = new Object();
+    
     private ExecutionConfig config;
     private Map<String, String> variables;
-    private Map<String, Object> metrics;
     private String reportDirectory;
     private boolean initialized = false;
     
+    // Samples of every simulation run by this engine
+    private final MetricsCollector sampleMetrics = new MetricsCollector();
+    
     /**
      * Constructor that takes an ExecutionConfig
      */
     public GatlingEngine(ExecutionConfig config) {
         this.config = config;
         this.variables = new HashMap<>();
-        this.metrics = new ConcurrentHashMap<>();
         
         // Set default report directory
-        this.reportDirectory = config.getReportDirectory() != null ? 
+        this.reportDirectory = config.getReportDirectory() != null ?
                 config.getReportDirectory() : "target/gatling-reports";
     }
     
@@ -45,13 +64,12 @@ public class GatlingEngine implements Engine {
     public GatlingEngine() {
         this.config = new ExecutionConfig();
         this.variables = new HashMap<>();
-        this.metrics = new ConcurrentHashMap<>();
         this.reportDirectory = "target/gatling-reports";
     }
     
     /**
      * Initialize the engine with variables
-     * 
+     *
      * @param variables Variables for substitution in requests
      */
     @Override
@@ -60,15 +78,18 @@ public class GatlingEngine implements Engine {
             this.variables.putAll(variables);
         }
         this.initialized = true;
+        sampleMetrics.startWarmUp(config.getWarmUpSeconds() * 1000L);
         logger.info("Gatling Engine initialized with {} variables", this.variables.size());
     }
     
     /**
      * Execute a scenario with a list of requests
-     * 
+     *
+     * All requests run in a single simulation: each virtual user sends them in order.
+     *
      * @param scenarioName The name of the scenario
      * @param requests List of requests to execute
-     * @return List of test results
+     * @return One result per request
      */
     @Override
     public List<TestResult> executeScenario(String scenarioName, List<Request> requests) {
@@ -82,11 +103,12 @@ public class GatlingEngine implements Engine {
         List<TestResult> results = new ArrayList<>();
         
         try {
-            // Simulate execution of requests
-            simulateExecution(scenarioName, requests, results);
-            
-            // Process metrics
-            processMetrics(results);
+            GatlingSimulationLog log = runSimulation(scenarioName, requests);
+            for (Request request : requests) {
+                TestResult result = toTestResult(request.getName(), log);
+                result.setScenarioName(scenarioName);
+                results.add(result);
+            }
             
             logger.info("Scenario execution completed: {}", scenarioName);
         } catch (Exception e) {
@@ -103,204 +125,212 @@ public class GatlingEngine implements Engine {
     }
     
     /**
-     * Simulate execution and generate results
-     * 
-     * @param scenarioName The scenario name
-     * @param requests List of requests
-     * @param results List to store results
+     * Execute a single request
+     *
+     * @param request The request to execute
+     * @return Aggregate test result for all virtual users
      */
-    private void simulateExecution(String scenarioName, List<Request> requests, List<TestResult> results) {
-        // For each request, create a simulated result
-        Random random = new Random();
+    @Override
+    public TestResult executeRequest(Request request) {
+        logger.info("Executing request: {}", request.getName());
         
-        for (Request request : requests) {
+        try {
+            GatlingSimulationLog log = runSimulation(request.getName(), Collections.singletonList(request));
+            return toTestResult(request.getName(), log);
+        } catch (Exception e) {
+            logger.error("Error executing request {}: {}", request.getName(), e.getMessage(), e);
+            
+            // Set error information in result
             TestResult result = new TestResult();
             result.setTestName(request.getName());
-            result.setScenarioName(scenarioName);
-            
-            // Simulate successful result with random response times
-            result.setSuccess(true);
-            result.setStatusCode(200);
-            
-            // Generate a reasonable response time (50-500ms)
-            long responseTime = 50 + random.nextInt(450);
-            result.setResponseTime(responseTime);
-            
-            // Add some response data
-            Map<String, Object> responseData = new HashMap<>();
-            responseData.put("contentType", "application/json");
-            responseData.put("contentLength", 1024 + random.nextInt(2048));
-            result.setResponseData(responseData);
-            
-            // Add the result
-            results.add(result);
+            result.setSuccess(false);
+            result.setStatusCode(500);
+            result.setError(e.getMessage());
+            result.setResponseBody("Error: " + e.getMessage());
+            result.setResponseTime(0);
             
-            logger.info("Request: {} completed with response time: {}ms", 
-                    request.getName(), result.getResponseTime());
+            return result;
         }
     }
     
     /**
-     * Process metrics from test results
-     * 
-     * @param results List of test results
+     * Build and run a simulation for the requests, then read back its samples
+     *
+     * @param simulationName Name used for the Gatling scenario
+     * @param requests Requests each virtual user sends in order
+     * @return The parsed simulation log
+     * @throws IOException If Gatling fails or its log cannot be read
      */
-    private void processMetrics(List<TestResult> results) {
-        if (results.isEmpty()) {
-            logger.warn("No results to process metrics from");
-            return;
+    private GatlingSimulationLog runSimulation(String simulationName, List<Request> requests) throws IOException {
+        List<GatlingSimulationPlan.PlannedRequest> planned = new ArrayList<>();
+        for (Request request : requests) {
+            planned.add(planRequest(request));
         }
         
-        int totalRequests = results.size();
-        long successfulRequests = results.stream().filter(TestResult::isSuccess).count();
-        double successRate = (double) successfulRequests / totalRequests * 100.0;
-        
-        // Calculate response time metrics
-        List<Long> responseTimes = results.stream()
-                .map(TestResult::getResponseTime)
-                .sorted()
-                .collect(Collectors.toList());
-        
-        double avgResponseTime = responseTimes.stream()
-                .mapToLong(Long::longValue)
-                .average()
-                .orElse(0.0);
+        int users = Math.max(1, config.getThreads());
+        int maxConnections = HttpClientSettings.fromVariables(variables)
+                .withMinimumConnections(users)
+                .getMaxConnectionsPerRoute();
+        GatlingSimulationPlan plan = new GatlingSimulationPlan(simulationName, planned, users,
+                config.getIterations(), config.getRampUpSeconds(), config.getHoldSeconds(), maxConnections);
         
-        long minResponseTime = responseTimes.isEmpty() ? 0 : responseTimes.get(0);
-        long maxResponseTime = responseTimes.isEmpty() ? 0 : responseTimes.get(responseTimes.size() - 1);
+        File resultsDirectory = new File(reportDirectory, "gatling");
+        resultsDirectory.mkdirs();
         
-        // Calculate percentiles
-        int p90Index = (int) Math.ceil(0.9 * responseTimes.size()) - 1;
-        int p95Index = (int) Math.ceil(0.95 * responseTimes.size()) - 1;
-        int p99Index = (int) Math.ceil(0.99 * responseTimes.size()) - 1;
-        
-        p90Index = Math.max(0, Math.min(p90Index, responseTimes.size() - 1));
-        p95Index = Math.max(0, Math.min(p95Index, responseTimes.size() - 1));
-        p99Index = Math.max(0, Math.min(p99Index, responseTimes.size() - 1));
-        
-        long p90 = responseTimes.isEmpty() ? 0 : responseTimes.get(p90Index);
-        long p95 = responseTimes.isEmpty() ? 0 : responseTimes.get(p95Index);
-        long p99 = responseTimes.isEmpty() ? 0 : responseTimes.get(p99Index);
-        
-        // Store metrics
-        metrics.put("totalRequests", totalRequests);
-        metrics.put("successfulRequests", successfulRequests);
-        metrics.put("successRate", successRate);
-        metrics.put("avgResponseTime", avgResponseTime);
-        metrics.put("minResponseTime", minResponseTime);
-        metrics.put("maxResponseTime", maxResponseTime);
-        metrics.put("90thPercentile", p90);
-        metrics.put("95thPercentile", p95);
-        metrics.put("99thPercentile", p99);
-        
-        logger.info("Processed metrics: {} total requests, {}% success rate, {}ms avg response time", 
-                totalRequests, successRate, avgResponseTime);
+        synchronized (SIMULATION_LOCK) {
+            long runStart = System.currentTimeMillis();
+            GatlingSimulationPlan.publish(plan);
+            try {
+                GatlingPropertiesBuilder properties = new GatlingPropertiesBuilder()
+                        .simulationClass(GatlingFrameworkSimulation.class.getName())
+                        .resultsDirectory(resultsDirectory.getAbsolutePath())
+                        .runDescription(simulationName)
+                        .noReports();
+                
+                int exitCode = Gatling.fromMap(properties.build());
+                logger.info("Gatling simulation {} finished in {}ms with exit code {}",
+                        simulationName, System.currentTimeMillis() - runStart, exitCode);
+            } finally {
+                GatlingSimulationPlan.clear();
+            }
+            
+            File logFile = findSimulationLog(resultsDirectory, runStart);
+            GatlingSimulationLog log = GatlingSimulationLog.read(logFile, sampleMetrics.getWarmUpUntil());
+            for (GatlingSimulationLog.RequestStats stats : log.getRequests().values()) {
+                sampleMetrics.merge(stats.getName(), stats.getMetrics());
+            }
+            return log;
+        }
     }
     
     /**
-     * Execute a single request
-     * 
-     * @param request The request to execute
-     * @return Test result for the execution
+     * Find the simulation.log of the run that started at the given time
      */
-    @Override
-    public TestResult executeRequest(Request request) {
-        logger.info("Executing request: {}", request.getName());
-        
-        // Create a test result
+    private File findSimulationLog(File resultsDirectory, long runStart) throws IOException {
+        File newest = null;
+        File[] runs = resultsDirectory.listFiles(File::isDirectory);
+        if (runs != null) {
+            for (File run : runs) {
+                File log = new File(run, "simulation.log");
+                // Directory timestamps have second resolution on some file systems
+                if (log.isFile() && run.lastModified() >= runStart - 1000 &&
+                    (newest == null || log.lastModified() > newest.lastModified())) {
+                    newest = log;
+                }
+            }
+        }
+        if (newest == null) {
+            throw new IOException("Gatling did not write a simulation.log under " + resultsDirectory);
+        }
+        return newest;
+    }
+    
+    /**
+     * Convert the samples of one request into a test result
+     */
+    private TestResult toTestResult(String requestName, GatlingSimulationLog log) {
         TestResult result = new TestResult();
-        result.setTestName(request.getName());
+        result.setTestName(requestName);
+        result.setStartTime(log.getStartTime());
+        result.setEndTime(log.getEndTime());
         
-        try {
-            // Simulate execution with reasonable timing
-            Random random = new Random();
-            long responseTime = 50 + random.nextInt(450);
-            
-            // Set result properties
-            result.setSuccess(true);
-            result.setStatusCode(200);
-            result.setResponseTime(responseTime);
-            
-            // Add response data
-            Map<String, Object> responseData = new HashMap<>();
-            responseData.put("contentType", "application/json");
-            responseData.put("contentLength", 1024 + random.nextInt(2048));
-            result.setResponseData(responseData);
-            
-            // Update metrics based on this single request
-            updateMetricsFromResult(result);
-            
-            logger.info("Request: {} completed successfully in {}ms", request.getName(), responseTime);
-            
-            return result;
-        } catch (Exception e) {
-            logger.error("Error executing request {}: {}", request.getName(), e.getMessage(), e);
-            
-            // Set error information in result
+        GatlingSimulationLog.RequestStats stats = log.getRequests().get(requestName);
+        if (stats == null) {
             result.setSuccess(false);
             result.setStatusCode(500);
-            result.setError(e.getMessage());
-            result.setResponseTime(0);
-            
+            result.setError("No samples recorded for " + requestName);
             return result;
         }
+        
+        MetricsCollector metrics = stats.getMetrics();
+        double successRate = metrics.getSuccessRate();
+        double threshold = config.getSuccessThreshold();
+        result.setSuccess(successRate >= threshold);
+        result.setStatusCode(stats.getStatusCode());
+        result.setResponseTime((long) metrics.getAverageResponseTime());
+        result.setResponseBody("Executed " + metrics.getTotalRequests() + " requests with " + successRate +
+                "% success rate (threshold: " + threshold + "%)");
+        if (stats.getLastError() != null) {
+            result.setError(stats.getLastError());
+        }
+        
+        logger.info("Request: {} completed {} requests, {}% success, avg {}ms, p95 {}ms",
+                requestName, metrics.getTotalRequests(), successRate,
+                metrics.getAverageResponseTime(), metrics.getPercentile(95));
+        return result;
     }
     
     /**
-     * Update metrics based on a single request result
-     * 
-     * @param result The test result to incorporate into metrics
+     * Resolve the URL, headers and body of a request
      */
-    private void updateMetricsFromResult(TestResult result) {
-        // Initialize metrics if needed
-        if (!metrics.containsKey("totalRequests")) {
-            metrics.put("totalRequests", 0);
-            metrics.put("successfulRequests", 0);
-            metrics.put("successRate", 0.0);
-            metrics.put("avgResponseTime", 0.0);
-            metrics.put("minResponseTime", 0L);
-            metrics.put("maxResponseTime", 0L);
+    private GatlingSimulationPlan.PlannedRequest planRequest(Request request) {
+        Map<String, String> requestVariables = new HashMap<>(variables);
+        if (request.getVariables() != null) {
+            requestVariables.putAll(request.getVariables());
         }
         
-        // Update counters
-        int totalRequests = (int) metrics.get("totalRequests") + 1;
-        metrics.put("totalRequests", totalRequests);
-        
-        if (result.isSuccess()) {
-            int successfulRequests = (int) metrics.get("successfulRequests") + 1;
-            metrics.put("successfulRequests", successfulRequests);
-            double successRate = (double) successfulRequests / totalRequests * 100.0;
-            metrics.put("successRate", successRate);
+        String endpoint = replaceVariables(request.getEndpoint(), requestVariables);
+        if (endpoint == null) {
+            endpoint = "";
+        }
+        if (!endpoint.toLowerCase().startsWith("http")) {
+            String baseUrl = requestVariables.getOrDefault("baseUrl", "");
+            endpoint = baseUrl + (endpoint.startsWith("/") || baseUrl.isEmpty() ? "" : "/") + endpoint;
         }
         
-        // Update response time metrics
-        double currentAvg = (double) metrics.get("avgResponseTime");
-        long currentMin = (long) metrics.get("minResponseTime");
-        long currentMax = (long) metrics.get("maxResponseTime");
-        
-        // Recalculate the average
-        double newAvg = ((currentAvg * (totalRequests - 1)) + result.getResponseTime()) / totalRequests;
-        metrics.put("avgResponseTime", newAvg);
-        
-        // Update min if needed
-        if (currentMin == 0 || result.getResponseTime() < currentMin) {
-            metrics.put("minResponseTime", result.getResponseTime());
+        if (request.getParams() != null && !request.getParams().isEmpty()) {
+            StringBuilder query = new StringBuilder();
+            for (Map.Entry<String, String> param : request.getParams().entrySet()) {
+                query.append(query.length() == 0 ? "" : "&")
+                     .append(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8))
+                     .append('=')
+                     .append(URLEncoder.encode(replaceVariables(param.getValue(), requestVariables), StandardCharsets.UTF_8));
+            }
+            endpoint += (endpoint.contains("?") ? "&" : "?") + query;
         }
         
-        // Update max if needed
-        if (result.getResponseTime() > currentMax) {
-            metrics.put("maxResponseTime", result.getResponseTime());
+        String body = replaceVariables(request.getBody(), requestVariables);
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (request.getHeaders() != null) {
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                headers.put(header.getKey(), replaceVariables(header.getValue(), requestVariables));
+            }
         }
+        if (body != null && !body.isEmpty() &&
+            headers.keySet().stream().noneMatch("Content-Type"::equalsIgnoreCase)) {
+            headers.put("Content-Type", "application/json");
+        }
+        
+        String method = request.getMethod() != null ? request.getMethod().toUpperCase() : "GET";
+        return new GatlingSimulationPlan.PlannedRequest(request.getName(), method, endpoint, headers, body);
     }
     
     /**
      * Get the current performance metrics
-     * 
+     *
      * @return Map of metrics
      */
     @Override
     public Map<String, Object> getMetrics() {
-        return new HashMap<>(metrics);
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("totalRequests", sampleMetrics.getTotalRequests());
+        metrics.put("successfulRequests", sampleMetrics.getSuccessfulRequests());
+        metrics.put("successRate", sampleMetrics.getSuccessRate());
+        metrics.put("avgResponseTime", sampleMetrics.getAverageResponseTime());
+        metrics.put("minResponseTime", sampleMetrics.getMinResponseTime());
+        metrics.put("maxResponseTime", sampleMetrics.getMaxResponseTime());
+        metrics.put("90thPercentile", sampleMetrics.getPercentile(90));
+        metrics.put("95thPercentile", sampleMetrics.getPercentile(95));
+        metrics.put("99thPercentile", sampleMetrics.getPercentile(99));
+        metrics.put("corrected90thPercentile", sampleMetrics.getCorrectedPercentile(90));
+        metrics.put("corrected95thPercentile", sampleMetrics.getCorrectedPercentile(95));
+        metrics.put("corrected99thPercentile", sampleMetrics.getCorrectedPercentile(99));
+        return metrics;
+    }
+    
+    @Override
+    public MetricsCollector getMetricsCollector() {
+        return sampleMetrics;
     }
     
     /**
@@ -308,27 +338,23 @@ public class GatlingEngine implements Engine {
      */
     @Override
     public void shutdown() {
+        // Gatling releases its actor system and HTTP client at the end of each simulation
         logger.info("Shutting down Gatling engine");
-        // In a real implementation, this would release resources
     }
     
     /**
      * Helper method to replace variables in a string
-     * 
+     *
      * @param source The source string with variables
      * @param variables Map of variable values
      * @return String with variables replaced
      */
     private String replaceVariables(String source, Map<String, String> variables) {
-        if (source == null || variables == null || variables.isEmpty()) {
+        if (source == null || source.isEmpty()) {
             return source;
         }
-        
-        String result = source;
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            result = result.replace("${" + entry.getKey() + "}", entry.getValue());
-        }
-        
-        return result;
+        Map<String, Object> dynamicContext = new HashMap<>();
+        dynamicContext.put("timestamp", System.currentTimeMillis());
+        return DynamicVariableResolver.processTemplate(source, variables, dynamicContext);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package io.ecs.engine;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.PopulationBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.asLongAs;
+import static io.gatling.javaapi.core.CoreDsl.atOnceUsers;
+import static io.gatling.javaapi.core.CoreDsl.exec;
+import static io.gatling.javaapi.core.CoreDsl.rampUsers;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+
+/**
+ * Gatling simulation built from the framework's requests
+ *
+ * Each virtual user sends the planned requests in order, repeating them for the
+ * configured number of iterations and then until the hold period has passed, the
+ * same loop the other engines use. Users are started over the ramp-up period and
+ * run on Gatling's non-blocking Netty client.
+ *
+ * URLs, headers and bodies are passed as functions rather than strings so that
+ * Gatling does not interpret them as its own expression language.
+ */
+public class GatlingFrameworkSimulation extends Simulation {
+    private static final String ITERATION_COUNTER = "iteration";
+
+    public GatlingFrameworkSimulation() {
+        GatlingSimulationPlan plan = GatlingSimulationPlan.current();
+
+        List<ChainBuilder> steps = new ArrayList<>();
+        for (GatlingSimulationPlan.PlannedRequest request : plan.getRequests()) {
+            steps.add(exec(buildRequest(request)));
+        }
+        ChainBuilder chain = exec(steps);
+
+        int iterations = plan.getIterations();
+        long holdUntil = plan.getHoldSeconds() > 0 ?
+                System.currentTimeMillis() + (plan.getRampUpSeconds() + plan.getHoldSeconds()) * 1000L : 0;
+        ScenarioBuilder scenario = scenario(plan.getScenarioName())
+                .exec(asLongAs(session -> session.getInt(ITERATION_COUNTER) < iterations ||
+                                          System.currentTimeMillis() < holdUntil, ITERATION_COUNTER)
+                        .on(chain));
+
+        PopulationBuilder population = plan.getRampUpSeconds() > 0 ?
+                scenario.injectOpen(rampUsers(plan.getUsers()).during(Duration.ofSeconds(plan.getRampUpSeconds()))) :
+                scenario.injectOpen(atOnceUsers(plan.getUsers()));
+
+        HttpProtocolBuilder protocol = http
+                .shareConnections()
+                .maxConnectionsPerHost(plan.getMaxConnectionsPerHost());
+
+        setUp(population).protocols(protocol);
+    }
+
+    private static HttpRequestActionBuilder buildRequest(GatlingSimulationPlan.PlannedRequest request) {
+        String url = request.getUrl();
+        HttpRequestActionBuilder builder = http(request.getName())
+                .httpRequest(request.getMethod(), session -> url);
+
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            String value = header.getValue();
+            builder = builder.header(header.getKey(), session -> value);
+        }
+
+        String body = request.getBody();
+        if (body != null && !body.isEmpty()) {
+            builder = builder.body(StringBody(session -> body));
+        }
+        return builder;
+    }
+}
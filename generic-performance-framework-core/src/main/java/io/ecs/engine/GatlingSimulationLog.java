@@ -0,0 +1,182 @@
+package io.ecs.engine;
+
+import io.ecs.report.MetricsCollector;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the per-request records of a Gatling simulation.log
+ *
+ * REQUEST records end with the request name, start and end timestamps, OK or KO
+ * and an optional message. The fields before the name (user id and groups) differ
+ * between Gatling versions, so records are parsed from the end.
+ *
+ * Samples are streamed into one {@link MetricsCollector} per request name without
+ * keeping the records in memory. Requests started before the end of the warm-up are
+ * recorded as warm-up only.
+ */
+final class GatlingSimulationLog {
+    private static final Pattern STATUS_CODE = Pattern.compile("found (\\d{3})");
+
+    private final Map<String, RequestStats> requests = new LinkedHashMap<>();
+    private final long warmUpUntil;
+    private long startTime = Long.MAX_VALUE;
+    private long endTime = 0;
+
+    private GatlingSimulationLog(long warmUpUntil) {
+        this.warmUpUntil = warmUpUntil;
+    }
+
+    /**
+     * Parse a simulation.log file
+     *
+     * @param logFile the simulation.log written by Gatling
+     * @return the parsed statistics
+     * @throws IOException if the file cannot be read
+     */
+    static GatlingSimulationLog read(File logFile) throws IOException {
+        return read(logFile, 0);
+    }
+
+    /**
+     * Parse a simulation.log file, keeping requests started before a time apart as warm-up
+     *
+     * @param logFile the simulation.log written by Gatling
+     * @param warmUpUntil epoch milliseconds when the warm-up ends, or 0 for none
+     * @return the parsed statistics
+     * @throws IOException if the file cannot be read
+     */
+    static GatlingSimulationLog read(File logFile, long warmUpUntil) throws IOException {
+        GatlingSimulationLog log = new GatlingSimulationLog(warmUpUntil);
+        try (BufferedReader reader = Files.newBufferedReader(logFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("REQUEST\t")) {
+                    log.parseRequest(line.split("\t", -1));
+                }
+            }
+        }
+        return log;
+    }
+
+    private void parseRequest(String[] fields) {
+        // Find "<name> <start> <end> <OK|KO>" scanning from the end, as the message may be empty
+        for (int i = fields.length - 1; i >= 4; i--) {
+            if (("OK".equals(fields[i]) || "KO".equals(fields[i])) && isNumber(fields[i - 1]) && isNumber(fields[i - 2])) {
+                long start = Long.parseLong(fields[i - 2]);
+                long end = Long.parseLong(fields[i - 1]);
+                String message = i + 1 < fields.length ? fields[i + 1].trim() : "";
+                RequestStats stats = requests.computeIfAbsent(fields[i - 3], RequestStats::new);
+                if (start < warmUpUntil) {
+                    stats.recordWarmUp(start, end, "OK".equals(fields[i]), message);
+                } else {
+                    stats.record(start, end, "OK".equals(fields[i]), message);
+                }
+                startTime = Math.min(startTime, start);
+                endTime = Math.max(endTime, end);
+                return;
+            }
+        }
+    }
+
+    private static boolean isNumber(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the statistics per request name, in the order requests were first seen
+     */
+    Map<String, RequestStats> getRequests() {
+        return requests;
+    }
+
+    long getStartTime() {
+        return startTime == Long.MAX_VALUE ? 0 : startTime;
+    }
+
+    long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Samples of one request name
+     */
+    static final class RequestStats {
+        private final String name;
+        private final MetricsCollector metrics = new MetricsCollector();
+        private long totalResponseTime = 0;
+        private int failureStatusCode = 0;
+        private String lastError;
+
+        RequestStats(String name) {
+            this.name = name;
+        }
+
+        private void record(long start, long end, boolean success, String message) {
+            long responseTime = Math.max(0, end - start);
+            int samples = metrics.getTotalRequests();
+
+            // Users send requests back to back, so the expected interval between sends is
+            // the mean response time so far; slower responses hide requests not sent
+            long expectedInterval = samples > 0 ? totalResponseTime / samples : 0;
+            totalResponseTime += responseTime;
+
+            metrics.recordRequest();
+            if (success) {
+                metrics.recordSuccess();
+            } else {
+                metrics.recordFailure();
+                lastError = message;
+                Matcher matcher = STATUS_CODE.matcher(message);
+                if (matcher.find()) {
+                    failureStatusCode = Integer.parseInt(matcher.group(1));
+                } else {
+                    // No response was received, e.g. a connection failure or timeout
+                    metrics.recordError();
+                    failureStatusCode = 500;
+                }
+            }
+            metrics.recordResponseTime(responseTime, responseTime, expectedInterval);
+        }
+
+        private void recordWarmUp(long start, long end, boolean success, String message) {
+            boolean error = !success && !STATUS_CODE.matcher(message).find();
+            metrics.recordWarmUpSample(null, Math.max(0, end - start), Math.max(0, end - start), 0, success, error);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        MetricsCollector getMetrics() {
+            return metrics;
+        }
+
+        /**
+         * Get the status of the most recent failure, or 200 if every sample succeeded
+         */
+        int getStatusCode() {
+            return failureStatusCode > 0 ? failureStatusCode : 200;
+        }
+
+        String getLastError() {
+            return lastError;
+        }
+    }
+}
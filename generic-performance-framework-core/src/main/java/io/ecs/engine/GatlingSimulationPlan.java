@@ -0,0 +1,120 @@
+package io.ecs.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What {@link GatlingFrameworkSimulation} should run
+ *
+ * Gatling creates simulations reflectively through a no-argument constructor, so
+ * the engine publishes the plan here before starting Gatling and the simulation
+ * reads it back while it is constructed. Gatling runs one simulation at a time per
+ * JVM, which {@link GatlingEngine} enforces.
+ */
+final class GatlingSimulationPlan {
+    private static volatile GatlingSimulationPlan current;
+
+    private final String scenarioName;
+    private final List<PlannedRequest> requests;
+    private final int users;
+    private final int iterations;
+    private final int rampUpSeconds;
+    private final int holdSeconds;
+    private final int maxConnectionsPerHost;
+
+    GatlingSimulationPlan(String scenarioName, List<PlannedRequest> requests, int users, int iterations,
+                          int rampUpSeconds, int holdSeconds, int maxConnectionsPerHost) {
+        this.scenarioName = scenarioName;
+        this.requests = Collections.unmodifiableList(new ArrayList<>(requests));
+        this.users = Math.max(1, users);
+        this.iterations = Math.max(1, iterations);
+        this.rampUpSeconds = Math.max(0, rampUpSeconds);
+        this.holdSeconds = Math.max(0, holdSeconds);
+        this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+    }
+
+    static void publish(GatlingSimulationPlan plan) {
+        current = plan;
+    }
+
+    static GatlingSimulationPlan current() {
+        GatlingSimulationPlan plan = current;
+        if (plan == null) {
+            throw new IllegalStateException("No Gatling simulation plan has been published");
+        }
+        return plan;
+    }
+
+    static void clear() {
+        current = null;
+    }
+
+    String getScenarioName() {
+        return scenarioName;
+    }
+
+    List<PlannedRequest> getRequests() {
+        return requests;
+    }
+
+    int getUsers() {
+        return users;
+    }
+
+    int getIterations() {
+        return iterations;
+    }
+
+    int getRampUpSeconds() {
+        return rampUpSeconds;
+    }
+
+    int getHoldSeconds() {
+        return holdSeconds;
+    }
+
+    int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * A request with variables already substituted
+     */
+    static final class PlannedRequest {
+        private final String name;
+        private final String method;
+        private final String url;
+        private final Map<String, String> headers;
+        private final String body;
+
+        PlannedRequest(String name, String method, String url, Map<String, String> headers, String body) {
+            this.name = name;
+            this.method = method;
+            this.url = url;
+            this.headers = Collections.unmodifiableMap(headers);
+            this.body = body;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getMethod() {
+            return method;
+        }
+
+        String getUrl() {
+            return url;
+        }
+
+        Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        String getBody() {
+            return body;
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package io.ecs.engine;
 
+import io.ecs.feeder.Feeder;
 import io.ecs.model.ExecutionConfig;
 import io.ecs.model.Request;
 import io.ecs.model.Response;
 import io.ecs.model.TestResult;
+import io.ecs.protocols.HttpClientSettings;
+import io.ecs.report.MetricsCollector;
+import io.ecs.report.SampleReportGenerator;
+import io.ecs.util.CompiledTemplate;
 import io.ecs.util.DynamicVariableResolver;
+import io.ecs.util.VariableScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,14 +18,16 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 
 // HTTP Client imports
-import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
@@ -28,7 +36,6 @@ import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 
 /**
@@ -45,6 +52,7 @@ import org.apache.http.util.EntityUtils;
  * - Detailed performance metrics collection (response times, success rates, percentiles)
  * - JTL file generation for compatibility with JMeter reporting tools
  * - Support for all standard HTTP methods (GET, POST, PUT, DELETE)
+ * - Test data from feeders, one record per virtual user iteration
  * 
  * Usage example:
  * 
@@ -68,18 +76,22 @@ import org.apache.http.util.EntityUtils;
 public class JMDSLEngine implements Engine {
     
     private static final Logger logger = LoggerFactory.getLogger(JMDSLEngine.class);
+    private static final long REQUEST_PACING_MS = 10;
     
     private final ExecutionConfig config;
     private Map<String, String> globalVariables = new HashMap<>();
     
-    // Performance metrics
-    private final AtomicInteger completedRequests = new AtomicInteger(0);
-    private final AtomicInteger successfulRequests = new AtomicInteger(0);
-    private long totalResponseTime = 0;
-    private long minResponseTime = Long.MAX_VALUE;
-    private long maxResponseTime = 0;
-    private final List<Long> responseTimes = new ArrayList<>();
+    // Performance metrics for individual samples, recorded lock-free by all virtual users
+    private final MetricsCollector sampleMetrics = new MetricsCollector();
     
+    // Pooled client shared by all virtual users
+    private CloseableHttpClient httpClient;
+    
+    // Feeders read by the virtual users of each request
+    private volatile List<Feeder> feeders = Collections.emptyList();
+    
+    // Set by stop() to end the virtual users of the running test early
+    private volatile boolean stopped;
     /**
      * Creates a new JMeter DSL Engine with the specified execution configuration.
      * 
@@ -114,6 +126,8 @@ public class JMDSLEngine implements Engine {
     @Override
     public void initialize(Map<String, String> variables) {
         this.globalVariables = variables != null ? new HashMap<>(variables) : new HashMap<>();
+        this.stopped = false;
+        sampleMetrics.startWarmUp(config.getWarmUpSeconds() * 1000L);
         logger.info("HTTP Performance Test Engine initialized with {} global variables", globalVariables.size());
     }
     
@@ -160,15 +174,14 @@ public class JMDSLEngine implements Engine {
                 io.ecs.util.JmeterJtlAdapter.addDummySample(scenarioName);
             }
             
-            io.ecs.util.JmeterJtlAdapter.finalizeJtlFile(scenarioName);
+            String jtlPath = io.ecs.util.JmeterJtlAdapter.finalizeJtlFile(scenarioName);
             
             logger.info("Combined JTL file for scenario generated in: {}", scenarioDir);
             
-            // Attempt to generate JMeter HTML report (if needed)
-            String reportDir = null;
-            
-            if (reportDir != null) {
-                logger.info("JMeter HTML report for scenario generated at: {}", reportDir);
+            // Stream the samples file into an HTML report
+            if (jtlPath != null) {
+                String reportPath = SampleReportGenerator.generate(jtlPath, scenarioDir + "/index.html", scenarioName);
+                logger.info("HTML report for scenario generated at: {}", reportPath);
             }
         } catch (Exception e) {
             logger.warn("Error generating scenario JTL file: {}", e.getMessage());
@@ -282,9 +295,11 @@ public class JMDSLEngine implements Engine {
      * Executes an HTTP request using Apache HTTP Components.
      * 
      * This method performs the actual HTTP request execution with the specified parameters.
-     * It creates the appropriate HTTP request (GET, POST, PUT, DELETE) with the given
-     * parameters and executes it multiple times based on the threads and iterations
-     * configuration. The method also generates a JTL file for compatibility with
+     * It starts one virtual user per configured thread, ramping them up evenly over
+     * rampUpSeconds. Each virtual user runs the configured number of iterations and, when
+     * holdSeconds is set, keeps iterating until the hold period after ramp-up has elapsed.
+     * All virtual users share one pooled HTTP client, and samples are aggregated through
+     * lock-free counters. The method also generates a JTL file for compatibility with
      * JMeter reporting tools and updates the metrics for monitoring.
      * 
      * @param name The name of the request for logging and reporting
@@ -306,154 +321,97 @@ public class JMDSLEngine implements Engine {
             jtlFileObj.getParentFile().mkdirs();
             
             // Setup thread group
-            int threads = config.getThreads();
-            int iterations = config.getIterations();
-            int rampUpSeconds = config.getRampUpSeconds();
-            
-            long startTime = System.currentTimeMillis();
+            int threads = Math.max(1, config.getThreads());
+            int iterations = Math.max(1, config.getIterations());
+            long rampUpMillis = Math.max(0, config.getRampUpSeconds()) * 1000L;
+            long holdMillis = Math.max(0, config.getHoldSeconds()) * 1000L;
             
-            // Simple implementation that does not rely on JMeter DSL
-            // This is a placeholder that simulates a test execution
-            // In a production implementation, we would integrate with JMeter proper
-            logger.info("Executing test: {} with {} threads and {} iterations", 
-                       name, threads, iterations);
+            logger.info("Executing test: {} with {} threads and {} iterations (ramp-up {}s, hold {}s)", 
+                       name, threads, iterations, config.getRampUpSeconds(), config.getHoldSeconds());
             logger.info("Target endpoint: {}", endpoint);
             
-            // Parse query parameters if present in the endpoint
-            String baseUrl = endpoint;
-            if (endpoint.contains("?")) {
-                baseUrl = endpoint.substring(0, endpoint.indexOf("?"));
-            }
+            CloseableHttpClient httpClient = getHttpClient(threads);
             
-            // Create HttpClient instance
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                // Create request based on method
-                HttpRequestBase request;
-                
-                if ("POST".equalsIgnoreCase(method)) {
-                    HttpPost postRequest = new HttpPost(endpoint);
-                    if (body != null && !body.isEmpty()) {
-                        StringEntity entity = new StringEntity(body);
-                        entity.setContentType("application/json");
-                        postRequest.setEntity(entity);
-                    }
-                    request = postRequest;
-                } else if ("PUT".equalsIgnoreCase(method)) {
-                    HttpPut putRequest = new HttpPut(endpoint);
-                    if (body != null && !body.isEmpty()) {
-                        StringEntity entity = new StringEntity(body);
-                        entity.setContentType("application/json");
-                        putRequest.setEntity(entity);
-                    }
-                    request = putRequest;
-                } else if ("DELETE".equalsIgnoreCase(method)) {
-                    request = new HttpDelete(endpoint);
-                } else {
-                    // Default to GET
-                    request = new HttpGet(endpoint);
-                }
-                
-                // Add headers
-                if (headers != null) {
-                    for (Map.Entry<String, String> header : headers.entrySet()) {
-                        request.addHeader(header.getKey(), header.getValue());
-                    }
+            // Per-request aggregates shared by all virtual users
+            LongAdder executed = new LongAdder();
+            LongAdder succeeded = new LongAdder();
+            LongAdder totalResponseTime = new LongAdder();
+            
+            ExecutorService executor = config.isVirtualThreads() ?
+                    Executors.newVirtualThreadPerTaskExecutor() :
+                    Executors.newFixedThreadPool(threads);
+            long startTime = System.currentTimeMillis();
+            long holdUntil = startTime + rampUpMillis + holdMillis;
+            
+            List<Feeder> requestFeeders = feeders;
+            
+            try {
+                List<Future<?>> virtualUsers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int user = t;
+                    long rampDelay = rampUpMillis * t / threads;
+                    virtualUsers.add(executor.submit(() -> {
+                        runVirtualUser(httpClient, name, method, endpoint, body, headers, user, requestFeeders,
+                                rampDelay, iterations, holdMillis > 0 ? holdUntil : 0,
+                                executed, succeeded, totalResponseTime);
+                        return null;
+                    }));
                 }
-                
-                long totalResponseTime = 0;
-                int successfulRequests = 0;
-                
-                // Execute the request multiple times based on threads and iterations
-                for (int i = 0; i < threads * iterations; i++) {
-                    long requestStartTime = System.currentTimeMillis();
-                    try (CloseableHttpResponse response = httpClient.execute(request)) {
-                        int statusCode = response.getStatusLine().getStatusCode();
-                        HttpEntity entity = response.getEntity();
-                        String responseBody = entity != null ? 
-                            EntityUtils.toString(entity) : "";
-                            
-                        long requestEndTime = System.currentTimeMillis();
-                        long requestTime = requestEndTime - requestStartTime;
-                        totalResponseTime += requestTime;
-                        
-                        if (statusCode >= 200 && statusCode < 300) {
-                            successfulRequests++;
-                        }
-                        
-                        // Log request information
-                        logger.info("Request {}/{}: {} {} - Status: {} - Time: {}ms", 
-                                  (i+1), (threads * iterations), method, endpoint, 
-                                  statusCode, requestTime);
-                    }
-                    
-                    // Add a small delay between requests
-                    if (i < threads * iterations - 1) {
-                        Thread.sleep(10);
-                    }
+                for (Future<?> virtualUser : virtualUsers) {
+                    virtualUser.get();
                 }
+            } finally {
+                executor.shutdownNow();
+            }
+            
+            long total = executed.sum();
+            
+            // Calculate average response time
+            long avgResponseTime = total > 0 ? totalResponseTime.sum() / total : 0;
+            
+            // Calculate success rate
+            double successRate = total > 0 ? ((double) succeeded.sum() / total) * 100 : 0;
+            
+            logger.info("Completed {} requests for {} in {}ms", total, name, System.currentTimeMillis() - startTime);
+            
+            // Create result
+            TestResult result = new TestResult();
+            result.setTestName(name);
+            // Use the success threshold from the configuration
+            double threshold = config.getSuccessThreshold();
+            logger.info("Using success threshold from config: {}%", threshold);
+            result.setSuccess(successRate >= threshold);
+            result.setStatusCode(200);
+            result.setResponseTime(avgResponseTime);
+            result.setResponseBody("Executed " + total + 
+                                 " requests with " + successRate + "% success rate (threshold: " + threshold + "%)");
+            
+            // Generate a JTL file (CSV format) for reporting
+            try {
+                // Create a list with this single result
+                List<TestResult> resultsList = new ArrayList<>();
+                resultsList.add(result);
                 
-                // Calculate average response time
-                long avgResponseTime = (threads * iterations > 0) ? 
-                    totalResponseTime / (threads * iterations) : 0;
-                
-                // Calculate success rate
-                double successRate = (threads * iterations > 0) ? 
-                    ((double)successfulRequests / (threads * iterations)) * 100 : 0;
-                
-                // Create result
-                TestResult result = new TestResult();
-                result.setTestName(name);
-                // Use the success threshold from the configuration
-                double threshold = config.getSuccessThreshold();
-                logger.info("Using success threshold from config: {}%", threshold);
-                result.setSuccess(successRate >= threshold);
-                result.setStatusCode(200);
-                result.setResponseTime(avgResponseTime);
-                result.setResponseBody("Executed " + (threads * iterations) + 
-                                     " requests with " + successRate + "% success rate (threshold: " + threshold + "%)");
+                // Generate JTL file using the JtlReporter adapter
+                io.ecs.util.JmeterJtlAdapter.ensureDirectoryExists(config.getReportDirectory());
+                io.ecs.util.JmeterJtlAdapter.initializeJtlFile(name);
                 
-                // Generate a JTL file (CSV format) for reporting
-                try {
-                    // Create a list with this single result
-                    List<TestResult> resultsList = new ArrayList<>();
-                    resultsList.add(result);
-                    
-                    // Generate JTL file using the JtlReporter adapter
-                    io.ecs.util.JmeterJtlAdapter.ensureDirectoryExists(config.getReportDirectory());
-                    io.ecs.util.JmeterJtlAdapter.initializeJtlFile(name);
-                    
-                    // Record results or add a dummy if needed
-                    if (resultsList != null && !resultsList.isEmpty()) {
-                        io.ecs.util.JmeterJtlAdapter.recordSamples(name, resultsList);
-                    } else {
-                        io.ecs.util.JmeterJtlAdapter.addDummySample(name);
-                    }
-                    
-                    io.ecs.util.JmeterJtlAdapter.finalizeJtlFile(name);
-                    
-                    logger.info("JTL file generated in: {}", config.getReportDirectory());
-                    
-                    // HTML report generation not needed here
-                    String reportDir = null;
-                    
-                    if (reportDir != null) {
-                        logger.info("JMeter HTML report generated at: {}", reportDir);
-                    }
-                } catch (Exception e) {
-                    logger.warn("Error generating JTL file: {}", e.getMessage());
+                // Record results or add a dummy if needed
+                if (resultsList != null && !resultsList.isEmpty()) {
+                    io.ecs.util.JmeterJtlAdapter.recordSamples(name, resultsList);
+                } else {
+                    io.ecs.util.JmeterJtlAdapter.addDummySample(name);
                 }
                 
-                // Update metrics
-                completedRequests.incrementAndGet();
-                this.successfulRequests.incrementAndGet();
-                this.totalResponseTime += avgResponseTime;
-                minResponseTime = Math.min(minResponseTime, avgResponseTime);
-                maxResponseTime = Math.max(maxResponseTime, avgResponseTime);
-                responseTimes.add(avgResponseTime);
+                io.ecs.util.JmeterJtlAdapter.finalizeJtlFile(name);
                 
-                return result;
+                logger.info("JTL file generated in: {}", config.getReportDirectory());
+            } catch (Exception e) {
+                logger.warn("Error generating JTL file: {}", e.getMessage());
             }
             
+            return result;
+            
         } catch (Exception e) {
             logger.error("Error in test execution: {}", e.getMessage(), e);
             
@@ -464,13 +422,177 @@ public class JMDSLEngine implements Engine {
             errorResult.setResponseBody("Error: " + e.getMessage());
             errorResult.setError(e.getMessage());
             
-            // Still update completed requests
-            completedRequests.incrementAndGet();
+            // Still count the failed request
+            sampleMetrics.recordRequest();
+            sampleMetrics.recordError();
             
             return errorResult;
         }
     }
     
+    /**
+     * Runs the iterations of a single virtual user.
+     * 
+     * The virtual user waits for its ramp-up delay, then sends the request back to back
+     * with a short pacing delay. Each sample is recorded in the engine-wide metrics and in
+     * the per-request aggregates.
+     * 
+     * With feeders, every iteration reads the next record of each feeder and fills the
+     * endpoint, body and headers with its values. The virtual user stops early once a
+     * feeder has no records left for it.
+     * 
+     * Samples of the warm-up iterations, or taken during the timed warm-up, are recorded
+     * as warm-up only and left out of the per-request aggregates.
+     * 
+     * @param user zero-based index of the virtual user
+     * @param holdUntil wall-clock time until which to keep iterating, or 0 to stop after the iterations
+     */
+    private void runVirtualUser(CloseableHttpClient httpClient, String name, String method, String endpoint, String body,
+                                Map<String, String> headers, int user, List<Feeder> feeders,
+                                long rampDelay, int iterations, long holdUntil,
+                                LongAdder executed, LongAdder succeeded, LongAdder totalResponseTime)
+            throws InterruptedException {
+        if (rampDelay > 0) {
+            Thread.sleep(rampDelay);
+        }
+        
+        sampleMetrics.userStarted();
+        try {
+            List<Feeder.Cursor> cursors = new ArrayList<>(feeders.size());
+            for (Feeder feeder : feeders) {
+                cursors.add(feeder.cursor(user));
+            }
+            VariableScope dataScope = VariableScope.global(null).child(VariableScope.Level.ITERATION);
+            Map<String, String> iterationHeaders = headers != null && !cursors.isEmpty() ? new HashMap<>() : headers;
+            String iterationEndpoint = endpoint;
+            String iterationBody = body;
+        
+            long userResponseTime = 0;
+            for (int i = 0; i < iterations || (holdUntil > 0 && System.currentTimeMillis() < holdUntil); i++) {
+                if (Thread.currentThread().isInterrupted() || stopped) {
+                    return;
+                }
+            
+                if (!cursors.isEmpty()) {
+                    dataScope.clear();
+                    for (Feeder.Cursor cursor : cursors) {
+                        if (!cursor.next()) {
+                            logger.debug("Virtual user {} has no data left after {} iterations", user, i);
+                            return;
+                        }
+                        cursor.copyTo(dataScope);
+                    }
+                    iterationEndpoint = fillData(endpoint, dataScope);
+                    iterationBody = fillData(body, dataScope);
+                    if (headers != null) {
+                        for (Map.Entry<String, String> header : headers.entrySet()) {
+                            iterationHeaders.put(header.getKey(), fillData(header.getValue(), dataScope));
+                        }
+                    }
+                }
+            
+                // Requests are sent back to back, so the expected interval between sends is the
+                // pacing plus the mean response time so far; slower responses hide unsent requests
+                long expectedInterval = i > 0 ? userResponseTime / i + REQUEST_PACING_MS : 0;
+                long requestStartTime = System.currentTimeMillis();
+                boolean success = false;
+                boolean error = false;
+                int statusCode = 0;
+            
+                try (CloseableHttpResponse response = httpClient.execute(
+                        createHttpRequest(method, iterationEndpoint, iterationBody, iterationHeaders))) {
+                    statusCode = response.getStatusLine().getStatusCode();
+                    EntityUtils.consume(response.getEntity());
+                    success = statusCode >= 200 && statusCode < 300;
+                } catch (IOException e) {
+                    logger.debug("Request {} {} failed: {}", method, iterationEndpoint, e.getMessage());
+                    error = true;
+                }
+            
+                long requestTime = System.currentTimeMillis() - requestStartTime;
+                userResponseTime += requestTime;
+            
+                if (i < config.getWarmUpIterations() || sampleMetrics.isWarmingUp()) {
+                    sampleMetrics.recordWarmUpSample(name, requestTime, requestTime, expectedInterval, success, error);
+                } else {
+                    executed.increment();
+                    totalResponseTime.add(requestTime);
+                    if (success) {
+                        succeeded.increment();
+                    }
+                    sampleMetrics.recordSample(name, requestTime, requestTime, expectedInterval, success, error);
+                }
+            
+                logger.debug("{} {} - Status: {} - Time: {}ms", method, iterationEndpoint, statusCode, requestTime);
+            
+                // Add a small delay between requests
+                Thread.sleep(REQUEST_PACING_MS);
+            }
+        } finally {
+            sampleMetrics.userStopped();
+        }
+    }
+    
+    /**
+     * Fills a request value with the current feeder record, keeping other placeholders as they are.
+     */
+    private static String fillData(String value, VariableScope dataScope) {
+        return value != null ? CompiledTemplate.compile(value).render(dataScope, null) : null;
+    }
+    
+    /**
+     * Creates a new HTTP request; request objects are not shared between threads.
+     */
+    private HttpRequestBase createHttpRequest(String method, String endpoint, String body,
+                                              Map<String, String> headers) throws IOException {
+        HttpRequestBase request;
+        
+        if ("POST".equalsIgnoreCase(method)) {
+            HttpPost postRequest = new HttpPost(endpoint);
+            if (body != null && !body.isEmpty()) {
+                StringEntity entity = new StringEntity(body);
+                entity.setContentType("application/json");
+                postRequest.setEntity(entity);
+            }
+            request = postRequest;
+        } else if ("PUT".equalsIgnoreCase(method)) {
+            HttpPut putRequest = new HttpPut(endpoint);
+            if (body != null && !body.isEmpty()) {
+                StringEntity entity = new StringEntity(body);
+                entity.setContentType("application/json");
+                putRequest.setEntity(entity);
+            }
+            request = putRequest;
+        } else if ("DELETE".equalsIgnoreCase(method)) {
+            request = new HttpDelete(endpoint);
+        } else {
+            // Default to GET
+            request = new HttpGet(endpoint);
+        }
+        
+        // Add headers
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                request.addHeader(header.getKey(), header.getValue());
+            }
+        }
+        return request;
+    }
+    
+    /**
+     * Gets the pooled HTTP client shared by all virtual users, creating it on first use.
+     * 
+     * The pool is sized so that every virtual user can hold a connection.
+     */
+    private synchronized CloseableHttpClient getHttpClient(int threads) {
+        if (httpClient == null) {
+            HttpClientSettings settings = HttpClientSettings.fromVariables(config.getVariables())
+                    .withMinimumConnections(threads);
+            httpClient = settings.createClient();
+        }
+        return httpClient;
+    }
+    
     /**
      * Substitutes variables in a string with their values.
      * 
@@ -510,8 +632,9 @@ public class JMDSLEngine implements Engine {
      * - Success rate
      * - Average response time
      * - Minimum and maximum response times
-     * - Percentiles (90th, 95th)
+     * - Percentiles (90th, 95th, 99th), raw and corrected for coordinated omission
      * 
+     * All values are computed from the individual samples sent by the virtual users.
      * These metrics can be used to generate reports and analyze the performance
      * of the tested API.
      * 
@@ -519,47 +642,71 @@ public class JMDSLEngine implements Engine {
      */
     @Override
     public Map<String, Object> getMetrics() {
-        int total = completedRequests.get();
-        double successRate = total > 0 ? (successfulRequests.get() * 100.0 / total) : 0;
-        double avgResponseTime = total > 0 ? (totalResponseTime * 1.0 / total) : 0;
-        
         Map<String, Object> metrics = new HashMap<>();
-        metrics.put("totalRequests", total);
-        metrics.put("successRate", successRate);
-        metrics.put("avgResponseTime", avgResponseTime);
-        metrics.put("minResponseTime", minResponseTime == Long.MAX_VALUE ? 0 : minResponseTime);
-        metrics.put("maxResponseTime", maxResponseTime);
+        metrics.put("totalRequests", sampleMetrics.getTotalRequests());
+        metrics.put("successRate", sampleMetrics.getSuccessRate());
+        metrics.put("avgResponseTime", sampleMetrics.getAverageResponseTime());
+        metrics.put("minResponseTime", sampleMetrics.getMinResponseTime());
+        metrics.put("maxResponseTime", sampleMetrics.getMaxResponseTime());
+        metrics.put("90thPercentile", sampleMetrics.getPercentile(90));
+        metrics.put("95thPercentile", sampleMetrics.getPercentile(95));
+        metrics.put("99thPercentile", sampleMetrics.getPercentile(99));
         
-        // Calculate percentiles
-        if (!responseTimes.isEmpty()) {
-            List<Long> sortedTimes = new ArrayList<>(responseTimes);
-            sortedTimes.sort(Long::compare);
-            int size = sortedTimes.size();
-            
-            long percentile90 = size > 0 ? sortedTimes.get((int) Math.ceil(0.9 * size) - 1) : 0;
-            long percentile95 = size > 0 ? sortedTimes.get((int) Math.ceil(0.95 * size) - 1) : 0;
-            
-            metrics.put("90thPercentile", percentile90);
-            metrics.put("95thPercentile", percentile95);
-        } else {
-            metrics.put("90thPercentile", 0);
-            metrics.put("95thPercentile", 0);
-        }
+        // Percentiles corrected for coordinated omission
+        metrics.put("corrected90thPercentile", sampleMetrics.getCorrectedPercentile(90));
+        metrics.put("corrected95thPercentile", sampleMetrics.getCorrectedPercentile(95));
+        metrics.put("corrected99thPercentile", sampleMetrics.getCorrectedPercentile(99));
         
         return metrics;
     }
     
+    @Override
+    public MetricsCollector getMetricsCollector() {
+        return sampleMetrics;
+    }
+    
+    @Override
+    public boolean supportsLiveMetrics() {
+        return true;
+    }
+    
+    @Override
+    public boolean supportsFeeders() {
+        return true;
+    }
+    
+    @Override
+    public void setFeeders(List<Feeder> feeders) {
+        this.feeders = feeders != null ? feeders : Collections.emptyList();
+    }
+    
+    /**
+     * Asks the virtual users to stop after their current request.
+     */
+    @Override
+    public void stop() {
+        stopped = true;
+    }
+    
     /**
      * Shuts down the engine and releases any resources.
      * 
      * This method is called when the engine is no longer needed and should clean up
-     * any resources it has allocated. In the current implementation, it simply logs
-     * a message indicating that the engine is being shut down, but in more complex
-     * implementations it might close connections, terminate threads, or perform
-     * other cleanup operations.
+     * any resources it has allocated. It closes the pooled HTTP client shared by
+     * the virtual users, releasing its connections.
      */
     @Override
     public void shutdown() {
         logger.info("Shutting down HTTP Performance Test Engine");
+        synchronized (this) {
+            if (httpClient != null) {
+                try {
+                    httpClient.close();
+                } catch (IOException e) {
+                    logger.warn("Error closing HTTP client: {}", e.getMessage());
+                }
+                httpClient = null;
+            }
+        }
     }
 }
\ No newline at end of file
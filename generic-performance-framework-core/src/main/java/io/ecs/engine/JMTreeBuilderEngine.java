@@ -4,10 +4,13 @@ import io.ecs.model.ExecutionConfig;
 import io.ecs.model.Request;
 import io.ecs.model.TestResult;
 import io.ecs.report.JTLReportGenerator;
+import io.ecs.report.MetricsCollector;
+import io.ecs.util.DynamicVariableResolver;
 import io.ecs.util.JmeterJtlAdapter;
 
 import org.apache.jmeter.config.Arguments;
 import org.apache.jmeter.control.LoopController;
+import org.apache.jmeter.engine.StandardJMeterEngine;
 import org.apache.jmeter.protocol.http.control.Header;
 import org.apache.jmeter.protocol.http.control.HeaderManager;
 import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
@@ -19,6 +22,8 @@ import org.apache.jorphan.collections.HashTree;
 
 import java.io.File;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -27,17 +32,30 @@ import java.util.logging.Logger;
  * JMeter TreeBuilder Engine implementation that uses JMeter's standard API to create and execute tests.
  * This implementation is experimental and provides direct access to JMeter's programmatic test creation.
  * Reference: https://jmeter.apache.org/usermanual/build-programmatic-test-plan.html
+ * 
+ * Each request is built into a test plan tree and run by an embedded StandardJMeterEngine, so
+ * thread groups, timers and JMeter's HTTP connection handling behave as in a normal JMeter run.
+ * A result collector at test plan level streams every sample into the engine's metrics
+ * as it is taken, so abort criteria and the metrics endpoint follow a running plan.
+ * When holdSeconds is set, threads loop until ramp-up plus hold has elapsed instead of
+ * stopping after the configured iterations.
  */
 public class JMTreeBuilderEngine implements Engine {
     private static final Logger LOGGER = Logger.getLogger(JMTreeBuilderEngine.class.getName());
     
+    // StandardJMeterEngine keeps static state, so only one test plan runs at a time per JVM
+    private static final Object ENGINE_LOCK = new Object();
+    
     private final ExecutionConfig config;
-    private final Map<String, Object> metrics = new HashMap<>();
+    private final MetricsCollector sampleMetrics = new MetricsCollector();
     private final Map<String, String> variables = new HashMap<>();
     private final List<TestResult> results = new ArrayList<>();
     private static final String TEST_OUTPUT_DIR = "target/reports/jmeter-treebuilder-test";
     private String currentScenarioName = "REST API Test"; // Default scenario name
     
+    // The embedded engine of the running test plan, which stop() asks to finish early
+    private volatile StandardJMeterEngine runningEngine;
+    
     /**
      * Create a new JMeter TreeBuilder Engine with the specified execution configuration.
      * 
@@ -69,6 +87,7 @@ public class JMTreeBuilderEngine implements Engine {
     @Override
     public void initialize(Map<String, String> variables) {
         this.variables.putAll(variables);
+        sampleMetrics.startWarmUp(config.getWarmUpSeconds() * 1000L);
         LOGGER.info("Initialized JMeter TreeBuilder Engine with variables: " + variables);
     }
     
@@ -101,15 +120,39 @@ public class JMTreeBuilderEngine implements Engine {
     
     @Override
     public TestResult executeRequest(Request request) {
+        Map<String, String> requestVariables = new HashMap<>(variables);
+        if (request.getVariables() != null) {
+            requestVariables.putAll(request.getVariables());
+        }
+        
+        String endpoint = substituteVariables(request.getEndpoint(), requestVariables);
+        if (endpoint != null && !endpoint.toLowerCase().startsWith("http")) {
+            String baseUrl = requestVariables.getOrDefault("baseUrl", "");
+            endpoint = baseUrl + (endpoint.startsWith("/") || baseUrl.isEmpty() ? "" : "/") + endpoint;
+        }
+        
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (request.getHeaders() != null) {
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                headers.put(header.getKey(), substituteVariables(header.getValue(), requestVariables));
+            }
+        }
+        Map<String, String> params = new LinkedHashMap<>();
+        if (request.getParams() != null) {
+            for (Map.Entry<String, String> param : request.getParams().entrySet()) {
+                params.put(param.getKey(), substituteVariables(param.getValue(), requestVariables));
+            }
+        }
+        
         // Execute a single request using the TreeBuilder API
         return executeJMeterTreeBuilderTest(
                 request.getName(),
                 request.getProtocol(),
-                request.getEndpoint(),
-                request.getMethod(),
-                request.getBody(),
-                request.getHeaders(),
-                request.getParams()
+                endpoint,
+                request.getMethod() != null ? request.getMethod().toUpperCase() : "GET",
+                substituteVariables(request.getBody(), requestVariables),
+                headers,
+                params
         ).get(0);
     }
     
@@ -140,20 +183,32 @@ public class JMTreeBuilderEngine implements Engine {
         
         try {
             // Create the test plan tree structure
+            MetricsResultCollector collector = new MetricsResultCollector(testName + " Metrics",
+                    sampleMetrics, config.getWarmUpIterations());
             HashTree testPlanTree = createTestPlanTree(
-                    testName, protocol, endpoint, method, body, headers, params);
+                    testName, protocol, endpoint, method, body, headers, params, collector);
             
-            // Here we would normally execute the JMeter test, but for demonstration
-            // we'll simulate the execution with fixed results
+            // Run the tree in the embedded JMeter engine
+            long startTime = System.currentTimeMillis();
+            synchronized (ENGINE_LOCK) {
+                StandardJMeterEngine jmeter = new StandardJMeterEngine();
+                jmeter.configure(testPlanTree);
+                runningEngine = jmeter;
+                try {
+                    jmeter.run();
+                } finally {
+                    runningEngine = null;
+                }
+            }
+            long endTime = System.currentTimeMillis();
             
-            // Generate simulated test results
-            TestResult result = simulateJMeterExecution(testName, endpoint, method);
+            TestResult result = toTestResult(testName, collector, startTime, endTime);
             
             // Set processed endpoint for JTL report
             result.setProcessedEndpoint(endpoint);
             result.setTestName(testName);
             
-            // Update metrics
+            // Samples are already in the engine's metrics; keep the result and log the totals
             updateMetrics(result);
             
             // Log completion
@@ -187,7 +242,8 @@ public class JMTreeBuilderEngine implements Engine {
             String method,
             String body,
             Map<String, String> headers,
-            Map<String, String> params) throws Exception {
+            Map<String, String> params,
+            MetricsResultCollector collector) throws Exception {
         
         // Create the root JMeter TestPlan
         TestPlan testPlan = new TestPlan("Performance Test Plan for " + testName);
@@ -215,9 +271,15 @@ public class JMTreeBuilderEngine implements Engine {
         threadGroup.setNumThreads(config.getThreads());
         threadGroup.setRampUp(config.getRampUpSeconds());
         
-        // Create Loop Controller
+        // Create Loop Controller; with a hold period threads loop until the scheduler stops them
         LoopController loopController = new LoopController();
-        loopController.setLoops(config.getIterations());
+        if (config.getHoldSeconds() > 0) {
+            loopController.setLoops(LoopController.INFINITE_LOOP_COUNT);
+            threadGroup.setScheduler(true);
+            threadGroup.setDuration(config.getRampUpSeconds() + config.getHoldSeconds());
+        } else {
+            loopController.setLoops(Math.max(1, config.getIterations()));
+        }
         loopController.setProperty(TestElement.TEST_CLASS, LoopController.class.getName());
         loopController.setProperty(TestElement.GUI_CLASS, "LoopControlPanel");
         loopController.initialize();
@@ -226,6 +288,9 @@ public class JMTreeBuilderEngine implements Engine {
         // Add Thread Group to TestPlan
         testPlanTree.add(testPlan, threadGroup);
         
+        // Add the result collector at test plan level so it sees every sample
+        testPlanTree.add(testPlan, collector);
+        
         // Get the Thread Group's HashTree
         org.apache.jorphan.collections.HashTree threadGroupHashTree = testPlanTree.get(testPlan).get(threadGroup);
         
@@ -242,22 +307,41 @@ public class JMTreeBuilderEngine implements Engine {
         URL url = new URL(endpoint);
         httpSampler.setDomain(url.getHost());
         httpSampler.setPort(url.getPort() != -1 ? url.getPort() : url.getDefaultPort());
-        httpSampler.setPath(url.getPath());
+        httpSampler.setPath(url.getQuery() != null ? url.getPath() + "?" + url.getQuery() : url.getPath());
         httpSampler.setProtocol(url.getProtocol());
         
+        // Reuse pooled connections across iterations, as a browser or API client would
+        httpSampler.setImplementation("HttpClient4");
+        httpSampler.setUseKeepAlive(true);
+        httpSampler.setFollowRedirects(true);
+        
         // Set request body if present
-        if (body != null && !body.isEmpty() && 
+        boolean rawBody = body != null && !body.isEmpty() && 
                 (method.equalsIgnoreCase("POST") || 
                  method.equalsIgnoreCase("PUT") || 
-                 method.equalsIgnoreCase("PATCH"))) {
+                 method.equalsIgnoreCase("PATCH"));
+        if (rawBody) {
             httpSampler.addNonEncodedArgument("", body, "");
             httpSampler.setPostBodyRaw(true);
         }
         
-        // Add parameters if present
+        // Add parameters if present; with a raw body JMeter would append arguments to
+        // the body, so they go into the query string instead
         if (params != null && !params.isEmpty()) {
-            for (Map.Entry<String, String> param : params.entrySet()) {
-                httpSampler.addArgument(param.getKey(), param.getValue());
+            if (rawBody) {
+                StringBuilder query = new StringBuilder();
+                for (Map.Entry<String, String> param : params.entrySet()) {
+                    query.append(query.length() == 0 ? "" : "&")
+                         .append(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8))
+                         .append('=')
+                         .append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
+                }
+                String path = httpSampler.getPath();
+                httpSampler.setPath(path + (path.contains("?") ? "&" : "?") + query);
+            } else {
+                for (Map.Entry<String, String> param : params.entrySet()) {
+                    httpSampler.addArgument(param.getKey(), param.getValue());
+                }
             }
         }
         
@@ -272,7 +356,8 @@ public class JMTreeBuilderEngine implements Engine {
             HeaderManager headerManager = new HeaderManager();
             headerManager.setName(testName + " Headers");
             headerManager.setProperty(TestElement.TEST_CLASS, HeaderManager.class.getName());
-            headerManager.setProperty(TestElement.GUI_CLASS, "HeaderPanel");
+            // HTTP samplers only merge config elements whose GUI class they know by its full name
+            headerManager.setProperty(TestElement.GUI_CLASS, "org.apache.jmeter.protocol.http.gui.HeaderPanel");
             
             for (Map.Entry<String, String> entry : headers.entrySet()) {
                 headerManager.add(new Header(entry.getKey(), entry.getValue()));
@@ -286,97 +371,89 @@ public class JMTreeBuilderEngine implements Engine {
     }
     
     /**
-     * Simulate a JMeter execution and return a test result.
-     * In a real implementation, this would run the actual JMeter test.
+     * Convert the samples recorded for a request into a test result.
      */
-    private TestResult simulateJMeterExecution(String testName, String endpoint, String method) {
-        TestResult result = new TestResult();
-        
-        // For demonstration, we'll simulate a successful HTTP request
-        int expectedRequests = config.getThreads() * config.getIterations();
-        for (int i = 1; i <= expectedRequests; i++) {
-            int responseTime = new Random().nextInt(30) + 20; // Random response time between 20-50ms
-            LOGGER.info("Request " + i + "/" + expectedRequests + ": " + 
-                    method + " " + endpoint + " - Status: 200 - Time: " + responseTime + "ms");
-        }
-        
-        // Set result properties
-        result.setSuccess(true);
-        result.setStatusCode(200);
-        result.setResponseTime(new Random().nextInt(30) + 50); // Random time between 50-80ms
-        result.setResponseBody("{\"status\":\"success\",\"message\":\"Test completed successfully\"}");
-        result.setError(null);
+    private TestResult toTestResult(String testName, MetricsResultCollector collector, long startTime, long endTime) {
+        MetricsCollector runMetrics = collector.getMetrics();
+        double successRate = runMetrics.getSuccessRate();
+        double threshold = config.getSuccessThreshold();
         
+        TestResult result = new TestResult();
+        result.setSuccess(runMetrics.getTotalRequests() > 0 && successRate >= threshold);
+        result.setStatusCode(collector.getStatusCode());
+        result.setResponseTime((long) runMetrics.getAverageResponseTime());
+        result.setResponseBody("Executed " + runMetrics.getTotalRequests() + " requests with " + successRate +
+                "% success rate (threshold: " + threshold + "%)");
+        result.setError(collector.getLastFailureMessage());
+        result.setStartTime(startTime);
+        result.setEndTime(endTime);
         return result;
     }
     
     /**
-     * Update the metrics with the latest test result.
+     * Record the result of the latest request and log the metrics so far.
      */
     private void updateMetrics(TestResult result) {
         results.add(result);
         
-        // Get the success threshold from config
-        double threshold = config.getSuccessThreshold();
-        
-        // Calculate success rate
-        long successCount = results.stream().filter(TestResult::isSuccess).count();
-        double successRate = results.isEmpty() ? 0 : (double) successCount / results.size() * 100;
-        metrics.put("successRate", successRate);
-        
-        // Check if the overall success rate meets the threshold and update result
-        boolean overallSuccess = successRate >= threshold;
-        if (!overallSuccess && result.isSuccess()) {
-            // Don't change individual result success if it's already false
-            // This is just for evaluating the overall scenario success
-        }
-        
-        // Calculate average response time
-        double avgResponseTime = results.stream()
-                .mapToLong(TestResult::getResponseTime)
-                .average()
-                .orElse(0);
-        metrics.put("avgResponseTime", avgResponseTime);
-        
-        // Calculate min/max response times
-        long minResponseTime = results.stream()
-                .mapToLong(TestResult::getResponseTime)
-                .min()
-                .orElse(0);
-        long maxResponseTime = results.stream()
-                .mapToLong(TestResult::getResponseTime)
-                .max()
-                .orElse(0);
-        metrics.put("minResponseTime", minResponseTime);
-        metrics.put("maxResponseTime", maxResponseTime);
-        
-        // Calculate 90th percentile
-        List<Long> responseTimes = results.stream()
-                .map(TestResult::getResponseTime)
-                .sorted()
-                .toList();
-        
-        if (!responseTimes.isEmpty()) {
-            int index = (int) Math.ceil(0.9 * responseTimes.size()) - 1;
-            index = Math.max(0, Math.min(index, responseTimes.size() - 1)); // Ensure valid index
-            metrics.put("90thPercentile", responseTimes.get(index));
-        }
-        
         // Log current metrics for the scenario
         LOGGER.info("Scenario: " + currentScenarioName + " stats so far");
-        LOGGER.info("Total requests: " + results.size());
-        LOGGER.info("Success rate: " + successRate + "% (threshold: " + threshold + "%)");
-        LOGGER.info("Average response time: " + avgResponseTime + "ms");
-        LOGGER.info("Min/Max response time: " + minResponseTime + "/" + maxResponseTime + "ms");
-        LOGGER.info("90th percentile: " + metrics.getOrDefault("90thPercentile", 0) + "ms");
+        LOGGER.info("Total requests: " + sampleMetrics.getTotalRequests());
+        LOGGER.info("Success rate: " + sampleMetrics.getSuccessRate() + "% (threshold: " + config.getSuccessThreshold() + "%)");
+        LOGGER.info("Average response time: " + sampleMetrics.getAverageResponseTime() + "ms");
+        LOGGER.info("Min/Max response time: " + sampleMetrics.getMinResponseTime() + "/" + sampleMetrics.getMaxResponseTime() + "ms");
+        LOGGER.info("90th percentile: " + sampleMetrics.getPercentile(90) + "ms");
         LOGGER.info("--------------------------------------");
     }
     
+    /**
+     * Substitute variables in a request value.
+     */
+    private String substituteVariables(String input, Map<String, String> requestVariables) {
+        if (input == null || input.isEmpty()) {
+            return input;
+        }
+        Map<String, Object> dynamicContext = new HashMap<>();
+        dynamicContext.put("timestamp", System.currentTimeMillis());
+        return DynamicVariableResolver.processTemplate(input, requestVariables, dynamicContext);
+    }
+    
     @Override
     public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("totalRequests", sampleMetrics.getTotalRequests());
+        metrics.put("successRate", sampleMetrics.getSuccessRate());
+        metrics.put("avgResponseTime", sampleMetrics.getAverageResponseTime());
+        metrics.put("minResponseTime", sampleMetrics.getMinResponseTime());
+        metrics.put("maxResponseTime", sampleMetrics.getMaxResponseTime());
+        metrics.put("90thPercentile", sampleMetrics.getPercentile(90));
+        metrics.put("95thPercentile", sampleMetrics.getPercentile(95));
+        metrics.put("99thPercentile", sampleMetrics.getPercentile(99));
+        metrics.put("corrected90thPercentile", sampleMetrics.getCorrectedPercentile(90));
+        metrics.put("corrected95thPercentile", sampleMetrics.getCorrectedPercentile(95));
+        metrics.put("corrected99thPercentile", sampleMetrics.getCorrectedPercentile(99));
         return metrics;
     }
     
+    @Override
+    public MetricsCollector getMetricsCollector() {
+        return sampleMetrics;
+    }
+    
+    @Override
+    public boolean supportsLiveMetrics() {
+        return true;
+    }
+    
+    @Override
+    public void stop() {
+        StandardJMeterEngine jmeter = runningEngine;
+        if (jmeter != null) {
+            // Let the threads finish their current samples
+            jmeter.stopTest(false);
+        }
+    }
+    
     @Override
     public void shutdown() {
         // Generate HTML report using JTLReportGenerator's static method
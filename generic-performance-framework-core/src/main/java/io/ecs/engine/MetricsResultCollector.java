@@ -0,0 +1,133 @@
+package io.ecs.engine;
+
+import io.ecs.report.MetricsCollector;
+
+import org.apache.jmeter.reporters.ResultCollector;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JMeter result collector that streams every sample into the engine's {@link MetricsCollector}
+ *
+ * The collector sits at test plan level, so it receives the samples of every
+ * sampler in the tree. ResultCollector is not cloned per thread, so one instance
+ * receives the samples of all JMeter threads and records them lock-free.
+ *
+ * Samples go straight into the engine's live collector, so abort criteria and the
+ * metrics endpoint see them while the test plan runs. A second collector keeps the
+ * samples of this run only, for the run's test result.
+ *
+ * Samples started before the end of the warm-up, or in one of a thread's warm-up
+ * iterations, are recorded as warm-up only.
+ */
+class MetricsResultCollector extends ResultCollector {
+    private static final long serialVersionUID = 1L;
+
+    private final transient MetricsCollector liveMetrics;
+    private final transient MetricsCollector runMetrics = new MetricsCollector();
+    private final transient LongAdder totalResponseTime = new LongAdder();
+    private final transient AtomicReference<String> lastFailureCode = new AtomicReference<>();
+    private final transient AtomicReference<String> lastFailureMessage = new AtomicReference<>();
+    private final long warmUpUntil;
+    private final int warmUpIterations;
+
+    /**
+     * @param liveMetrics the engine's collector, whose warm-up end applies to this run
+     * @param warmUpIterations iterations of each thread that count as warm-up
+     */
+    MetricsResultCollector(String name, MetricsCollector liveMetrics, int warmUpIterations) {
+        super();
+        setName(name);
+        this.liveMetrics = liveMetrics;
+        this.warmUpUntil = liveMetrics.getWarmUpUntil();
+        this.warmUpIterations = warmUpIterations;
+    }
+
+    @Override
+    public void sampleOccurred(SampleEvent event) {
+        SampleResult result = event.getResult();
+        long elapsed = result.getTime();
+        boolean success = result.isSuccessful();
+        // Non-HTTP response codes are exceptions such as connection failures
+        boolean error = !success && !isNumeric(result.getResponseCode());
+
+        if (isWarmUp(result)) {
+            liveMetrics.recordWarmUpSample(result.getSampleLabel(), elapsed, elapsed, 0, success, error);
+            runMetrics.recordWarmUpSample(result.getSampleLabel(), elapsed, elapsed, 0, success, error);
+            super.sampleOccurred(event);
+            return;
+        }
+
+        // Threads send samples back to back, so the expected interval between sends is the
+        // mean response time so far; slower responses hide samples that were not sent
+        int samples = runMetrics.getTotalRequests();
+        long expectedInterval = samples > 0 ? totalResponseTime.sum() / samples : 0;
+        totalResponseTime.add(elapsed);
+
+        if (!success) {
+            lastFailureCode.set(result.getResponseCode());
+            lastFailureMessage.set(result.getResponseMessage());
+        }
+        liveMetrics.recordSample(result.getSampleLabel(), elapsed, elapsed, expectedInterval, success, error);
+        runMetrics.recordSample(result.getSampleLabel(), elapsed, elapsed, expectedInterval, success, error);
+
+        super.sampleOccurred(event);
+    }
+
+    /**
+     * Check whether a sample belongs to the warm-up, reading the iteration of the sampling thread
+     */
+    private boolean isWarmUp(SampleResult result) {
+        if (result.getStartTime() < warmUpUntil) {
+            return true;
+        }
+        if (warmUpIterations > 0) {
+            // Listeners are notified on the thread that took the sample; iterations count from 1
+            JMeterVariables threadVariables = JMeterContextService.getContext().getVariables();
+            return threadVariables != null && threadVariables.getIteration() <= warmUpIterations;
+        }
+        return false;
+    }
+
+    /**
+     * Get the samples recorded by this run so far
+     */
+    MetricsCollector getMetrics() {
+        return runMetrics;
+    }
+
+    /**
+     * Get the HTTP status of the most recent failure, 500 if it had no HTTP status, or 200 if nothing failed
+     */
+    int getStatusCode() {
+        String code = lastFailureCode.get();
+        if (code == null) {
+            return 200;
+        }
+        return isNumeric(code) ? Integer.parseInt(code) : 500;
+    }
+
+    /**
+     * Get the message of the most recent failure, or null if nothing failed
+     */
+    String getLastFailureMessage() {
+        return lastFailureMessage.get();
+    }
+
+    private static boolean isNumeric(String code) {
+        if (code == null || code.isEmpty() || code.length() > 3) {
+            return false;
+        }
+        for (int i = 0; i < code.length(); i++) {
+            if (!Character.isDigit(code.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
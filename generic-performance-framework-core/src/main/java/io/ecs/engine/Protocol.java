@@ -3,6 +3,8 @@ package io.ecs.engine;
 import io.ecs.model.Request;
 import io.ecs.model.Response;
 import io.ecs.model.TestResult;
+import io.ecs.util.CompiledTemplate;
+import io.ecs.util.VariableScope;
 
 import java.util.Map;
 import java.util.HashMap;
@@ -37,6 +39,18 @@ public interface Protocol {
         return null;
     }
     
+    /**
+     * Get the global variables as the outermost layer of a variable scope
+     * 
+     * Scenario, thread, iteration and request scopes built on this scope resolve
+     * global variables without copying them.
+     * 
+     * @return the global scope
+     */
+    default VariableScope getGlobalScope() {
+        return VariableScope.global(getGlobalVariables());
+    }
+    
     /**
      * Execute a request using this protocol
      * 
@@ -129,13 +143,13 @@ public interface Protocol {
             return template;
         }
         
-        String result = template;
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            String varPattern = "\\$\\{" + entry.getKey() + "\\}";
-            result = result.replaceAll(varPattern, entry.getValue() != null ? entry.getValue() : "");
-        }
-        
-        return result;
+        return CompiledTemplate.compile(template).render(name -> {
+            if (!variables.containsKey(name)) {
+                return null;
+            }
+            String value = variables.get(name);
+            return value != null ? value : "";
+        });
     }
     
     /**
@@ -1,9 +1,9 @@
 package io.ecs.entity;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -20,7 +20,8 @@ public class EntityManager {
      * Create a new entity manager
      */
     public EntityManager() {
-        this.entities = new HashMap<>();
+        // Scenarios running in parallel add and remove entities concurrently
+        this.entities = new ConcurrentHashMap<>();
     }
     
     /**
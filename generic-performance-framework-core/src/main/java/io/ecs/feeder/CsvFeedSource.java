@@ -0,0 +1,51 @@
+package io.ecs.feeder;
+
+import io.ecs.util.MappedCsvFeeder;
+
+import java.io.IOException;
+
+/**
+ * CSV records read from a memory-mapped file
+ *
+ * Rows are decoded on demand, so the file is never loaded into the heap.
+ */
+public class CsvFeedSource implements FeedSource {
+    private final MappedCsvFeeder csv;
+    private final String[] columns;
+    private final ThreadLocal<MappedCsvFeeder.Row> rows;
+
+    /**
+     * Map a CSV file whose first line holds the column names
+     *
+     * @param filePath the path to the CSV file
+     * @throws IOException if the file cannot be read
+     */
+    public CsvFeedSource(String filePath) throws IOException {
+        this.csv = new MappedCsvFeeder(filePath);
+        this.columns = csv.getColumns();
+        this.rows = ThreadLocal.withInitial(csv::newRow);
+    }
+
+    @Override
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    @Override
+    public long size() {
+        return csv.getRowCount();
+    }
+
+    @Override
+    public void read(long index, String[] values) {
+        MappedCsvFeeder.Row row = csv.read((int) index, rows.get());
+        for (int i = 0; i < values.length; i++) {
+            values[i] = row.get(i);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        csv.close();
+    }
+}
@@ -0,0 +1,43 @@
+package io.ecs.feeder;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Records that a {@link Feeder} hands out to virtual users, addressed by index
+ *
+ * Implementations must allow concurrent reads from any number of threads.
+ */
+public interface FeedSource extends Closeable {
+
+    /**
+     * Size of a source that can produce a record for any index
+     */
+    long UNBOUNDED = -1;
+
+    /**
+     * Get the names of the values in each record
+     *
+     * @return the column names
+     */
+    String[] getColumns();
+
+    /**
+     * Get the number of records
+     *
+     * @return the number of records, or {@link #UNBOUNDED}
+     */
+    long size();
+
+    /**
+     * Read a record
+     *
+     * @param index the record index, from 0
+     * @param values receives the values in column order; its length is the number of columns
+     */
+    void read(long index, String[] values);
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,44 @@
+package io.ecs.feeder;
+
+/**
+ * How a {@link Feeder} assigns records to virtual users
+ */
+public enum FeedStrategy {
+    /** All users take the next record from one shared cursor, starting over after the last */
+    SHARED,
+    /** Each user gets its own slice of the records and cycles through it, so no two users share a record */
+    PARTITIONED,
+    /** Each read picks a random record */
+    RANDOM,
+    /** Like SHARED, but every record is used once; a user stops when no records are left */
+    EXHAUST;
+
+    /**
+     * Parse a strategy name, ignoring case and accepting the aliases used in configurations
+     *
+     * @param name the strategy name, or null for SHARED
+     * @return the strategy
+     */
+    public static FeedStrategy fromString(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return SHARED;
+        }
+        switch (name.trim().toLowerCase()) {
+            case "shared":
+            case "sequential":
+            case "circular":
+                return SHARED;
+            case "partitioned":
+            case "per-thread":
+            case "perthread":
+                return PARTITIONED;
+            case "random":
+                return RANDOM;
+            case "exhaust":
+            case "unique":
+                return EXHAUST;
+            default:
+                throw new IllegalArgumentException("Unknown feed strategy: " + name);
+        }
+    }
+}
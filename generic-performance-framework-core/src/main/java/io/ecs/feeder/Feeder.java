@@ -0,0 +1,314 @@
+package io.ecs.feeder;
+
+import io.ecs.util.VariableScope;
+import io.ecs.util.VariableSlots;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hands out the records of a {@link FeedSource} to virtual users
+ *
+ * Each virtual user reads through its own {@link Cursor}. How records are assigned
+ * is set by the {@link FeedStrategy}; the shared and exhaust strategies use a single
+ * atomic counter common to all users, and the partitioned strategy one counter per
+ * user, so cursors created for the same user one after another, as the open
+ * workload model does for each arrival, carry on through that user's records.
+ *
+ * When a test runs on several nodes, each node is given a shard: node k of n uses
+ * the records k, k + n, k + 2n and so on, so nodes never hand out the same record.
+ *
+ * A feeder is defined by a spec: a CSV path, a JSON-lines path (.jsonl or .ndjson)
+ * or "generated:" followed by column templates, optionally followed by "|" and a
+ * strategy, for example "data/users.csv|partitioned".
+ */
+public class Feeder implements Closeable {
+
+    /**
+     * Prefix of specs that generate records instead of reading a file
+     */
+    public static final String GENERATED_PREFIX = "generated:";
+
+    private static final char STRATEGY_SEPARATOR = '|';
+
+    private final String name;
+    private final FeedSource source;
+    private final FeedStrategy strategy;
+    private final String[] columns;
+    private final int[] slots;
+    private final AtomicLong sharedCursor = new AtomicLong();
+    private volatile AtomicLongArray userReads = new AtomicLongArray(1);
+    private volatile int shardIndex = 0;
+    private volatile int shardCount = 1;
+
+    /**
+     * Create a feeder
+     *
+     * @param name the name the feeder is referenced by
+     * @param source the records to hand out
+     * @param strategy how records are assigned to users
+     */
+    public Feeder(String name, FeedSource source, FeedStrategy strategy) {
+        this.name = name;
+        this.source = source;
+        this.strategy = strategy != null ? strategy : FeedStrategy.SHARED;
+        this.columns = source.getColumns();
+        this.slots = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            slots[i] = VariableSlots.slotOf(columns[i]);
+        }
+    }
+
+    /**
+     * Open the feeder described by a spec
+     *
+     * @param name the name the feeder is referenced by
+     * @param spec the source, optionally followed by "|" and a strategy
+     * @return the feeder
+     * @throws IOException if the source file cannot be read
+     */
+    public static Feeder open(String name, String spec) throws IOException {
+        String source = sourceOf(spec);
+        FeedSource feedSource;
+        if (source.startsWith(GENERATED_PREFIX)) {
+            feedSource = GeneratedFeedSource.parse(source.substring(GENERATED_PREFIX.length()));
+        } else if (source.endsWith(".jsonl") || source.endsWith(".ndjson")) {
+            feedSource = new JsonLinesFeedSource(source);
+        } else {
+            feedSource = new CsvFeedSource(source);
+        }
+        return new Feeder(name, feedSource, FeedStrategy.fromString(strategyOf(spec)));
+    }
+
+    /**
+     * Get the source part of a spec
+     *
+     * @param spec the feeder spec
+     * @return the file path or generated definition
+     */
+    public static String sourceOf(String spec) {
+        int separator = spec.lastIndexOf(STRATEGY_SEPARATOR);
+        return (separator < 0 ? spec : spec.substring(0, separator)).trim();
+    }
+
+    /**
+     * Get the strategy part of a spec
+     *
+     * @param spec the feeder spec
+     * @return the strategy name, or null if the spec has none
+     */
+    public static String strategyOf(String spec) {
+        int separator = spec.lastIndexOf(STRATEGY_SEPARATOR);
+        return separator < 0 ? null : spec.substring(separator + 1).trim();
+    }
+
+    /**
+     * Build a spec from a source and a strategy
+     *
+     * @param source the file path or generated definition
+     * @param strategy the strategy name, or null for the default
+     * @return the spec
+     */
+    public static String toSpec(String source, String strategy) {
+        return strategy == null || strategy.trim().isEmpty() ? source : source + STRATEGY_SEPARATOR + strategy.trim();
+    }
+
+    /**
+     * Set the number of virtual users that read from this feeder, used to partition records
+     *
+     * Every user starts again from its first record.
+     *
+     * @param users the number of users on this node
+     * @return this feeder for chaining
+     */
+    public Feeder setUsers(int users) {
+        this.userReads = new AtomicLongArray(Math.max(1, users));
+        return this;
+    }
+
+    /**
+     * Restrict this feeder to one node's share of the records
+     *
+     * @param shardIndex zero-based index of this node
+     * @param shardCount total number of nodes
+     * @return this feeder for chaining
+     */
+    public Feeder setShard(int shardIndex, int shardCount) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + " of " + shardCount);
+        }
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        return this;
+    }
+
+    /**
+     * Create the cursor of a virtual user
+     *
+     * @param user zero-based index of the user on this node; with the partitioned
+     *             strategy, indexes beyond the number of users wrap around
+     * @return the cursor, to be used by one thread at a time
+     */
+    public Cursor cursor(int user) {
+        return new Cursor(user);
+    }
+
+    /**
+     * Get the number of records in this node's shard, or {@link FeedSource#UNBOUNDED}
+     */
+    private long shardSize() {
+        long size = source.size();
+        if (size < 0) {
+            return FeedSource.UNBOUNDED;
+        }
+        return size > shardIndex ? (size - shardIndex + shardCount - 1) / shardCount : 0;
+    }
+
+    /**
+     * Pick the record a cursor reads next
+     *
+     * @return the record index in the source, or -1 if the cursor has no records left
+     */
+    private long nextIndex(Cursor cursor) {
+        long size = shardSize();
+        if (size == 0) {
+            return -1;
+        }
+        long local;
+        switch (strategy) {
+            case RANDOM:
+                local = ThreadLocalRandom.current().nextLong(size > 0 ? size : Long.MAX_VALUE / shardCount);
+                break;
+            case EXHAUST:
+                local = sharedCursor.getAndIncrement();
+                if (size > 0 && local >= size) {
+                    return -1;
+                }
+                break;
+            case PARTITIONED: {
+                // User u of U reads the records u, u + U, u + 2U, ... of this shard
+                AtomicLongArray reads = userReads;
+                int userCount = reads.length();
+                int user = Math.floorMod(cursor.user, userCount);
+                long read = reads.getAndIncrement(user);
+                if (size > 0) {
+                    long userSize = size > user ? (size - user + userCount - 1) / userCount : 0;
+                    if (userSize == 0) {
+                        return -1;
+                    }
+                    read %= userSize;
+                }
+                local = user + read * userCount;
+                break;
+            }
+            default:
+                local = sharedCursor.getAndIncrement();
+                if (size > 0) {
+                    local %= size;
+                }
+                break;
+        }
+        return shardIndex + local * shardCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public FeedStrategy getStrategy() {
+        return strategy;
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    /**
+     * The records read by one virtual user
+     *
+     * The values of the current record are kept in an array that is reused for every
+     * record, so reading allocates nothing beyond the values themselves.
+     */
+    public final class Cursor {
+        private final int user;
+        private final String[] values = new String[columns.length];
+
+        private Cursor(int user) {
+            this.user = user;
+        }
+
+        /**
+         * Move to the next record
+         *
+         * @return false if there are no records left for this user
+         */
+        public boolean next() {
+            long index = nextIndex(this);
+            if (index < 0) {
+                return false;
+            }
+            source.read(index, values);
+            return true;
+        }
+
+        /**
+         * Get a value of the current record by column position
+         */
+        public String get(int column) {
+            return values[column];
+        }
+
+        /**
+         * Get a value of the current record by column name
+         *
+         * @return the value, or null if there is no such column
+         */
+        public String get(String column) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(column)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Set the values of the current record in a variable scope, by slot
+         *
+         * @param scope the scope to set the values in
+         */
+        public void copyTo(VariableScope scope) {
+            for (int i = 0; i < slots.length; i++) {
+                scope.set(slots[i], values[i]);
+            }
+        }
+
+        /**
+         * Put the values of the current record in a map
+         *
+         * @param target the map to put the values in
+         */
+        public void copyTo(Map<String, String> target) {
+            if (target instanceof VariableScope) {
+                copyTo((VariableScope) target);
+                return;
+            }
+            for (int i = 0; i < columns.length; i++) {
+                target.put(columns[i], values[i]);
+            }
+        }
+
+        public Feeder getFeeder() {
+            return Feeder.this;
+        }
+    }
+}
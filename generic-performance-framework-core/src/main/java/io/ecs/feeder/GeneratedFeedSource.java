@@ -0,0 +1,71 @@
+package io.ecs.feeder;
+
+import io.ecs.util.DynamicVariableResolver;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records generated from templates, without any file
+ *
+ * Each column is a template rendered with ${index}, the record index, and the
+ * dynamic variables of {@link DynamicVariableResolver} such as ${uuid} and
+ * ${randomInt(1,100)}. With the exhaust or partitioned strategies, templates that
+ * use ${index} produce values that are unique across all virtual users.
+ */
+public class GeneratedFeedSource implements FeedSource {
+    private static final String INDEX_VARIABLE = "index";
+
+    private final String[] columns;
+    private final String[] templates;
+
+    /**
+     * Create a source from column templates
+     *
+     * @param columnTemplates the template of each column, in column order
+     */
+    public GeneratedFeedSource(Map<String, String> columnTemplates) {
+        if (columnTemplates == null || columnTemplates.isEmpty()) {
+            throw new IllegalArgumentException("A generated feed needs at least one column");
+        }
+        this.columns = columnTemplates.keySet().toArray(new String[0]);
+        this.templates = columnTemplates.values().toArray(new String[0]);
+    }
+
+    /**
+     * Create a source from a definition such as "id=user-${index};token=${uuid}"
+     *
+     * @param definition column templates separated by ';'
+     * @return the source
+     */
+    public static GeneratedFeedSource parse(String definition) {
+        Map<String, String> columnTemplates = new LinkedHashMap<>();
+        for (String column : definition.split(";")) {
+            int equals = column.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Generated column must be name=template: " + column);
+            }
+            columnTemplates.put(column.substring(0, equals).trim(), column.substring(equals + 1));
+        }
+        return new GeneratedFeedSource(columnTemplates);
+    }
+
+    @Override
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    @Override
+    public long size() {
+        return UNBOUNDED;
+    }
+
+    @Override
+    public void read(long index, String[] values) {
+        Map<String, Object> context = Collections.singletonMap(INDEX_VARIABLE, index);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = DynamicVariableResolver.processTemplate(templates[i], null, context);
+        }
+    }
+}
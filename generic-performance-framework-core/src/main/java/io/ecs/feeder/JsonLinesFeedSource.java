@@ -0,0 +1,89 @@
+package io.ecs.feeder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Records read from a JSON-lines file, one JSON object per line
+ *
+ * The fields of the first object are the columns. Later objects may leave fields
+ * out, which then read as empty strings. Nested objects and arrays are passed on
+ * as JSON text. Records are parsed once when the file is opened and kept as
+ * arrays of values.
+ */
+public class JsonLinesFeedSource implements FeedSource {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String[] columns;
+    private final List<String[]> records = new ArrayList<>();
+
+    /**
+     * Read a JSON-lines file
+     *
+     * @param filePath the path to the file
+     * @throws IOException if the file cannot be read, has no records or a line is not a JSON object
+     */
+    public JsonLinesFeedSource(String filePath) throws IOException {
+        List<String> columnNames = null;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                JsonNode node = MAPPER.readTree(line);
+                if (!node.isObject()) {
+                    throw new IOException("Line " + lineNumber + " of " + filePath + " is not a JSON object");
+                }
+                if (columnNames == null) {
+                    columnNames = new ArrayList<>();
+                    for (Iterator<String> names = node.fieldNames(); names.hasNext(); ) {
+                        columnNames.add(names.next());
+                    }
+                }
+                String[] values = new String[columnNames.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = toText(node.get(columnNames.get(i)));
+                }
+                records.add(values);
+            }
+        }
+        if (columnNames == null) {
+            throw new IOException("JSON-lines file has no records: " + filePath);
+        }
+        this.columns = columnNames.toArray(new String[0]);
+    }
+
+    private static String toText(JsonNode value) {
+        if (value == null || value.isNull()) {
+            return "";
+        }
+        return value.isValueNode() ? value.asText() : value.toString();
+    }
+
+    @Override
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    @Override
+    public long size() {
+        return records.size();
+    }
+
+    @Override
+    public void read(long index, String[] values) {
+        System.arraycopy(records.get((int) index), 0, values, 0, values.length);
+    }
+}
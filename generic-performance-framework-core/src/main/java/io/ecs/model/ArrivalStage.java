@@ -0,0 +1,50 @@
+package io.ecs.model;
+
+/**
+ * A single stage of an open-model load profile.
+ *
+ * The arrival rate ramps linearly from the rate reached at the end of the
+ * previous stage (or the configured base arrival rate for the first stage)
+ * to the target rate over the stage duration.
+ */
+public class ArrivalStage {
+    private double targetRate;
+    private int durationSeconds;
+
+    public ArrivalStage() {
+    }
+
+    public ArrivalStage(double targetRate, int durationSeconds) {
+        this.targetRate = targetRate;
+        this.durationSeconds = durationSeconds;
+    }
+
+    /**
+     * Get the arrival rate reached at the end of this stage
+     *
+     * @return target arrivals per second
+     */
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public void setTargetRate(double targetRate) {
+        this.targetRate = targetRate;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "ArrivalStage{" +
+                "targetRate=" + targetRate +
+                ", durationSeconds=" + durationSeconds +
+                '}';
+    }
+}
@@ -0,0 +1,116 @@
+package io.ecs.model;
+
+/**
+ * How a capacity search steps up the load of a scenario.
+ *
+ * The search runs the scenario with a growing number of virtual users, one step
+ * at a time, until a step misses its error rate or latency objective or the user
+ * limit is reached. It then bisects between the last step that met the objectives
+ * and the first that did not.
+ */
+public class CapacitySearchConfig {
+    private int startUsers = 10;
+    private int stepUsers = 10;
+    private int maxUsers = 1000;
+    private int stepSeconds = 60;
+    private double maxErrorRate = 1.0;
+    private long maxP95Millis = 0;
+    private int refineSteps = 3;
+
+    public CapacitySearchConfig() {
+    }
+
+    /**
+     * Get the virtual users of the first step
+     */
+    public int getStartUsers() {
+        return startUsers;
+    }
+
+    public void setStartUsers(int startUsers) {
+        this.startUsers = Math.max(1, startUsers);
+    }
+
+    /**
+     * Get the virtual users added by each step
+     */
+    public int getStepUsers() {
+        return stepUsers;
+    }
+
+    public void setStepUsers(int stepUsers) {
+        this.stepUsers = Math.max(1, stepUsers);
+    }
+
+    /**
+     * Get the most virtual users a step may run
+     */
+    public int getMaxUsers() {
+        return maxUsers;
+    }
+
+    public void setMaxUsers(int maxUsers) {
+        this.maxUsers = Math.max(1, maxUsers);
+    }
+
+    /**
+     * Get how long each step holds its load
+     */
+    public int getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public void setStepSeconds(int stepSeconds) {
+        this.stepSeconds = Math.max(1, stepSeconds);
+    }
+
+    /**
+     * Get the highest share of failed requests a sustainable step may have
+     *
+     * @return percentage of requests, from 0 to 100
+     */
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    public void setMaxErrorRate(double maxErrorRate) {
+        this.maxErrorRate = Math.max(0.0, Math.min(100.0, maxErrorRate));
+    }
+
+    /**
+     * Get the highest 95th percentile response time a sustainable step may have
+     *
+     * @return milliseconds, or 0 to not check latency
+     */
+    public long getMaxP95Millis() {
+        return maxP95Millis;
+    }
+
+    public void setMaxP95Millis(long maxP95Millis) {
+        this.maxP95Millis = Math.max(0, maxP95Millis);
+    }
+
+    /**
+     * Get the number of bisection steps run after the stepping finds a failing step
+     */
+    public int getRefineSteps() {
+        return refineSteps;
+    }
+
+    public void setRefineSteps(int refineSteps) {
+        this.refineSteps = Math.max(0, refineSteps);
+    }
+
+    @Override
+    public String toString() {
+        return "CapacitySearchConfig{" +
+                "startUsers=" + startUsers +
+                ", stepUsers=" + stepUsers +
+                ", maxUsers=" + maxUsers +
+                ", stepSeconds=" + stepSeconds +
+                ", maxErrorRate=" + maxErrorRate +
+                ", maxP95Millis=" + maxP95Millis +
+                ", refineSteps=" + refineSteps +
+                '}';
+    }
+}
@@ -1,23 +1,38 @@
 package io.ecs.model;
 
 import io.ecs.util.FileUtils;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Configuration for test execution
  */
 public class ExecutionConfig {
+    public static final String EXECUTOR_PLATFORM = "platform";
+    public static final String EXECUTOR_VIRTUAL = "virtual";
+    
     private int threads;
     private int iterations;
     private int rampUpSeconds;
     private int holdSeconds;
     private int duration;
+    private int warmUpSeconds;
+    private int warmUpIterations;
     private double successThreshold = 100.0; // Default to 100% for backward compatibility
     private Map<String, String> variables;
     
+    // Open workload model: arrivals are issued on schedule regardless of in-flight requests
+    private double arrivalRate;
+    private List<ArrivalStage> arrivalStages;
+    private int maxConcurrency;
+    
+    private String executor = EXECUTOR_PLATFORM;
+    
     public ExecutionConfig() {
         variables = new HashMap<>();
+        arrivalStages = new ArrayList<>();
     }
     
     public int getThreads() {
@@ -60,6 +75,32 @@ public class ExecutionConfig {
         this.duration = duration;
     }
     
+    /**
+     * Get how long samples count as warm-up from the start of the scenario
+     * 
+     * @return seconds, 0 for no timed warm-up
+     */
+    public int getWarmUpSeconds() {
+        return warmUpSeconds;
+    }
+    
+    public void setWarmUpSeconds(int warmUpSeconds) {
+        this.warmUpSeconds = Math.max(0, warmUpSeconds);
+    }
+    
+    /**
+     * Get how many iterations of each virtual user count as warm-up
+     * 
+     * @return iterations, 0 for none
+     */
+    public int getWarmUpIterations() {
+        return warmUpIterations;
+    }
+    
+    public void setWarmUpIterations(int warmUpIterations) {
+        this.warmUpIterations = Math.max(0, warmUpIterations);
+    }
+    
     public double getSuccessThreshold() {
         return successThreshold;
     }
@@ -68,6 +109,72 @@ public class ExecutionConfig {
         this.successThreshold = successThreshold;
     }
     
+    /**
+     * Get the base arrival rate for the open workload model
+     * 
+     * @return arrivals (scenario iterations) per second, 0 when the closed model is used
+     */
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+    
+    public void setArrivalRate(double arrivalRate) {
+        this.arrivalRate = arrivalRate >= 0 ? arrivalRate : 0;
+    }
+    
+    public List<ArrivalStage> getArrivalStages() {
+        return arrivalStages;
+    }
+    
+    public void setArrivalStages(List<ArrivalStage> arrivalStages) {
+        this.arrivalStages = arrivalStages != null ? arrivalStages : new ArrayList<>();
+    }
+    
+    /**
+     * Get the maximum number of arrivals allowed in flight at once
+     * 
+     * @return maximum in-flight arrivals, 0 for unbounded
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+    
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency >= 0 ? maxConcurrency : 0;
+    }
+    
+    /**
+     * Check whether this configuration describes an open (arrival-rate) workload
+     * 
+     * @return true if an arrival rate or arrival stages are configured
+     */
+    public boolean isOpenModel() {
+        return arrivalRate > 0 || (arrivalStages != null && !arrivalStages.isEmpty());
+    }
+    
+    /**
+     * Get the executor type used to run virtual users
+     * 
+     * @return "platform" for a pool of platform threads, "virtual" for one virtual thread per user
+     */
+    public String getExecutor() {
+        return executor;
+    }
+    
+    public void setExecutor(String executor) {
+        this.executor = executor != null && !executor.trim().isEmpty() ?
+                executor.trim().toLowerCase() : EXECUTOR_PLATFORM;
+    }
+    
+    /**
+     * Check whether virtual users should run on virtual threads
+     * 
+     * @return true if the virtual thread executor is selected
+     */
+    public boolean isVirtualThreads() {
+        return EXECUTOR_VIRTUAL.equals(executor);
+    }
+    
     public Map<String, String> getVariables() {
         return variables;
     }
@@ -145,7 +252,13 @@ public class ExecutionConfig {
                 ", rampUpSeconds=" + rampUpSeconds +
                 ", holdSeconds=" + holdSeconds +
                 ", duration=" + duration +
+                ", warmUpSeconds=" + warmUpSeconds +
+                ", warmUpIterations=" + warmUpIterations +
                 ", successThreshold=" + successThreshold +
+                ", arrivalRate=" + arrivalRate +
+                ", arrivalStages=" + arrivalStages +
+                ", maxConcurrency=" + maxConcurrency +
+                ", executor='" + executor + '\'' +
                 ", variables=" + variables +
                 '}';
     }
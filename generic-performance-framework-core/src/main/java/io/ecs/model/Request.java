@@ -20,6 +20,7 @@ public class Request {
     private Map<String, String> variables = new HashMap<>();
     private Map<String, Object> assertions = new HashMap<>();
     private Map<String, String> responseValidators = new HashMap<>();
+    private ValidationConfig validation = new ValidationConfig();
     private String dataSource;
 
     public String getName() {
@@ -107,6 +108,19 @@ public class Request {
         this.assertions = assertions;
     }
     
+    /**
+     * Get how responses are checked against the response validators
+     * 
+     * @return the validation mode and sampling
+     */
+    public ValidationConfig getValidation() {
+        return validation;
+    }
+
+    public void setValidation(ValidationConfig validation) {
+        this.validation = validation != null ? validation : new ValidationConfig();
+    }
+    
     public String getBodyTemplate() {
         return bodyTemplate;
     }
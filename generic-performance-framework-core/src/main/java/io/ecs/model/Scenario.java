@@ -20,14 +20,21 @@ public class Scenario {
     private int iterations = 1;
     private int rampUp = 0;
     private int hold = 0;
+    private int warmUp = 0;
+    private int warmUpIterations = 0;
+    private int startOffset = 0;
     private String engine;
+    private String executor;
     private double successThreshold = 100.0; // Default success threshold is 100%
+    private List<String> abortOn;
+    private CapacitySearchConfig capacitySearch;
     
     public Scenario() {
         this.id = UUID.randomUUID().toString();
         this.requests = new ArrayList<>();
         this.variables = new HashMap<>();
         this.dataFiles = new HashMap<>();
+        this.abortOn = new ArrayList<>();
     }
     
     public String getId() {
@@ -105,6 +112,31 @@ public class Scenario {
         this.dataFiles = dataFiles;
     }
 
+    /**
+     * Get the criteria that stop the scenario early, such as "errorRate > 5% for 30s"
+     */
+    public List<String> getAbortOn() {
+        if (abortOn == null) {
+            abortOn = new ArrayList<>();
+        }
+        return abortOn;
+    }
+
+    public void setAbortOn(List<String> abortOn) {
+        this.abortOn = abortOn;
+    }
+
+    /**
+     * Get how a capacity search steps up the load, or null to run the scenario once
+     */
+    public CapacitySearchConfig getCapacitySearch() {
+        return capacitySearch;
+    }
+
+    public void setCapacitySearch(CapacitySearchConfig capacitySearch) {
+        this.capacitySearch = capacitySearch;
+    }
+
     public int getThreads() {
         return threads;
     }
@@ -137,6 +169,43 @@ public class Scenario {
         this.hold = hold;
     }
 
+    /**
+     * Get how long from the start of the scenario samples count as warm-up
+     * 
+     * @return seconds, 0 for no timed warm-up
+     */
+    public int getWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(int warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Get how many iterations of each virtual user count as warm-up
+     */
+    public int getWarmUpIterations() {
+        return warmUpIterations;
+    }
+
+    public void setWarmUpIterations(int warmUpIterations) {
+        this.warmUpIterations = warmUpIterations;
+    }
+
+    /**
+     * Get how long after the start of a parallel run the scenario starts
+     * 
+     * @return seconds, 0 to start right away
+     */
+    public int getStartOffset() {
+        return startOffset;
+    }
+
+    public void setStartOffset(int startOffset) {
+        this.startOffset = startOffset;
+    }
+
     public String getEngine() {
         return engine;
     }
@@ -145,6 +214,19 @@ public class Scenario {
         this.engine = engine;
     }
     
+    /**
+     * Get the executor type for this scenario's virtual users
+     * 
+     * @return "virtual" or "platform", or null to inherit the execution config
+     */
+    public String getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(String executor) {
+        this.executor = executor;
+    }
+    
     /**
      * Get the success threshold percentage for this scenario
      * 
@@ -88,6 +88,61 @@ public class ScenarioBuilder {
         return this;
     }
     
+    /**
+     * Set how long from the start samples count as warm-up and are left out of the results
+     * 
+     * @param warmUpSeconds Warm-up time in seconds
+     * @return This builder instance
+     */
+    public ScenarioBuilder warmUp(int warmUpSeconds) {
+        scenario.setWarmUp(warmUpSeconds);
+        return this;
+    }
+    
+    /**
+     * Set how many iterations of each virtual user count as warm-up and are left out of the results
+     * 
+     * @param iterations Warm-up iterations per virtual user
+     * @return This builder instance
+     */
+    public ScenarioBuilder warmUpIterations(int iterations) {
+        scenario.setWarmUpIterations(iterations);
+        return this;
+    }
+    
+    /**
+     * Set how long after the start of a parallel run the scenario starts
+     * 
+     * @param offsetSeconds Start offset in seconds
+     * @return This builder instance
+     */
+    public ScenarioBuilder startOffset(int offsetSeconds) {
+        scenario.setStartOffset(offsetSeconds);
+        return this;
+    }
+    
+    /**
+     * Add a criterion that stops the scenario early when breached
+     * 
+     * @param criterion Criterion such as "errorRate > 5% for 30s" or "p95 > 800ms for 60s"
+     * @return This builder instance
+     */
+    public ScenarioBuilder abortOn(String criterion) {
+        scenario.getAbortOn().add(criterion);
+        return this;
+    }
+    
+    /**
+     * Run a capacity search instead of a single run of the scenario
+     * 
+     * @param capacitySearch How the search steps up the load
+     * @return This builder instance
+     */
+    public ScenarioBuilder capacitySearch(CapacitySearchConfig capacitySearch) {
+        scenario.setCapacitySearch(capacitySearch);
+        return this;
+    }
+    
     /**
      * Add a variable to the scenario
      * 
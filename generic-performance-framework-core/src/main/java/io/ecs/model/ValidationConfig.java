@@ -0,0 +1,92 @@
+package io.ecs.model;
+
+/**
+ * How the responses of a request are checked against its response validators.
+ *
+ * Validation can run inline on the virtual user's thread or be handed off to a
+ * background pool, and can be limited to every Nth response or to a percentage
+ * of responses. Responses that are not sampled are judged by their status code.
+ */
+public class ValidationConfig {
+    public static final String MODE_INLINE = "inline";
+    public static final String MODE_ASYNC = "async";
+
+    private String mode = MODE_INLINE;
+    private int every = 1;
+    private double percent = 100.0;
+
+    public ValidationConfig() {
+    }
+
+    public ValidationConfig(String mode, int every, double percent) {
+        setMode(mode);
+        setEvery(every);
+        setPercent(percent);
+    }
+
+    /**
+     * Get where validation runs
+     *
+     * @return "inline" to validate on the virtual user's thread, "async" for the background pool
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode != null && !mode.trim().isEmpty() ? mode.trim().toLowerCase() : MODE_INLINE;
+    }
+
+    /**
+     * Check whether validation is handed off to the background pool
+     *
+     * @return true if the async mode is selected
+     */
+    public boolean isAsync() {
+        return MODE_ASYNC.equals(mode);
+    }
+
+    /**
+     * Get the sampling interval
+     *
+     * @return N to validate every Nth response of the request
+     */
+    public int getEvery() {
+        return every;
+    }
+
+    public void setEvery(int every) {
+        this.every = Math.max(1, every);
+    }
+
+    /**
+     * Get the share of responses to validate
+     *
+     * @return percentage of responses, from 0 to 100
+     */
+    public double getPercent() {
+        return percent;
+    }
+
+    public void setPercent(double percent) {
+        this.percent = Math.max(0.0, Math.min(100.0, percent));
+    }
+
+    /**
+     * Check whether every response is validated
+     *
+     * @return true if neither an interval nor a percentage limits validation
+     */
+    public boolean isValidateAll() {
+        return every == 1 && percent >= 100.0;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationConfig{" +
+                "mode='" + mode + '\'' +
+                ", every=" + every +
+                ", percent=" + percent +
+                '}';
+    }
+}
@@ -0,0 +1,196 @@
+package io.ecs.protocols;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection settings for the shared HTTP client, read from execution variables
+ *
+ * Supported variables (all optional):
+ * - connectionTimeout: connect timeout in milliseconds
+ * - socketTimeout: read timeout in milliseconds
+ * - connectionRequestTimeout: time to wait for a pooled connection in milliseconds
+ * - maxConnectionsPerRoute: pooled connections per host
+ * - maxConnectionsTotal: pooled connections across all hosts
+ * - keepAliveSeconds: keep-alive used when the server does not send a Keep-Alive header
+ * - idleTimeoutSeconds: idle connections older than this are evicted from the pool
+ * - followRedirects: whether redirects are followed
+ */
+public class HttpClientSettings {
+    private static final int DEFAULT_CONNECTION_TIMEOUT = 5000;
+    private static final int DEFAULT_SOCKET_TIMEOUT = 30000;
+    private static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 30000;
+    private static final int DEFAULT_MAX_PER_ROUTE = 200;
+    private static final int DEFAULT_MAX_TOTAL = 1000;
+    private static final long DEFAULT_KEEP_ALIVE_SECONDS = 30;
+    private static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 60;
+
+    private int connectionTimeout = DEFAULT_CONNECTION_TIMEOUT;
+    private int socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+    private int connectionRequestTimeout = DEFAULT_CONNECTION_REQUEST_TIMEOUT;
+    private int maxConnectionsPerRoute = DEFAULT_MAX_PER_ROUTE;
+    private int maxConnectionsTotal = DEFAULT_MAX_TOTAL;
+    private long keepAliveSeconds = DEFAULT_KEEP_ALIVE_SECONDS;
+    private long idleTimeoutSeconds = DEFAULT_IDLE_TIMEOUT_SECONDS;
+    private boolean followRedirects = true;
+
+    /**
+     * Read settings from a map of variables, falling back to defaults
+     *
+     * @param variables the variables, may be null
+     * @return the settings
+     */
+    public static HttpClientSettings fromVariables(Map<String, String> variables) {
+        HttpClientSettings settings = new HttpClientSettings();
+        if (variables == null) {
+            return settings;
+        }
+        settings.connectionTimeout = getInt(variables, "connectionTimeout", DEFAULT_CONNECTION_TIMEOUT);
+        settings.socketTimeout = getInt(variables, "socketTimeout", DEFAULT_SOCKET_TIMEOUT);
+        settings.connectionRequestTimeout = getInt(variables, "connectionRequestTimeout", DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+        settings.maxConnectionsPerRoute = Math.max(1, getInt(variables, "maxConnectionsPerRoute", DEFAULT_MAX_PER_ROUTE));
+        settings.maxConnectionsTotal = Math.max(settings.maxConnectionsPerRoute,
+                getInt(variables, "maxConnectionsTotal", DEFAULT_MAX_TOTAL));
+        settings.keepAliveSeconds = getInt(variables, "keepAliveSeconds", (int) DEFAULT_KEEP_ALIVE_SECONDS);
+        settings.idleTimeoutSeconds = getInt(variables, "idleTimeoutSeconds", (int) DEFAULT_IDLE_TIMEOUT_SECONDS);
+        settings.followRedirects = !"false".equalsIgnoreCase(variables.get("followRedirects"));
+        return settings;
+    }
+
+    /**
+     * Raise the pool limits so that at least the given number of connections can be open per route
+     *
+     * @param connections number of concurrent connections needed
+     * @return these settings
+     */
+    public HttpClientSettings withMinimumConnections(int connections) {
+        maxConnectionsPerRoute = Math.max(maxConnectionsPerRoute, connections);
+        maxConnectionsTotal = Math.max(maxConnectionsTotal, maxConnectionsPerRoute);
+        return this;
+    }
+
+    /**
+     * Create a client backed by a pooling connection manager
+     *
+     * The client evicts expired and idle connections on a background thread and
+     * must be closed when it is no longer needed.
+     *
+     * @return a new HTTP client
+     */
+    public CloseableHttpClient createClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnectionsTotal);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectionTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .setRedirectsEnabled(followRedirects)
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Honour the server's Keep-Alive timeout, falling back to the configured value
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        long defaultKeepAliveMillis = keepAliveSeconds * 1000;
+        return (response, context) -> {
+            HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (it.hasNext()) {
+                HeaderElement element = it.nextElement();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Long.parseLong(element.getValue()) * 1000;
+                    } catch (NumberFormatException e) {
+                        // Ignore and use the default
+                    }
+                }
+            }
+            return defaultKeepAliveMillis;
+        };
+    }
+
+    private static int getInt(Map<String, String> variables, String key, int defaultValue) {
+        String value = variables.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public int getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HttpClientSettings)) return false;
+        HttpClientSettings that = (HttpClientSettings) o;
+        return connectionTimeout == that.connectionTimeout &&
+                socketTimeout == that.socketTimeout &&
+                connectionRequestTimeout == that.connectionRequestTimeout &&
+                maxConnectionsPerRoute == that.maxConnectionsPerRoute &&
+                maxConnectionsTotal == that.maxConnectionsTotal &&
+                keepAliveSeconds == that.keepAliveSeconds &&
+                idleTimeoutSeconds == that.idleTimeoutSeconds &&
+                followRedirects == that.followRedirects;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(connectionTimeout, socketTimeout, connectionRequestTimeout, maxConnectionsPerRoute,
+                maxConnectionsTotal, keepAliveSeconds, idleTimeoutSeconds, followRedirects);
+    }
+
+    @Override
+    public String toString() {
+        return "HttpClientSettings{" +
+                "connectionTimeout=" + connectionTimeout +
+                ", socketTimeout=" + socketTimeout +
+                ", connectionRequestTimeout=" + connectionRequestTimeout +
+                ", maxConnectionsPerRoute=" + maxConnectionsPerRoute +
+                ", maxConnectionsTotal=" + maxConnectionsTotal +
+                ", keepAliveSeconds=" + keepAliveSeconds +
+                ", idleTimeoutSeconds=" + idleTimeoutSeconds +
+                ", followRedirects=" + followRedirects +
+                '}';
+    }
+}
@@ -2,37 +2,52 @@ package io.ecs.protocols;
 
 import io.ecs.engine.Protocol;
 import io.ecs.model.Response;
-import io.ecs.util.TemplateProcessor;
+import io.ecs.util.CompiledTemplate;
+import io.ecs.util.VariableScope;
+import io.ecs.util.VariableSlots;
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Unified HTTP/HTTPS protocol implementation with variable support
+ * 
+ * All requests share one long-lived client backed by a connection pool, so
+ * connections (and TLS sessions) are reused across samples. Pool limits and
+ * timeouts are taken from the global variables, see {@link HttpClientSettings}.
+ * A client replaced by new settings, or released by {@link #close()}, is closed
+ * once the requests still using it have finished.
+ * 
+ * Request variables are layered over the global variables as a {@link VariableScope}
+ * rather than merged into a copy, so executing a request does not copy any map.
  */
-public class HttpProtocol implements Protocol {
+public class HttpProtocol implements Protocol, Closeable {
     
     private static final Logger logger = LoggerFactory.getLogger(HttpProtocol.class);
+    private static final int BASE_URL_SLOT = VariableSlots.slotOf("baseUrl");
+    private static final int CONTENT_TYPE_SLOT = VariableSlots.slotOf("contentType");
+    
     private Map<String, String> globalVariables = new HashMap<>();
-    private final TemplateProcessor templateProcessor;
+    private volatile VariableScope globalScope = VariableScope.global(null);
     
-    public HttpProtocol() {
-        templateProcessor = new TemplateProcessor();
-    }
+    private final Object clientLock = new Object();
+    private volatile SharedClient sharedClient;
+    private HttpClientSettings clientSettings = HttpClientSettings.fromVariables(null);
     
     @Override
     public String getName() {
@@ -44,9 +59,73 @@ public class HttpProtocol implements Protocol {
         return new HashMap<>(globalVariables);
     }
     
+    @Override
+    public VariableScope getGlobalScope() {
+        return globalScope;
+    }
+    
     @Override
     public void setGlobalVariables(Map<String, String> variables) {
         this.globalVariables = variables != null ? new HashMap<>(variables) : new HashMap<>();
+        this.globalScope = VariableScope.global(globalVariables);
+        
+        // Rebuild the shared client only when the connection settings change
+        HttpClientSettings settings = HttpClientSettings.fromVariables(globalVariables);
+        SharedClient staleClient = null;
+        synchronized (clientLock) {
+            if (!settings.equals(clientSettings)) {
+                clientSettings = settings;
+                staleClient = sharedClient;
+                sharedClient = null;
+            }
+        }
+        if (staleClient != null) {
+            staleClient.retire();
+        }
+    }
+    
+    /**
+     * Get the shared HTTP client for one request, creating it on first use
+     * 
+     * The caller must {@link SharedClient#release()} the client when the request is done.
+     * 
+     * @return the pooled HTTP client
+     */
+    private SharedClient acquireClient() {
+        while (true) {
+            SharedClient client = sharedClient;
+            if (client == null) {
+                synchronized (clientLock) {
+                    client = sharedClient;
+                    if (client == null) {
+                        client = new SharedClient(clientSettings.createClient());
+                        sharedClient = client;
+                        logger.info("Created pooled HTTP client: {}", clientSettings);
+                    }
+                }
+            }
+            if (client.acquire()) {
+                return client;
+            }
+        }
+    }
+    
+    /**
+     * Release the shared client and its pooled connections
+     * 
+     * Requests still in flight finish on the released client, which is closed
+     * after the last of them. A later request creates a new client.
+     */
+    @Override
+    public void close() {
+        SharedClient client;
+        synchronized (clientLock) {
+            client = sharedClient;
+            sharedClient = null;
+        }
+        if (client != null) {
+            client.retire();
+        }
     }
     
     @Override
@@ -57,21 +136,18 @@ public class HttpProtocol implements Protocol {
         long startTime = System.currentTimeMillis();
         
         try {
-            // Merge global and request variables
-            Map<String, String> mergedVariables = new HashMap<>(globalVariables);
-            if (requestVariables != null) {
-                mergedVariables.putAll(requestVariables);
-            }
+            // Layer request variables over the global variables
+            VariableScope variables = requestScope(requestVariables);
             
             // Process variables in endpoint, body, headers, and params
-            String processedEndpoint = processVariables(endpoint, mergedVariables);
-            String processedBody = processVariables(body, mergedVariables);
-            Map<String, String> processedHeaders = processMapValues(headers, mergedVariables);
-            Map<String, String> processedParams = processMapValues(params, mergedVariables);
+            String processedEndpoint = processVariables(endpoint, variables);
+            String processedBody = processVariables(body, variables);
+            Map<String, String> processedHeaders = processMapValues(headers, variables);
+            Map<String, String> processedParams = processMapValues(params, variables);
             
             // Add base URL if not an absolute URL
             if (!processedEndpoint.toLowerCase().startsWith("http")) {
-                String baseUrl = mergedVariables.getOrDefault("baseUrl", "https://jsonplaceholder.typicode.com");
+                String baseUrl = valueOrDefault(variables, BASE_URL_SLOT, "https://jsonplaceholder.typicode.com");
                 if (!processedEndpoint.startsWith("/")) {
                     processedEndpoint = baseUrl + "/" + processedEndpoint;
                 } else {
@@ -79,8 +155,7 @@ public class HttpProtocol implements Protocol {
                 }
             }
             
-            // Create and execute the request
-            HttpClient httpClient = HttpClients.createDefault();
+            // Create the request
             HttpUriRequest request = createRequest(processedEndpoint, method, processedBody, processedParams);
             
             // Add headers
@@ -92,38 +167,37 @@ public class HttpProtocol implements Protocol {
             
             // Set content type from variables if present and not already set
             if (processedBody != null && !request.containsHeader("Content-Type")) {
-                String contentType = mergedVariables.getOrDefault("contentType", "application/json");
+                String contentType = valueOrDefault(variables, CONTENT_TYPE_SLOT, "application/json");
                 request.addHeader("Content-Type", contentType);
             }
             
-            // Configure timeouts if specified in variables
-            // Note: This would require custom HttpClient configuration
-            
-            // Execute request
-            HttpResponse httpResponse = httpClient.execute(request);
-            HttpEntity entity = httpResponse.getEntity();
-            
-            // Create response
+            // Execute request on the shared client; timeouts come from the client settings
             Response response = new Response();
-            response.setStatusCode(httpResponse.getStatusLine().getStatusCode());
-            
-            // Get headers
-            for (org.apache.http.Header header : httpResponse.getAllHeaders()) {
-                response.addHeader(header.getName(), header.getValue());
-            }
-            
-            // Get body
-            if (entity != null) {
-                String responseBody = EntityUtils.toString(entity, StandardCharsets.UTF_8);
-                response.setBody(responseBody);
+            SharedClient client = acquireClient();
+            try (CloseableHttpResponse httpResponse = client.get().execute(request)) {
+                HttpEntity entity = httpResponse.getEntity();
+                response.setStatusCode(httpResponse.getStatusLine().getStatusCode());
                 
-                // Set received bytes
-                if (responseBody != null) {
-                    response.setReceivedBytes(responseBody.getBytes(StandardCharsets.UTF_8).length);
+                // Get headers
+                for (org.apache.http.Header header : httpResponse.getAllHeaders()) {
+                    response.addHeader(header.getName(), header.getValue());
                 }
                 
-                // Ensure the entity content is fully consumed
-                EntityUtils.consume(entity);
+                // Get body
+                if (entity != null) {
+                    String responseBody = EntityUtils.toString(entity, StandardCharsets.UTF_8);
+                    response.setBody(responseBody);
+                    
+                    // Set received bytes
+                    if (responseBody != null) {
+                        response.setReceivedBytes(responseBody.getBytes(StandardCharsets.UTF_8).length);
+                    }
+                    
+                    // Ensure the entity content is fully consumed so the connection returns to the pool
+                    EntityUtils.consume(entity);
+                }
+            } finally {
+                client.release();
             }
             
             // Set response time
@@ -148,20 +222,42 @@ public class HttpProtocol implements Protocol {
     }
     
     /**
-     * Process a string with template variables
+     * Get the scope to resolve a request's variables in
+     * 
+     * Scopes built on this protocol's global scope are used as they are; any other
+     * variables are placed in a request layer over the global scope.
      */
-    private String processVariables(String input, Map<String, String> variables) {
-        if (input == null || input.isEmpty() || variables == null || variables.isEmpty()) {
+    private VariableScope requestScope(Map<String, String> requestVariables) {
+        VariableScope global = globalScope;
+        if (requestVariables instanceof VariableScope && ((VariableScope) requestVariables).extendsScope(global)) {
+            return (VariableScope) requestVariables;
+        }
+        if (requestVariables == null || requestVariables.isEmpty()) {
+            return global;
+        }
+        return global.child(VariableScope.Level.REQUEST, requestVariables);
+    }
+    
+    private static String valueOrDefault(VariableScope variables, int slot, String defaultValue) {
+        String value = variables.get(slot);
+        return value != null ? value : defaultValue;
+    }
+    
+    /**
+     * Process a string with template variables; undefined variables become empty
+     */
+    private String processVariables(String input, VariableScope variables) {
+        if (input == null || input.isEmpty()) {
             return input;
         }
-        return templateProcessor.processTemplate(input, variables);
+        return CompiledTemplate.compile(input).render(variables, "");
     }
     
     /**
      * Process all values in a map with template variables
      */
-    private Map<String, String> processMapValues(Map<String, String> map, Map<String, String> variables) {
-        if (map == null || map.isEmpty() || variables == null || variables.isEmpty()) {
+    private Map<String, String> processMapValues(Map<String, String> map, VariableScope variables) {
+        if (map == null || map.isEmpty()) {
             return map;
         }
         
@@ -243,4 +339,62 @@ public class HttpProtocol implements Protocol {
         
         return request;
     }
-}
\ No newline at end of file
+    
+    /**
+     * A pooled client together with the number of requests using it
+     */
+    private static final class SharedClient {
+        private final CloseableHttpClient client;
+        private final AtomicInteger users = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean retired;
+        
+        SharedClient(CloseableHttpClient client) {
+            this.client = client;
+        }
+        
+        CloseableHttpClient get() {
+            return client;
+        }
+        
+        /**
+         * Register a request on this client
+         * 
+         * @return false if the client has been retired and must not be used
+         */
+        boolean acquire() {
+            users.incrementAndGet();
+            if (retired) {
+                release();
+                return false;
+            }
+            return true;
+        }
+        
+        void release() {
+            if (users.decrementAndGet() == 0 && retired) {
+                closeOnce();
+            }
+        }
+        
+        /**
+         * Stop handing out this client and close it once no request is using it
+         */
+        void retire() {
+            retired = true;
+            if (users.get() == 0) {
+                closeOnce();
+            }
+        }
+        
+        private void closeOnce() {
+            if (closed.compareAndSet(false, true)) {
+                try {
+                    client.close();
+                } catch (IOException e) {
+                    logger.warn("Error closing HTTP client: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.ecs.report;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exports binary sample logs to standard JTL CSV files
+ *
+ * Usage:
+ * java -cp performance-framework.jar io.ecs.report.BinarySampleConverter results.jtlb [results.jtl]
+ */
+public class BinarySampleConverter {
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    private BinarySampleConverter() {
+    }
+
+    /**
+     * Export a binary sample log to a JTL CSV file
+     *
+     * @param binaryPath path of the binary sample log
+     * @param jtlPath path of the JTL file to write, which is overwritten
+     * @return the number of samples exported
+     * @throws IOException if either file cannot be read or written
+     */
+    public static long toJtl(String binaryPath, String jtlPath) throws IOException {
+        long count = 0;
+        try (BinarySampleReader reader = new BinarySampleReader(binaryPath);
+             FileChannel channel = FileChannel.open(Paths.get(jtlPath), StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CsvSampleEncoder encoder = new CsvSampleEncoder(CHUNK_SIZE);
+            while (reader.next()) {
+                encoder.encode(reader.current());
+                count++;
+                if (encoder.pendingSize() >= CHUNK_SIZE) {
+                    encoder.writeTo(channel);
+                }
+            }
+            encoder.writeTo(channel);
+        }
+        return count;
+    }
+
+    /**
+     * Get the default JTL path for a binary sample log, replacing its extension
+     *
+     * @param binaryPath path of the binary sample log
+     * @return the JTL path
+     */
+    public static String defaultJtlPath(String binaryPath) {
+        String binaryExtension = SampleFormat.BINARY.getExtension();
+        String base = binaryPath.endsWith(binaryExtension) ?
+                binaryPath.substring(0, binaryPath.length() - binaryExtension.length()) : binaryPath;
+        return base + SampleFormat.CSV.getExtension();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: BinarySampleConverter <samples.jtlb> [output.jtl]");
+            System.exit(1);
+        }
+        String jtlPath = args.length > 1 ? args[1] : defaultJtlPath(args[0]);
+        long count = toJtl(args[0], jtlPath);
+        System.out.println("Exported " + count + " samples to " + jtlPath);
+    }
+}
@@ -0,0 +1,150 @@
+package io.ecs.report;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes samples in the compact binary sample log format
+ *
+ * The file starts with a magic number and version, followed by records that each
+ * start with a type byte:
+ * <ul>
+ *   <li>string: column byte, int length and UTF-8 bytes; the strings of each text column
+ *       are numbered from 1 in the order they appear</li>
+ *   <li>time: long timestamp that the next sample's delta is relative to</li>
+ *   <li>reset: column byte; forget the strings of that column, numbering starts at 1 again</li>
+ *   <li>sample: fixed width, timestamp as an int delta from the previous sample, times and
+ *       sizes as ints, thread counts as unsigned shorts and every text column as the
+ *       unsigned short number of a string, 0 for none</li>
+ * </ul>
+ * Labels, thread names and response codes repeat from sample to sample, so each is
+ * written once. A column's strings are reset when it has {@link #MAX_STRINGS} of them,
+ * which keeps memory bounded when a column such as the URL is mostly unique.
+ */
+final class BinarySampleEncoder implements SampleEncoder {
+    static final int MAGIC = 0x45435342; // "ECSB"
+    static final short VERSION = 1;
+    static final byte RECORD_STRING = 1;
+    static final byte RECORD_TIME = 2;
+    static final byte RECORD_RESET = 3;
+    static final byte RECORD_SAMPLE = 4;
+    static final int STRING_COLUMNS = 7;
+    static final int SAMPLE_SIZE = 1 + 7 * 4 + 2 * 2 + 1 + STRING_COLUMNS * 2;
+    static final int MAX_STRINGS = 0xFFFF;
+
+    private final List<Map<String, Integer>> strings = new ArrayList<>(STRING_COLUMNS);
+    private ByteBuffer chunk;
+    private boolean hasTime = false;
+    private long lastTimeStamp;
+
+    BinarySampleEncoder(int chunkSize) {
+        this.chunk = ByteBuffer.allocate(Math.max(chunkSize, 1024));
+        chunk.putInt(MAGIC).putShort(VERSION);
+        for (int i = 0; i < STRING_COLUMNS; i++) {
+            strings.add(new HashMap<>());
+        }
+    }
+
+    @Override
+    public void encode(SampleRecord sample) {
+        // Define the strings of this sample before the sample refers to them
+        char label = stringId(0, sample.label);
+        char responseCode = stringId(1, sample.responseCode);
+        char responseMessage = stringId(2, sample.responseMessage);
+        char threadName = stringId(3, sample.threadName);
+        char dataType = stringId(4, sample.dataType);
+        char failureMessage = stringId(5, sample.failureMessage);
+        char url = stringId(6, sample.url);
+
+        long delta = sample.timeStamp - lastTimeStamp;
+        if (!hasTime || delta < Integer.MIN_VALUE || delta > Integer.MAX_VALUE) {
+            ensureCapacity(1 + 8);
+            chunk.put(RECORD_TIME).putLong(sample.timeStamp);
+            hasTime = true;
+            delta = 0;
+        }
+        lastTimeStamp = sample.timeStamp;
+
+        ensureCapacity(SAMPLE_SIZE);
+        chunk.put(RECORD_SAMPLE)
+             .putInt((int) delta)
+             .putInt(clamp(sample.elapsed))
+             .putInt(clamp(sample.latency))
+             .putInt(clamp(sample.connect))
+             .putInt(clamp(sample.idleTime))
+             .putInt(clamp(sample.bytes))
+             .putInt(clamp(sample.sentBytes))
+             .putChar(unsignedShort(sample.grpThreads))
+             .putChar(unsignedShort(sample.allThreads))
+             .put(sample.success ? (byte) 1 : (byte) 0)
+             .putChar(label)
+             .putChar(responseCode)
+             .putChar(responseMessage)
+             .putChar(threadName)
+             .putChar(dataType)
+             .putChar(failureMessage)
+             .putChar(url);
+    }
+
+    @Override
+    public int pendingSize() {
+        return chunk.position();
+    }
+
+    @Override
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Get the number of a string in a text column, writing a string record the first time it is seen
+     */
+    private char stringId(int column, String value) {
+        if (value == null) {
+            return 0;
+        }
+        Map<String, Integer> columnStrings = strings.get(column);
+        Integer id = columnStrings.get(value);
+        if (id != null) {
+            return (char) id.intValue();
+        }
+        if (columnStrings.size() >= MAX_STRINGS) {
+            ensureCapacity(2);
+            chunk.put(RECORD_RESET).put((byte) column);
+            columnStrings.clear();
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(2 + 4 + bytes.length);
+        chunk.put(RECORD_STRING).put((byte) column).putInt(bytes.length).put(bytes);
+        id = columnStrings.size() + 1;
+        columnStrings.put(value, id);
+        return (char) id.intValue();
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (chunk.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(chunk.capacity() * 2, chunk.position() + bytes));
+            chunk.flip();
+            larger.put(chunk);
+            chunk = larger;
+        }
+    }
+
+    private static char unsignedShort(int value) {
+        return (char) Math.max(0, Math.min(0xFFFF, value));
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+}
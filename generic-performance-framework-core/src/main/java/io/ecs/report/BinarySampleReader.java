@@ -0,0 +1,260 @@
+package io.ecs.report;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a binary sample log written with {@link SampleFormat#BINARY}
+ *
+ * The reader moves through the samples one at a time; the getters return the
+ * values of the current sample.
+ */
+public class BinarySampleReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final List<List<String>> strings = new ArrayList<>(BinarySampleEncoder.STRING_COLUMNS);
+    private final SampleRecord current = new SampleRecord(0);
+    private long timeStamp;
+    private boolean endOfFile = false;
+
+    /**
+     * Open a binary sample log
+     *
+     * @param filePath path of the log
+     * @throws IOException if the file cannot be read or is not a binary sample log
+     */
+    public BinarySampleReader(String filePath) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        buffer.limit(0);
+        for (int i = 0; i < BinarySampleEncoder.STRING_COLUMNS; i++) {
+            strings.add(new ArrayList<>());
+        }
+        try {
+            if (!fill(6) || buffer.getInt() != BinarySampleEncoder.MAGIC) {
+                throw new IOException("Not a binary sample log: " + filePath);
+            }
+            short version = buffer.getShort();
+            if (version != BinarySampleEncoder.VERSION) {
+                throw new IOException("Unsupported binary sample log version " + version + ": " + filePath);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Check whether a file starts like a binary sample log
+     *
+     * @param filePath path of the file
+     * @return true if the file starts with the binary sample log magic number
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinarySampleLog(String filePath) throws IOException {
+        try (FileChannel file = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && file.read(magic) >= 0) {
+                // Keep reading until the magic number is complete or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == BinarySampleEncoder.MAGIC;
+        }
+    }
+
+    /**
+     * Move to the next sample
+     *
+     * @return false if there are no more samples
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public boolean next() throws IOException {
+        while (fill(1)) {
+            byte type = buffer.get();
+            switch (type) {
+                case BinarySampleEncoder.RECORD_STRING: {
+                    require(5);
+                    List<String> columnStrings = column(buffer.get());
+                    int length = buffer.getInt();
+                    byte[] bytes = new byte[length];
+                    int read = 0;
+                    while (read < length) {
+                        require(1);
+                        int count = Math.min(length - read, buffer.remaining());
+                        buffer.get(bytes, read, count);
+                        read += count;
+                    }
+                    columnStrings.add(new String(bytes, StandardCharsets.UTF_8));
+                    break;
+                }
+                case BinarySampleEncoder.RECORD_TIME:
+                    require(8);
+                    timeStamp = buffer.getLong();
+                    break;
+                case BinarySampleEncoder.RECORD_RESET:
+                    require(1);
+                    column(buffer.get()).clear();
+                    break;
+                case BinarySampleEncoder.RECORD_SAMPLE:
+                    require(BinarySampleEncoder.SAMPLE_SIZE - 1);
+                    readSample();
+                    return true;
+                default:
+                    throw new IOException("Corrupt binary sample log: unknown record type " + type);
+            }
+        }
+        return false;
+    }
+
+    private void readSample() throws IOException {
+        timeStamp += buffer.getInt();
+        current.timeStamp = timeStamp;
+        current.elapsed = buffer.getInt();
+        current.latency = buffer.getInt();
+        current.connect = buffer.getInt();
+        current.idleTime = buffer.getInt();
+        current.bytes = buffer.getInt();
+        current.sentBytes = buffer.getInt();
+        current.grpThreads = buffer.getChar();
+        current.allThreads = buffer.getChar();
+        current.success = buffer.get() != 0;
+        current.label = string(0, buffer.getChar());
+        current.responseCode = string(1, buffer.getChar());
+        current.responseMessage = string(2, buffer.getChar());
+        current.threadName = string(3, buffer.getChar());
+        current.dataType = string(4, buffer.getChar());
+        current.failureMessage = string(5, buffer.getChar());
+        current.url = string(6, buffer.getChar());
+    }
+
+    private List<String> column(byte column) throws IOException {
+        if (column < 0 || column >= strings.size()) {
+            throw new IOException("Corrupt binary sample log: unknown column " + column);
+        }
+        return strings.get(column);
+    }
+
+    private String string(int column, int id) throws IOException {
+        if (id == 0) {
+            return null;
+        }
+        List<String> columnStrings = strings.get(column);
+        if (id > columnStrings.size()) {
+            throw new IOException("Corrupt binary sample log: unknown string " + id);
+        }
+        return columnStrings.get(id - 1);
+    }
+
+    /**
+     * Make at least the given number of bytes available, reading more of the file if needed
+     *
+     * @return false if the file ends first
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes && !endOfFile) {
+            if (channel.read(buffer) < 0) {
+                endOfFile = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (!fill(bytes)) {
+            throw new EOFException("Truncated binary sample log");
+        }
+    }
+
+    /**
+     * Get the current sample; the instance is reused for every sample
+     */
+    SampleRecord current() {
+        return current;
+    }
+
+    public long getTimeStamp() {
+        return current.timeStamp;
+    }
+
+    public long getElapsed() {
+        return current.elapsed;
+    }
+
+    public String getLabel() {
+        return current.label;
+    }
+
+    public String getResponseCode() {
+        return current.responseCode;
+    }
+
+    public String getResponseMessage() {
+        return current.responseMessage;
+    }
+
+    public String getThreadName() {
+        return current.threadName;
+    }
+
+    public String getDataType() {
+        return current.dataType;
+    }
+
+    public boolean isSuccess() {
+        return current.success;
+    }
+
+    public String getFailureMessage() {
+        return current.failureMessage;
+    }
+
+    public long getBytes() {
+        return current.bytes;
+    }
+
+    public long getSentBytes() {
+        return current.sentBytes;
+    }
+
+    public int getGrpThreads() {
+        return current.grpThreads;
+    }
+
+    public int getAllThreads() {
+        return current.allThreads;
+    }
+
+    public String getUrl() {
+        return current.url;
+    }
+
+    public long getLatency() {
+        return current.latency;
+    }
+
+    public long getIdleTime() {
+        return current.idleTime;
+    }
+
+    public long getConnect() {
+        return current.connect;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,69 @@
+package io.ecs.report;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes samples as JTL CSV lines, starting with the header row
+ */
+final class CsvSampleEncoder implements SampleEncoder {
+    private final StringBuilder chunk;
+
+    CsvSampleEncoder(int chunkSize) {
+        this.chunk = new StringBuilder(chunkSize);
+        chunk.append(String.join(",", JtlReporter.JTL_HEADERS)).append('\n');
+    }
+
+    @Override
+    public void encode(SampleRecord sample) {
+        chunk.append(sample.timeStamp).append(',')
+             .append(sample.elapsed).append(',');
+        appendValue(sample.label).append(',');
+        appendValue(sample.responseCode).append(',');
+        appendValue(sample.responseMessage).append(',');
+        appendValue(sample.threadName).append(',');
+        appendValue(sample.dataType).append(',');
+        chunk.append(sample.success).append(',');
+        appendValue(sample.failureMessage).append(',');
+        chunk.append(sample.bytes).append(',')
+             .append(sample.sentBytes).append(',')
+             .append(sample.grpThreads).append(',')
+             .append(sample.allThreads).append(',');
+        appendValue(sample.url).append(',');
+        chunk.append(sample.latency).append(',')
+             .append(sample.idleTime).append(',')
+             .append(sample.connect).append('\n');
+    }
+
+    @Override
+    public int pendingSize() {
+        return chunk.length();
+    }
+
+    @Override
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        if (chunk.length() == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(chunk.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        chunk.setLength(0);
+    }
+
+    /**
+     * Append a CSV value, quoting it if it contains a quote, comma or newline
+     */
+    private StringBuilder appendValue(String value) {
+        if (value == null) {
+            return chunk;
+        }
+        if (value.indexOf('"') < 0 && value.indexOf(',') < 0 && value.indexOf('\n') < 0) {
+            return chunk.append(value);
+        }
+        return chunk.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -1,14 +1,11 @@
 package io.ecs.report;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,20 +18,27 @@ import java.util.logging.Logger;
  * 
  * This implementation follows the Entity-Component-System pattern by acting as a 
  * system that processes and records test result entities.
+ * 
+ * Samples are handed to a {@link JtlSink} per file, which writes them from a background
+ * thread, so recording a sample never waits for the disk.
  */
 public class JtlReporter {
     private static final Logger LOGGER = Logger.getLogger(JtlReporter.class.getName());
     
     // JMeter JTL CSV columns
-    private static final String[] JTL_HEADERS = {
+    static final String[] JTL_HEADERS = {
         "timeStamp", "elapsed", "label", "responseCode", "responseMessage", 
         "threadName", "dataType", "success", "failureMessage", "bytes", 
         "sentBytes", "grpThreads", "allThreads", "URL", "Latency", 
         "IdleTime", "Connect"
     };
 
+    // Format of files created by reporters that were not given one
+    private static volatile SampleFormat defaultFormat = SampleFormat.CSV;
+
     private final String outputDirectory;
-    private final Map<String, FileWriter> testWriters = new ConcurrentHashMap<>();
+    private final SampleFormat format;
+    private final Map<String, JtlSink> testWriters = new ConcurrentHashMap<>();
 
     /**
      * Create a new JtlReporter with the default output directory
@@ -49,10 +53,34 @@ public class JtlReporter {
      * @param outputDirectory Directory to output JTL files
      */
     public JtlReporter(String outputDirectory) {
+        this(outputDirectory, null);
+    }
+
+    /**
+     * Create a new JtlReporter writing files in a specific format
+     * 
+     * @param outputDirectory Directory to output sample files
+     * @param format File format, or null to use the default format when each file is created
+     */
+    public JtlReporter(String outputDirectory, SampleFormat format) {
         this.outputDirectory = outputDirectory;
+        this.format = format;
         createOutputDirectoryIfNotExists();
     }
 
+    /**
+     * Set the format of files created by reporters that were not given one
+     * 
+     * @param format CSV for JTL files, BINARY for compact binary sample logs
+     */
+    public static void setDefaultFormat(SampleFormat format) {
+        defaultFormat = format != null ? format : SampleFormat.CSV;
+    }
+
+    public static SampleFormat getDefaultFormat() {
+        return defaultFormat;
+    }
+
     /**
      * Ensure the output directory exists
      */
@@ -77,13 +105,13 @@ public class JtlReporter {
     public String initializeJtlFile(String testName) {
         String testId = UUID.randomUUID().toString();
         try {
+            SampleFormat fileFormat = format != null ? format : defaultFormat;
             String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
-            String filename = String.format("%s/%s_%s.jtl", outputDirectory, testName, timestamp);
+            String filename = String.format("%s/%s_%s%s", outputDirectory, testName, timestamp,
+                    fileFormat.getExtension());
             
-            FileWriter writer = new FileWriter(filename);
-            // Write CSV headers
-            writer.write(String.join(",", JTL_HEADERS) + "\n");
-            testWriters.put(testId, writer);
+            // The sink writes the CSV headers or binary file header
+            testWriters.put(testId, new JtlSink(filename, fileFormat));
             
             LOGGER.info("Initialized JTL file: " + filename);
             return testId;
@@ -100,82 +128,58 @@ public class JtlReporter {
      * @param sampleResult the sample result data
      */
     public void recordSample(String testId, Map<String, Object> sampleResult) {
-        FileWriter writer = testWriters.get(testId);
+        JtlSink writer = testWriters.get(testId);
         if (writer == null) {
             LOGGER.warning("No JTL file found for test ID: " + testId);
             return;
         }
         
-        try {
-            // Create a row with values in the correct order
-            List<String> values = createCsvRow(JTL_HEADERS, sampleResult);
-            writer.write(String.join(",", values) + "\n");
-            writer.flush(); // Flush to ensure data is written immediately
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Error writing to JTL file for test ID: " + testId, e);
+        writer.record(sampleResult);
+    }
+    
+    /**
+     * Records a single sample result to the JTL file without building a sample map
+     * 
+     * @param testId the test ID returned from initializeJtlFile
+     */
+    public void recordSample(String testId, long timeStamp, long elapsed, String label, String responseCode,
+                             String responseMessage, String threadName, String dataType, boolean success,
+                             String failureMessage, long bytes, long sentBytes, int grpThreads,
+                             int allThreads, String url, long latency, long idleTime, long connect) {
+        JtlSink writer = testWriters.get(testId);
+        if (writer == null) {
+            LOGGER.warning("No JTL file found for test ID: " + testId);
+            return;
         }
+        
+        writer.record(timeStamp, elapsed, label, responseCode, responseMessage, threadName, dataType,
+                success, failureMessage, bytes, sentBytes, grpThreads, allThreads, url, latency, idleTime, connect);
     }
 
     /**
      * Finalizes the JTL file for a test
      * 
      * @param testId the test ID returned from initializeJtlFile
+     * @return the path of the finalized file, or null if it could not be finalized
      */
-    public void finalizeJtlFile(String testId) {
-        FileWriter writer = testWriters.get(testId);
+    public String finalizeJtlFile(String testId) {
+        JtlSink writer = testWriters.get(testId);
         if (writer == null) {
             LOGGER.warning("No JTL file found for test ID: " + testId);
-            return;
+            return null;
         }
         
         try {
-            writer.flush();
             writer.close();
             testWriters.remove(testId);
             LOGGER.info("Finalized JTL file for test ID: " + testId);
+            return writer.getFilePath();
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Error finalizing JTL file for test ID: " + testId, e);
+            return null;
         }
     }
 
-    /**
-     * Creates a CSV row from a map of values
-     * 
-     * @param headers array of header names in the desired order
-     * @param data map of data values
-     * @return list of values in CSV format
-     */
-    private List<String> createCsvRow(String[] headers, Map<String, Object> data) {
-        List<String> row = new ArrayList<>();
-        for (String header : headers) {
-            Object value = data.get(header);
-            row.add(formatCsvValue(value));
-        }
-        return row;
-    }
-    
-    /**
-     * Format a value for CSV output
-     * 
-     * @param value the value to format
-     * @return formatted CSV value
-     */
-    private String formatCsvValue(Object value) {
-        if (value == null) {
-            return "";
-        }
-        
-        String strValue = value.toString();
-        
-        // Escape double quotes with double quotes
-        if (strValue.contains("\"") || strValue.contains(",") || strValue.contains("\n")) {
-            strValue = strValue.replace("\"", "\"\"");
-            return "\"" + strValue + "\"";
-        }
-        
-        return strValue;
-    }
-
     /**
      * Creates a sample result map compatible with JMeter JTL format
      */
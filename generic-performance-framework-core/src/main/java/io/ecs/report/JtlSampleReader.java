@@ -0,0 +1,175 @@
+package io.ecs.report;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the samples of a JTL CSV file one at a time
+ *
+ * Columns are located by the names in the header row, so files written by JMeter
+ * with a different column selection can be read as well; missing columns are left
+ * empty. Quoted values, including ones that span lines, are supported.
+ */
+final class JtlSampleReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final BufferedReader reader;
+    private final SampleRecord current = new SampleRecord(0);
+    private final StringBuilder value = new StringBuilder();
+    private final int[] columns = new int[JtlReporter.JTL_HEADERS.length];
+    private String[] fields;
+    private long lineNumber = 1;
+
+    JtlSampleReader(String filePath) throws IOException {
+        this.reader = new BufferedReader(Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+        try {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("JTL file is empty: " + filePath);
+            }
+            Map<String, Integer> positions = new HashMap<>();
+            String[] names = header.split(",");
+            for (int i = 0; i < names.length; i++) {
+                positions.put(names[i].trim(), i);
+            }
+            if (!positions.containsKey("timeStamp") || !positions.containsKey("elapsed")) {
+                throw new IOException("Not a JTL CSV file, timeStamp and elapsed columns are required: " + filePath);
+            }
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = positions.getOrDefault(JtlReporter.JTL_HEADERS[i], -1);
+            }
+            this.fields = new String[names.length];
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Move to the next sample, skipping blank lines
+     *
+     * @return false if there are no more samples
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    boolean next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return false;
+            }
+        } while (line.isEmpty());
+
+        split(line);
+        try {
+            current.timeStamp = longField(0);
+            current.elapsed = longField(1);
+            current.label = field(2);
+            current.responseCode = field(3);
+            current.responseMessage = field(4);
+            current.threadName = field(5);
+            current.dataType = field(6);
+            current.success = Boolean.parseBoolean(field(7));
+            current.failureMessage = field(8);
+            current.bytes = longField(9);
+            current.sentBytes = longField(10);
+            current.grpThreads = (int) longField(11);
+            current.allThreads = (int) longField(12);
+            current.url = field(13);
+            current.latency = longField(14);
+            current.idleTime = longField(15);
+            current.connect = longField(16);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed JTL line " + lineNumber + ": " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Get the current sample; it is overwritten by the next call to {@link #next()}
+     */
+    SampleRecord current() {
+        return current;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Split a line into fields, reading further lines while a quoted value is open
+     */
+    private void split(String line) throws IOException {
+        Arrays.fill(fields, null);
+        int field = 0;
+        int position = 0;
+        while (true) {
+            String text;
+            if (position < line.length() && line.charAt(position) == '"') {
+                // Quoted value: "" is an escaped quote, a line break continues the value
+                value.setLength(0);
+                position++;
+                while (true) {
+                    if (position >= line.length()) {
+                        String nextLine = reader.readLine();
+                        lineNumber++;
+                        if (nextLine == null) {
+                            throw new IOException("Unterminated quoted value at JTL line " + lineNumber);
+                        }
+                        value.append('\n');
+                        line = nextLine;
+                        position = 0;
+                        continue;
+                    }
+                    char c = line.charAt(position++);
+                    if (c != '"') {
+                        value.append(c);
+                    } else if (position < line.length() && line.charAt(position) == '"') {
+                        value.append('"');
+                        position++;
+                    } else {
+                        break;
+                    }
+                }
+                text = value.toString();
+                int comma = line.indexOf(',', position);
+                position = comma < 0 ? line.length() : comma;
+            } else {
+                int comma = line.indexOf(',', position);
+                int end = comma < 0 ? line.length() : comma;
+                text = line.substring(position, end);
+                position = end;
+            }
+            if (field < fields.length) {
+                fields[field++] = text;
+            }
+            if (position >= line.length()) {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private String field(int column) {
+        int index = columns[column];
+        if (index < 0 || fields[index] == null || fields[index].isEmpty()) {
+            return null;
+        }
+        return fields[index];
+    }
+
+    private long longField(int column) {
+        String text = field(column);
+        return text != null ? Long.parseLong(text.trim()) : 0;
+    }
+}
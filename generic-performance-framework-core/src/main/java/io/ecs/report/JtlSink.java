@@ -0,0 +1,317 @@
+package io.ecs.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes JTL samples to a file from a single background thread
+ *
+ * Load threads copy each sample into a slot of a bounded lock-free ring buffer and
+ * return immediately; the writer thread encodes the samples as CSV lines or in the
+ * binary sample log format, writes them in large chunks and forces them to disk
+ * periodically. When the ring buffer is full a sample is dropped and counted instead
+ * of blocking the load thread.
+ */
+public class JtlSink implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(JtlSink.class.getName());
+
+    /**
+     * Default number of samples the ring buffer holds
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Default interval between forcing written samples to disk
+     */
+    public static final long DEFAULT_FSYNC_INTERVAL_MS = 1000;
+
+    private static final int CHUNK_SIZE = 256 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String filePath;
+    private final FileChannel channel;
+    private final SampleEncoder encoder;
+    private final SampleRecord[] slots;
+    private final int mask;
+    private final long fsyncIntervalNanos;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writerThread;
+    private volatile boolean closed = false;
+    private long head = 0;
+    private boolean unsynced = false;
+    private long lastFsyncNanos = System.nanoTime();
+    private IOException writeError;
+
+    /**
+     * Open a JTL file with the default capacity and fsync interval
+     *
+     * @param filePath path of the JTL file, which is overwritten
+     * @throws IOException if the file cannot be opened
+     */
+    public JtlSink(String filePath) throws IOException {
+        this(filePath, SampleFormat.CSV);
+    }
+
+    /**
+     * Open a sample file in the given format with the default capacity and fsync interval
+     *
+     * @param filePath path of the file, which is overwritten
+     * @param format the file format
+     * @throws IOException if the file cannot be opened
+     */
+    public JtlSink(String filePath, SampleFormat format) throws IOException {
+        this(filePath, DEFAULT_CAPACITY, DEFAULT_FSYNC_INTERVAL_MS, format);
+    }
+
+    /**
+     * Open a JTL file and write its header
+     *
+     * @param filePath path of the JTL file, which is overwritten
+     * @param capacity number of samples the ring buffer holds, rounded up to a power of two
+     * @param fsyncIntervalMillis interval between forcing written samples to disk
+     * @throws IOException if the file cannot be opened
+     */
+    public JtlSink(String filePath, int capacity, long fsyncIntervalMillis) throws IOException {
+        this(filePath, capacity, fsyncIntervalMillis, SampleFormat.CSV);
+    }
+
+    /**
+     * Open a sample file in the given format and write its header
+     *
+     * @param filePath path of the file, which is overwritten
+     * @param capacity number of samples the ring buffer holds, rounded up to a power of two
+     * @param fsyncIntervalMillis interval between forcing written samples to disk
+     * @param format the file format
+     * @throws IOException if the file cannot be opened
+     */
+    public JtlSink(String filePath, int capacity, long fsyncIntervalMillis, SampleFormat format)
+            throws IOException {
+        this.filePath = filePath;
+        this.encoder = format == SampleFormat.BINARY ?
+                new BinarySampleEncoder(CHUNK_SIZE) : new CsvSampleEncoder(CHUNK_SIZE);
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.slots = new SampleRecord[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new SampleRecord(i);
+        }
+        this.mask = size - 1;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, fsyncIntervalMillis));
+
+        this.writerThread = new Thread(this::runWriter, "jtl-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue a sample for writing
+     *
+     * @return false if the sink is closed or its ring buffer is full and the sample was dropped
+     */
+    public boolean record(long timeStamp, long elapsed, String label, String responseCode,
+                          String responseMessage, String threadName, String dataType, boolean success,
+                          String failureMessage, long bytes, long sentBytes, int grpThreads,
+                          int allThreads, String url, long latency, long idleTime, long connect) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        // Claim a slot: a slot is free for position p when its sequence equals p
+        SampleRecord slot;
+        long position = tail.get();
+        while (true) {
+            slot = slots[(int) position & mask];
+            long sequence = slot.sequence;
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        // The sink may have closed since the check above and its writer may be gone, so
+        // publish the claimed slot empty, letting a writer still draining skip over it
+        if (closed) {
+            slot.discarded = true;
+            slot.sequence = position + 1;
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        slot.timeStamp = timeStamp;
+        slot.elapsed = elapsed;
+        slot.label = label;
+        slot.responseCode = responseCode;
+        slot.responseMessage = responseMessage;
+        slot.threadName = threadName;
+        slot.dataType = dataType;
+        slot.success = success;
+        slot.failureMessage = failureMessage;
+        slot.bytes = bytes;
+        slot.sentBytes = sentBytes;
+        slot.grpThreads = grpThreads;
+        slot.allThreads = allThreads;
+        slot.url = url;
+        slot.latency = latency;
+        slot.idleTime = idleTime;
+        slot.connect = connect;
+
+        // Publish the slot to the writer
+        slot.sequence = position + 1;
+        return true;
+    }
+
+    /**
+     * Queue a sample given as a map keyed by JTL column name
+     *
+     * @param sample the sample values
+     * @return false if the sample was dropped
+     */
+    public boolean record(Map<String, Object> sample) {
+        return record(longValue(sample.get("timeStamp")), longValue(sample.get("elapsed")),
+                stringValue(sample.get("label")), stringValue(sample.get("responseCode")),
+                stringValue(sample.get("responseMessage")), stringValue(sample.get("threadName")),
+                stringValue(sample.get("dataType")), Boolean.parseBoolean(String.valueOf(sample.get("success"))),
+                stringValue(sample.get("failureMessage")), longValue(sample.get("bytes")),
+                longValue(sample.get("sentBytes")), (int) longValue(sample.get("grpThreads")),
+                (int) longValue(sample.get("allThreads")), stringValue(sample.get("URL")),
+                longValue(sample.get("Latency")), longValue(sample.get("IdleTime")),
+                longValue(sample.get("Connect")));
+    }
+
+    /**
+     * Get the number of samples dropped because the ring buffer was full or the sink closed
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Write all queued samples, force them to disk and close the file
+     *
+     * @throws IOException if writing failed at any point
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (dropped.get() > 0) {
+            LOGGER.warning("Dropped " + dropped.get() + " samples for " + filePath + " because the buffer was full");
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+
+    /**
+     * Writer loop: drain published slots, write full chunks, and force to disk on the interval
+     */
+    private void runWriter() {
+        try {
+            while (true) {
+                boolean closing = closed;
+                int drained = drain();
+                long now = System.nanoTime();
+                if (encoder.pendingSize() >= CHUNK_SIZE || (drained == 0 && encoder.pendingSize() > 0)) {
+                    encoder.writeTo(channel);
+                    unsynced = true;
+                }
+                // Only force when something was written since the last force
+                if (unsynced && now - lastFsyncNanos >= fsyncIntervalNanos) {
+                    channel.force(false);
+                    unsynced = false;
+                    lastFsyncNanos = now;
+                }
+                if (closing && drained == 0 && head == tail.get()) {
+                    break;
+                }
+                if (drained == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            encoder.writeTo(channel);
+            channel.force(false);
+        } catch (IOException e) {
+            writeError = e;
+            LOGGER.log(Level.SEVERE, "Error writing JTL file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Encode published samples until the pending chunk is full or no sample is ready
+     *
+     * @return the number of samples drained
+     */
+    private int drain() {
+        int drained = 0;
+        while (encoder.pendingSize() < CHUNK_SIZE) {
+            SampleRecord slot = slots[(int) head & mask];
+            if (slot.sequence != head + 1) {
+                break;
+            }
+            if (slot.discarded) {
+                slot.discarded = false;
+            } else {
+                encoder.encode(slot);
+            }
+            slot.label = null;
+            slot.failureMessage = null;
+            slot.url = null;
+
+            // Hand the slot back to producers for its next lap around the ring
+            slot.sequence = head + slots.length;
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    private static long longValue(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String stringValue(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
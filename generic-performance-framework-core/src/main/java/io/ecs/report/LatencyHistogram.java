@@ -0,0 +1,353 @@
+package io.ecs.report;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory, log-bucketed latency histogram
+ *
+ * Values are grouped into power-of-two buckets, each split into linear sub-buckets
+ * sized so that every recorded value is kept to the configured number of significant
+ * decimal digits. The counts array is allocated once, recording is lock-free and does
+ * not allocate, and percentile queries walk the buckets rather than sorting samples.
+ *
+ * Histograms with the same range and precision can be merged, which lets per-thread,
+ * per-label or per-worker histograms be combined into a single view.
+ */
+public class LatencyHistogram {
+    /** One hour in milliseconds */
+    public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = 3_600_000L;
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+
+    private final long highestTrackableValue;
+    private final int significantDigits;
+
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final int leadingZeroCountBase;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxValue = new AtomicLong(0);
+
+    public LatencyHistogram() {
+        this(DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Create a histogram
+     *
+     * @param highestTrackableValue the largest value that can be recorded exactly; larger values are clamped
+     * @param significantDigits number of significant decimal digits to preserve (1-5)
+     */
+    public LatencyHistogram(long highestTrackableValue, int significantDigits) {
+        if (significantDigits < 1 || significantDigits > 5) {
+            throw new IllegalArgumentException("significantDigits must be between 1 and 5: " + significantDigits);
+        }
+        if (highestTrackableValue < 2) {
+            throw new IllegalArgumentException("highestTrackableValue must be at least 2: " + highestTrackableValue);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+
+        long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = (int) Math.ceil(Math.log(largestValueWithSingleUnitResolution) / Math.log(2));
+        int subBucketCount = 1 << subBucketCountMagnitude;
+
+        this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        this.subBucketHalfCount = subBucketCount / 2;
+        this.subBucketMask = subBucketCount - 1;
+        this.leadingZeroCountBase = 64 - subBucketCountMagnitude;
+
+        // Number of power-of-two buckets needed to cover the trackable range
+        long smallestUntrackableValue = subBucketCount;
+        int bucketCount = 1;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            if (smallestUntrackableValue > Long.MAX_VALUE / 2) {
+                bucketCount++;
+                break;
+            }
+            smallestUntrackableValue <<= 1;
+            bucketCount++;
+        }
+        this.counts = new AtomicLongArray((bucketCount + 1) * subBucketHalfCount);
+    }
+
+    /**
+     * Record a value
+     *
+     * @param value the value to record; negative values are ignored
+     */
+    public void recordValue(long value) {
+        recordValue(value, 1);
+    }
+
+    /**
+     * Record a value a number of times
+     *
+     * @param value the value to record; negative values are ignored
+     * @param count the number of occurrences
+     */
+    public void recordValue(long value, long count) {
+        if (value < 0 || count <= 0) {
+            return;
+        }
+        long clamped = Math.min(value, highestTrackableValue);
+        counts.addAndGet(countsIndex(clamped), count);
+        totalCount.addAndGet(count);
+        totalValue.addAndGet(value * count);
+        minValue.accumulateAndGet(value, Math::min);
+        maxValue.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Get the number of recorded values
+     *
+     * @return total count
+     */
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Get the sum of all recorded values
+     *
+     * @return total of recorded values
+     */
+    public long getTotalValue() {
+        return totalValue.get();
+    }
+
+    /**
+     * Get the smallest recorded value
+     *
+     * @return minimum value, or 0 if nothing was recorded
+     */
+    public long getMinValue() {
+        return totalCount.get() == 0 ? 0 : minValue.get();
+    }
+
+    /**
+     * Get the largest recorded value
+     *
+     * @return maximum value, or 0 if nothing was recorded
+     */
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    /**
+     * Get the mean of the recorded values
+     *
+     * @return mean value, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalValue.get() / count;
+    }
+
+    /**
+     * Get the value at a given percentile
+     *
+     * The result is the highest value equivalent to the bucket holding the requested
+     * rank, capped at the largest recorded value.
+     *
+     * @param percentile the percentile (0-100)
+     * @return the value at the percentile, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0 || percentile < 0 || percentile > 100) {
+            return 0;
+        }
+        if (percentile == 0) {
+            return getMinValue();
+        }
+
+        long targetRank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= targetRank) {
+                return Math.min(highestEquivalentValue(valueFromIndex(i)), getMaxValue());
+            }
+        }
+        return getMaxValue();
+    }
+
+    /**
+     * Call the consumer once for every non-empty bucket
+     *
+     * @param consumer receives the bucket's representative value and its count
+     */
+    public void forEachBucket(BucketConsumer consumer) {
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                consumer.accept(highestEquivalentValue(valueFromIndex(i)), count);
+            }
+        }
+    }
+
+    /**
+     * Add all values recorded in another histogram to this one
+     *
+     * @param other a histogram with the same range and precision
+     * @throws IllegalArgumentException if the histograms are not compatible
+     */
+    public void add(LatencyHistogram other) {
+        if (other.counts.length() != counts.length() || other.significantDigits != significantDigits) {
+            throw new IllegalArgumentException("Cannot merge histograms with different range or precision");
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalValue.addAndGet(other.totalValue.get());
+        if (other.totalCount.get() > 0) {
+            minValue.accumulateAndGet(other.minValue.get(), Math::min);
+            maxValue.accumulateAndGet(other.maxValue.get(), Math::max);
+        }
+    }
+
+    /**
+     * Take a copy of the current state
+     *
+     * Concurrent recording may continue while the snapshot is taken; the copy then
+     * reflects some point during the call.
+     *
+     * @return an independent histogram with the same contents
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram copy = new LatencyHistogram(highestTrackableValue, significantDigits);
+        copy.add(this);
+        return copy;
+    }
+
+    /**
+     * Write a compact encoding of this histogram
+     *
+     * Only non-empty buckets are written, so the size depends on how spread out the
+     * recorded values are rather than on the trackable range.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(highestTrackableValue);
+        out.writeByte(significantDigits);
+        out.writeLong(totalCount.get());
+        out.writeLong(totalValue.get());
+        out.writeLong(minValue.get());
+        out.writeLong(maxValue.get());
+
+        int nonEmpty = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) > 0) {
+                nonEmpty++;
+            }
+        }
+        out.writeInt(nonEmpty);
+        for (int i = 0; i < counts.length() && nonEmpty > 0; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                out.writeInt(i);
+                out.writeLong(count);
+                nonEmpty--;
+            }
+        }
+    }
+
+    /**
+     * Read a histogram written by {@link #writeTo(DataOutput)}
+     *
+     * @param in the input to read from
+     * @return the decoded histogram
+     * @throws IOException if the input cannot be read or is not a valid encoding
+     */
+    public static LatencyHistogram readFrom(DataInput in) throws IOException {
+        long highestTrackableValue = in.readLong();
+        int significantDigits = in.readByte();
+        LatencyHistogram histogram;
+        try {
+            histogram = new LatencyHistogram(highestTrackableValue, significantDigits);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid histogram encoding: " + e.getMessage(), e);
+        }
+        histogram.totalCount.set(in.readLong());
+        histogram.totalValue.set(in.readLong());
+        histogram.minValue.set(in.readLong());
+        histogram.maxValue.set(in.readLong());
+
+        int nonEmpty = in.readInt();
+        for (int i = 0; i < nonEmpty; i++) {
+            int index = in.readInt();
+            long count = in.readLong();
+            if (index < 0 || index >= histogram.counts.length()) {
+                throw new IOException("Invalid histogram bucket index: " + index);
+            }
+            histogram.counts.set(index, count);
+        }
+        return histogram;
+    }
+
+    /**
+     * Clear all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        minValue.set(Long.MAX_VALUE);
+        maxValue.set(0);
+    }
+
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    private int countsIndex(long value) {
+        int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    private long valueFromIndex(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return (long) subBucketIndex << bucketIndex;
+    }
+
+    private long highestEquivalentValue(long value) {
+        int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        long lowest = (value >>> bucketIndex) << bucketIndex;
+        return lowest + (1L << bucketIndex) - 1;
+    }
+
+    /**
+     * Receives the contents of a histogram bucket
+     */
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept(long value, long count);
+    }
+}
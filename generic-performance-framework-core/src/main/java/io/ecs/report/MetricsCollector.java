@@ -1,30 +1,103 @@
 package io.ecs.report;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Collects and calculates performance metrics during test execution
+ *
+ * Besides the totals, samples recorded with {@link #recordSample} are kept per label
+ * (request name), each label in a collector of its own, and every collector keeps
+ * rolling time windows of its most recent samples, so a report or live view can show
+ * which request is slow and how latency drifts over a run. Recording is lock-free;
+ * {@link #getWindows()} and {@link #getLabels()} take cheap copies.
+ * 
+ * The clock is read once per sample: {@link #recordRequest()} and the other counters
+ * count into the window of the most recent response time or sample.
+ * 
+ * Samples taken while the target warms up, recorded with {@link #recordWarmUpSample},
+ * are kept in a separate collector returned by {@link #getWarmUp()} and do not count
+ * towards the totals, percentiles or windows of this one.
  */
 public class MetricsCollector {
+    public static final long DEFAULT_WINDOW_MILLIS = 1000;
+    public static final int DEFAULT_WINDOW_RETENTION = 60;
+    
+    /** Labels beyond this many are recorded under {@link #OTHER_LABEL} */
+    public static final int MAX_LABELS = 1000;
+    public static final String OTHER_LABEL = "Other";
+    
     private final AtomicInteger totalRequests = new AtomicInteger(0);
     private final AtomicInteger successfulRequests = new AtomicInteger(0);
     private final AtomicInteger failedRequests = new AtomicInteger(0);
     private final AtomicInteger errorCount = new AtomicInteger(0);
-    private final AtomicLong totalResponseTime = new AtomicLong(0);
-    private final List<Long> responseTimes = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger activeUsers = new AtomicInteger(0);
+    private final LatencyHistogram responseTimes;
+    
+    // Response times measured from the intended start time, corrected for coordinated omission
+    private final LatencyHistogram correctedResponseTimes;
+    
+    // Rolling windows of the most recent samples and the collectors of each label
+    private final RollingMetrics windows;
+    private final Map<String, MetricsCollector> labels = new ConcurrentHashMap<>();
+    private final int significantDigits;
+    
+    // Samples of the warm-up phase, created on first use, and when a timed warm-up ends
+    private volatile MetricsCollector warmUp;
+    private volatile long warmUpUntil = 0;
     
     private final long startTime = System.currentTimeMillis();
     private long endTime = 0;
     
+    // When the first and last sample were recorded, or 0 before the first
+    private final AtomicLong firstSampleTime = new AtomicLong(0);
+    private final AtomicLong lastSampleTime = new AtomicLong(0);
+    
+    public MetricsCollector() {
+        this(LatencyHistogram.DEFAULT_SIGNIFICANT_DIGITS);
+    }
+    
+    /**
+     * Create a collector with a given response time precision
+     * 
+     * @param significantDigits number of significant decimal digits kept for response times (1-5)
+     */
+    public MetricsCollector(int significantDigits) {
+        this(significantDigits, DEFAULT_WINDOW_MILLIS, DEFAULT_WINDOW_RETENTION);
+    }
+    
+    /**
+     * Create a collector with a given response time precision and time windows
+     * 
+     * @param significantDigits number of significant decimal digits kept for response times (1-5)
+     * @param windowMillis length of a time window
+     * @param windowRetention number of most recent windows kept
+     */
+    public MetricsCollector(int significantDigits, long windowMillis, int windowRetention) {
+        this.significantDigits = significantDigits;
+        this.responseTimes = new LatencyHistogram(LatencyHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE, significantDigits);
+        this.correctedResponseTimes = new LatencyHistogram(LatencyHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE, significantDigits);
+        this.windows = new RollingMetrics(windowMillis, windowRetention);
+    }
+    
     /**
      * Record a request being made
      */
     public void recordRequest() {
         totalRequests.incrementAndGet();
+        RollingMetrics.Window window = windows.recent();
+        if (window != null) {
+            window.requests.increment();
+        }
     }
     
     /**
@@ -32,6 +105,10 @@ public class MetricsCollector {
      */
     public void recordSuccess() {
         successfulRequests.incrementAndGet();
+        RollingMetrics.Window window = windows.recent();
+        if (window != null) {
+            window.successes.increment();
+        }
     }
     
     /**
@@ -39,6 +116,10 @@ public class MetricsCollector {
      */
     public void recordFailure() {
         failedRequests.incrementAndGet();
+        RollingMetrics.Window window = windows.recent();
+        if (window != null) {
+            window.failures.increment();
+        }
     }
     
     /**
@@ -46,6 +127,131 @@ public class MetricsCollector {
      */
     public void recordError() {
         errorCount.incrementAndGet();
+        RollingMetrics.Window window = windows.recent();
+        if (window != null) {
+            window.errors.increment();
+        }
+    }
+    
+    /**
+     * Record a virtual user starting its iterations
+     */
+    public void userStarted() {
+        activeUsers.incrementAndGet();
+    }
+    
+    /**
+     * Record a virtual user finishing its iterations
+     */
+    public void userStopped() {
+        activeUsers.decrementAndGet();
+    }
+    
+    /**
+     * Record a complete sample in the totals, the current window and the sample's label
+     * 
+     * @param label the request name, or null to record only the totals
+     * @param responseTimeMs the response time measured from the actual send time
+     * @param correctedResponseTimeMs the response time measured from the intended send time
+     * @param expectedIntervalMs the expected interval between requests, or 0 if unknown
+     * @param success whether the request succeeded
+     * @param error whether the request failed without a response, e.g. a connection failure
+     */
+    public void recordSample(String label, long responseTimeMs, long correctedResponseTimeMs,
+                             long expectedIntervalMs, boolean success, boolean error) {
+        long now = System.currentTimeMillis();
+        record(now, responseTimeMs, correctedResponseTimeMs, expectedIntervalMs, success, error);
+        if (label != null) {
+            labelCollector(label).record(now, responseTimeMs, correctedResponseTimeMs, expectedIntervalMs,
+                    success, error);
+        }
+    }
+    
+    /**
+     * Record a sample taken during warm-up in the warm-up collector only
+     * 
+     * @see #recordSample(String, long, long, long, boolean, boolean)
+     */
+    public void recordWarmUpSample(String label, long responseTimeMs, long correctedResponseTimeMs,
+                                   long expectedIntervalMs, boolean success, boolean error) {
+        getWarmUp().recordSample(label, responseTimeMs, correctedResponseTimeMs, expectedIntervalMs, success, error);
+    }
+    
+    /**
+     * Start a timed warm-up, during which {@link #isWarmingUp()} is true
+     * 
+     * @param warmUpMillis length of the warm-up from now, or 0 for none
+     */
+    public void startWarmUp(long warmUpMillis) {
+        warmUpUntil = warmUpMillis > 0 ? System.currentTimeMillis() + warmUpMillis : 0;
+    }
+    
+    /**
+     * Check whether a timed warm-up is running
+     * 
+     * @return true until the warm-up started with {@link #startWarmUp(long)} has passed
+     */
+    public boolean isWarmingUp() {
+        return warmUpUntil > 0 && System.currentTimeMillis() < warmUpUntil;
+    }
+    
+    /**
+     * Get when the timed warm-up ends
+     * 
+     * @return epoch milliseconds, or 0 if no warm-up was started
+     */
+    public long getWarmUpUntil() {
+        return warmUpUntil;
+    }
+    
+    /**
+     * Get the samples recorded during warm-up
+     * 
+     * @return the warm-up collector, empty if no warm-up sample was recorded
+     */
+    public MetricsCollector getWarmUp() {
+        MetricsCollector collector = warmUp;
+        if (collector == null) {
+            synchronized (this) {
+                collector = warmUp;
+                if (collector == null) {
+                    collector = new MetricsCollector(significantDigits, windows.getWindowMillis(), windows.getRetention());
+                    warmUp = collector;
+                }
+            }
+        }
+        return collector;
+    }
+    
+    private void record(long now, long responseTimeMs, long correctedResponseTimeMs, long expectedIntervalMs,
+                        boolean success, boolean error) {
+        totalRequests.incrementAndGet();
+        if (success) {
+            successfulRequests.incrementAndGet();
+        } else {
+            failedRequests.incrementAndGet();
+        }
+        if (error) {
+            errorCount.incrementAndGet();
+        }
+        recordHistograms(responseTimeMs, correctedResponseTimeMs, expectedIntervalMs);
+        recordSampleTime(now);
+        
+        RollingMetrics.Window window = windows.current(now);
+        if (window != null) {
+            window.requests.increment();
+            if (success) {
+                window.successes.increment();
+            } else {
+                window.failures.increment();
+            }
+            if (error) {
+                window.errors.increment();
+            }
+            if (responseTimeMs >= 0) {
+                window.responseTimes.recordValue(responseTimeMs);
+            }
+        }
     }
     
     /**
@@ -54,9 +260,44 @@ public class MetricsCollector {
      * @param responseTimeMs the response time in milliseconds
      */
     public void recordResponseTime(long responseTimeMs) {
-        if (responseTimeMs >= 0) {
-            totalResponseTime.addAndGet(responseTimeMs);
-            responseTimes.add(responseTimeMs);
+        recordResponseTime(responseTimeMs, responseTimeMs, 0);
+    }
+    
+    /**
+     * Record a response time together with its coordinated-omission-corrected value
+     * 
+     * The corrected value is measured from when the request should have been sent.
+     * When an expected interval between requests is given, a corrected value larger
+     * than the interval is also back-filled with the samples that a stalled sender
+     * failed to issue (value - interval, value - 2 * interval, ...).
+     * 
+     * @param responseTimeMs the response time measured from the actual send time
+     * @param correctedResponseTimeMs the response time measured from the intended send time
+     * @param expectedIntervalMs the expected interval between requests, or 0 if unknown
+     */
+    public void recordResponseTime(long responseTimeMs, long correctedResponseTimeMs, long expectedIntervalMs) {
+        if (responseTimeMs < 0) {
+            return;
+        }
+        recordHistograms(responseTimeMs, correctedResponseTimeMs, expectedIntervalMs);
+        RollingMetrics.Window window = windows.current(System.currentTimeMillis());
+        if (window != null) {
+            window.responseTimes.recordValue(responseTimeMs);
+        }
+    }
+    
+    private void recordHistograms(long responseTimeMs, long correctedResponseTimeMs, long expectedIntervalMs) {
+        if (responseTimeMs < 0) {
+            return;
+        }
+        responseTimes.recordValue(responseTimeMs);
+        
+        long corrected = Math.max(correctedResponseTimeMs, responseTimeMs);
+        correctedResponseTimes.recordValue(corrected);
+        if (expectedIntervalMs > 0) {
+            for (long missing = corrected - expectedIntervalMs; missing >= expectedIntervalMs; missing -= expectedIntervalMs) {
+                correctedResponseTimes.recordValue(missing);
+            }
         }
     }
     
@@ -67,6 +308,18 @@ public class MetricsCollector {
         if (endTime == 0) {
             endTime = System.currentTimeMillis();
         }
+        for (MetricsCollector label : labels.values()) {
+            label.markEndTime();
+        }
+    }
+    
+    /**
+     * Get the number of virtual users currently running
+     * 
+     * @return active users
+     */
+    public int getActiveUsers() {
+        return activeUsers.get();
     }
     
     /**
@@ -123,10 +376,7 @@ public class MetricsCollector {
      * @return average response time in milliseconds
      */
     public double getAverageResponseTime() {
-        if (responseTimes.isEmpty()) {
-            return 0;
-        }
-        return (double) totalResponseTime.get() / responseTimes.size();
+        return responseTimes.getMean();
     }
     
     /**
@@ -135,12 +385,7 @@ public class MetricsCollector {
      * @return minimum response time in milliseconds
      */
     public long getMinResponseTime() {
-        if (responseTimes.isEmpty()) {
-            return 0;
-        }
-        synchronized (responseTimes) {
-            return Collections.min(responseTimes);
-        }
+        return responseTimes.getMinValue();
     }
     
     /**
@@ -149,12 +394,7 @@ public class MetricsCollector {
      * @return maximum response time in milliseconds
      */
     public long getMaxResponseTime() {
-        if (responseTimes.isEmpty()) {
-            return 0;
-        }
-        synchronized (responseTimes) {
-            return Collections.max(responseTimes);
-        }
+        return responseTimes.getMaxValue();
     }
     
     /**
@@ -164,19 +404,17 @@ public class MetricsCollector {
      * @return the response time at the specified percentile
      */
     public long getPercentile(int percentile) {
-        if (responseTimes.isEmpty() || percentile < 0 || percentile > 100) {
-            return 0;
-        }
-        
-        List<Long> sortedTimes;
-        synchronized (responseTimes) {
-            sortedTimes = new ArrayList<>(responseTimes);
-        }
-        Collections.sort(sortedTimes);
-        
-        int index = (int) Math.ceil(percentile / 100.0 * sortedTimes.size()) - 1;
-        if (index < 0) index = 0;
-        return sortedTimes.get(index);
+        return responseTimes.getValueAtPercentile(percentile);
+    }
+    
+    /**
+     * Get a specific percentile of coordinated-omission-corrected response times
+     * 
+     * @param percentile the percentile to get (0-100)
+     * @return the corrected response time at the specified percentile
+     */
+    public long getCorrectedPercentile(int percentile) {
+        return correctedResponseTimes.getValueAtPercentile(percentile);
     }
     
     /**
@@ -202,14 +440,285 @@ public class MetricsCollector {
         return (double) totalRequests.get() * 1000 / duration;
     }
     
+    /**
+     * Get the throughput between the first and last recorded sample
+     * 
+     * Unlike {@link #getThroughput()}, this leaves out the time before the first sample
+     * and after the last, such as engine start-up, warm-up and shutdown.
+     * 
+     * @return requests per second, or 0 with fewer than two samples
+     */
+    public double getMeasuredThroughput() {
+        long first = firstSampleTime.get();
+        long span = lastSampleTime.get() - first;
+        int total = totalRequests.get();
+        if (first == 0 || span <= 0 || total < 2) {
+            return 0;
+        }
+        // The first sample opens the measured period, so it is not counted within it
+        return (double) (total - 1) * 1000 / span;
+    }
+    
+    private void recordSampleTime(long time) {
+        if (firstSampleTime.get() == 0) {
+            firstSampleTime.compareAndSet(0, time);
+        }
+        if (time > lastSampleTime.get()) {
+            lastSampleTime.accumulateAndGet(time, Math::max);
+        }
+    }
+    
+    /**
+     * Get the metrics of each label, sorted by label
+     * 
+     * The map is a copy, but the collectors in it are live and keep changing while
+     * samples are recorded.
+     * 
+     * @return the collector of each label
+     */
+    public Map<String, MetricsCollector> getLabels() {
+        return Collections.unmodifiableMap(new TreeMap<>(labels));
+    }
+    
+    /**
+     * Get the metrics of one label
+     * 
+     * @param label the request name
+     * @return the label's collector, or null if no sample was recorded with the label
+     */
+    public MetricsCollector getLabelMetrics(String label) {
+        return labels.get(label);
+    }
+    
+    /**
+     * Get a copy of the retained time windows, oldest first
+     * 
+     * Window percentiles are kept at a lower precision than the overall ones.
+     * 
+     * @return the windows that received samples, within the retention of the newest one
+     */
+    public List<MetricsWindow> getWindows() {
+        return windows.snapshot();
+    }
+    
+    /**
+     * Get the newest time window that has ended, which shows the current rates rather
+     * than the averages over the whole run
+     * 
+     * @param now the current time in epoch milliseconds
+     * @return a copy of the window, or null if no retained window has ended
+     */
+    public MetricsWindow getLastCompleteWindow(long now) {
+        return windows.lastComplete(now);
+    }
+    
+    /**
+     * Get the length of a time window
+     * 
+     * @return window length in milliseconds
+     */
+    public long getWindowMillis() {
+        return windows.getWindowMillis();
+    }
+    
+    /**
+     * Add the counts, response times, windows, labels and warm-up samples of another collector to this one
+     * 
+     * @param other the collector to merge; both must use the same precision and window length
+     */
+    public void merge(MetricsCollector other) {
+        mergeTotals(other);
+        for (Map.Entry<String, MetricsCollector> label : other.labels.entrySet()) {
+            labelCollector(label.getKey()).mergeTotals(label.getValue());
+        }
+        if (other.warmUp != null) {
+            getWarmUp().merge(other.warmUp);
+        }
+    }
+    
+    /**
+     * Add another collector to this one and to the collector of a label
+     * 
+     * @param label the label the other collector's samples belong to
+     * @param other the collector to merge; both must use the same precision and window length
+     */
+    public void merge(String label, MetricsCollector other) {
+        merge(other);
+        labelCollector(label).mergeTotals(other);
+        if (other.warmUp != null) {
+            getWarmUp().labelCollector(label).mergeTotals(other.warmUp);
+        }
+    }
+    
+    /**
+     * Add the totals of another collector to this one and to the collector of a label,
+     * leaving out the other collector's own labels
+     * 
+     * Use this to combine whole collectors, such as those of scenarios, so that each
+     * becomes one label rather than bringing its request labels along.
+     * 
+     * @param label the label the other collector's samples belong to
+     * @param other the collector to merge; both must use the same precision and window length
+     */
+    public void mergeAsLabel(String label, MetricsCollector other) {
+        mergeTotals(other);
+        labelCollector(label).mergeTotals(other);
+        if (other.warmUp != null) {
+            getWarmUp().mergeTotals(other.warmUp);
+            getWarmUp().labelCollector(label).mergeTotals(other.warmUp);
+        }
+    }
+    
+    private void mergeTotals(MetricsCollector other) {
+        totalRequests.addAndGet(other.getTotalRequests());
+        successfulRequests.addAndGet(other.getSuccessfulRequests());
+        failedRequests.addAndGet(other.getFailedRequests());
+        errorCount.addAndGet(other.getErrorCount());
+        activeUsers.addAndGet(other.getActiveUsers());
+        responseTimes.add(other.responseTimes);
+        correctedResponseTimes.add(other.correctedResponseTimes);
+        windows.merge(other.windows);
+        long otherFirst = other.firstSampleTime.get();
+        if (otherFirst > 0) {
+            firstSampleTime.accumulateAndGet(otherFirst, (current, time) -> current == 0 ? time : Math.min(current, time));
+            lastSampleTime.accumulateAndGet(other.lastSampleTime.get(), Math::max);
+        }
+    }
+    
+    /**
+     * Get the collector of a label, creating it on first use
+     */
+    private MetricsCollector labelCollector(String label) {
+        MetricsCollector collector = labels.get(label);
+        if (collector != null) {
+            return collector;
+        }
+        String key = labels.size() < MAX_LABELS ? label : OTHER_LABEL;
+        return labels.computeIfAbsent(key, k ->
+                new MetricsCollector(significantDigits, windows.getWindowMillis(), windows.getRetention()));
+    }
+    
+    /**
+     * Write the counts, response time histograms, windows, labels and warm-up samples in a compact binary form
+     * 
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(totalRequests.get());
+        out.writeInt(successfulRequests.get());
+        out.writeInt(failedRequests.get());
+        out.writeInt(errorCount.get());
+        out.writeInt(activeUsers.get());
+        responseTimes.writeTo(out);
+        correctedResponseTimes.writeTo(out);
+        out.writeLong(windows.getWindowMillis());
+        out.writeInt(windows.getRetention());
+        windows.writeTo(out);
+        
+        Map<String, MetricsCollector> labelsCopy = new TreeMap<>(labels);
+        out.writeInt(labelsCopy.size());
+        for (Map.Entry<String, MetricsCollector> label : labelsCopy.entrySet()) {
+            out.writeUTF(label.getKey());
+            label.getValue().writeTo(out);
+        }
+        
+        MetricsCollector warmUpCopy = warmUp;
+        out.writeBoolean(warmUpCopy != null);
+        if (warmUpCopy != null) {
+            warmUpCopy.writeTo(out);
+        }
+    }
+    
+    /**
+     * Read a collector written by {@link #writeTo(DataOutput)}
+     * 
+     * The timing of the returned collector starts when it is read, so its duration
+     * and throughput do not describe the original test, and it has no measured
+     * throughput. Its windows keep their original times.
+     * 
+     * @param in the input to read from
+     * @return a collector holding the decoded counts and response times
+     * @throws IOException if the input cannot be read or is not a valid encoding
+     */
+    public static MetricsCollector readFrom(DataInput in) throws IOException {
+        int total = in.readInt();
+        int successful = in.readInt();
+        int failed = in.readInt();
+        int errors = in.readInt();
+        int users = in.readInt();
+        LatencyHistogram raw = LatencyHistogram.readFrom(in);
+        LatencyHistogram corrected = LatencyHistogram.readFrom(in);
+        long windowMillis = in.readLong();
+        int windowRetention = in.readInt();
+        
+        MetricsCollector collector = new MetricsCollector(raw.getSignificantDigits(), windowMillis, windowRetention);
+        collector.totalRequests.set(total);
+        collector.successfulRequests.set(successful);
+        collector.failedRequests.set(failed);
+        collector.errorCount.set(errors);
+        collector.activeUsers.set(users);
+        try {
+            collector.responseTimes.add(raw);
+            collector.correctedResponseTimes.add(corrected);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid metrics encoding: " + e.getMessage(), e);
+        }
+        collector.windows.readFrom(in);
+        
+        int labelCount = in.readInt();
+        for (int i = 0; i < labelCount; i++) {
+            String label = in.readUTF();
+            collector.labels.put(label, readFrom(in));
+        }
+        if (in.readBoolean()) {
+            collector.warmUp = readFrom(in);
+        }
+        return collector;
+    }
+    
+    /**
+     * Get the live response time histogram, for readers in this package that must not copy it
+     */
+    LatencyHistogram liveResponseTimes() {
+        return responseTimes;
+    }
+    
+    /**
+     * Get a snapshot of the response time histogram
+     * 
+     * @return a copy of the response time histogram, mergeable with other snapshots
+     */
+    public LatencyHistogram getResponseTimeHistogram() {
+        return responseTimes.snapshot();
+    }
+    
+    /**
+     * Get a snapshot of the coordinated-omission-corrected response time histogram
+     * 
+     * @return a copy of the corrected response time histogram, including back-filled samples
+     */
+    public LatencyHistogram getCorrectedResponseTimeHistogram() {
+        return correctedResponseTimes.snapshot();
+    }
+    
     /**
      * Get all response times
      * 
+     * Response times are kept in a histogram, so each value is reported at the
+     * precision of its bucket.
+     * 
      * @return list of response times
+     * @deprecated use {@link #getResponseTimeHistogram()}; this expands every recorded sample
      */
+    @Deprecated
     public List<Long> getResponseTimes() {
-        synchronized (responseTimes) {
-            return new ArrayList<>(responseTimes);
-        }
+        List<Long> values = new ArrayList<>();
+        responseTimes.forEachBucket((value, count) -> {
+            for (long i = 0; i < count; i++) {
+                values.add(value);
+            }
+        });
+        return values;
     }
 }
@@ -0,0 +1,292 @@
+package io.ecs.report;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded HTTP endpoint exposing live metrics in the OpenMetrics text format
+ *
+ * Serves {@link #PATH} for Prometheus to scrape while a test runs, with the totals,
+ * active users, current throughput and error ratio, and response time histogram of
+ * every scenario, and the totals and histogram of every label. A scrape only reads
+ * the collectors' counters, so it never blocks recording threads; values read
+ * during a scrape may be a few samples apart.
+ *
+ * Usage:
+ * <pre>
+ * try (MetricsEndpoint endpoint = new MetricsEndpoint(testSystem::getMetricsCollectors).start(9464)) {
+ *     testSystem.executeAllScenarios();
+ * }
+ * </pre>
+ */
+public class MetricsEndpoint implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(MetricsEndpoint.class.getName());
+
+    public static final String PATH = "/metrics";
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    /** Upper bounds of the response time histogram buckets in milliseconds */
+    static final long[] BUCKET_BOUNDS_MILLIS = {
+            5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+    private final Supplier<Map<String, MetricsCollector>> source;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Create an endpoint for a source of collectors
+     *
+     * @param source supplies the live collectors keyed by scenario name on every scrape
+     */
+    public MetricsEndpoint(Supplier<Map<String, MetricsCollector>> source) {
+        this.source = source;
+    }
+
+    /**
+     * Start serving on a port of all local addresses
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @return this endpoint
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized MetricsEndpoint start(int port) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Metrics endpoint already started on port " + getPort());
+        }
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        httpServer.createContext(PATH, this::handle);
+
+        // One thread is enough for a scraper and keeps scrapes off the load threads
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-endpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        server = httpServer;
+        LOGGER.info("Serving metrics on http://localhost:" + getPort() + PATH);
+        return this;
+    }
+
+    /**
+     * Get the port the endpoint listens on
+     *
+     * @return the port, or -1 if not started
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    /**
+     * Stop serving
+     */
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            Map<String, MetricsCollector> collectors = source.get();
+            StringBuilder text = new StringBuilder();
+            write(collectors != null ? collectors : Map.of(), System.currentTimeMillis(), text);
+            byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to write metrics", e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Write collectors in the OpenMetrics text format
+     *
+     * @param collectors the collectors keyed by scenario name
+     * @param now the current time in epoch milliseconds, which selects the window of the rates
+     * @param out the text to append to
+     */
+    public static void write(Map<String, MetricsCollector> collectors, long now, StringBuilder out) {
+        Map<String, MetricsCollector> scenarios = new TreeMap<>(collectors);
+
+        family(out, "ecs_requests", "counter", "Requests sent");
+        for (Map.Entry<String, MetricsCollector> scenario : scenarios.entrySet()) {
+            sample(out, "ecs_requests_total", scenario.getKey(), null, scenario.getValue().getTotalRequests());
+        }
+        family(out, "ecs_failed_requests", "counter", "Requests that failed");
+        for (Map.Entry<String, MetricsCollector> scenario : scenarios.entrySet()) {
+            sample(out, "ecs_failed_requests_total", scenario.getKey(), null, scenario.getValue().getFailedRequests());
+        }
+        family(out, "ecs_errors", "counter", "Requests that failed without a response");
+        for (Map.Entry<String, MetricsCollector> scenario : scenarios.entrySet()) {
+            sample(out, "ecs_errors_total", scenario.getKey(), null, scenario.getValue().getErrorCount());
+        }
+        family(out, "ecs_warmup_requests", "counter", "Requests sent during warm-up, not counted above");
+        for (Map.Entry<String, MetricsCollector> scenario : scenarios.entrySet()) {
+            sample(out, "ecs_warmup_requests_total", scenario.getKey(), null,
+                    scenario.getValue().getWarmUp().getTotalRequests());
+        }
+        family(out, "ecs_active_users", "gauge", "Virtual users currently running");
+        for (Map.Entry<String, MetricsCollector> scenario : scenarios.entrySet()) {
+            sample(out, "ecs_active_users", scenario.getKey(), null, scenario.getValue().getActiveUsers());
+        }
+
+        // Rates of the newest complete window, so they follow the load rather than the run average
+        StringBuilder errorRatios = new StringBuilder();
+        family(out, "ecs_throughput_requests_per_second", "gauge", "Requests per second in the last complete window");
+        for (Map.Entry<String, MetricsCollector> scenario : scenarios.entrySet()) {
+            MetricsWindow window = scenario.getValue().getLastCompleteWindow(now);
+            double throughput = window != null ? window.getThroughput() : 0;
+            double errorRatio = window != null && window.getTotalRequests() > 0 ?
+                    (double) window.getFailedRequests() / window.getTotalRequests() : 0;
+            sample(out, "ecs_throughput_requests_per_second", scenario.getKey(), null, throughput);
+            sample(errorRatios, "ecs_error_ratio", scenario.getKey(), null, errorRatio);
+        }
+        family(out, "ecs_error_ratio", "gauge", "Share of failed requests in the last complete window");
+        out.append(errorRatios);
+
+        family(out, "ecs_response_time_seconds", "histogram", "Response times");
+        out.append("# UNIT ecs_response_time_seconds seconds\n");
+        for (Map.Entry<String, MetricsCollector> scenario : scenarios.entrySet()) {
+            histogram(out, "ecs_response_time_seconds", scenario.getKey(), null,
+                    scenario.getValue().liveResponseTimes());
+        }
+
+        family(out, "ecs_label_requests", "counter", "Requests sent, per label");
+        for (Map.Entry<String, MetricsCollector> scenario : scenarios.entrySet()) {
+            for (Map.Entry<String, MetricsCollector> label : scenario.getValue().getLabels().entrySet()) {
+                sample(out, "ecs_label_requests_total", scenario.getKey(), label.getKey(),
+                        label.getValue().getTotalRequests());
+            }
+        }
+        family(out, "ecs_label_failed_requests", "counter", "Requests that failed, per label");
+        for (Map.Entry<String, MetricsCollector> scenario : scenarios.entrySet()) {
+            for (Map.Entry<String, MetricsCollector> label : scenario.getValue().getLabels().entrySet()) {
+                sample(out, "ecs_label_failed_requests_total", scenario.getKey(), label.getKey(),
+                        label.getValue().getFailedRequests());
+            }
+        }
+        family(out, "ecs_label_response_time_seconds", "histogram", "Response times, per label");
+        out.append("# UNIT ecs_label_response_time_seconds seconds\n");
+        for (Map.Entry<String, MetricsCollector> scenario : scenarios.entrySet()) {
+            for (Map.Entry<String, MetricsCollector> label : scenario.getValue().getLabels().entrySet()) {
+                histogram(out, "ecs_label_response_time_seconds", scenario.getKey(), label.getKey(),
+                        label.getValue().liveResponseTimes());
+            }
+        }
+        out.append("# EOF\n");
+    }
+
+    private static void family(StringBuilder out, String name, String type, String help) {
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String scenario, String label, double value) {
+        out.append(name);
+        labels(out, scenario, label, null);
+        out.append(' ').append(number(value)).append('\n');
+    }
+
+    /**
+     * Write cumulative buckets of a live histogram
+     *
+     * The count is the sum of the buckets read, so the +Inf bucket always matches it.
+     */
+    private static void histogram(StringBuilder out, String name, String scenario, String label,
+                                  LatencyHistogram histogram) {
+        long[] counts = new long[BUCKET_BOUNDS_MILLIS.length + 1];
+        histogram.forEachBucket((value, count) -> {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MILLIS.length && value > BUCKET_BOUNDS_MILLIS[bucket]) {
+                bucket++;
+            }
+            counts[bucket] += count;
+        });
+        double sumSeconds = histogram.getTotalValue() / 1000.0;
+
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            cumulative += counts[i];
+            out.append(name).append("_bucket");
+            labels(out, scenario, label, Double.toString(BUCKET_BOUNDS_MILLIS[i] / 1000.0));
+            out.append(' ').append(cumulative).append('\n');
+        }
+        cumulative += counts[BUCKET_BOUNDS_MILLIS.length];
+        out.append(name).append("_bucket");
+        labels(out, scenario, label, "+Inf");
+        out.append(' ').append(cumulative).append('\n');
+        out.append(name).append("_count");
+        labels(out, scenario, label, null);
+        out.append(' ').append(cumulative).append('\n');
+        out.append(name).append("_sum");
+        labels(out, scenario, label, null);
+        out.append(' ').append(number(sumSeconds)).append('\n');
+    }
+
+    private static void labels(StringBuilder out, String scenario, String label, String le) {
+        out.append("{scenario=\"");
+        escape(out, scenario);
+        out.append('"');
+        if (label != null) {
+            out.append(",label=\"");
+            escape(out, label);
+            out.append('"');
+        }
+        if (le != null) {
+            out.append(",le=\"").append(le).append('"');
+        }
+        out.append('}');
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private static String number(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ?
+                Long.toString((long) value) : Double.toString(value);
+    }
+}
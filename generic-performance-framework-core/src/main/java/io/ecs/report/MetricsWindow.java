@@ -0,0 +1,97 @@
+package io.ecs.report;
+
+/**
+ * The metrics of one time window, as taken by {@link MetricsCollector#getWindows()}
+ *
+ * Instances are immutable copies, so they can be kept and read while recording
+ * continues.
+ */
+public class MetricsWindow {
+    private final long startTime;
+    private final long durationMillis;
+    private final long totalRequests;
+    private final long successfulRequests;
+    private final long failedRequests;
+    private final long errorCount;
+    private final LatencyHistogram responseTimes;
+
+    MetricsWindow(long startTime, long durationMillis, long totalRequests, long successfulRequests,
+                  long failedRequests, long errorCount, LatencyHistogram responseTimes) {
+        this.startTime = startTime;
+        this.durationMillis = durationMillis;
+        this.totalRequests = totalRequests;
+        this.successfulRequests = successfulRequests;
+        this.failedRequests = failedRequests;
+        this.errorCount = errorCount;
+        this.responseTimes = responseTimes;
+    }
+
+    /**
+     * Get the start of the window in epoch milliseconds
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+
+    public long getSuccessfulRequests() {
+        return successfulRequests;
+    }
+
+    public long getFailedRequests() {
+        return failedRequests;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Get the requests per second over the window
+     */
+    public double getThroughput() {
+        return totalRequests * 1000.0 / durationMillis;
+    }
+
+    public double getAverageResponseTime() {
+        return responseTimes.getMean();
+    }
+
+    public long getMaxResponseTime() {
+        return responseTimes.getMaxValue();
+    }
+
+    /**
+     * Get a percentile of the response times in the window
+     *
+     * @param percentile the percentile to get (0-100)
+     * @return the response time at the percentile, at the window precision
+     */
+    public long getPercentile(int percentile) {
+        return responseTimes.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Get a copy of the response times recorded in the window
+     */
+    public LatencyHistogram getResponseTimeHistogram() {
+        return responseTimes.snapshot();
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsWindow{" +
+                "startTime=" + startTime +
+                ", requests=" + totalRequests +
+                ", failed=" + failedRequests +
+                ", p95=" + getPercentile(95) +
+                '}';
+    }
+}
@@ -5,17 +5,22 @@ import io.ecs.model.Scenario;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Generates HTML reports for performance test results that look like JMeter reports
+ *
+ * The report is built from metrics held in memory; to report on a recorded samples
+ * file use {@link SampleReportGenerator}, which streams it.
  */
 public class ReportGenerator {
     
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+    // Immutable, so scenarios running in parallel can share it
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
     
     /**
      * Generate a performance report in HTML format styled like JMeter reports
@@ -316,7 +321,7 @@ public class ReportGenerator {
             html.append("                    <div class=\"metric-panels\">\n");
             
             // Important metrics to highlight (customize based on available metrics)
-            String[] keyMetrics = {"avgResponseTime", "minResponseTime", "maxResponseTime", "90thPercentile", "95thPercentile", "successRate", "totalRequests"};
+            String[] keyMetrics = {"avgResponseTime", "minResponseTime", "maxResponseTime", "90thPercentile", "95thPercentile", "corrected90thPercentile", "corrected95thPercentile", "successRate", "totalRequests"};
             for (String metricKey : keyMetrics) {
                 for (Map.Entry<String, Object> entry : metrics.entrySet()) {
                     String key = entry.getKey();
@@ -460,9 +465,10 @@ public class ReportGenerator {
             reportsDir.mkdirs();
         }
         
-        // Generate filename with timestamp
-        String timestamp = DATE_FORMAT.format(new Date());
-        String reportFile = "target/reports/performance_report_" + timestamp + ".html";
+        // Generate filename with scenario and timestamp, so scenarios finishing together keep their own report
+        String timestamp = LocalDateTime.now().format(DATE_FORMAT);
+        String reportFile = "target/reports/performance_report_" +
+                (scenarioName != null ? scenarioName.replaceAll("[^A-Za-z0-9_-]+", "_") + "_" : "") + timestamp + ".html";
         
         // Create JMeter-style HTML report
         StringBuilder html = new StringBuilder();
@@ -630,7 +636,7 @@ public class ReportGenerator {
         html.append("                <div class=\"metric-panels\">\n");
         
         // Extract and highlight key metrics first
-        String[] keyMetrics = {"avgResponseTime", "minResponseTime", "maxResponseTime", "90thPercentile", "95thPercentile", "successRate", "totalRequests"};
+        String[] keyMetrics = {"avgResponseTime", "minResponseTime", "maxResponseTime", "90thPercentile", "95thPercentile", "corrected90thPercentile", "corrected95thPercentile", "successRate", "totalRequests"};
         for (String metricKey : keyMetrics) {
             for (Map.Entry<String, Object> entry : metrics.entrySet()) {
                 String key = entry.getKey();
@@ -0,0 +1,240 @@
+package io.ecs.report;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A ring of fixed-length time windows holding the most recent metrics
+ *
+ * Each slot holds the window whose number, the time divided by the window length,
+ * maps to it. A recording thread that finds an older window in its slot swaps in a
+ * new one with a compare-and-set, so recording never takes a lock and windows older
+ * than the retention are dropped without a background task. A sample that races with
+ * the swap may land in the window being replaced and be missing from the windows;
+ * the collector's totals still count it.
+ *
+ * Window histograms keep {@link #WINDOW_SIGNIFICANT_DIGITS} significant digit to keep
+ * each window small; the collector's overall histogram keeps its full precision.
+ */
+final class RollingMetrics {
+    static final int WINDOW_SIGNIFICANT_DIGITS = 1;
+
+    private final long windowMillis;
+    private final AtomicReferenceArray<Window> windows;
+    
+    // The window most recently returned for the current time, so most calls skip the slot lookup
+    private volatile Window latest;
+
+    RollingMetrics(long windowMillis, int retention) {
+        this.windowMillis = Math.max(1, windowMillis);
+        this.windows = new AtomicReferenceArray<>(Math.max(1, retention));
+    }
+
+    long getWindowMillis() {
+        return windowMillis;
+    }
+
+    int getRetention() {
+        return windows.length();
+    }
+
+    /**
+     * Get the window for a time
+     *
+     * @param now the current time in epoch milliseconds
+     * @return the window, or null if the time is older than the retention
+     */
+    Window current(long now) {
+        Window window = latest;
+        if (window != null && now >= window.startTime && now < window.startTime + windowMillis) {
+            return window;
+        }
+        window = window(Math.floorDiv(now, windowMillis));
+        if (window != null) {
+            latest = window;
+        }
+        return window;
+    }
+
+    /**
+     * Get the window most recently returned by {@link #current(long)} without reading the clock
+     *
+     * @return the window, or the window for the current time if there is none yet
+     */
+    Window recent() {
+        Window window = latest;
+        return window != null ? window : current(System.currentTimeMillis());
+    }
+
+    /**
+     * Get a window by number, replacing an older window in its slot
+     *
+     * @return the window, or null if its slot already holds a newer window
+     */
+    Window window(long number) {
+        int slot = (int) Math.floorMod(number, (long) windows.length());
+        while (true) {
+            Window window = windows.get(slot);
+            if (window != null && window.number >= number) {
+                return window.number == number ? window : null;
+            }
+            Window fresh = new Window(number, number * windowMillis);
+            if (windows.compareAndSet(slot, window, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Copy the newest window that ended by a time
+     *
+     * @param now the current time in epoch milliseconds
+     * @return the window, or null if no retained window has ended
+     */
+    MetricsWindow lastComplete(long now) {
+        Window newest = null;
+        for (int i = 0; i < windows.length(); i++) {
+            Window window = windows.get(i);
+            if (window != null && window.startTime + windowMillis <= now
+                    && (newest == null || window.number > newest.number)) {
+                newest = window;
+            }
+        }
+        return newest != null ? copy(newest) : null;
+    }
+
+    /**
+     * Copy the windows within the retention of the newest window, oldest first
+     */
+    List<MetricsWindow> snapshot() {
+        long newest = Long.MIN_VALUE;
+        for (int i = 0; i < windows.length(); i++) {
+            Window window = windows.get(i);
+            if (window != null) {
+                newest = Math.max(newest, window.number);
+            }
+        }
+        List<Window> retained = new ArrayList<>();
+        for (int i = 0; i < windows.length(); i++) {
+            Window window = windows.get(i);
+            if (window != null && window.number > newest - windows.length()) {
+                retained.add(window);
+            }
+        }
+        retained.sort(Comparator.comparingLong(window -> window.number));
+
+        List<MetricsWindow> snapshot = new ArrayList<>(retained.size());
+        for (Window window : retained) {
+            snapshot.add(copy(window));
+        }
+        return snapshot;
+    }
+
+    private MetricsWindow copy(Window window) {
+        return new MetricsWindow(window.startTime, windowMillis,
+                window.requests.sum(), window.successes.sum(), window.failures.sum(),
+                window.errors.sum(), window.responseTimes.snapshot());
+    }
+
+    /**
+     * Add the windows of another ring with the same window length to this one
+     */
+    void merge(RollingMetrics other) {
+        if (other.windowMillis != windowMillis) {
+            throw new IllegalArgumentException("Cannot merge windows of " + other.windowMillis +
+                    " ms into windows of " + windowMillis + " ms");
+        }
+        for (int i = 0; i < other.windows.length(); i++) {
+            Window source = other.windows.get(i);
+            if (source != null) {
+                Window target = window(source.number);
+                if (target != null) {
+                    target.add(source);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the windows in a compact binary form
+     */
+    void writeTo(DataOutput out) throws IOException {
+        List<Window> present = new ArrayList<>();
+        for (int i = 0; i < windows.length(); i++) {
+            Window window = windows.get(i);
+            if (window != null) {
+                present.add(window);
+            }
+        }
+        out.writeInt(present.size());
+        for (Window window : present) {
+            out.writeLong(window.number);
+            out.writeLong(window.requests.sum());
+            out.writeLong(window.successes.sum());
+            out.writeLong(window.failures.sum());
+            out.writeLong(window.errors.sum());
+            window.responseTimes.writeTo(out);
+        }
+    }
+
+    /**
+     * Add windows written by {@link #writeTo(DataOutput)} to this ring
+     */
+    void readFrom(DataInput in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            long number = in.readLong();
+            long requests = in.readLong();
+            long successes = in.readLong();
+            long failures = in.readLong();
+            long errors = in.readLong();
+            LatencyHistogram responseTimes = LatencyHistogram.readFrom(in);
+            Window target = window(number);
+            if (target == null) {
+                continue;
+            }
+            target.requests.add(requests);
+            target.successes.add(successes);
+            target.failures.add(failures);
+            target.errors.add(errors);
+            try {
+                target.responseTimes.add(responseTimes);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid window encoding: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * The counters of one window
+     */
+    static final class Window {
+        final long number;
+        final long startTime;
+        final LongAdder requests = new LongAdder();
+        final LongAdder successes = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LatencyHistogram responseTimes = new LatencyHistogram(
+                LatencyHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE, WINDOW_SIGNIFICANT_DIGITS);
+
+        Window(long number, long startTime) {
+            this.number = number;
+            this.startTime = startTime;
+        }
+
+        void add(Window other) {
+            requests.add(other.requests.sum());
+            successes.add(other.successes.sum());
+            failures.add(other.failures.sum());
+            errors.add(other.errors.sum());
+            responseTimes.add(other.responseTimes);
+        }
+    }
+}
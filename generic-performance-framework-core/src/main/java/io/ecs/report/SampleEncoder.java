@@ -0,0 +1,27 @@
+package io.ecs.report;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Encodes samples into a pending chunk that is written to a channel as a whole
+ *
+ * Encoders are used by a single thread.
+ */
+interface SampleEncoder {
+
+    /**
+     * Add a sample to the pending chunk
+     */
+    void encode(SampleRecord sample);
+
+    /**
+     * Get the approximate size of the pending chunk in bytes
+     */
+    int pendingSize();
+
+    /**
+     * Write the pending chunk to a channel and start a new one
+     */
+    void writeTo(WritableByteChannel channel) throws IOException;
+}
@@ -0,0 +1,26 @@
+package io.ecs.report;
+
+/**
+ * File formats for recorded samples
+ */
+public enum SampleFormat {
+    /** JMeter-compatible CSV JTL */
+    CSV(".jtl"),
+    /** Compact binary sample log, exported to CSV JTL with {@link BinarySampleConverter} */
+    BINARY(".jtlb");
+
+    private final String extension;
+
+    SampleFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Get the file extension for this format
+     *
+     * @return the extension, including the leading dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,34 @@
+package io.ecs.report;
+
+/**
+ * The values of one JTL sample
+ *
+ * Instances are reused: as ring buffer slots in {@link JtlSink} and as the current
+ * record when converting a binary sample log.
+ */
+final class SampleRecord {
+    volatile long sequence;
+    // Set for a slot claimed after the sink closed, which the writer skips
+    boolean discarded;
+    long timeStamp;
+    long elapsed;
+    String label;
+    String responseCode;
+    String responseMessage;
+    String threadName;
+    String dataType;
+    boolean success;
+    String failureMessage;
+    long bytes;
+    long sentBytes;
+    int grpThreads;
+    int allThreads;
+    String url;
+    long latency;
+    long idleTime;
+    long connect;
+
+    SampleRecord(long sequence) {
+        this.sequence = sequence;
+    }
+}
@@ -0,0 +1,371 @@
+package io.ecs.report;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Generates an HTML report from a JTL CSV file or binary sample log
+ *
+ * The samples are streamed once into {@link SampleStatistics}, so memory depends on
+ * the number of labels rather than the number of samples, and the page is written
+ * to the file as it is generated. Charts are inline SVG, so the report is a single
+ * self-contained file.
+ *
+ * Usage:
+ * java -cp performance-framework.jar io.ecs.report.SampleReportGenerator results.jtl [report.html]
+ */
+public class SampleReportGenerator {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_CHART_LABELS = 10;
+    private static final int CHART_WIDTH = 1000;
+    private static final int CHART_HEIGHT = 240;
+    private static final String[] CHART_COLORS = {
+            "#234090", "#8dc63f", "#f08080", "#ff9933", "#5b9bd5",
+            "#9467bd", "#8c564b", "#e377c2", "#7f7f7f", "#17becf"
+    };
+
+    private SampleReportGenerator() {
+    }
+
+    /**
+     * Read a JTL CSV file or binary sample log into statistics
+     *
+     * @param samplesPath path of the samples file; binary logs are recognised by their header
+     * @return the statistics of all samples
+     * @throws IOException if the file cannot be read
+     */
+    public static SampleStatistics read(String samplesPath) throws IOException {
+        SampleStatistics statistics = new SampleStatistics();
+        if (BinarySampleReader.isBinarySampleLog(samplesPath)) {
+            try (BinarySampleReader reader = new BinarySampleReader(samplesPath)) {
+                while (reader.next()) {
+                    statistics.add(reader.current());
+                }
+            }
+        } else {
+            try (JtlSampleReader reader = new JtlSampleReader(samplesPath)) {
+                while (reader.next()) {
+                    statistics.add(reader.current());
+                }
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Generate a report from a samples file, titled with the file name
+     *
+     * @param samplesPath path of the JTL CSV file or binary sample log
+     * @param reportPath path of the HTML report, which is overwritten
+     * @return the path of the report
+     * @throws IOException if the samples cannot be read or the report cannot be written
+     */
+    public static String generate(String samplesPath, String reportPath) throws IOException {
+        return generate(samplesPath, reportPath, new File(samplesPath).getName());
+    }
+
+    /**
+     * Generate a report from a samples file
+     *
+     * @param samplesPath path of the JTL CSV file or binary sample log
+     * @param reportPath path of the HTML report, which is overwritten
+     * @param title title of the report
+     * @return the path of the report
+     * @throws IOException if the samples cannot be read or the report cannot be written
+     */
+    public static String generate(String samplesPath, String reportPath, String title) throws IOException {
+        SampleStatistics statistics = read(samplesPath);
+
+        File reportDir = new File(reportPath).getAbsoluteFile().getParentFile();
+        if (reportDir != null && !reportDir.exists()) {
+            reportDir.mkdirs();
+        }
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(Paths.get(reportPath), StandardCharsets.UTF_8),
+                WRITE_BUFFER_SIZE)) {
+            writeReport(statistics, title, out);
+        }
+        return reportPath;
+    }
+
+    /**
+     * Get the default report path for a samples file, replacing its extension
+     *
+     * @param samplesPath path of the samples file
+     * @return the report path
+     */
+    public static String defaultReportPath(String samplesPath) {
+        int dot = samplesPath.lastIndexOf('.');
+        int separator = Math.max(samplesPath.lastIndexOf('/'), samplesPath.lastIndexOf('\\'));
+        String base = dot > separator ? samplesPath.substring(0, dot) : samplesPath;
+        return base + ".html";
+    }
+
+    /**
+     * Write the report for aggregated samples
+     *
+     * @param statistics the aggregated samples
+     * @param title title of the report
+     * @param out where the HTML is written
+     * @throws IOException if writing fails
+     */
+    public static void writeReport(SampleStatistics statistics, String title, Writer out) throws IOException {
+        SampleStatistics.LabelStatistics total = statistics.getTotal();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        out.write("<!DOCTYPE html>\n");
+        out.write("<html lang=\"en\">\n");
+        out.write("<head>\n");
+        out.write("    <meta charset=\"UTF-8\">\n");
+        out.write("    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n");
+        out.write("    <title>Performance Report: " + escape(title) + "</title>\n");
+        writeStyle(out);
+        out.write("</head>\n");
+        out.write("<body>\n");
+        out.write("    <div id=\"page-header\"><div class=\"logo-text\">Performance Report</div></div>\n");
+        out.write("    <div class=\"container\">\n");
+
+        // Test details
+        out.write("        <div class=\"test-details\">\n");
+        out.write("            <div class=\"test-details-left\">\n");
+        out.write("                <h2>" + escape(title) + "</h2>\n");
+        if (total.getCount() > 0) {
+            out.write("                <p>Test started: " + dateFormat.format(new Date(total.getFirstTimeStamp())) + "</p>\n");
+            out.write("                <p>Test ended: " + dateFormat.format(new Date(total.getLastEndTime())) + "</p>\n");
+        }
+        out.write("            </div>\n");
+        out.write("            <div class=\"test-details-right\">\n");
+        out.write("                <p><strong>Test duration:</strong> " +
+                format((total.getLastEndTime() - total.getFirstTimeStamp()) / 1000.0) + " seconds</p>\n");
+        out.write("                <p><strong>Samples:</strong> " + total.getCount() + "</p>\n");
+        out.write("            </div>\n");
+        out.write("        </div>\n");
+
+        // Key metrics
+        LatencyHistogram totalHistogram = total.getHistogram();
+        out.write("        <div class=\"metric-panels\">\n");
+        writeMetricPanel(out, "Samples", String.valueOf(total.getCount()), "");
+        writeMetricPanel(out, "Error %", format(total.getErrorPercent()) + "%",
+                total.getErrorCount() > 0 ? "bad" : "good");
+        writeMetricPanel(out, "Average", format(totalHistogram.getMean()) + " ms", "");
+        writeMetricPanel(out, "95th pct", totalHistogram.getValueAtPercentile(95.0) + " ms", "");
+        writeMetricPanel(out, "Throughput", format(total.getThroughput()) + "/s", "");
+        out.write("        </div>\n");
+
+        // Statistics per label
+        out.write("        <div class=\"panel\">\n");
+        out.write("            <div class=\"panel-heading\">Statistics</div>\n");
+        out.write("            <div class=\"panel-body\">\n");
+        out.write("                <table class=\"statistics-table\">\n");
+        out.write("                    <tr><th>Label</th><th>Samples</th><th>Errors</th><th>Error %</th>" +
+                "<th>Average</th><th>Min</th><th>Median</th><th>90th pct</th><th>95th pct</th><th>99th pct</th>" +
+                "<th>Max</th><th>Throughput</th><th>Received KB/s</th><th>Sent KB/s</th></tr>\n");
+        for (SampleStatistics.LabelStatistics label : statistics.getLabels()) {
+            writeStatisticsRow(out, label, "");
+        }
+        writeStatisticsRow(out, total, " class=\"total\"");
+        out.write("                </table>\n");
+        out.write("            </div>\n");
+        out.write("        </div>\n");
+
+        // Time series
+        int buckets = statistics.getBucketCount();
+        double bucketSeconds = statistics.getBucketMillis() / 1000.0;
+        if (buckets > 0) {
+            List<String> names = new ArrayList<>();
+            List<double[]> series = new ArrayList<>();
+            names.add("Samples/s");
+            names.add("Errors/s");
+            double[] throughput = new double[buckets];
+            double[] errors = new double[buckets];
+            for (int i = 0; i < buckets; i++) {
+                throughput[i] = total.getBucketCount(i) / bucketSeconds;
+                errors[i] = total.getBucketErrorCount(i) / bucketSeconds;
+            }
+            series.add(throughput);
+            series.add(errors);
+            writeChart(out, "Throughput Over Time", "/s", statistics, names, series);
+
+            names = new ArrayList<>();
+            series = new ArrayList<>();
+            List<SampleStatistics.LabelStatistics> chartLabels = new ArrayList<>(statistics.getLabels());
+            chartLabels.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+            for (SampleStatistics.LabelStatistics label : chartLabels.subList(0, Math.min(MAX_CHART_LABELS, chartLabels.size()))) {
+                double[] meanElapsed = new double[buckets];
+                for (int i = 0; i < buckets; i++) {
+                    meanElapsed[i] = label.getBucketMeanElapsed(i);
+                }
+                names.add(label.getName());
+                series.add(meanElapsed);
+            }
+            writeChart(out, "Average Response Time Over Time", " ms", statistics, names, series);
+        }
+
+        // Errors
+        if (!statistics.getErrors().isEmpty()) {
+            List<Map.Entry<String, Long>> errorTypes = new ArrayList<>(statistics.getErrors().entrySet());
+            errorTypes.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+            out.write("        <div class=\"panel\">\n");
+            out.write("            <div class=\"panel-heading\">Errors</div>\n");
+            out.write("            <div class=\"panel-body\">\n");
+            out.write("                <table class=\"statistics-table\">\n");
+            out.write("                    <tr><th>Type of error</th><th>Errors</th><th>% of errors</th><th>% of all samples</th></tr>\n");
+            for (Map.Entry<String, Long> errorType : errorTypes) {
+                out.write("                    <tr><td>" + escape(errorType.getKey()) + "</td><td>" + errorType.getValue() +
+                        "</td><td>" + format(errorType.getValue() * 100.0 / total.getErrorCount()) +
+                        "%</td><td>" + format(errorType.getValue() * 100.0 / total.getCount()) + "%</td></tr>\n");
+            }
+            out.write("                </table>\n");
+            out.write("            </div>\n");
+            out.write("        </div>\n");
+        }
+
+        out.write("        <div class=\"page-footer\">\n");
+        out.write("            Generated by Performance Automation Framework - " + new Date() + "\n");
+        out.write("        </div>\n");
+        out.write("    </div>\n");
+        out.write("</body>\n");
+        out.write("</html>\n");
+    }
+
+    private static void writeStyle(Writer out) throws IOException {
+        out.write("    <style>\n");
+        out.write("        :root { --jmeter-blue: #234090; --jmeter-green: #8dc63f; --jmeter-red: #f08080;" +
+                " --jmeter-gray: #f3f3f4; --jmeter-border: #d1d1d1; }\n");
+        out.write("        body { font-family: 'Helvetica Neue', Helvetica, Arial, sans-serif; margin: 0; color: #333; }\n");
+        out.write("        #page-header { background-color: var(--jmeter-blue); color: white; padding: 10px 20px; }\n");
+        out.write("        .logo-text { font-size: 20px; font-weight: bold; }\n");
+        out.write("        .container { max-width: 1200px; margin: 0 auto; padding: 20px; }\n");
+        out.write("        .test-details { display: flex; margin-bottom: 20px; }\n");
+        out.write("        .test-details-left { flex: 2; }\n");
+        out.write("        .test-details-right { flex: 1; text-align: right; }\n");
+        out.write("        .panel { border: 1px solid var(--jmeter-border); border-radius: 4px; margin-bottom: 20px; }\n");
+        out.write("        .panel-heading { background-color: var(--jmeter-gray); padding: 10px 15px;" +
+                " border-bottom: 1px solid var(--jmeter-border); font-weight: 600; color: var(--jmeter-blue); }\n");
+        out.write("        .panel-body { padding: 15px; overflow-x: auto; }\n");
+        out.write("        .statistics-table { width: 100%; border-collapse: collapse; }\n");
+        out.write("        .statistics-table th { background-color: var(--jmeter-gray); border: 1px solid var(--jmeter-border);" +
+                " padding: 8px; text-align: left; color: var(--jmeter-blue); }\n");
+        out.write("        .statistics-table td { border: 1px solid var(--jmeter-border); padding: 8px; }\n");
+        out.write("        .statistics-table tr.total td { font-weight: 600; background-color: var(--jmeter-gray); }\n");
+        out.write("        .metric-panels { display: flex; flex-wrap: wrap; gap: 15px; margin-bottom: 20px; }\n");
+        out.write("        .metric-panel { flex: 1; min-width: 150px; border: 1px solid var(--jmeter-border);" +
+                " border-radius: 4px; padding: 15px; text-align: center; }\n");
+        out.write("        .metric-header { font-size: 14px; color: #666; margin-bottom: 5px; }\n");
+        out.write("        .metric-value { font-size: 24px; font-weight: bold; color: var(--jmeter-blue); }\n");
+        out.write("        .metric-value.good { color: var(--jmeter-green); }\n");
+        out.write("        .metric-value.bad { color: var(--jmeter-red); }\n");
+        out.write("        .chart { width: 100%; height: auto; }\n");
+        out.write("        .legend span { display: inline-block; margin-right: 15px; }\n");
+        out.write("        .legend i { display: inline-block; width: 12px; height: 12px; margin-right: 5px; }\n");
+        out.write("        .page-footer { margin-top: 30px; padding-top: 10px; border-top: 1px solid var(--jmeter-border);" +
+                " color: #777; font-size: 12px; text-align: center; }\n");
+        out.write("    </style>\n");
+    }
+
+    private static void writeMetricPanel(Writer out, String name, String value, String metricClass) throws IOException {
+        out.write("            <div class=\"metric-panel\">\n");
+        out.write("                <div class=\"metric-header\">" + name + "</div>\n");
+        out.write("                <div class=\"metric-value " + metricClass + "\">" + value + "</div>\n");
+        out.write("            </div>\n");
+    }
+
+    private static void writeStatisticsRow(Writer out, SampleStatistics.LabelStatistics label, String rowClass)
+            throws IOException {
+        LatencyHistogram histogram = label.getHistogram();
+        out.write("                    <tr" + rowClass + "><td>" + escape(label.getName()) + "</td><td>" + label.getCount() +
+                "</td><td>" + label.getErrorCount() + "</td><td>" + format(label.getErrorPercent()) + "%</td><td>" +
+                format(histogram.getMean()) + "</td><td>" + histogram.getMinValue() + "</td><td>" +
+                histogram.getValueAtPercentile(50.0) + "</td><td>" + histogram.getValueAtPercentile(90.0) + "</td><td>" +
+                histogram.getValueAtPercentile(95.0) + "</td><td>" + histogram.getValueAtPercentile(99.0) + "</td><td>" +
+                histogram.getMaxValue() + "</td><td>" + format(label.getThroughput()) + "/s</td><td>" +
+                format(label.getReceivedKilobytesPerSecond()) + "</td><td>" +
+                format(label.getSentKilobytesPerSecond()) + "</td></tr>\n");
+    }
+
+    /**
+     * Write a line chart of time series as an inline SVG with a legend
+     */
+    private static void writeChart(Writer out, String title, String unit, SampleStatistics statistics,
+                                   List<String> names, List<double[]> series) throws IOException {
+        double max = 0;
+        for (double[] values : series) {
+            for (double value : values) {
+                max = Math.max(max, value);
+            }
+        }
+        double scale = max > 0 ? (CHART_HEIGHT - 10) / max : 0;
+        int buckets = statistics.getBucketCount();
+        double step = buckets > 1 ? (double) CHART_WIDTH / (buckets - 1) : 0;
+
+        out.write("        <div class=\"panel\">\n");
+        out.write("            <div class=\"panel-heading\">" + title + " (" + format(statistics.getBucketMillis() / 1000.0) +
+                " s intervals, max " + format(max) + unit + ")</div>\n");
+        out.write("            <div class=\"panel-body\">\n");
+        out.write("                <svg class=\"chart\" viewBox=\"0 0 " + CHART_WIDTH + " " + CHART_HEIGHT +
+                "\" preserveAspectRatio=\"none\">\n");
+        out.write("                    <rect width=\"" + CHART_WIDTH + "\" height=\"" + CHART_HEIGHT +
+                "\" fill=\"none\" stroke=\"#d1d1d1\"/>\n");
+        for (int s = 0; s < series.size(); s++) {
+            double[] values = series.get(s);
+            out.write("                    <polyline fill=\"none\" stroke-width=\"1.5\" stroke=\"" +
+                    CHART_COLORS[s % CHART_COLORS.length] + "\" points=\"");
+            for (int i = 0; i < values.length; i++) {
+                out.write(String.format(Locale.ROOT, "%.1f,%.1f ", i * step, CHART_HEIGHT - values[i] * scale));
+            }
+            out.write("\"/>\n");
+        }
+        out.write("                </svg>\n");
+        out.write("                <div class=\"legend\">");
+        for (int s = 0; s < names.size(); s++) {
+            out.write("<span><i style=\"background-color: " + CHART_COLORS[s % CHART_COLORS.length] + "\"></i>" +
+                    escape(names.get(s)) + "</span>");
+        }
+        out.write("</div>\n");
+        out.write("            </div>\n");
+        out.write("        </div>\n");
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '&': escaped.append("&amp;"); break;
+                case '"': escaped.append("&quot;"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: SampleReportGenerator <samples.jtl|samples.jtlb> [report.html]");
+            System.exit(1);
+        }
+        String reportPath = args.length > 1 ? args[1] : defaultReportPath(args[0]);
+        long start = System.currentTimeMillis();
+        generate(args[0], reportPath);
+        System.out.println("Generated " + reportPath + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
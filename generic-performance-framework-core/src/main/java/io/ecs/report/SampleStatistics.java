@@ -0,0 +1,320 @@
+package io.ecs.report;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates a stream of samples into per-label statistics and time series
+ *
+ * Memory does not grow with the number of samples: response times go into a
+ * {@link LatencyHistogram} per label, and the time series have at most a fixed
+ * number of buckets. When a run outlasts the buckets, neighbouring buckets are
+ * merged and the bucket width doubles. Distinct error types are capped at
+ * {@link #MAX_ERROR_TYPES}; further types are counted as "Other".
+ *
+ * Samples are bucketed by their start time relative to the first sample; samples
+ * that are slightly out of order and start before it go into the first bucket.
+ */
+public class SampleStatistics {
+    public static final int DEFAULT_MAX_BUCKETS = 1000;
+    public static final long DEFAULT_BUCKET_MILLIS = 1000;
+    public static final int MAX_ERROR_TYPES = 100;
+    public static final String OTHER_ERRORS = "Other";
+
+    private final int maxBuckets;
+    private final Map<String, LabelStatistics> labels = new LinkedHashMap<>();
+    private final LabelStatistics total;
+    private final Map<String, Long> errors = new HashMap<>();
+    private long bucketMillis;
+    private long startTime = -1;
+    private int bucketCount = 0;
+
+    public SampleStatistics() {
+        this(DEFAULT_BUCKET_MILLIS, DEFAULT_MAX_BUCKETS);
+    }
+
+    /**
+     * Create empty statistics
+     *
+     * @param bucketMillis initial width of a time series bucket
+     * @param maxBuckets number of buckets after which buckets are merged
+     */
+    public SampleStatistics(long bucketMillis, int maxBuckets) {
+        this.bucketMillis = Math.max(1, bucketMillis);
+        this.maxBuckets = Math.max(2, maxBuckets);
+        this.total = new LabelStatistics("Total", this.maxBuckets);
+    }
+
+    /**
+     * Add a sample
+     *
+     * @param timeStamp start time of the sample in epoch milliseconds
+     * @param elapsed response time in milliseconds
+     * @param label sample label
+     * @param success whether the sample passed
+     * @param responseCode response code, used to group errors
+     * @param failureMessage failure message, used to group errors
+     * @param bytes received bytes
+     * @param sentBytes sent bytes
+     */
+    public void add(long timeStamp, long elapsed, String label, boolean success, String responseCode,
+                    String failureMessage, long bytes, long sentBytes) {
+        if (startTime < 0) {
+            startTime = timeStamp - Math.floorMod(timeStamp, bucketMillis);
+        }
+        long offset = Math.max(0, timeStamp - startTime);
+        while (offset / bucketMillis >= maxBuckets) {
+            mergeBuckets();
+        }
+        int bucket = (int) (offset / bucketMillis);
+        bucketCount = Math.max(bucketCount, bucket + 1);
+
+        String name = label != null ? label : "";
+        LabelStatistics statistics = labels.get(name);
+        if (statistics == null) {
+            statistics = new LabelStatistics(name, maxBuckets);
+            labels.put(name, statistics);
+        }
+        statistics.add(bucket, timeStamp, elapsed, success, bytes, sentBytes);
+        total.add(bucket, timeStamp, elapsed, success, bytes, sentBytes);
+
+        if (!success) {
+            String type = errorType(responseCode, failureMessage);
+            if (!errors.containsKey(type) && errors.size() >= MAX_ERROR_TYPES) {
+                type = OTHER_ERRORS;
+            }
+            errors.merge(type, 1L, Long::sum);
+        }
+    }
+
+    void add(SampleRecord sample) {
+        add(sample.timeStamp, sample.elapsed, sample.label, sample.success, sample.responseCode,
+                sample.failureMessage, sample.bytes, sample.sentBytes);
+    }
+
+    /**
+     * Get the statistics of each label in the order the labels first appeared
+     */
+    public List<LabelStatistics> getLabels() {
+        return Collections.unmodifiableList(new ArrayList<>(labels.values()));
+    }
+
+    /**
+     * Get the statistics of a label
+     *
+     * @return the statistics, or null if no sample had the label
+     */
+    public LabelStatistics getLabel(String label) {
+        return labels.get(label);
+    }
+
+    /**
+     * Get the statistics over all samples
+     */
+    public LabelStatistics getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the number of failed samples by error type, the response code followed by the failure message
+     */
+    public Map<String, Long> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * Get the width of a time series bucket
+     */
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * Get the number of time series buckets in use
+     */
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    /**
+     * Get the start time of the first bucket in epoch milliseconds, or -1 if there are no samples
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Merge each pair of neighbouring buckets, doubling the bucket width
+     */
+    private void mergeBuckets() {
+        total.mergeBuckets();
+        for (LabelStatistics statistics : labels.values()) {
+            statistics.mergeBuckets();
+        }
+        bucketMillis *= 2;
+        bucketCount = (bucketCount + 1) / 2;
+    }
+
+    private static String errorType(String responseCode, String failureMessage) {
+        String code = responseCode != null ? responseCode : "";
+        if (failureMessage == null || failureMessage.isEmpty()) {
+            return code;
+        }
+        return code.isEmpty() ? failureMessage : code + " " + failureMessage;
+    }
+
+    /**
+     * Statistics and time series of the samples with one label
+     */
+    public static class LabelStatistics {
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final long[] bucketCounts;
+        private final long[] bucketErrors;
+        private final long[] bucketElapsed;
+        private final long[] bucketMaxElapsed;
+        private long count;
+        private long errorCount;
+        private long bytes;
+        private long sentBytes;
+        private long firstTimeStamp = Long.MAX_VALUE;
+        private long lastEndTime = Long.MIN_VALUE;
+
+        LabelStatistics(String name, int maxBuckets) {
+            this.name = name;
+            this.bucketCounts = new long[maxBuckets];
+            this.bucketErrors = new long[maxBuckets];
+            this.bucketElapsed = new long[maxBuckets];
+            this.bucketMaxElapsed = new long[maxBuckets];
+        }
+
+        void add(int bucket, long timeStamp, long elapsed, boolean success, long bytes, long sentBytes) {
+            count++;
+            histogram.recordValue(Math.max(0, elapsed));
+            this.bytes += bytes;
+            this.sentBytes += sentBytes;
+            firstTimeStamp = Math.min(firstTimeStamp, timeStamp);
+            lastEndTime = Math.max(lastEndTime, timeStamp + elapsed);
+
+            bucketCounts[bucket]++;
+            bucketElapsed[bucket] += elapsed;
+            bucketMaxElapsed[bucket] = Math.max(bucketMaxElapsed[bucket], elapsed);
+            if (!success) {
+                errorCount++;
+                bucketErrors[bucket]++;
+            }
+        }
+
+        void mergeBuckets() {
+            for (int i = 0; i < bucketCounts.length; i++) {
+                int from = 2 * i;
+                if (from < bucketCounts.length) {
+                    bucketCounts[i] = sumPair(bucketCounts, from);
+                    bucketErrors[i] = sumPair(bucketErrors, from);
+                    bucketElapsed[i] = sumPair(bucketElapsed, from);
+                    bucketMaxElapsed[i] = Math.max(bucketMaxElapsed[from],
+                            from + 1 < bucketMaxElapsed.length ? bucketMaxElapsed[from + 1] : 0);
+                } else {
+                    bucketCounts[i] = 0;
+                    bucketErrors[i] = 0;
+                    bucketElapsed[i] = 0;
+                    bucketMaxElapsed[i] = 0;
+                }
+            }
+        }
+
+        private static long sumPair(long[] values, int from) {
+            return values[from] + (from + 1 < values.length ? values[from + 1] : 0);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public double getErrorPercent() {
+            return count > 0 ? errorCount * 100.0 / count : 0.0;
+        }
+
+        /**
+         * Get the response time histogram
+         */
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        /**
+         * Get the samples per second between the first sample's start and the last sample's end
+         */
+        public double getThroughput() {
+            return count / getDurationSeconds();
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getSentBytes() {
+            return sentBytes;
+        }
+
+        /**
+         * Get the received kilobytes per second over the same period as {@link #getThroughput()}
+         */
+        public double getReceivedKilobytesPerSecond() {
+            return bytes / 1024.0 / getDurationSeconds();
+        }
+
+        /**
+         * Get the sent kilobytes per second over the same period as {@link #getThroughput()}
+         */
+        public double getSentKilobytesPerSecond() {
+            return sentBytes / 1024.0 / getDurationSeconds();
+        }
+
+        public long getFirstTimeStamp() {
+            return count > 0 ? firstTimeStamp : 0;
+        }
+
+        public long getLastEndTime() {
+            return count > 0 ? lastEndTime : 0;
+        }
+
+        public long getBucketCount(int bucket) {
+            return bucketCounts[bucket];
+        }
+
+        public long getBucketErrorCount(int bucket) {
+            return bucketErrors[bucket];
+        }
+
+        /**
+         * Get the mean response time of the samples in a bucket, 0 for an empty bucket
+         */
+        public double getBucketMeanElapsed(int bucket) {
+            return bucketCounts[bucket] > 0 ? (double) bucketElapsed[bucket] / bucketCounts[bucket] : 0.0;
+        }
+
+        public long getBucketMaxElapsed(int bucket) {
+            return bucketMaxElapsed[bucket];
+        }
+
+        private double getDurationSeconds() {
+            if (count == 0) {
+                return 1.0;
+            }
+            return Math.max(1, lastEndTime - firstTimeStamp) / 1000.0;
+        }
+    }
+}
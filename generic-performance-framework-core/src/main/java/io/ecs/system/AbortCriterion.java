@@ -0,0 +1,170 @@
+package io.ecs.system;
+
+import io.ecs.report.MetricsWindow;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A condition on the live metrics of a scenario that stops it early
+ *
+ * Criteria are written as "metric operator threshold [for duration]":
+ * <pre>
+ * errorRate &gt; 5% for 30s      share of failed requests, in percent
+ * p95 &gt; 800ms for 60s         a response time percentile (p1-p99), in milliseconds
+ * avgResponseTime &gt; 500ms     mean response time, in milliseconds
+ * throughput &lt; 10/s for 2m    requests per second
+ * </pre>
+ * Durations are in ms, s (the default), m or h.
+ * A criterion is breached when every time window over the duration breaches it; without
+ * a duration one window is enough. Windows without samples leave the response time and
+ * error rate criteria as they were, and count as no throughput.
+ */
+public class AbortCriterion {
+    private static final Pattern SPEC = Pattern.compile(
+            "(errorRate|avgResponseTime|throughput|p(\\d{1,2}))\\s*([<>])\\s*(\\d+(?:\\.\\d+)?)\\s*(%|ms|/s)?" +
+            "(?:\\s+for\\s+(\\d+)\\s*(ms|s|m|h)?)?",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * The metrics a criterion can check
+     */
+    public enum Metric {
+        ERROR_RATE("%"),
+        AVERAGE_RESPONSE_TIME("ms"),
+        PERCENTILE("ms"),
+        THROUGHPUT("/s");
+
+        private final String unit;
+
+        Metric(String unit) {
+            this.unit = unit;
+        }
+    }
+
+    private final String spec;
+    private final Metric metric;
+    private final int percentile;
+    private final boolean above;
+    private final double threshold;
+    private final long durationMillis;
+
+    private AbortCriterion(String spec, Metric metric, int percentile, boolean above, double threshold,
+                           long durationMillis) {
+        this.spec = spec;
+        this.metric = metric;
+        this.percentile = percentile;
+        this.above = above;
+        this.threshold = threshold;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Parse a criterion
+     *
+     * @param spec the criterion, such as "errorRate > 5% for 30s"
+     * @return the parsed criterion
+     * @throws IllegalArgumentException if the criterion is not valid
+     */
+    public static AbortCriterion parse(String spec) {
+        Matcher matcher = spec != null ? SPEC.matcher(spec.trim()) : null;
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException("Invalid abort criterion '" + spec +
+                    "', expected e.g. 'errorRate > 5% for 30s' or 'p95 > 800ms for 60s'");
+        }
+
+        String name = matcher.group(1).toLowerCase(Locale.ROOT);
+        Metric metric;
+        int percentile = 0;
+        if (matcher.group(2) != null) {
+            metric = Metric.PERCENTILE;
+            percentile = Integer.parseInt(matcher.group(2));
+            if (percentile < 1) {
+                throw new IllegalArgumentException("Invalid percentile in abort criterion '" + spec + "'");
+            }
+        } else if (name.equals("errorrate")) {
+            metric = Metric.ERROR_RATE;
+        } else if (name.equals("avgresponsetime")) {
+            metric = Metric.AVERAGE_RESPONSE_TIME;
+        } else {
+            metric = Metric.THROUGHPUT;
+        }
+        String unit = matcher.group(5);
+        if (unit != null && !unit.equalsIgnoreCase(metric.unit)) {
+            throw new IllegalArgumentException("Abort criterion '" + spec + "' must be in " + metric.unit);
+        }
+
+        long duration = matcher.group(6) != null ? Long.parseLong(matcher.group(6)) : 0;
+        String durationUnit = matcher.group(7) != null ? matcher.group(7).toLowerCase(Locale.ROOT) : "s";
+        long durationMillis = durationUnit.equals("ms") ? duration :
+                durationUnit.equals("h") ? duration * 3_600_000 :
+                durationUnit.equals("m") ? duration * 60_000 : duration * 1000;
+
+        return new AbortCriterion(spec.trim(), metric, percentile, matcher.group(3).equals(">"),
+                Double.parseDouble(matcher.group(4)), durationMillis);
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Get how long the criterion must be breached before it stops the scenario
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Get the value of the checked metric in a window
+     *
+     * @param window the window, or null for a period without samples
+     * @return the value, or NaN if the window has no samples to tell
+     */
+    public double valueOf(MetricsWindow window) {
+        if (metric == Metric.THROUGHPUT) {
+            return window != null ? window.getThroughput() : 0;
+        }
+        if (window == null || window.getTotalRequests() == 0) {
+            return Double.NaN;
+        }
+        switch (metric) {
+            case ERROR_RATE:
+                return window.getFailedRequests() * 100.0 / window.getTotalRequests();
+            case AVERAGE_RESPONSE_TIME:
+                return window.getAverageResponseTime();
+            default:
+                return window.getPercentile(percentile);
+        }
+    }
+
+    /**
+     * Check whether a value breaches the threshold
+     *
+     * @param value a value from {@link #valueOf(MetricsWindow)}
+     * @return true if breached, false if not or if the value is NaN
+     */
+    public boolean isBreachedBy(double value) {
+        return above ? value > threshold : value < threshold;
+    }
+
+    /**
+     * Describe a breach of this criterion for a verdict
+     *
+     * @param value the value that breached the threshold
+     * @return a description such as "errorRate > 5% for 30s (was 12.5%)"
+     */
+    public String describe(double value) {
+        return spec + " (was " + String.format(Locale.ROOT, "%.1f", value) + metric.unit + ")";
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
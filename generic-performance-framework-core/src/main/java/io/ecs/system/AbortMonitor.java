@@ -0,0 +1,147 @@
+package io.ecs.system;
+
+import io.ecs.report.MetricsCollector;
+import io.ecs.report.MetricsWindow;
+import io.ecs.util.EcsLogger;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks abort criteria against the time windows of a running scenario
+ *
+ * Every window length, the newest complete window of the collector is checked against
+ * each criterion. When one has been breached for its duration, the monitor records the
+ * verdict and calls the abort action once, which stops the engine's load.
+ */
+public class AbortMonitor implements Closeable {
+    private static final EcsLogger logger = EcsLogger.getLogger(AbortMonitor.class);
+
+    private final MetricsCollector metrics;
+    private final List<AbortCriterion> criteria;
+    private final Runnable onAbort;
+
+    // Start of the current run of breaching windows of each criterion, or -1 if not breached
+    private final long[] breachStart;
+    private long lastChecked = Long.MIN_VALUE;
+    private volatile String verdict;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Create a monitor
+     *
+     * @param metrics the collector of the running scenario
+     * @param criteria the criteria to check
+     * @param onAbort called once when a criterion is breached
+     */
+    public AbortMonitor(MetricsCollector metrics, List<AbortCriterion> criteria, Runnable onAbort) {
+        this.metrics = metrics;
+        this.criteria = new ArrayList<>(criteria);
+        this.onAbort = onAbort;
+        this.breachStart = new long[criteria.size()];
+        Arrays.fill(breachStart, -1);
+    }
+
+    /**
+     * Start checking the criteria once per window on a background thread
+     *
+     * @return this monitor
+     */
+    public synchronized AbortMonitor start() {
+        if (scheduler == null && !criteria.isEmpty()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "abort-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = metrics.getWindowMillis();
+            scheduler.scheduleAtFixedRate(() -> {
+                try {
+                    check(System.currentTimeMillis());
+                } catch (RuntimeException e) {
+                    logger.warn("Error checking abort criteria: {}", e.getMessage());
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Check the criteria against the newest window that ended by a time
+     *
+     * A period without samples has no window of its own and is checked as empty; periods
+     * before the first sample are not checked, so a slow start is not read as no throughput.
+     *
+     * @param now the current time in epoch milliseconds
+     * @return true if the scenario is to be aborted
+     */
+    public synchronized boolean check(long now) {
+        if (verdict != null) {
+            return true;
+        }
+        long windowMillis = metrics.getWindowMillis();
+        long periodStart = Math.floorDiv(now, windowMillis) * windowMillis - windowMillis;
+        if (periodStart <= lastChecked || metrics.getTotalRequests() == 0) {
+            return false;
+        }
+        lastChecked = periodStart;
+
+        MetricsWindow window = metrics.getLastCompleteWindow(now);
+        if (window != null && window.getStartTime() != periodStart) {
+            window = null;
+        }
+        for (int i = 0; i < criteria.size(); i++) {
+            AbortCriterion criterion = criteria.get(i);
+            double value = criterion.valueOf(window);
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            if (!criterion.isBreachedBy(value)) {
+                breachStart[i] = -1;
+                continue;
+            }
+            if (breachStart[i] < 0) {
+                breachStart[i] = periodStart;
+            }
+            if (periodStart + windowMillis - breachStart[i] >= criterion.getDurationMillis()) {
+                verdict = criterion.describe(value);
+                logger.error("Abort criterion breached: {}, stopping the load", verdict);
+                onAbort.run();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether a criterion has been breached
+     */
+    public boolean isAborted() {
+        return verdict != null;
+    }
+
+    /**
+     * Get the breached criterion and its value
+     *
+     * @return the verdict, or null if no criterion has been breached
+     */
+    public String getVerdict() {
+        return verdict;
+    }
+
+    /**
+     * Stop checking the criteria
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.ecs.system;
+
+import io.ecs.model.CapacitySearchConfig;
+import io.ecs.util.EcsLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the highest load a scenario sustains within its objectives
+ *
+ * Steps up the virtual users from the start by a fixed increment until a step misses
+ * the error rate or latency objective or the user limit is reached, then bisects
+ * between the last sustainable step and the first that was not for the configured
+ * number of refinement steps. Each step is run by a {@link StepRunner}, normally a
+ * fresh run of the scenario with that many users.
+ */
+public class CapacitySearch {
+    private static final EcsLogger logger = EcsLogger.getLogger(CapacitySearch.class);
+
+    private final String scenarioName;
+    private final CapacitySearchConfig config;
+    private final StepRunner runner;
+
+    /**
+     * Runs the scenario with a number of virtual users and measures the step
+     */
+    @FunctionalInterface
+    public interface StepRunner {
+        CapacitySearchResult.Step run(int users) throws Exception;
+    }
+
+    public CapacitySearch(String scenarioName, CapacitySearchConfig config, StepRunner runner) {
+        this.scenarioName = scenarioName;
+        this.config = config != null ? config : new CapacitySearchConfig();
+        this.runner = runner;
+    }
+
+    /**
+     * Run the search
+     *
+     * @return the steps and the capacity they show
+     * @throws Exception if a step cannot be run
+     */
+    public CapacitySearchResult run() throws Exception {
+        List<CapacitySearchResult.Step> steps = new ArrayList<>();
+        int sustainable = 0;
+        int failing = 0;
+
+        // Step up until a step misses the objectives; the last step runs the user limit
+        // itself when the increments do not land on it
+        for (int users = Math.min(config.getStartUsers(), config.getMaxUsers()); ;
+                users = Math.min(users + config.getStepUsers(), config.getMaxUsers())) {
+            if (runStep(users, steps)) {
+                sustainable = users;
+            } else {
+                failing = users;
+                break;
+            }
+            if (users >= config.getMaxUsers()) {
+                break;
+            }
+        }
+
+        // Bisect between the last sustainable and the first failing step
+        for (int i = 0; i < config.getRefineSteps() && failing - sustainable > 1; i++) {
+            int users = sustainable + (failing - sustainable) / 2;
+            if (runStep(users, steps)) {
+                sustainable = users;
+            } else {
+                failing = users;
+            }
+        }
+
+        CapacitySearchResult result = new CapacitySearchResult(scenarioName, config, steps);
+        CapacitySearchResult.Step best = result.getMaxSustainableStep();
+        CapacitySearchResult.Step knee = result.getKneeStep();
+        if (best != null) {
+            logger.info("Capacity of {}: {} requests/s with {} users; knee at {} users ({} requests/s)",
+                        scenarioName, Math.round(best.getThroughput()), best.getUsers(),
+                        knee.getUsers(), Math.round(knee.getThroughput()));
+        } else {
+            logger.warn("Capacity of {}: no step met the objectives, starting with {} users",
+                        scenarioName, config.getStartUsers());
+        }
+        if (failing == 0) {
+            logger.info("Capacity of {}: every step up to {} users met the objectives, raise maxUsers to search further",
+                        scenarioName, config.getMaxUsers());
+        }
+        return result;
+    }
+
+    private boolean runStep(int users, List<CapacitySearchResult.Step> steps) throws Exception {
+        logger.info("Capacity search of {}: running step with {} users for {}s",
+                    scenarioName, users, config.getStepSeconds());
+        CapacitySearchResult.Step step = runner.run(users);
+        steps.add(step);
+        boolean sustainable = CapacitySearchResult.isSustainable(step, config);
+        logger.info("Capacity search of {}: {} - {}", scenarioName, step, sustainable ? "sustainable" : "not sustainable");
+        return sustainable;
+    }
+}
@@ -0,0 +1,192 @@
+package io.ecs.system;
+
+import io.ecs.model.CapacitySearchConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The steps of a capacity search and the capacity they show
+ *
+ * The highest sustainable step is the step with the highest throughput among those
+ * that met the objectives. The knee is where adding users stops paying off: the last
+ * step, in order of users, before a step whose added users each added less than half
+ * the throughput per user of the first step.
+ */
+public class CapacitySearchResult {
+    private final String scenarioName;
+    private final CapacitySearchConfig config;
+    private final List<Step> steps;
+
+    public CapacitySearchResult(String scenarioName, CapacitySearchConfig config, List<Step> steps) {
+        this.scenarioName = scenarioName;
+        this.config = config;
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+    }
+
+    public String getScenarioName() {
+        return scenarioName;
+    }
+
+    /**
+     * Get the steps in the order they ran
+     */
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Check whether a step met the error rate and latency objectives
+     */
+    public boolean isSustainable(Step step) {
+        return isSustainable(step, config);
+    }
+
+    static boolean isSustainable(Step step, CapacitySearchConfig config) {
+        return !step.isAborted()
+                && step.getTotalRequests() > 0
+                && step.getErrorRate() <= config.getMaxErrorRate()
+                && (config.getMaxP95Millis() <= 0 || step.getP95Millis() <= config.getMaxP95Millis());
+    }
+
+    /**
+     * Get the sustainable step with the highest throughput
+     *
+     * @return the step, or null if no step met the objectives
+     */
+    public Step getMaxSustainableStep() {
+        Step best = null;
+        for (Step step : steps) {
+            if (isSustainable(step) && (best == null || step.getThroughput() > best.getThroughput())) {
+                best = step;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get the step at the knee of the throughput curve
+     *
+     * @return the step, or null if there are no steps with requests
+     */
+    public Step getKneeStep() {
+        List<Step> byUsers = new ArrayList<>();
+        for (Step step : steps) {
+            if (step.getTotalRequests() > 0) {
+                byUsers.add(step);
+            }
+        }
+        if (byUsers.isEmpty()) {
+            return null;
+        }
+        byUsers.sort(Comparator.comparingInt(Step::getUsers));
+
+        Step first = byUsers.get(0);
+        double baseline = first.getThroughput() / first.getUsers();
+        Step knee = first;
+        for (int i = 1; i < byUsers.size(); i++) {
+            Step previous = byUsers.get(i - 1);
+            Step step = byUsers.get(i);
+            double marginal = (step.getThroughput() - previous.getThroughput()) / (step.getUsers() - previous.getUsers());
+            if (marginal < baseline / 2) {
+                break;
+            }
+            knee = step;
+        }
+        return knee;
+    }
+
+    /**
+     * Convert the result to a metrics map, as returned for other scenarios
+     *
+     * @return the capacity and the metrics of every step
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("scenarioName", scenarioName);
+        Step best = getMaxSustainableStep();
+        metrics.put("maxSustainableThroughput", best != null ? best.getThroughput() : 0.0);
+        metrics.put("maxSustainableUsers", best != null ? best.getUsers() : 0);
+        Step knee = getKneeStep();
+        metrics.put("kneeThroughput", knee != null ? knee.getThroughput() : 0.0);
+        metrics.put("kneeUsers", knee != null ? knee.getUsers() : 0);
+
+        List<Map<String, Object>> stepMetrics = new ArrayList<>();
+        for (Step step : steps) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("users", step.getUsers());
+            entry.put("throughput", step.getThroughput());
+            entry.put("errorRate", step.getErrorRate());
+            entry.put("p95", step.getP95Millis());
+            entry.put("sustainable", isSustainable(step));
+            stepMetrics.add(entry);
+        }
+        metrics.put("steps", stepMetrics);
+        return metrics;
+    }
+
+    /**
+     * The measurements of one step
+     */
+    public static class Step {
+        private final int users;
+        private final long totalRequests;
+        private final double throughput;
+        private final double errorRate;
+        private final long p95Millis;
+        private final boolean aborted;
+
+        /**
+         * @param users virtual users the step ran
+         * @param totalRequests requests completed during the step
+         * @param throughput requests per second over the step
+         * @param errorRate percentage of failed requests
+         * @param p95Millis 95th percentile response time
+         * @param aborted whether an abort criterion stopped the step
+         */
+        public Step(int users, long totalRequests, double throughput, double errorRate, long p95Millis,
+                    boolean aborted) {
+            this.users = users;
+            this.totalRequests = totalRequests;
+            this.throughput = throughput;
+            this.errorRate = errorRate;
+            this.p95Millis = p95Millis;
+            this.aborted = aborted;
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public long getTotalRequests() {
+            return totalRequests;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public long getP95Millis() {
+            return p95Millis;
+        }
+
+        public boolean isAborted() {
+            return aborted;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d users: %.1f/s, %.2f%% errors, p95 %dms%s",
+                    users, throughput, errorRate, p95Millis, aborted ? " (aborted)" : "");
+        }
+    }
+}
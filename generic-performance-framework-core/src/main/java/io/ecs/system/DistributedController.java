@@ -0,0 +1,455 @@
+package io.ecs.system;
+
+import io.ecs.model.Scenario;
+import io.ecs.report.MetricsCollector;
+import io.ecs.report.MetricsWindow;
+import io.ecs.report.ReportGenerator;
+import io.ecs.util.EcsLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a YAML configuration across several {@link DistributedWorker} JVMs
+ *
+ * The controller listens for worker connections, pushes the configuration and
+ * each worker's share of the load, then sends a common start time so that all
+ * workers begin together. Workers stream cumulative metric snapshots while they
+ * run; the controller merges the latest snapshot of every worker into a single
+ * set of metrics and report per scenario.
+ *
+ * Workers can be started as local processes by the controller, or started by hand
+ * on other hosts with the controller's host and port. Start times are wall-clock
+ * times, so remote hosts need synchronized clocks.
+ */
+public class DistributedController {
+    private static final EcsLogger logger = EcsLogger.getLogger(DistributedController.class);
+
+    private final String reportDirectory;
+    private final Map<String, String> globalVariables = new HashMap<>();
+    private int workers = 2;
+    private int port = 0;
+    private boolean launchLocalWorkers = true;
+    private long connectTimeoutMillis = 60_000;
+    private long startDelayMillis = 2_000;
+    private long snapshotIntervalMillis = 1_000;
+    
+    // Workers of the running test, whose snapshots getMetricsCollectors() merges
+    private volatile List<WorkerConnection> running = Collections.emptyList();
+
+    public DistributedController() {
+        this("target/reports");
+    }
+
+    /**
+     * Create a controller writing reports to the given directory
+     *
+     * @param reportDirectory Directory for the merged reports and worker logs
+     */
+    public DistributedController(String reportDirectory) {
+        this.reportDirectory = reportDirectory;
+    }
+
+    /**
+     * Set the number of workers the load is split across
+     *
+     * @param workers Number of workers, at least 1
+     * @return This controller for chaining
+     */
+    public DistributedController setWorkers(int workers) {
+        this.workers = Math.max(1, workers);
+        return this;
+    }
+
+    /**
+     * Set the port workers connect to; 0 picks a free port
+     *
+     * @param port Listen port
+     * @return This controller for chaining
+     */
+    public DistributedController setPort(int port) {
+        this.port = Math.max(0, port);
+        return this;
+    }
+
+    /**
+     * Set whether the controller starts the workers as local processes
+     *
+     * When false, the controller waits for workers started elsewhere to connect.
+     *
+     * @param launchLocalWorkers true to start local worker processes
+     * @return This controller for chaining
+     */
+    public DistributedController setLaunchLocalWorkers(boolean launchLocalWorkers) {
+        this.launchLocalWorkers = launchLocalWorkers;
+        return this;
+    }
+
+    /**
+     * Set how long to wait for all workers to connect and become ready
+     *
+     * @param connectTimeoutMillis Timeout in milliseconds
+     * @return This controller for chaining
+     */
+    public DistributedController setConnectTimeoutMillis(long connectTimeoutMillis) {
+        this.connectTimeoutMillis = Math.max(1_000, connectTimeoutMillis);
+        return this;
+    }
+
+    /**
+     * Set how far in the future the common start time is scheduled
+     *
+     * @param startDelayMillis Delay in milliseconds
+     * @return This controller for chaining
+     */
+    public DistributedController setStartDelayMillis(long startDelayMillis) {
+        this.startDelayMillis = Math.max(0, startDelayMillis);
+        return this;
+    }
+
+    /**
+     * Set how often workers send metric snapshots
+     *
+     * @param snapshotIntervalMillis Interval in milliseconds
+     * @return This controller for chaining
+     */
+    public DistributedController setSnapshotIntervalMillis(long snapshotIntervalMillis) {
+        this.snapshotIntervalMillis = Math.max(100, snapshotIntervalMillis);
+        return this;
+    }
+
+    /**
+     * Set global variables passed to every worker
+     *
+     * @param variables Variables to set
+     * @return This controller for chaining
+     */
+    public DistributedController setGlobalVariables(Map<String, String> variables) {
+        if (variables != null) {
+            globalVariables.clear();
+            globalVariables.putAll(variables);
+        }
+        return this;
+    }
+
+    /**
+     * Run the configuration on all workers and merge their results
+     *
+     * @param configFile Path to the YAML configuration file
+     * @return Merged metrics keyed by scenario name
+     * @throws IOException if a worker cannot be reached or fails
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public Map<String, Map<String, Object>> execute(String configFile) throws IOException, InterruptedException {
+        String yaml = new String(Files.readAllBytes(Paths.get(configFile)), StandardCharsets.UTF_8);
+        new File(reportDirectory).mkdirs();
+
+        List<Process> processes = new ArrayList<>();
+        List<WorkerConnection> connections = new ArrayList<>();
+        ExecutorService readers = Executors.newFixedThreadPool(workers);
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+
+        try (ServerSocket serverSocket = new ServerSocket(port)) {
+            logger.info("Distributed controller listening on {}:{} for {} workers",
+                        InetAddress.getLocalHost().getHostName(), serverSocket.getLocalPort(), workers);
+
+            if (launchLocalWorkers) {
+                for (int i = 0; i < workers; i++) {
+                    processes.add(launchWorker(i, serverSocket.getLocalPort()));
+                }
+            }
+
+            // Accept every worker and push its configuration
+            long deadline = System.currentTimeMillis() + connectTimeoutMillis;
+            for (int i = 0; i < workers; i++) {
+                serverSocket.setSoTimeout((int) Math.max(1, deadline - System.currentTimeMillis()));
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    throw new IOException("Only " + i + " of " + workers + " workers connected", e);
+                }
+                WorkerConnection connection = new WorkerConnection(i, socket);
+                connections.add(connection);
+                connection.handshake(yaml);
+            }
+
+            for (WorkerConnection connection : connections) {
+                connection.awaitReady();
+            }
+
+            // Start all workers together
+            long startAtMillis = System.currentTimeMillis() + startDelayMillis;
+            for (WorkerConnection connection : connections) {
+                connection.start(startAtMillis);
+            }
+            logger.info("All {} workers ready, starting at {}", workers, startAtMillis);
+            running = new ArrayList<>(connections);
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (WorkerConnection connection : connections) {
+                futures.add(readers.submit(() -> {
+                    connection.readResults();
+                    return null;
+                }));
+            }
+            progress.scheduleAtFixedRate(() -> logProgress(connections, startAtMillis),
+                    snapshotIntervalMillis * 5, snapshotIntervalMillis * 5, TimeUnit.MILLISECONDS);
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    logger.error("Worker failed: {}", e.getCause().getMessage());
+                }
+            }
+            long endMillis = System.currentTimeMillis();
+
+            Map<String, Map<String, Object>> results = buildResults(connections, endMillis - startAtMillis);
+            writeReports(results);
+            return results;
+        } finally {
+            running = Collections.emptyList();
+            progress.shutdownNow();
+            readers.shutdownNow();
+            for (WorkerConnection connection : connections) {
+                connection.close();
+            }
+            for (Process process : processes) {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the merged latest snapshots of the workers of the running test, keyed by scenario name
+     * 
+     * @return Map of scenario name to metrics collector, empty when no test runs
+     */
+    public Map<String, MetricsCollector> getMetricsCollectors() {
+        return mergeSnapshots(running);
+    }
+
+    /**
+     * Start a worker JVM with the same class path as this one
+     */
+    private Process launchWorker(int index, int controllerPort) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java,
+                "-cp", System.getProperty("java.class.path"),
+                DistributedWorker.class.getName(),
+                "localhost", String.valueOf(controllerPort));
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(new File(reportDirectory, "worker-" + index + ".log"));
+        logger.info("Starting local worker {}", index + 1);
+        return builder.start();
+    }
+
+    /**
+     * Merge the latest snapshot of every worker, per scenario
+     */
+    private static Map<String, MetricsCollector> mergeSnapshots(List<WorkerConnection> connections) {
+        Map<String, MetricsCollector> merged = new LinkedHashMap<>();
+        for (WorkerConnection connection : connections) {
+            for (Map.Entry<String, MetricsCollector> entry : connection.latestSnapshot.entrySet()) {
+                merged.computeIfAbsent(entry.getKey(), k -> new MetricsCollector()).merge(entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    private void logProgress(List<WorkerConnection> connections, long startAtMillis) {
+        long now = System.currentTimeMillis();
+        long elapsed = now - startAtMillis;
+        for (Map.Entry<String, MetricsCollector> entry : mergeSnapshots(connections).entrySet()) {
+            MetricsCollector collector = entry.getValue();
+            logger.info("Scenario: {} requests: {} throughput: {}/s p95: {}ms",
+                        entry.getKey(), collector.getTotalRequests(),
+                        elapsed > 0 ? collector.getTotalRequests() * 1000L / elapsed : 0,
+                        collector.getPercentile(95));
+            
+            // The newest complete window shows the current rate rather than the average so far
+            MetricsWindow latest = collector.getLastCompleteWindow(now);
+            if (latest != null) {
+                logger.info("Scenario: {} last {}ms: throughput: {}/s failed: {} p95: {}ms",
+                            entry.getKey(), latest.getDurationMillis(), (long) latest.getThroughput(),
+                            latest.getFailedRequests(), latest.getPercentile(95));
+            }
+        }
+    }
+
+    private Map<String, Map<String, Object>> buildResults(List<WorkerConnection> connections, long durationMillis) {
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (Map.Entry<String, MetricsCollector> entry : mergeSnapshots(connections).entrySet()) {
+            MetricsCollector collector = entry.getValue();
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("workers", workers);
+            metrics.put("totalRequests", collector.getTotalRequests());
+            metrics.put("successRate", collector.getSuccessRate());
+            metrics.put("avgResponseTime", collector.getAverageResponseTime());
+            metrics.put("minResponseTime", collector.getMinResponseTime());
+            metrics.put("maxResponseTime", collector.getMaxResponseTime());
+            metrics.put("90thPercentile", collector.getPercentile(90));
+            metrics.put("95thPercentile", collector.getPercentile(95));
+            metrics.put("99thPercentile", collector.getPercentile(99));
+            metrics.put("corrected90thPercentile", collector.getCorrectedPercentile(90));
+            metrics.put("corrected95thPercentile", collector.getCorrectedPercentile(95));
+            metrics.put("corrected99thPercentile", collector.getCorrectedPercentile(99));
+            metrics.put("throughput", durationMillis > 0 ? collector.getTotalRequests() * 1000.0 / durationMillis : 0.0);
+            results.put(entry.getKey(), metrics);
+        }
+
+        List<String> failed = new ArrayList<>();
+        for (WorkerConnection connection : connections) {
+            if (connection.failure != null) {
+                failed.add("worker " + (connection.index + 1) + ": " + connection.failure);
+            }
+        }
+        if (!failed.isEmpty()) {
+            logger.warn("Results are partial, failed workers: {}", failed);
+        }
+        return results;
+    }
+
+    private void writeReports(Map<String, Map<String, Object>> results) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        ReportGenerator reportGenerator = new ReportGenerator();
+        for (Map.Entry<String, Map<String, Object>> entry : results.entrySet()) {
+            Scenario scenario = new Scenario();
+            scenario.setName(entry.getKey());
+            String reportPath = reportDirectory + "/distributed_" + entry.getKey().replaceAll("[^a-zA-Z0-9_-]", "_")
+                    + "_" + timestamp + ".html";
+            try {
+                reportGenerator.createTestReport(reportPath, scenario, Collections.singletonList(entry.getValue()));
+                logger.info("Merged report for {} generated at: {}", entry.getKey(), reportPath);
+            } catch (IOException e) {
+                logger.error("Error generating merged report for {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Controller side of the connection to one worker
+     */
+    private class WorkerConnection {
+        private final int index;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private volatile Map<String, MetricsCollector> latestSnapshot = Collections.emptyMap();
+        private volatile String failure;
+
+        WorkerConnection(int index, Socket socket) throws IOException {
+            this.index = index;
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void handshake(String yaml) throws IOException {
+            socket.setSoTimeout((int) connectTimeoutMillis);
+            expect(DistributedProtocol.HELLO);
+            int version = in.readInt();
+            String host = DistributedProtocol.readText(in);
+            if (version != DistributedProtocol.VERSION) {
+                throw new IOException("Worker on " + host + " uses protocol version " + version
+                        + ", expected " + DistributedProtocol.VERSION);
+            }
+            logger.info("Worker {} of {} connected from {}", index + 1, workers, host);
+
+            out.writeByte(DistributedProtocol.CONFIG);
+            out.writeInt(index);
+            out.writeInt(workers);
+            DistributedProtocol.writeText(out, reportDirectory);
+            DistributedProtocol.writeVariables(out, globalVariables);
+            DistributedProtocol.writeText(out, yaml);
+            out.writeLong(snapshotIntervalMillis);
+            out.flush();
+        }
+
+        void awaitReady() throws IOException {
+            byte type = in.readByte();
+            if (type == DistributedProtocol.FAILED) {
+                throw new IOException("Worker " + (index + 1) + " failed: " + DistributedProtocol.readText(in));
+            }
+            if (type != DistributedProtocol.READY) {
+                throw new IOException("Unexpected message from worker " + (index + 1) + ": " + type);
+            }
+        }
+
+        void start(long startAtMillis) throws IOException {
+            out.writeByte(DistributedProtocol.START);
+            out.writeLong(startAtMillis);
+            out.flush();
+            // The test may run for a long time between snapshots
+            socket.setSoTimeout(0);
+        }
+
+        void readResults() throws IOException {
+            try {
+                while (true) {
+                    byte type = in.readByte();
+                    if (type == DistributedProtocol.SNAPSHOT) {
+                        latestSnapshot = DistributedProtocol.readSnapshot(in);
+                    } else if (type == DistributedProtocol.DONE) {
+                        logger.info("Worker {} of {} finished", index + 1, workers);
+                        return;
+                    } else if (type == DistributedProtocol.FAILED) {
+                        failure = DistributedProtocol.readText(in);
+                        throw new IOException("Worker " + (index + 1) + " failed: " + failure);
+                    } else {
+                        throw new IOException("Unexpected message from worker " + (index + 1) + ": " + type);
+                    }
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e.getMessage();
+                }
+                throw e;
+            }
+        }
+
+        private void expect(byte type) throws IOException {
+            byte received = in.readByte();
+            if (received != type) {
+                throw new IOException("Unexpected message from worker " + (index + 1) + ": " + received);
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ignore, the worker has already gone away
+            }
+        }
+    }
+}
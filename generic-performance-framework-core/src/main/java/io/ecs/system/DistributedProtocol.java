@@ -0,0 +1,96 @@
+package io.ecs.system;
+
+import io.ecs.report.MetricsCollector;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wire format shared by {@link DistributedController} and {@link DistributedWorker}
+ *
+ * Every message starts with a one-byte type followed by its payload:
+ * - HELLO (worker): protocol version, worker host name
+ * - CONFIG (controller): worker index, worker count, report directory,
+ *   global variables, YAML configuration, snapshot interval in milliseconds
+ * - READY (worker): no payload
+ * - START (controller): wall-clock start time in epoch milliseconds
+ * - SNAPSHOT (worker): cumulative metrics per scenario
+ * - DONE (worker): no payload, preceded by a final SNAPSHOT
+ * - FAILED (worker): error message
+ *
+ * Snapshots are cumulative, so the controller only keeps the latest one from
+ * each worker and a lost or late snapshot is corrected by the next one.
+ */
+final class DistributedProtocol {
+    static final int VERSION = 1;
+
+    static final byte HELLO = 1;
+    static final byte CONFIG = 2;
+    static final byte READY = 3;
+    static final byte START = 4;
+    static final byte SNAPSHOT = 5;
+    static final byte DONE = 6;
+    static final byte FAILED = 7;
+
+    private DistributedProtocol() {
+    }
+
+    /**
+     * Write a string that may be longer than the 64KB limit of writeUTF
+     */
+    static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid text length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeVariables(DataOutputStream out, Map<String, String> variables) throws IOException {
+        out.writeInt(variables.size());
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            writeText(out, entry.getKey());
+            writeText(out, entry.getValue());
+        }
+    }
+
+    static Map<String, String> readVariables(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            variables.put(readText(in), readText(in));
+        }
+        return variables;
+    }
+
+    static void writeSnapshot(DataOutputStream out, Map<String, MetricsCollector> collectors) throws IOException {
+        out.writeByte(SNAPSHOT);
+        out.writeInt(collectors.size());
+        for (Map.Entry<String, MetricsCollector> entry : collectors.entrySet()) {
+            writeText(out, entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+        out.flush();
+    }
+
+    static Map<String, MetricsCollector> readSnapshot(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, MetricsCollector> collectors = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            collectors.put(readText(in), MetricsCollector.readFrom(in));
+        }
+        return collectors;
+    }
+}
@@ -0,0 +1,158 @@
+package io.ecs.system;
+
+import io.ecs.report.MetricsCollector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator process driven by a {@link DistributedController}
+ *
+ * The worker connects to the controller, receives the YAML configuration and its
+ * share of the load, waits for the common start time and then runs the scenarios
+ * with a {@link TestExecutionSystem}. While the scenarios run it periodically sends
+ * cumulative metric snapshots back to the controller.
+ *
+ * Usage:
+ * java -cp performance-framework.jar io.ecs.system.DistributedWorker controller-host port
+ */
+public class DistributedWorker {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedWorker.class);
+
+    private final String controllerHost;
+    private final int controllerPort;
+
+    public DistributedWorker(String controllerHost, int controllerPort) {
+        this.controllerHost = controllerHost;
+        this.controllerPort = controllerPort;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: DistributedWorker <controller-host> <controller-port>");
+            System.exit(2);
+        }
+
+        try {
+            new DistributedWorker(args[0], Integer.parseInt(args[1])).run();
+            System.exit(0);
+        } catch (Exception e) {
+            logger.error("Worker failed: {}", e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Connect to the controller and run the assigned share of the test
+     *
+     * @throws IOException if the connection to the controller fails
+     * @throws InterruptedException if the worker is interrupted while waiting to start
+     */
+    public void run() throws IOException, InterruptedException {
+        try (Socket socket = new Socket(controllerHost, controllerPort)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            out.writeByte(DistributedProtocol.HELLO);
+            out.writeInt(DistributedProtocol.VERSION);
+            DistributedProtocol.writeText(out, InetAddress.getLocalHost().getHostName());
+            out.flush();
+
+            expect(in, DistributedProtocol.CONFIG);
+            int workerIndex = in.readInt();
+            int workerCount = in.readInt();
+            String reportDirectory = DistributedProtocol.readText(in);
+            Map<String, String> globalVariables = DistributedProtocol.readVariables(in);
+            String yaml = DistributedProtocol.readText(in);
+            long snapshotIntervalMillis = Math.max(100, in.readLong());
+            logger.info("Worker {} of {} received configuration", workerIndex + 1, workerCount);
+
+            File configFile = File.createTempFile("worker-" + workerIndex + "-", ".yaml");
+            configFile.deleteOnExit();
+            Files.write(configFile.toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+
+            TestExecutionSystem testSystem = new TestExecutionSystem(reportDirectory + "/worker-" + workerIndex);
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "worker-snapshots");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            try {
+                testSystem.setGlobalVariables(globalVariables)
+                          .setLoadShare(workerIndex, workerCount)
+                          .loadFromYaml(configFile.getAbsolutePath());
+
+                out.writeByte(DistributedProtocol.READY);
+                out.flush();
+
+                expect(in, DistributedProtocol.START);
+                long startAtMillis = in.readLong();
+                long waitMillis = startAtMillis - System.currentTimeMillis();
+                if (waitMillis > 0) {
+                    Thread.sleep(waitMillis);
+                } else if (waitMillis < -1000) {
+                    logger.warn("Start time passed {}ms ago, check clock synchronization", -waitMillis);
+                }
+
+                reporter.scheduleAtFixedRate(() -> sendSnapshot(out, testSystem),
+                        snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+
+                testSystem.executeAllScenarios();
+
+                reporter.shutdown();
+                reporter.awaitTermination(snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+                synchronized (out) {
+                    DistributedProtocol.writeSnapshot(out, testSystem.getMetricsCollectors());
+                    out.writeByte(DistributedProtocol.DONE);
+                    out.flush();
+                }
+                logger.info("Worker {} of {} finished", workerIndex + 1, workerCount);
+            } catch (RuntimeException e) {
+                synchronized (out) {
+                    out.writeByte(DistributedProtocol.FAILED);
+                    DistributedProtocol.writeText(out, String.valueOf(e.getMessage()));
+                    out.flush();
+                }
+                throw e;
+            } finally {
+                reporter.shutdownNow();
+                testSystem.shutdown();
+            }
+        }
+    }
+
+    private void sendSnapshot(DataOutputStream out, TestExecutionSystem testSystem) {
+        Map<String, MetricsCollector> collectors = testSystem.getMetricsCollectors();
+        try {
+            synchronized (out) {
+                DistributedProtocol.writeSnapshot(out, collectors);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not send metrics snapshot: {}", e.getMessage());
+        }
+    }
+
+    private static void expect(DataInputStream in, byte type) throws IOException {
+        byte received = in.readByte();
+        if (received != type) {
+            throw new IOException("Unexpected message from controller: " + received + ", expected " + type);
+        }
+    }
+}
@@ -3,6 +3,9 @@ package io.ecs.system;
 import io.ecs.config.TestConfiguration;
 import io.ecs.config.YamlConfig;
 import io.ecs.model.Scenario;
+import io.ecs.report.JtlReporter;
+import io.ecs.report.MetricsEndpoint;
+import io.ecs.report.SampleFormat;
 import io.ecs.util.FileUtils;
 
 import org.slf4j.Logger;
@@ -27,7 +30,16 @@ import java.util.Map;
  * - Detailed metrics collection and reporting
  * 
  * Usage:
- * java -jar performance-framework.jar [config-file.yaml]
+ * java -jar performance-framework.jar [config-file.yaml] [--workers N] [--binary-samples] [--metrics-port PORT]
+ * 
+ * With --workers the load of each scenario is split across N local worker JVMs
+ * and their metrics are merged into one report per scenario.
+ * 
+ * With --binary-samples samples are recorded in compact binary sample logs (.jtlb)
+ * instead of JTL CSV files; export them with BinarySampleConverter.
+ * 
+ * With --metrics-port live metrics are served in the OpenMetrics text format at
+ * http://host:PORT/metrics for Prometheus to scrape while the tests run.
  * 
  * If no config file is provided, the runner will use the default config at
  * src/test/resources/configs/sample_config.yaml
@@ -39,11 +51,25 @@ public class MainRunner {
     public static void main(String[] args) {
         logger.info("Starting Performance Testing Framework");
         
-        String configFile = DEFAULT_CONFIG_FILE;
-        if (args.length > 0) {
-            configFile = args[0];
+        String configFile = null;
+        int workers = 0;
+        int metricsPort = -1;
+        for (int i = 0; i < args.length; i++) {
+            if ("--workers".equals(args[i]) && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else if ("--metrics-port".equals(args[i]) && i + 1 < args.length) {
+                metricsPort = Integer.parseInt(args[++i]);
+            } else if ("--binary-samples".equals(args[i])) {
+                JtlReporter.setDefaultFormat(SampleFormat.BINARY);
+            } else if (configFile == null) {
+                configFile = args[i];
+            }
+        }
+        
+        if (configFile != null) {
             logger.info("Using custom config file: {}", configFile);
         } else {
+            configFile = DEFAULT_CONFIG_FILE;
             logger.info("Using default config file: {}", configFile);
         }
         
@@ -57,7 +83,11 @@ public class MainRunner {
             }
             
             // Load and process YAML configuration using the ECS pattern
-            executeUsingECSPattern(configFile);
+            if (workers > 0) {
+                executeDistributed(configFile, workers, metricsPort);
+            } else {
+                executeUsingECSPattern(configFile, metricsPort);
+            }
             
             logger.info("Performance Testing Framework execution completed successfully");
         } catch (Exception e) {
@@ -75,6 +105,18 @@ public class MainRunner {
      * @throws Exception If an error occurs during execution
      */
     public static void executeUsingECSPattern(String configFile) throws Exception {
+        executeUsingECSPattern(configFile, -1);
+    }
+    
+    /**
+     * Execute tests based on a YAML configuration file using the ECS pattern, serving
+     * live metrics while they run
+     * 
+     * @param configFile Path to the YAML configuration file
+     * @param metricsPort Port of the metrics endpoint, or -1 for none
+     * @throws Exception If an error occurs during execution
+     */
+    public static void executeUsingECSPattern(String configFile, int metricsPort) throws Exception {
         logger.info("Executing tests from YAML config using ECS pattern: {}", configFile);
         
         // Create the test execution system (primary ECS system)
@@ -86,7 +128,12 @@ public class MainRunner {
         globalVariables.put("date", LocalDateTime.now().format(DateTimeFormatter.ISO_DATE));
         testSystem.setGlobalVariables(globalVariables);
         
+        MetricsEndpoint endpoint = new MetricsEndpoint(testSystem::getMetricsCollectors);
         try {
+            if (metricsPort >= 0) {
+                endpoint.start(metricsPort);
+            }
+            
             // Load scenarios from YAML config
             testSystem.loadFromYaml(configFile);
             
@@ -95,10 +142,54 @@ public class MainRunner {
         } finally {
             // Clean up resources
             // No shutdown method available in TestExecutionSystem
+            endpoint.close();
             logger.info("Test execution completed.");
         }
     }
     
+    /**
+     * Execute tests from a YAML configuration file across several local worker JVMs
+     * 
+     * @param configFile Path to the YAML configuration file
+     * @param workers Number of worker processes
+     * @throws Exception If an error occurs during execution
+     */
+    public static void executeDistributed(String configFile, int workers) throws Exception {
+        executeDistributed(configFile, workers, -1);
+    }
+    
+    /**
+     * Execute tests from a YAML configuration file across several local worker JVMs,
+     * serving the merged live metrics of the workers while they run
+     * 
+     * @param configFile Path to the YAML configuration file
+     * @param workers Number of worker processes
+     * @param metricsPort Port of the metrics endpoint, or -1 for none
+     * @throws Exception If an error occurs during execution
+     */
+    public static void executeDistributed(String configFile, int workers, int metricsPort) throws Exception {
+        logger.info("Executing tests from YAML config on {} workers: {}", workers, configFile);
+        
+        Map<String, String> globalVariables = new HashMap<>();
+        globalVariables.put("timestamp", String.valueOf(System.currentTimeMillis()));
+        globalVariables.put("date", LocalDateTime.now().format(DateTimeFormatter.ISO_DATE));
+        
+        DistributedController controller = new DistributedController("target/reports")
+                .setWorkers(workers)
+                .setGlobalVariables(globalVariables);
+        Map<String, Map<String, Object>> results;
+        try (MetricsEndpoint endpoint = new MetricsEndpoint(controller::getMetricsCollectors)) {
+            if (metricsPort >= 0) {
+                endpoint.start(metricsPort);
+            }
+            results = controller.execute(configFile);
+        }
+        
+        for (Map.Entry<String, Map<String, Object>> entry : results.entrySet()) {
+            logger.info("Scenario: {} merged metrics: {}", entry.getKey(), entry.getValue());
+        }
+    }
+    
     /**
      * Alternative execution method using the original approach
      * This is kept for backwards compatibility but delegates to the ECS implementation
@@ -6,12 +6,14 @@ import io.ecs.component.ConfigComponent;
 import io.ecs.component.ProtocolComponent;
 import io.ecs.component.ReportingComponent;
 import io.ecs.config.Scenario;
+import io.ecs.model.CapacitySearchConfig;
 import io.ecs.model.Request;
 import io.ecs.model.TestResult;
 import io.ecs.model.ExecutionConfig;
 import io.ecs.engine.Engine;
 import io.ecs.engine.EngineFactory;
-import io.ecs.util.CsvReader;
+import io.ecs.feeder.Feeder;
+import io.ecs.report.MetricsCollector;
 import io.ecs.util.DynamicVariableResolver;
 import io.ecs.util.EcsLogger;
 
@@ -19,10 +21,18 @@ import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ECS System for executing performance tests
@@ -37,8 +47,18 @@ public class TestExecutionSystem {
     private final Map<String, String> globalVariables;
     private final Map<String, Engine> engines;
     private final EntityManager entityManager;
+    private final Map<String, MetricsCollector> scenarioMetrics = new ConcurrentHashMap<>();
     private String defaultEngine = "jmdsl";
     
+    // Share of the configured load run by this system when it is one of several workers
+    private int workerIndex = 0;
+    private int workerCount = 1;
+    
+    // Whether all scenarios run at once, and the wall-clock deadline of such a run
+    private boolean parallel = false;
+    private int deadlineSeconds = 0;
+    private volatile long deadlineAt = 0;
+    
     /**
      * Create a test execution system with default report directory
      */
@@ -54,7 +74,7 @@ public class TestExecutionSystem {
     public TestExecutionSystem(String reportDirectory) {
         this.reportDirectory = reportDirectory;
         this.globalVariables = new HashMap<>();
-        this.engines = new HashMap<>();
+        this.engines = new ConcurrentHashMap<>();
         this.entityManager = new EntityManager();
         
         // Create report directory
@@ -204,11 +224,17 @@ public class TestExecutionSystem {
         configScenario.setIterations(modelScenario.getIterations());
         configScenario.setRampUp(modelScenario.getRampUp());
         configScenario.setHold(modelScenario.getHold());
+        configScenario.setWarmUp(modelScenario.getWarmUp());
+        configScenario.setWarmUpIterations(modelScenario.getWarmUpIterations());
+        configScenario.setStartOffset(modelScenario.getStartOffset());
         configScenario.setEngine(modelScenario.getEngine());
+        configScenario.setExecutor(modelScenario.getExecutor());
         configScenario.setSuccessThreshold(modelScenario.getSuccessThreshold());
         configScenario.setRequests(new ArrayList<>(modelScenario.getRequests()));
         configScenario.setVariables(new HashMap<>(modelScenario.getVariables()));
         configScenario.setDataFiles(new HashMap<>(modelScenario.getDataFiles()));
+        configScenario.setAbortOn(new ArrayList<>(modelScenario.getAbortOn()));
+        configScenario.setCapacitySearch(modelScenario.getCapacitySearch());
         
         if (entity == null) {
             // Create new entity with components
@@ -243,13 +269,17 @@ public class TestExecutionSystem {
      * Add a data file to be used in the test
      * 
      * @param name Name to reference the data file
-     * @param filePath Path to the CSV file
+     * @param filePath Feeder spec: a CSV or JSON-lines path, or a generated definition,
+     *                 optionally followed by "|" and a strategy
      * @return This system for chaining
      */
     public TestExecutionSystem addDataFile(String name, String filePath) {
         try {
-            CsvReader csvReader = new CsvReader();
-            List<Map<String, String>> data = csvReader.readCsv(filePath);
+            // Open the feeder once to validate the spec; records are read during execution
+            String[] columns;
+            try (Feeder feeder = Feeder.open(name, filePath)) {
+                columns = feeder.getColumns();
+            }
             
             // Add the data to all scenario entities
             for (TestEntity entity : entityManager.getEntitiesWithComponent(ConfigComponent.class)) {
@@ -262,7 +292,7 @@ public class TestExecutionSystem {
                 }
             }
             
-            logger.info("Added data file: {} with {} records", name, data.size());
+            logger.info("Added data file: {} with columns {}", name, String.join(", ", columns));
         } catch (Exception e) {
             logger.error("Error loading data file: {}", e.getMessage(), e);
         }
@@ -280,12 +310,14 @@ public class TestExecutionSystem {
             for (TestEntity entity : entityManager.getEntitiesWithComponent(ConfigComponent.class)) {
                 ConfigComponent config = entity.getComponent(ConfigComponent.class);
                 config.loadConfig(configFile);
+                applyRunSettings(config);
             }
             
             // If there are no entities with ConfigComponent, create a new one
             if (entityManager.getEntitiesWithComponent(ConfigComponent.class).isEmpty()) {
                 ConfigComponent configComponent = new ConfigComponent();
                 List<Scenario> scenarios = configComponent.loadConfig(configFile).getScenarios();
+                applyRunSettings(configComponent);
                 
                 // Create entities for each loaded scenario
                 for (Scenario scenario : scenarios) {
@@ -310,6 +342,18 @@ public class TestExecutionSystem {
         return this;
     }
     
+    /**
+     * Take the parallel mode and deadline of a loaded configuration, unless already set in code
+     */
+    private void applyRunSettings(ConfigComponent config) {
+        if (config.isParallel()) {
+            parallel = true;
+        }
+        if (config.getDeadline() > 0 && deadlineSeconds == 0) {
+            deadlineSeconds = config.getDeadline();
+        }
+    }
+    
     /**
      * Execute a specific scenario entity
      * 
@@ -335,10 +379,19 @@ public class TestExecutionSystem {
         
         // Use the first scenario in the loaded list
         Scenario scenario = scenarios.get(0);
+        List<Feeder> feeders = Collections.emptyList();
+        Engine engine = null;
+        AbortMonitor abortMonitor = null;
         
         try {
             logger.info("Executing scenario: {}", scenario.getName());
             
+            // Parse the abort criteria first, so a typo fails before any load is sent
+            List<AbortCriterion> abortCriteria = new ArrayList<>();
+            for (String criterion : scenario.getAbortOn()) {
+                abortCriteria.add(AbortCriterion.parse(criterion));
+            }
+            
             // Combine global variables with scenario variables
             Map<String, String> combinedVariables = new HashMap<>(globalVariables);
             if (scenario.getVariables() != null) {
@@ -347,10 +400,19 @@ public class TestExecutionSystem {
             
             // Create execution config
             ExecutionConfig config = new ExecutionConfig();
-            config.setThreads(scenario.getThreads() > 0 ? scenario.getThreads() : 1);
+            int threads = shareOfLoad(scenario.getThreads() > 0 ? scenario.getThreads() : 1);
+            if (threads == 0) {
+                logger.info("Scenario {} has no threads for worker {} of {}, skipping",
+                            scenario.getName(), workerIndex + 1, workerCount);
+                return null;
+            }
+            config.setThreads(threads);
             config.setIterations(scenario.getIterations() > 0 ? scenario.getIterations() : 1);
             config.setRampUpSeconds(scenario.getRampUp());
             config.setHoldSeconds(scenario.getHold());
+            config.setWarmUpSeconds(scenario.getWarmUp());
+            config.setWarmUpIterations(scenario.getWarmUpIterations());
+            config.setExecutor(scenario.getExecutor());
             config.setReportDirectory(reportDirectory);
             config.setVariables(combinedVariables);
             
@@ -361,13 +423,37 @@ public class TestExecutionSystem {
             
             // Get or create appropriate engine
             String engineType = scenario.getEngine() != null ? scenario.getEngine() : defaultEngine;
-            Engine engine = engines.computeIfAbsent(
+            engine = engines.computeIfAbsent(
                 engineType + "_" + scenario.getName(),
                 k -> EngineFactory.getEngine(engineType, config)
             );
             
             // Initialize engine with variables
             engine.initialize(combinedVariables);
+            if (engine.getMetricsCollector() != null) {
+                scenarioMetrics.put(scenario.getName(), engine.getMetricsCollector());
+            }
+            
+            // Watch the live windows and stop the load early when a criterion is breached
+            if (!abortCriteria.isEmpty()) {
+                if (engine.supportsLiveMetrics()) {
+                    abortMonitor = new AbortMonitor(engine.getMetricsCollector(), abortCriteria, engine::stop).start();
+                } else {
+                    logger.warn("Engine {} has no live metrics, ignoring abort criteria of scenario {}",
+                                engineType, scenario.getName());
+                }
+            }
+            
+            // Open the scenario's data feeders, sharded so workers never hand out the same record
+            feeders = openFeeders(scenario, threads);
+            if (!feeders.isEmpty()) {
+                if (engine.supportsFeeders()) {
+                    engine.setFeeders(feeders);
+                } else {
+                    logger.warn("Engine {} does not read data files, ignoring {} data file(s) of scenario {}",
+                                engineType, feeders.size(), scenario.getName());
+                }
+            }
             
             // Initialize protocol component if present
             if (entity.hasComponent(ProtocolComponent.class)) {
@@ -389,6 +475,15 @@ public class TestExecutionSystem {
             // Execute each request
             boolean anyRequestSuccessful = false;
             for (Request request : scenario.getRequests()) {
+                if (abortMonitor != null && abortMonitor.isAborted()) {
+                    logger.info("Skipping request {} of aborted scenario {}", request.getName(), scenario.getName());
+                    continue;
+                }
+                if (isPastDeadline()) {
+                    logger.info("Skipping request {} of scenario {}, the run's deadline has passed",
+                                request.getName(), scenario.getName());
+                    continue;
+                }
                 TestResult result = engine.executeRequest(request);
                 result.setScenarioId(scenario.getId());
                 result.setScenarioName(scenario.getName());
@@ -421,9 +516,41 @@ public class TestExecutionSystem {
                 metrics.put("successRate", 100.0);
             }
             
-            // Generate report
-            String reportPath = reportingComponent.generateReport(results.get(results.size() - 1));
-            logger.info("Test report generated at: {}", reportPath);
+            // Report the warm-up apart, its samples are not in the totals above
+            MetricsCollector collector = engine.getMetricsCollector();
+            if (collector != null && collector.getWarmUp().getTotalRequests() > 0) {
+                MetricsCollector warmUp = collector.getWarmUp();
+                logger.info("Scenario {} excluded {} warm-up requests ({}% success, {}ms average)",
+                            scenario.getName(), warmUp.getTotalRequests(), warmUp.getSuccessRate(),
+                            warmUp.getAverageResponseTime());
+                metrics = new HashMap<>(metrics);
+                metrics.put("warmUpRequests", warmUp.getTotalRequests());
+                metrics.put("warmUpSuccessRate", warmUp.getSuccessRate());
+                metrics.put("warmUpAvgResponseTime", warmUp.getAverageResponseTime());
+                metrics.put("warmUp95thPercentile", warmUp.getPercentile(95));
+            }
+            
+            // A scenario cut short by the deadline ended as planned, so it is only tagged
+            if (isPastDeadline()) {
+                metrics = new HashMap<>(metrics);
+                metrics.put("deadlineReached", true);
+            }
+            
+            // An aborted scenario fails whatever its success rate was
+            String abortReason = null;
+            if (abortMonitor != null && abortMonitor.isAborted()) {
+                abortReason = "Aborted: " + abortMonitor.getVerdict();
+                logger.error("Scenario {} stopped early. {}", scenario.getName(), abortReason);
+                metrics = new HashMap<>(metrics);
+                metrics.put("aborted", true);
+                metrics.put("abortReason", abortReason);
+            }
+            
+            // Generate report, unless the deadline passed before any request ran
+            if (!results.isEmpty()) {
+                String reportPath = reportingComponent.generateReport(results.get(results.size() - 1), abortReason);
+                logger.info("Test report generated at: {}", reportPath);
+            }
             
             return metrics;
             
@@ -431,6 +558,52 @@ public class TestExecutionSystem {
             logger.error("Error executing scenario {}: {}", scenario.getName(), e.getMessage(), e);
             e.printStackTrace();
             return null;
+        } finally {
+            if (abortMonitor != null) {
+                abortMonitor.close();
+            }
+            if (!feeders.isEmpty()) {
+                if (engine != null && engine.supportsFeeders()) {
+                    engine.setFeeders(Collections.emptyList());
+                }
+                closeFeeders(feeders);
+            }
+        }
+    }
+    
+    /**
+     * Open the feeders for a scenario's data files
+     * 
+     * @param scenario The scenario
+     * @param threads Number of threads this worker runs
+     * @return The feeders, in data file order
+     * @throws Exception if a data file cannot be opened
+     */
+    private List<Feeder> openFeeders(Scenario scenario, int threads) throws Exception {
+        if (scenario.getDataFiles() == null || scenario.getDataFiles().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Feeder> feeders = new ArrayList<>();
+        try {
+            for (Map.Entry<String, String> dataFile : scenario.getDataFiles().entrySet()) {
+                Feeder feeder = Feeder.open(dataFile.getKey(), dataFile.getValue());
+                feeders.add(feeder.setUsers(threads).setShard(workerIndex, workerCount));
+                logger.info("Opened data file {} ({} strategy)", dataFile.getKey(), feeder.getStrategy());
+            }
+        } catch (Exception e) {
+            closeFeeders(feeders);
+            throw e;
+        }
+        return feeders;
+    }
+    
+    private void closeFeeders(List<Feeder> feeders) {
+        for (Feeder feeder : feeders) {
+            try {
+                feeder.close();
+            } catch (Exception e) {
+                logger.warn("Error closing data file {}: {}", feeder.getName(), e.getMessage());
+            }
         }
     }
     
@@ -490,11 +663,17 @@ public class TestExecutionSystem {
         configScenario.setIterations(modelScenario.getIterations());
         configScenario.setRampUp(modelScenario.getRampUp());
         configScenario.setHold(modelScenario.getHold());
+        configScenario.setWarmUp(modelScenario.getWarmUp());
+        configScenario.setWarmUpIterations(modelScenario.getWarmUpIterations());
+        configScenario.setStartOffset(modelScenario.getStartOffset());
         configScenario.setEngine(modelScenario.getEngine());
+        configScenario.setExecutor(modelScenario.getExecutor());
         configScenario.setSuccessThreshold(modelScenario.getSuccessThreshold());
         configScenario.setRequests(new ArrayList<>(modelScenario.getRequests()));
         configScenario.setVariables(new HashMap<>(modelScenario.getVariables()));
         configScenario.setDataFiles(new HashMap<>(modelScenario.getDataFiles()));
+        configScenario.setAbortOn(new ArrayList<>(modelScenario.getAbortOn()));
+        configScenario.setCapacitySearch(modelScenario.getCapacitySearch());
         
         // Execute the converted scenario
         return executeScenario(configScenario);
@@ -510,9 +689,12 @@ public class TestExecutionSystem {
         
         // Get all entities with ConfigComponent
         List<TestEntity> entities = entityManager.getEntitiesWithComponent(ConfigComponent.class);
+        if (parallel) {
+            return executeInParallel(entities);
+        }
         
         for (TestEntity entity : entities) {
-            Map<String, Object> result = executeEntity(entity);
+            Map<String, Object> result = runEntity(entity);
             if (result != null) {
                 allResults.add(result);
             }
@@ -521,6 +703,338 @@ public class TestExecutionSystem {
         return allResults;
     }
     
+    /**
+     * Run an entity's scenario, or search its capacity when it asks for a capacity search
+     */
+    private Map<String, Object> runEntity(TestEntity entity) {
+        Scenario scenario = firstScenario(entity);
+        if (scenario != null && scenario.getCapacitySearch() != null) {
+            CapacitySearchResult capacity = searchCapacity(scenario);
+            return capacity != null ? capacity.toMap() : null;
+        }
+        return executeEntity(entity);
+    }
+    
+    /**
+     * Run the scenarios of several entities at the same time
+     * 
+     * Each scenario starts after its start offset on a thread of its own and runs its
+     * own threads. When the deadline passes, running engines are asked to stop, and
+     * scenarios and requests that have not started yet are skipped.
+     * 
+     * @param entities Entities whose scenarios to run
+     * @return Aggregate test results, in entity order
+     */
+    private List<Map<String, Object>> executeInParallel(List<TestEntity> entities) {
+        List<Map<String, Object>> allResults = new ArrayList<>();
+        if (entities.isEmpty()) {
+            return allResults;
+        }
+        
+        logger.info("Running {} scenarios in parallel{}", entities.size(),
+                    deadlineSeconds > 0 ? " with a deadline of " + deadlineSeconds + "s" : "");
+        long start = System.currentTimeMillis();
+        deadlineAt = deadlineSeconds > 0 ? start + deadlineSeconds * 1000L : 0;
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(entities.size() + 1);
+        try {
+            List<Future<Map<String, Object>>> runs = new ArrayList<>();
+            for (TestEntity entity : entities) {
+                Scenario scenario = firstScenario(entity);
+                int offset = scenario != null ? Math.max(0, scenario.getStartOffset()) : 0;
+                runs.add(scheduler.schedule(() -> {
+                    if (isPastDeadline()) {
+                        logger.warn("Skipping scenario {}, the run's deadline passed before its start offset",
+                                    entity.getName());
+                        return null;
+                    }
+                    logger.info("Starting scenario {} {}s into the run", entity.getName(),
+                                (System.currentTimeMillis() - start) / 1000);
+                    return runEntity(entity);
+                }, offset, TimeUnit.SECONDS));
+            }
+            if (deadlineSeconds > 0) {
+                scheduler.schedule(() -> {
+                    logger.warn("Deadline of {}s reached, stopping all scenarios", deadlineSeconds);
+                    stopAllEngines();
+                }, deadlineSeconds, TimeUnit.SECONDS);
+            }
+            
+            for (int i = 0; i < runs.size(); i++) {
+                try {
+                    Map<String, Object> result = runs.get(i).get();
+                    if (result != null) {
+                        allResults.add(result);
+                    }
+                } catch (ExecutionException e) {
+                    logger.error("Error executing scenario {}: {}", entities.get(i).getName(),
+                                 e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for parallel scenarios, stopping them");
+            stopAllEngines();
+        } finally {
+            scheduler.shutdownNow();
+            deadlineAt = 0;
+        }
+        
+        logCombinedMetrics(System.currentTimeMillis() - start);
+        return allResults;
+    }
+    
+    private boolean isPastDeadline() {
+        long deadline = deadlineAt;
+        return deadline > 0 && System.currentTimeMillis() >= deadline;
+    }
+    
+    /**
+     * Ask the engines of all running scenarios to finish early
+     */
+    private void stopAllEngines() {
+        for (Engine engine : engines.values()) {
+            try {
+                engine.stop();
+            } catch (Exception e) {
+                logger.error("Error stopping engine: {}", e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Log the combined metrics of all scenarios of a parallel run
+     */
+    private void logCombinedMetrics(long elapsedMillis) {
+        MetricsCollector combined = getCombinedMetrics();
+        if (combined.getTotalRequests() == 0) {
+            return;
+        }
+        logger.info("All scenarios combined: {} requests in {}s ({} requests/s)", combined.getTotalRequests(),
+                    elapsedMillis / 1000, Math.round(combined.getTotalRequests() * 1000.0 / Math.max(1, elapsedMillis)));
+        logger.info("Success rate: {}%", combined.getSuccessRate());
+        logger.info("Average response time: {}ms", combined.getAverageResponseTime());
+        logger.info("95th/99th percentile: {}/{}ms", combined.getPercentile(95), combined.getPercentile(99));
+        for (Map.Entry<String, MetricsCollector> scenario : combined.getLabels().entrySet()) {
+            logger.info("  {}: {} requests, {}% success, p95 {}ms", scenario.getKey(),
+                        scenario.getValue().getTotalRequests(), scenario.getValue().getSuccessRate(),
+                        scenario.getValue().getPercentile(95));
+        }
+        logger.info("--------------------------------------");
+    }
+    
+    /**
+     * Search for the highest load a scenario sustains within its objectives
+     * 
+     * Each step runs a copy of the scenario with the step's virtual users, holding the
+     * load for the configured step length. The engines run a fixed number of users, so
+     * the capacity is reported as the throughput those users achieved.
+     * 
+     * @param scenario The scenario to search, using its capacity search settings or the defaults
+     * @return The steps and the capacity they show, or null if a step could not be run
+     */
+    public CapacitySearchResult searchCapacity(Scenario scenario) {
+        CapacitySearchConfig search = scenario.getCapacitySearch() != null
+                ? scenario.getCapacitySearch() : new CapacitySearchConfig();
+        logger.info("Searching the capacity of scenario {} with {}", scenario.getName(), search);
+        try {
+            return new CapacitySearch(scenario.getName(), search,
+                    users -> runCapacityStep(scenario, users, search)).run();
+        } catch (Exception e) {
+            logger.error("Error searching the capacity of scenario {}: {}", scenario.getName(), e.getMessage(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * Run one step of a capacity search and measure it
+     */
+    private CapacitySearchResult.Step runCapacityStep(Scenario scenario, int users, CapacitySearchConfig search) {
+        Scenario step = new Scenario();
+        step.setName(scenario.getName() + " @ " + users + " users");
+        step.setDescription(scenario.getDescription());
+        step.setThreads(users);
+        step.setIterations(1);
+        step.setRampUp(scenario.getRampUp());
+        step.setHold(search.getStepSeconds());
+        step.setWarmUp(scenario.getWarmUp());
+        step.setWarmUpIterations(scenario.getWarmUpIterations());
+        step.setEngine(scenario.getEngine());
+        step.setExecutor(scenario.getExecutor());
+        step.setSuccessThreshold(scenario.getSuccessThreshold());
+        step.setRequests(new ArrayList<>(scenario.getRequests()));
+        step.setVariables(scenario.getVariables());
+        step.setDataFiles(scenario.getDataFiles());
+        step.setAbortOn(new ArrayList<>(scenario.getAbortOn()));
+        
+        long start = System.currentTimeMillis();
+        Map<String, Object> metrics;
+        MetricsCollector collector;
+        try {
+            metrics = executeScenario(step);
+            collector = scenarioMetrics.get(step.getName());
+        } finally {
+            releaseScenario(step.getName());
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        if (metrics == null) {
+            throw new IllegalStateException("Step with " + users + " users of scenario " + scenario.getName() + " failed");
+        }
+        if (collector == null) {
+            throw new IllegalStateException("Engine of scenario " + scenario.getName() +
+                    " does not collect the live metrics a capacity search needs");
+        }
+        
+        long total = collector.getTotalRequests();
+        double errorRate = total > 0 ? collector.getFailedRequests() * 100.0 / total : 0.0;
+        // Measure the rate over the samples only, leaving out start-up and warm-up; a step
+        // with a single sample has no measured period and falls back to the whole step
+        double throughput = collector.getMeasuredThroughput();
+        if (throughput == 0 && total > 0) {
+            throughput = total * 1000.0 / elapsed;
+        }
+        return new CapacitySearchResult.Step(users, total, throughput, errorRate,
+                collector.getPercentile(95), Boolean.TRUE.equals(metrics.get("aborted")));
+    }
+    
+    /**
+     * Drop the entity, engine, protocol and metrics of a scenario that has finished
+     */
+    private void releaseScenario(String scenarioName) {
+        scenarioMetrics.remove(scenarioName);
+        engines.entrySet().removeIf(entry -> {
+            if (!entry.getKey().endsWith("_" + scenarioName)) {
+                return false;
+            }
+            try {
+                entry.getValue().shutdown();
+            } catch (Exception e) {
+                logger.error("Error shutting down engine: {}", e.getMessage(), e);
+            }
+            return true;
+        });
+        for (TestEntity entity : entityManager.getAllEntities()) {
+            if (entity.getName().equals(scenarioName)) {
+                closeProtocol(entity);
+                entityManager.removeEntity(entity);
+            }
+        }
+    }
+    
+    /**
+     * Get the scenario an entity runs, or null if it has none
+     */
+    private Scenario firstScenario(TestEntity entity) {
+        ConfigComponent config = entity.getComponent(ConfigComponent.class);
+        return config != null && !config.getScenarios().isEmpty() ? config.getScenarios().get(0) : null;
+    }
+    
+    /**
+     * Run the scenarios of a YAML configuration across several worker JVMs
+     * 
+     * The load of each scenario is split between the workers, which are started as
+     * local processes. Use {@link DistributedController} directly to attach workers
+     * running on other hosts.
+     * 
+     * @param configFile Path to the YAML configuration file
+     * @param workers Number of worker processes to start
+     * @return Merged metrics keyed by scenario name
+     */
+    public Map<String, Map<String, Object>> executeDistributed(String configFile, int workers) {
+        DistributedController controller = new DistributedController(reportDirectory)
+                .setWorkers(workers)
+                .setLaunchLocalWorkers(true)
+                .setGlobalVariables(globalVariables);
+        try {
+            return controller.execute(configFile);
+        } catch (Exception e) {
+            logger.error("Error executing distributed test: {}", e.getMessage(), e);
+            return new HashMap<>();
+        }
+    }
+    
+    /**
+     * Run only a share of the configured load, as one of several workers
+     * 
+     * Threads of each scenario are divided evenly, with the remainder going to the
+     * lowest-numbered workers.
+     * 
+     * @param workerIndex Zero-based index of this worker
+     * @param workerCount Total number of workers
+     * @return This system for chaining
+     */
+    public TestExecutionSystem setLoadShare(int workerIndex, int workerCount) {
+        if (workerCount < 1 || workerIndex < 0 || workerIndex >= workerCount) {
+            throw new IllegalArgumentException("Invalid worker " + workerIndex + " of " + workerCount);
+        }
+        this.workerIndex = workerIndex;
+        this.workerCount = workerCount;
+        return this;
+    }
+    
+    /**
+     * Get the collectors of the engines that have run scenarios, keyed by scenario name
+     * 
+     * Only engines that expose a {@link MetricsCollector} are included. The collectors
+     * are live and keep changing while scenarios run.
+     * 
+     * @return Map of scenario name to metrics collector
+     */
+    public Map<String, MetricsCollector> getMetricsCollectors() {
+        return new HashMap<>(scenarioMetrics);
+    }
+    
+    /**
+     * Get a system-wide view of the scenarios that have run, as one collector
+     * 
+     * The collector is a merged copy with one label per scenario, so it does not change
+     * the collectors of the scenarios themselves.
+     * 
+     * @return The combined metrics
+     */
+    public MetricsCollector getCombinedMetrics() {
+        MetricsCollector combined = new MetricsCollector();
+        for (Map.Entry<String, MetricsCollector> scenario : new TreeMap<>(scenarioMetrics).entrySet()) {
+            combined.mergeAsLabel(scenario.getKey(), scenario.getValue());
+        }
+        return combined;
+    }
+    
+    /**
+     * Run the scenarios of the system at the same time rather than one after another
+     * 
+     * Each scenario keeps its own threads and metrics; use {@link Scenario#setStartOffset(int)}
+     * to stagger them and {@link #setDeadline(int)} to end the run at a fixed time.
+     * 
+     * @param parallel True to run scenarios in parallel
+     * @return This system for chaining
+     */
+    public TestExecutionSystem setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+    
+    public boolean isParallel() {
+        return parallel;
+    }
+    
+    /**
+     * Set a wall-clock deadline for a parallel run
+     * 
+     * @param deadlineSeconds Seconds from the start of the run, or 0 for none
+     * @return This system for chaining
+     */
+    public TestExecutionSystem setDeadline(int deadlineSeconds) {
+        this.deadlineSeconds = Math.max(0, deadlineSeconds);
+        return this;
+    }
+    
+    /**
+     * Get this worker's share of a number of threads
+     */
+    private int shareOfLoad(int threads) {
+        return threads / workerCount + (workerIndex < threads % workerCount ? 1 : 0);
+    }
+    
     /**
      * Log metrics from a scenario execution
      * 
@@ -598,9 +1112,21 @@ public class TestExecutionSystem {
         // Clear collections
         engines.clear();
         
+        // Release the connection pools of the entities' protocols
+        for (TestEntity entity : entityManager.getAllEntities()) {
+            closeProtocol(entity);
+        }
+        
         logger.info("TestExecutionSystem shutdown complete");
     }
     
+    private void closeProtocol(TestEntity entity) {
+        ProtocolComponent protocolComponent = entity.getComponent(ProtocolComponent.class);
+        if (protocolComponent != null) {
+            protocolComponent.close();
+        }
+    }
+    
     /**
      * Add a helper method to add a scenario to an entity
      * 
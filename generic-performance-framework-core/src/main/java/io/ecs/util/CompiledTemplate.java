@@ -0,0 +1,250 @@
+package io.ecs.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A template with ${name} placeholders, parsed once into literal and placeholder segments
+ *
+ * Rendering walks the segments and appends them to a per-thread buffer, so no regular
+ * expression runs and no intermediate strings are built for each request. Placeholder
+ * names are given their {@link VariableSlots} slot when the template is compiled, so
+ * rendering from a {@link VariableScope} needs no hashing. Compiled templates are
+ * immutable, thread-safe and cached by their source text.
+ *
+ * A placeholder is "${" followed by at least one character up to the next "}". Text
+ * that does not form a placeholder, such as "${}" or an unclosed "${", is kept as is.
+ */
+public final class CompiledTemplate {
+
+    /**
+     * Supplies placeholder values while rendering
+     */
+    @FunctionalInterface
+    public interface Resolver {
+        /**
+         * Resolve a placeholder
+         *
+         * @param name the text between "${" and "}"
+         * @return the value, or null to keep the placeholder unchanged
+         */
+        String resolve(String name);
+    }
+
+    // Templates seen after the cache is full are still compiled, just not kept
+    private static final int MAX_CACHED_TEMPLATES = 10_000;
+
+    // Buffers that grew larger than this are not kept for the next render
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final Map<String, CompiledTemplate> CACHE = new ConcurrentHashMap<>();
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String source;
+
+    // literals[i] precedes names[i]; the last literal follows the last placeholder
+    private final String[] literals;
+    private final String[] names;
+    private final int[] slots;
+    private final int literalLength;
+
+    private CompiledTemplate(String source, String[] literals, String[] names) {
+        this.source = source;
+        this.literals = literals;
+        this.names = names;
+        this.slots = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            slots[i] = VariableSlots.slotOf(names[i]);
+        }
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Get the compiled form of a template, compiling it on first use
+     *
+     * @param template the template text
+     * @return the compiled template
+     */
+    public static CompiledTemplate compile(String template) {
+        CompiledTemplate compiled = CACHE.get(template);
+        if (compiled != null) {
+            return compiled;
+        }
+        compiled = parse(template);
+        if (CACHE.size() < MAX_CACHED_TEMPLATES) {
+            CACHE.putIfAbsent(template, compiled);
+        }
+        return compiled;
+    }
+
+    private static CompiledTemplate parse(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int position = 0;
+        while (position < template.length()) {
+            int start = template.indexOf("${", position);
+            int end = start < 0 ? -1 : template.indexOf('}', start + 2);
+            if (start < 0 || end < 0) {
+                literal.append(template, position, template.length());
+                break;
+            }
+            if (end == start + 2) {
+                // "${}" is not a placeholder; keep "$" and look for a placeholder from "{"
+                literal.append(template, position, start + 1);
+                position = start + 1;
+                continue;
+            }
+            literal.append(template, position, start);
+            literals.add(literal.toString());
+            names.add(template.substring(start + 2, end));
+            literal.setLength(0);
+            position = end + 1;
+        }
+        literals.add(literal.toString());
+
+        return new CompiledTemplate(template, literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    /**
+     * Render the template
+     *
+     * @param resolver supplies placeholder values
+     * @return the rendered text
+     */
+    public String render(Resolver resolver) {
+        if (names.length == 0) {
+            return source;
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        renderTo(buffer, resolver);
+        return release(buffer);
+    }
+
+    /**
+     * Render the template with values from a map
+     *
+     * @param variables the values by placeholder name; missing names are kept as placeholders
+     * @return the rendered text
+     */
+    public String render(Map<String, String> variables) {
+        if (variables instanceof VariableScope) {
+            return render((VariableScope) variables, null);
+        }
+        if (variables == null || variables.isEmpty()) {
+            return source;
+        }
+        return render(variables::get);
+    }
+
+    /**
+     * Render the template with values from a variable scope, looked up by slot
+     *
+     * @param scope the variables visible to the request
+     * @param missingValue the text for placeholders the scope does not define, or null to keep them
+     * @return the rendered text
+     */
+    public String render(VariableScope scope, String missingValue) {
+        if (names.length == 0) {
+            return source;
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        renderTo(buffer, scope, missingValue);
+        return release(buffer);
+    }
+
+    private static String release(StringBuilder buffer) {
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Append the rendered template to a buffer
+     *
+     * @param out the buffer to append to
+     * @param resolver supplies placeholder values
+     */
+    public void renderTo(StringBuilder out, Resolver resolver) {
+        out.ensureCapacity(out.length() + literalLength + names.length * 16);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            String value = resolver.resolve(names[i]);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append("${").append(names[i]).append('}');
+            }
+        }
+        out.append(literals[names.length]);
+    }
+
+    /**
+     * Append the template rendered from a variable scope to a buffer
+     *
+     * @param out the buffer to append to
+     * @param scope the variables visible to the request
+     * @param missingValue the text for placeholders the scope does not define, or null to keep them
+     */
+    public void renderTo(StringBuilder out, VariableScope scope, String missingValue) {
+        out.ensureCapacity(out.length() + literalLength + names.length * 16);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            String value = scope.get(slots[i]);
+            if (value == null) {
+                value = missingValue;
+            }
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append("${").append(names[i]).append('}');
+            }
+        }
+        out.append(literals[names.length]);
+    }
+
+    /**
+     * Check whether the template has no placeholders
+     *
+     * @return true if rendering always returns the source text
+     */
+    public boolean isConstant() {
+        return names.length == 0;
+    }
+
+    /**
+     * Get the placeholder names in order of appearance
+     *
+     * @return the names, including repeats
+     */
+    public List<String> getVariableNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Get the template text
+     *
+     * @return the source of this template
+     */
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
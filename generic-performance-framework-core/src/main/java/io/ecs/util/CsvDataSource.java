@@ -1,5 +1,7 @@
 package io.ecs.util;
 
+import io.ecs.feeder.FeedSource;
+
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
@@ -10,8 +12,11 @@ import java.util.Map;
 
 /**
  * Loads and manages CSV data for test execution
+ * 
+ * The whole file is kept in memory; for large files use a
+ * {@link io.ecs.feeder.CsvFeedSource}, which maps the file instead.
  */
-public class CsvDataSource {
+public class CsvDataSource implements FeedSource {
     private final List<Map<String, String>> data;
     private final String[] headers;
     
@@ -97,6 +102,20 @@ public class CsvDataSource {
         return new HashMap<>(data.get(index));
     }
     
+    /**
+     * Get a single value without copying the row
+     * 
+     * @param index the row index
+     * @param column the column name
+     * @return the value, or null if the row or column does not exist
+     */
+    public String getValue(int index, String column) {
+        if (index < 0 || index >= data.size()) {
+            return null;
+        }
+        return data.get(index).get(column);
+    }
+    
     /**
      * Get all data
      * 
@@ -114,4 +133,23 @@ public class CsvDataSource {
     public String[] getHeaders() {
         return headers.clone();
     }
+    
+    @Override
+    public String[] getColumns() {
+        return getHeaders();
+    }
+    
+    @Override
+    public long size() {
+        return data.size();
+    }
+    
+    @Override
+    public void read(long index, String[] values) {
+        Map<String, String> row = data.get((int) index);
+        for (int i = 0; i < values.length; i++) {
+            String value = row.get(headers[i]);
+            values[i] = value != null ? value : "";
+        }
+    }
 }
@@ -1,9 +1,6 @@
 package io.ecs.util;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility class for resolving dynamic variables in templates
@@ -11,9 +8,6 @@ import java.util.regex.Pattern;
  */
 public class DynamicVariableResolver {
     
-    // Pattern to match ${variable} in templates
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
-    
     // Special dynamic variables that are resolved at runtime
     private static final String ITERATION_VAR = "iteration";
     private static final String THREAD_NUM_VAR = "threadNum";
@@ -34,13 +28,16 @@ public class DynamicVariableResolver {
             return template;
         }
         
-        Map<String, Object> dynamicContext = new HashMap<>();
-        return processTemplate(template, variables, dynamicContext);
+        return processTemplate(template, variables, null);
     }
     
     /**
      * Process a template with variable substitution
      * 
+     * The template is compiled once and cached; values are looked up directly in the
+     * dynamic context and then the variables, without merging them into a new map.
+     * Placeholders that cannot be resolved are kept unchanged.
+     * 
      * @param template the template to process
      * @param variables the variables to substitute
      * @param dynamicContext runtime context with dynamic values (iteration, thread number, etc.)
@@ -51,34 +48,11 @@ public class DynamicVariableResolver {
             return template;
         }
         
-        // Combine static and dynamic variables
-        Map<String, String> allVariables = new HashMap<>();
-        if (variables != null) {
-            allVariables.putAll(variables);
-        }
-        
-        // Add dynamic values from context
-        if (dynamicContext != null) {
-            for (Map.Entry<String, Object> entry : dynamicContext.entrySet()) {
-                allVariables.put(entry.getKey(), String.valueOf(entry.getValue()));
-            }
-        }
-        
-        // Replace variables in template
-        StringBuffer result = new StringBuffer();
-        Matcher matcher = VARIABLE_PATTERN.matcher(template);
-        
-        while (matcher.find()) {
-            String variableName = matcher.group(1);
-            String replacement = resolveDynamicVariable(variableName, allVariables, dynamicContext);
-            
-            // Escape Matcher special chars in replacement
-            replacement = Matcher.quoteReplacement(replacement);
-            matcher.appendReplacement(result, replacement);
+        CompiledTemplate compiled = CompiledTemplate.compile(template);
+        if (compiled.isConstant()) {
+            return template;
         }
-        
-        matcher.appendTail(result);
-        return result.toString();
+        return compiled.render(name -> resolveDynamicVariable(name, variables, dynamicContext));
     }
     
     /**
@@ -86,8 +60,8 @@ public class DynamicVariableResolver {
      * 
      * @param variableName the variable name
      * @param variables the static variables
-     * @param dynamicContext the dynamic context
-     * @return the resolved value
+     * @param dynamicContext the dynamic context, whose values override static variables
+     * @return the resolved value, or null if the variable is not defined
      */
     private static String resolveDynamicVariable(String variableName, Map<String, String> variables, Map<String, Object> dynamicContext) {
         // First check if it's a special dynamic variable
@@ -105,13 +79,16 @@ public class DynamicVariableResolver {
             return java.util.UUID.randomUUID().toString();
         }
         
-        // Then check static variables
-        if (variables.containsKey(variableName)) {
+        // Then check runtime values and static variables
+        if (dynamicContext != null && dynamicContext.containsKey(variableName)) {
+            return String.valueOf(dynamicContext.get(variableName));
+        }
+        if (variables != null) {
             return variables.get(variableName);
         }
         
-        // Default: return the original template
-        return "${" + variableName + "}";
+        // Default: keep the original placeholder
+        return null;
     }
     
     /**
@@ -55,47 +55,92 @@ public class JmeterJtlAdapter {
      * @return a map containing the JTL sample result data
      */
     public static Map<String, Object> convertToJtlSample(TestResult testResult) {
-        long timestamp = System.currentTimeMillis();
-        String threadName = "Thread-" + Thread.currentThread().getId();
-        String dataType = "text";
-        
+        return columnsOf(testResult, JtlReporter::createSampleResult);
+    }
+    
+    /**
+     * Queues a test result for the JTL file of a test without building a sample map
+     * @param testId the test ID returned by the reporter
+     * @param testResult the test result to record
+     */
+    private static void record(String testId, TestResult testResult) {
+        columnsOf(testResult, (timeStamp, elapsed, label, responseCode, responseMessage, threadName, dataType,
+                success, failureMessage, bytes, sentBytes, grpThreads, allThreads, url, latency, idleTime, connect) -> {
+            jtlReporter.recordSample(testId, timeStamp, elapsed, label, responseCode, responseMessage, threadName,
+                    dataType, success, failureMessage, bytes, sentBytes, grpThreads, allThreads, url, latency,
+                    idleTime, connect);
+            return null;
+        });
+    }
+    
+    /**
+     * Receives the JTL columns of one sample, in file order
+     * @param <T> what the receiver makes of the columns
+     */
+    @FunctionalInterface
+    private interface SampleColumns<T> {
+        T accept(long timeStamp, long elapsed, String label, String responseCode, String responseMessage,
+                 String threadName, String dataType, boolean success, String failureMessage, long bytes,
+                 long sentBytes, int grpThreads, int allThreads, String url, long latency, long idleTime,
+                 long connect);
+    }
+    
+    /**
+     * Passes the JTL columns of a test result to a receiver
+     * @param testResult the test result to describe
+     * @param columns the receiver of the columns
+     * @return what the receiver returned
+     */
+    private static <T> T columnsOf(TestResult testResult, SampleColumns<T> columns) {
+        return columns.accept(
+            System.currentTimeMillis(),                    // timeStamp
+            testResult.getResponseTime(),                  // elapsed
+            labelOf(testResult),                           // label
+            String.valueOf(testResult.getStatusCode()),    // responseCode
+            testResult.isSuccess() ? "OK" : "Error",       // responseMessage
+            "Thread-" + Thread.currentThread().threadId(), // threadName
+            "text",                                        // dataType
+            testResult.isSuccess(),                        // success
+            failureMessageOf(testResult),                  // failureMessage
+            bytesOf(testResult),                           // bytes
+            0L,                                            // sentBytes (not tracked)
+            1,                                             // grpThreads
+            1,                                             // allThreads
+            urlOf(testResult),                             // URL
+            testResult.getResponseTime(),                  // Latency (same as response time)
+            0L,                                            // IdleTime
+            0L                                             // Connect
+        );
+    }
+    
+    private static String labelOf(TestResult testResult) {
+        return testResult.getTestName() != null ? testResult.getTestName() : "Unknown Test";
+    }
+    
+    private static long bytesOf(TestResult testResult) {
         // Calculate bytes if not set
         long bytes = testResult.getReceivedBytes();
         if (bytes == 0 && testResult.getResponseBody() != null) {
             bytes = testResult.getResponseBody().getBytes().length;
         }
-        
+        return bytes;
+    }
+    
+    private static String urlOf(TestResult testResult) {
         // Get URL from endpoint or use a default
         String url = testResult.getProcessedEndpoint();
         if (url == null || url.isEmpty()) {
             url = "http://example.com/api"; // Default URL in case it's not set
         }
-        
+        return url;
+    }
+    
+    private static String failureMessageOf(TestResult testResult) {
         // Get error message if any
-        String failureMessage = "";
         if (!testResult.isSuccess() && testResult.getError() != null) {
-            failureMessage = testResult.getError();
+            return testResult.getError();
         }
-        
-        return JtlReporter.createSampleResult(
-            timestamp,                                  // timeStamp
-            testResult.getResponseTime(),               // elapsed
-            testResult.getTestName() != null ? testResult.getTestName() : "Unknown Test", // label
-            String.valueOf(testResult.getStatusCode()), // responseCode
-            testResult.isSuccess() ? "OK" : "Error",    // responseMessage
-            threadName,                                 // threadName
-            dataType,                                   // dataType
-            testResult.isSuccess(),                     // success
-            failureMessage,                             // failureMessage
-            bytes,                                      // bytes
-            0L,                                         // sentBytes (not tracked)
-            1,                                          // grpThreads
-            1,                                          // allThreads
-            url,                                        // URL
-            testResult.getResponseTime(),               // Latency (same as response time)
-            0L,                                         // IdleTime
-            0L                                          // Connect
-        );
+        return "";
     }
     
     /**
@@ -126,9 +171,8 @@ public class JmeterJtlAdapter {
                 testResult.setTestName(scenarioName);
             }
             
-            // Convert and record the sample
-            Map<String, Object> sampleResult = convertToJtlSample(testResult);
-            jtlReporter.recordSample(testId, sampleResult);
+            // Queue the sample for the JTL writer
+            record(testId, testResult);
             LOGGER.fine("Recorded sample for scenario: " + scenarioName);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error recording sample for scenario: " + scenarioName, e);
@@ -167,8 +211,7 @@ public class JmeterJtlAdapter {
                     result.setTestName(scenarioName);
                 }
                 
-                Map<String, Object> sampleResult = convertToJtlSample(result);
-                jtlReporter.recordSample(testId, sampleResult);
+                record(testId, result);
             }
             LOGGER.info("Recorded " + testResults.size() + " samples for scenario: " + scenarioName);
         } catch (Exception e) {
@@ -179,20 +222,23 @@ public class JmeterJtlAdapter {
     /**
      * Finalizes the JTL file for a test
      * @param scenarioName the name of the scenario
+     * @return the path of the finalized file, or null if it could not be finalized
      */
-    public static void finalizeJtlFile(String scenarioName) {
+    public static String finalizeJtlFile(String scenarioName) {
         String testId = activeTests.get(scenarioName);
         if (testId == null) {
             LOGGER.warning("No active test found with name: " + scenarioName);
-            return;
+            return null;
         }
         
         try {
-            jtlReporter.finalizeJtlFile(testId);
+            String filePath = jtlReporter.finalizeJtlFile(testId);
             activeTests.remove(scenarioName);
             LOGGER.info("Finalized JTL file for scenario: " + scenarioName);
+            return filePath;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error finalizing JTL file for scenario: " + scenarioName, e);
+            return null;
         }
     }
     
@@ -0,0 +1,351 @@
+package io.ecs.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feeds rows of a CSV file to virtual users without loading the file into the heap
+ *
+ * The file is memory-mapped and scanned once to index where each row starts; rows
+ * are decoded only when they are read, into a {@link Row} the caller keeps and
+ * reuses. The heap cost is eight bytes per row for the index, so files with
+ * millions of rows can be shared by all virtual users of a test.
+ *
+ * The first line holds the column names. Values may be quoted to contain commas,
+ * with "" for a quote inside a quoted value. Empty lines are skipped.
+ *
+ * One feeder can be shared by any number of threads: the index is immutable and the
+ * row cursor is atomic. Each thread reads into its own Row.
+ */
+public class MappedCsvFeeder implements Closeable {
+
+    /**
+     * How {@link #next(Row)} picks rows
+     */
+    public enum Mode {
+        /** Rows in file order, starting over after the last row */
+        CIRCULAR,
+        /** A random row on every read */
+        RANDOM,
+        /** Rows in file order, each handed out once across all users, until the file is used up */
+        UNIQUE
+    }
+
+    // Files are mapped in regions of at most this size, as a MappedByteBuffer is int-indexed
+    private static final long REGION_SIZE = 1L << 30;
+
+    private final Path path;
+    private final Mode mode;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+    private final long fileSize;
+    private final String[] columns;
+    private final long[] rowStarts;
+    private final int rowCount;
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * Map a CSV file and read its rows in circular mode
+     *
+     * @param filePath the path to the CSV file
+     * @throws IOException if the file cannot be read or has no header row
+     */
+    public MappedCsvFeeder(String filePath) throws IOException {
+        this(filePath, Mode.CIRCULAR);
+    }
+
+    /**
+     * Map a CSV file
+     *
+     * @param filePath the path to the CSV file
+     * @param mode how rows are picked by {@link #next(Row)}
+     * @throws IOException if the file cannot be read or has no header row
+     */
+    public MappedCsvFeeder(String filePath, Mode mode) throws IOException {
+        this.path = Paths.get(filePath);
+        this.mode = mode != null ? mode : Mode.CIRCULAR;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.fileSize = channel.size();
+            if (fileSize == 0) {
+                throw new IOException("CSV file is empty: " + filePath);
+            }
+            this.regions = new MappedByteBuffer[(int) ((fileSize + REGION_SIZE - 1) / REGION_SIZE)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = i * REGION_SIZE;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, fileSize - start));
+            }
+
+            this.columns = parseLine(0, lineEnd(0), new Row(new String[0])).values.clone();
+            this.rowStarts = indexRows(nextLine(0));
+            this.rowCount = rowStarts.length;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Find where every non-empty line after the header starts
+     */
+    private long[] indexRows(long position) throws IOException {
+        long[] starts = new long[1024];
+        int count = 0;
+        while (position < fileSize) {
+            long end = lineEnd(position);
+            if (end > position) {
+                if (count == starts.length) {
+                    if (count == Integer.MAX_VALUE - 8) {
+                        throw new IOException("CSV file has too many rows: " + path);
+                    }
+                    starts = Arrays.copyOf(starts, (int) Math.min(Integer.MAX_VALUE - 8, count * 2L));
+                }
+                starts[count++] = position;
+            }
+            position = nextLine(position);
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    /**
+     * Get the position after the end of a line, excluding the line break
+     */
+    private long lineEnd(long position) {
+        long newline = indexOfNewline(position);
+        long end = newline < 0 ? fileSize : newline;
+        if (end > position && byteAt(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Get the position of the line after the one starting at the given position
+     */
+    private long nextLine(long position) {
+        long newline = indexOfNewline(position);
+        return newline < 0 ? fileSize : newline + 1;
+    }
+
+    private long indexOfNewline(long position) {
+        while (position < fileSize) {
+            MappedByteBuffer region = regions[(int) (position / REGION_SIZE)];
+            int offset = (int) (position % REGION_SIZE);
+            int limit = region.limit();
+            for (int i = offset; i < limit; i++) {
+                if (region.get(i) == '\n') {
+                    return position + (i - offset);
+                }
+            }
+            position += limit - offset;
+        }
+        return -1;
+    }
+
+    private byte byteAt(long position) {
+        return regions[(int) (position / REGION_SIZE)].get((int) (position % REGION_SIZE));
+    }
+
+    /**
+     * Decode the line between two positions into a row
+     */
+    private Row parseLine(long start, long end, Row row) {
+        int length = (int) (end - start);
+        byte[] bytes = row.buffer(length);
+        for (int copied = 0; copied < length; ) {
+            long position = start + copied;
+            MappedByteBuffer region = regions[(int) (position / REGION_SIZE)];
+            int offset = (int) (position % REGION_SIZE);
+            int chunk = Math.min(length - copied, region.limit() - offset);
+            region.get(offset, bytes, copied, chunk);
+            copied += chunk;
+        }
+
+        List<String> values = row.parsed;
+        values.clear();
+        int fieldStart = 0;
+        int fieldLength = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[i];
+            if (b == '"') {
+                if (inQuotes && i + 1 < length && bytes[i + 1] == '"') {
+                    // An escaped quote; keep one and skip the other
+                    bytes[fieldStart + fieldLength++] = b;
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (b == ',' && !inQuotes) {
+                values.add(new String(bytes, fieldStart, fieldLength, StandardCharsets.UTF_8));
+                fieldStart = i + 1;
+                fieldLength = 0;
+            } else {
+                // Values are compacted in place, as dropped quotes leave gaps
+                bytes[fieldStart + fieldLength++] = b;
+            }
+        }
+        values.add(new String(bytes, fieldStart, fieldLength, StandardCharsets.UTF_8));
+
+        row.setValues(values);
+        return row;
+    }
+
+    /**
+     * Create a row to read into; each thread should use its own
+     *
+     * @return an empty row with this feeder's columns
+     */
+    public Row newRow() {
+        return new Row(columns);
+    }
+
+    /**
+     * Read the next row according to the feeder's mode
+     *
+     * @param row the row to read into
+     * @return false if the feeder has no rows, or in unique mode once every row has been handed out
+     */
+    public boolean next(Row row) {
+        if (rowCount == 0) {
+            return false;
+        }
+        long index;
+        switch (mode) {
+            case RANDOM:
+                index = ThreadLocalRandom.current().nextInt(rowCount);
+                break;
+            case UNIQUE:
+                index = cursor.getAndIncrement();
+                if (index >= rowCount) {
+                    return false;
+                }
+                break;
+            default:
+                index = Math.floorMod(cursor.getAndIncrement(), (long) rowCount);
+                break;
+        }
+        read((int) index, row);
+        return true;
+    }
+
+    /**
+     * Read a row by its position in the file
+     *
+     * @param index the row index, from 0 for the first row after the header
+     * @param row the row to read into
+     * @return the row
+     */
+    public Row read(int index, Row row) {
+        if (index < 0 || index >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + rowCount + " in " + path);
+        }
+        long start = rowStarts[index];
+        row.index = index;
+        return parseLine(start, lineEnd(start), row);
+    }
+
+    /**
+     * Get the number of data rows, excluding the header
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Get the column names from the header row
+     */
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Close the file; the mapping itself is released when the feeder is garbage collected
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A row decoded from the file, reused for every read by one thread
+     */
+    public static final class Row {
+        private final String[] columns;
+        private final List<String> parsed = new ArrayList<>();
+        private String[] values = new String[0];
+        private byte[] bytes = new byte[256];
+        private int index = -1;
+
+        private Row(String[] columns) {
+            this.columns = columns;
+        }
+
+        private byte[] buffer(int length) {
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            return bytes;
+        }
+
+        private void setValues(List<String> parsed) {
+            if (values.length != parsed.size()) {
+                values = new String[parsed.size()];
+            }
+            parsed.toArray(values);
+        }
+
+        /**
+         * Get a value by column position
+         *
+         * @return the value, or an empty string if the row has fewer values
+         */
+        public String get(int column) {
+            return column >= 0 && column < values.length ? values[column] : "";
+        }
+
+        /**
+         * Get a value by column name
+         *
+         * @return the value, an empty string if the row has fewer values, or null if there is no such column
+         */
+        public String get(String column) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(column)) {
+                    return get(i);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Get the position of this row in the file, or -1 if nothing was read yet
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        public String getColumn(int column) {
+            return columns[column];
+        }
+    }
+}
@@ -8,15 +8,40 @@ import com.networknt.schema.SpecVersion;
 import com.networknt.schema.ValidationMessage;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Validates JSON responses against JSON Schema with support for
  * variable substitution in the schema
+ * 
+ * Compiled schemas are cached across validators, keyed by the schema file or text and the
+ * values of the variables the schema uses, so validating a response does not read, parse
+ * or compile the schema again. The least recently used schemas are evicted beyond
+ * {@link #MAX_CACHED_SCHEMAS}. Schema files are read once; call {@link #clearCache()}
+ * after changing them.
  */
 public class SchemaValidator {
     
+    /**
+     * Maximum number of compiled schemas kept in the cache
+     */
+    public static final int MAX_CACHED_SCHEMAS = 1_000;
+    
+    private static final Map<String, CompiledTemplate> SCHEMA_FILES = new ConcurrentHashMap<>();
+    private static final Map<SchemaKey, JsonSchema> SCHEMAS = Collections.synchronizedMap(
+            new LinkedHashMap<SchemaKey, JsonSchema>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<SchemaKey, JsonSchema> eldest) {
+                    return size() > MAX_CACHED_SCHEMAS;
+                }
+            });
+    
     private final ObjectMapper objectMapper;
     private final JsonSchemaFactory schemaFactory;
     private final TemplateProcessor templateProcessor;
@@ -58,16 +83,8 @@ public class SchemaValidator {
                 return true;
             }
             
-            // Load schema with variable substitution if needed
-            String schemaContent = FileUtils.readFileAsString(schemaPath);
-            
-            // Process schema with variables if provided
-            if (variables != null && !variables.isEmpty()) {
-                schemaContent = templateProcessor.processTemplate(schemaContent, variables);
-            }
-            
-            JsonNode schemaNode = objectMapper.readTree(schemaContent);
-            JsonSchema schema = schemaFactory.getSchema(schemaNode);
+            // Get the compiled schema for these variables
+            JsonSchema schema = getSchema(schemaPath, loadSchemaFile(schemaPath), variables);
             
             // Validate
             Set<ValidationMessage> validationResult = schema.validate(jsonNode);
@@ -141,14 +158,8 @@ public class SchemaValidator {
                 return true;
             }
             
-            // Process schema with variables if provided
-            if (variables != null && !variables.isEmpty()) {
-                schemaContent = templateProcessor.processTemplate(schemaContent, variables);
-            }
-            
-            // Parse schema
-            JsonNode schemaNode = objectMapper.readTree(schemaContent);
-            JsonSchema schema = schemaFactory.getSchema(schemaNode);
+            // Get the compiled schema for these variables
+            JsonSchema schema = getSchema(null, CompiledTemplate.compile(schemaContent), variables);
             
             // Validate
             Set<ValidationMessage> validationResult = schema.validate(jsonNode);
@@ -209,16 +220,8 @@ public class SchemaValidator {
             return java.util.Collections.emptySet();
         }
         
-        // Load schema with variable substitution if needed
-        String schemaContent = FileUtils.readFileAsString(schemaPath);
-        
-        // Process schema with variables if provided
-        if (variables != null && !variables.isEmpty()) {
-            schemaContent = templateProcessor.processTemplate(schemaContent, variables);
-        }
-        
-        JsonNode schemaNode = objectMapper.readTree(schemaContent);
-        JsonSchema schema = schemaFactory.getSchema(schemaNode);
+        // Get the compiled schema for these variables
+        JsonSchema schema = getSchema(schemaPath, loadSchemaFile(schemaPath), variables);
         
         // Validate and return messages
         return schema.validate(jsonNode);
@@ -235,4 +238,96 @@ public class SchemaValidator {
     public Set<ValidationMessage> getValidationErrors(String json, String schemaPath) throws IOException {
         return getValidationErrors(json, schemaPath, null);
     }
+    
+    /**
+     * Remove all cached schema files and compiled schemas
+     */
+    public static void clearCache() {
+        SCHEMA_FILES.clear();
+        SCHEMAS.clear();
+    }
+    
+    /**
+     * Read a schema file once and keep it as a compiled template
+     */
+    private CompiledTemplate loadSchemaFile(String schemaPath) throws IOException {
+        CompiledTemplate template = SCHEMA_FILES.get(schemaPath);
+        if (template == null) {
+            template = CompiledTemplate.compile(FileUtils.readFileAsString(schemaPath));
+            SCHEMA_FILES.put(schemaPath, template);
+        }
+        return template;
+    }
+    
+    /**
+     * Get the compiled schema for a schema template and variables, compiling it on a cache miss
+     * 
+     * @param schemaPath the schema file, or null if the schema was given as text
+     * @param template the schema template
+     * @param variables variables for substitution (optional)
+     * @return the compiled schema
+     * @throws IOException if the schema is not valid JSON
+     */
+    private JsonSchema getSchema(String schemaPath, CompiledTemplate template, Map<String, String> variables)
+            throws IOException {
+        boolean substitute = variables != null && !variables.isEmpty();
+        SchemaKey key = new SchemaKey(schemaPath != null ? schemaPath : template.getSource(),
+                schemaPath == null, substitute ? usedValues(template, variables) : null);
+        JsonSchema schema = SCHEMAS.get(key);
+        if (schema == null) {
+            String schemaContent = substitute ?
+                    templateProcessor.processTemplate(template.getSource(), variables) : template.getSource();
+            schema = schemaFactory.getSchema(objectMapper.readTree(schemaContent));
+            SCHEMAS.put(key, schema);
+        }
+        return schema;
+    }
+    
+    /**
+     * Get the values of the variables a schema template uses, in template order
+     */
+    private static String[] usedValues(CompiledTemplate template, Map<String, String> variables) {
+        List<String> names = template.getVariableNames();
+        String[] values = new String[names.size()];
+        for (int i = 0; i < values.length; i++) {
+            String value = variables.get(names.get(i));
+            values[i] = value != null ? value : "";
+        }
+        return values;
+    }
+    
+    /**
+     * Cache key of a compiled schema: its file or text, and the values substituted into it
+     */
+    private static final class SchemaKey {
+        private final String source;
+        private final boolean inline;
+        private final String[] values;
+        private final int hash;
+        
+        SchemaKey(String source, boolean inline, String[] values) {
+            this.source = source;
+            this.inline = inline;
+            this.values = values;
+            this.hash = 31 * (31 * source.hashCode() + Boolean.hashCode(inline)) + Arrays.hashCode(values);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SchemaKey)) {
+                return false;
+            }
+            SchemaKey other = (SchemaKey) o;
+            return hash == other.hash && inline == other.inline && source.equals(other.source)
+                    && Arrays.equals(values, other.values);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
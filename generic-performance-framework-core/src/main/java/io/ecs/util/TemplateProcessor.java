@@ -7,15 +7,12 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Processes template files with variable substitution
  */
 public class TemplateProcessor {
     
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
     private final ObjectMapper objectMapper;
     
     public TemplateProcessor() {
@@ -38,6 +35,8 @@ public class TemplateProcessor {
     /**
      * Process a template string with variable substitution
      * 
+     * Variables that are not defined are replaced with an empty string.
+     * 
      * @param template the template string
      * @param variables the variables to substitute
      * @return the processed template
@@ -47,21 +46,14 @@ public class TemplateProcessor {
             return template;
         }
         
-        StringBuffer result = new StringBuffer();
-        Matcher matcher = VARIABLE_PATTERN.matcher(template);
-        
-        while (matcher.find()) {
-            String varName = matcher.group(1);
-            String replacement = variables.containsKey(varName) ? variables.get(varName) : "";
-            
-            // Escape $ and \ for string replacement
-            replacement = replacement.replace("\\", "\\\\").replace("$", "\\$");
-            
-            matcher.appendReplacement(result, replacement);
+        CompiledTemplate compiled = CompiledTemplate.compile(template);
+        if (variables instanceof VariableScope) {
+            return compiled.render((VariableScope) variables, "");
         }
-        
-        matcher.appendTail(result);
-        return result.toString();
+        return compiled.render(name -> {
+            String value = variables.get(name);
+            return value != null ? value : "";
+        });
     }
     
     /**
@@ -0,0 +1,232 @@
+package io.ecs.util;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One layer of variables, backed by an array indexed by {@link VariableSlots}
+ *
+ * Layers are stacked global, scenario, thread, iteration and request. A lookup
+ * checks this layer and then each parent in turn, so values of inner layers
+ * override outer ones and no layer is ever copied into another. The global and
+ * scenario layers are shared read-only; thread, iteration and request layers
+ * belong to a single virtual user and are reused between its iterations.
+ *
+ * The scope is also a Map of the variables visible from it, so it can be passed
+ * wherever a variables map is expected; put and clear change only this layer.
+ * Removing a variable hides it from this layer and the layers on top of it, so
+ * the map no longer contains it even when a parent defines it. Iterating the map
+ * builds a snapshot and is not meant for the request path.
+ */
+public class VariableScope extends AbstractMap<String, String> {
+
+    /**
+     * Layers from outermost to innermost
+     */
+    public enum Level {
+        GLOBAL, SCENARIO, THREAD, ITERATION, REQUEST
+    }
+
+    // Marks a variable removed from this layer, hiding the values of the parents; compared by identity
+    private static final String REMOVED = new String("");
+
+    private final Level level;
+    private final VariableScope parent;
+    private String[] values;
+
+    private VariableScope(Level level, VariableScope parent) {
+        this.level = level;
+        this.parent = parent;
+        this.values = new String[VariableSlots.size()];
+    }
+
+    /**
+     * Create a global scope
+     *
+     * @param variables the initial variables, may be null
+     * @return the new scope
+     */
+    public static VariableScope global(Map<String, String> variables) {
+        VariableScope scope = new VariableScope(Level.GLOBAL, null);
+        scope.setAll(variables);
+        return scope;
+    }
+
+    /**
+     * Create an empty layer on top of this one
+     *
+     * @param level the level of the new layer, which must be inside this layer's level
+     * @return the new scope
+     */
+    public VariableScope child(Level level) {
+        if (level.ordinal() <= this.level.ordinal()) {
+            throw new IllegalArgumentException("A " + level + " scope cannot be nested in a " + this.level + " scope");
+        }
+        return new VariableScope(level, this);
+    }
+
+    /**
+     * Create a layer on top of this one
+     *
+     * @param level the level of the new layer, which must be inside this layer's level
+     * @param variables the initial variables of the layer, may be null
+     * @return the new scope
+     */
+    public VariableScope child(Level level, Map<String, String> variables) {
+        VariableScope scope = child(level);
+        scope.setAll(variables);
+        return scope;
+    }
+
+    /**
+     * Get the value visible from this layer
+     *
+     * @param slot the slot of the variable
+     * @return the value of the innermost layer that defines it, or null
+     */
+    public String get(int slot) {
+        for (VariableScope scope = this; scope != null; scope = scope.parent) {
+            String[] layer = scope.values;
+            if (slot < layer.length && layer[slot] != null) {
+                return layer[slot] == REMOVED ? null : layer[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Set a value in this layer
+     *
+     * @param slot the slot of the variable
+     * @param value the value, or null to unset it in this layer so the parents' value shows through
+     */
+    public void set(int slot, String value) {
+        if (slot >= values.length) {
+            if (value == null) {
+                return;
+            }
+            values = Arrays.copyOf(values, Math.max(slot + 1, VariableSlots.size()));
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Set values in this layer, registering their names
+     *
+     * @param variables the values to set, may be null
+     */
+    public void setAll(Map<String, String> variables) {
+        if (variables == null || variables.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            set(VariableSlots.slotOf(entry.getKey()), entry.getValue());
+        }
+    }
+
+    /**
+     * Remove every value of this layer, leaving the parents unchanged
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+    }
+
+    @Override
+    public String get(Object name) {
+        if (!(name instanceof String)) {
+            return null;
+        }
+        int slot = VariableSlots.find((String) name);
+        return slot >= 0 ? get(slot) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        return get(name) != null;
+    }
+
+    @Override
+    public String put(String name, String value) {
+        int slot = VariableSlots.slotOf(name);
+        String previous = get(slot);
+        set(slot, value);
+        return previous;
+    }
+
+    @Override
+    public String remove(Object name) {
+        if (!(name instanceof String)) {
+            return null;
+        }
+        int slot = VariableSlots.find((String) name);
+        if (slot < 0) {
+            return null;
+        }
+        String previous = get(slot);
+        if (previous != null) {
+            set(slot, parent != null && parent.get(slot) != null ? REMOVED : null);
+        }
+        return previous;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        int slots = VariableSlots.size();
+        for (int slot = 0; slot < slots; slot++) {
+            if (get(slot) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return snapshot().size();
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return Collections.unmodifiableMap(snapshot()).entrySet();
+    }
+
+    private Map<String, String> snapshot() {
+        Map<String, String> visible = new HashMap<>();
+        int slots = VariableSlots.size();
+        for (int slot = 0; slot < slots; slot++) {
+            String value = get(slot);
+            if (value != null) {
+                visible.put(VariableSlots.nameOf(slot), value);
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Check whether a scope is this layer or one of its parents
+     *
+     * @param ancestor the scope to look for
+     * @return true if lookups from this layer fall through to the given scope
+     */
+    public boolean extendsScope(VariableScope ancestor) {
+        for (VariableScope scope = this; scope != null; scope = scope.parent) {
+            if (scope == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public VariableScope getParent() {
+        return parent;
+    }
+}
@@ -0,0 +1,79 @@
+package io.ecs.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every variable name a fixed integer slot
+ *
+ * Names are registered when configurations are loaded and templates compiled, so
+ * that lookups while a test runs index an array in each {@link VariableScope}
+ * instead of hashing the name. Slots are never reused; the registry only grows by
+ * the number of distinct names a test uses.
+ */
+public final class VariableSlots {
+
+    private static final Map<String, Integer> SLOTS = new ConcurrentHashMap<>();
+
+    // Written only under the class lock; a new array is published for every registration
+    private static volatile String[] names = new String[0];
+
+    private VariableSlots() {
+    }
+
+    /**
+     * Get the slot of a name, registering the name if it has none yet
+     *
+     * @param name the variable name
+     * @return the slot of the name
+     */
+    public static int slotOf(String name) {
+        Integer slot = SLOTS.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (VariableSlots.class) {
+            slot = SLOTS.get(name);
+            if (slot == null) {
+                slot = names.length;
+                String[] grown = Arrays.copyOf(names, slot + 1);
+                grown[slot] = name;
+                names = grown;
+                SLOTS.put(name, slot);
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * Get the slot of a name without registering it
+     *
+     * @param name the variable name
+     * @return the slot, or -1 if the name has never been registered
+     */
+    public static int find(String name) {
+        Integer slot = SLOTS.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Get the name registered for a slot
+     *
+     * @param slot the slot
+     * @return the name, or null if the slot is not assigned
+     */
+    public static String nameOf(int slot) {
+        String[] current = names;
+        return slot >= 0 && slot < current.length ? current[slot] : null;
+    }
+
+    /**
+     * Get the number of registered names
+     *
+     * @return one more than the highest assigned slot
+     */
+    public static int size() {
+        return names.length;
+    }
+}
@@ -0,0 +1,150 @@
+package io.ecs;
+
+import io.ecs.engine.Engine;
+import io.ecs.engine.EngineFactory;
+import io.ecs.model.ExecutionConfig;
+import io.ecs.model.Scenario;
+import io.ecs.model.ScenarioBuilder;
+import io.ecs.report.MetricsCollector;
+import io.ecs.system.AbortCriterion;
+import io.ecs.system.AbortMonitor;
+import io.ecs.system.TestExecutionSystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import static io.ecs.LocalHttpServer.get;
+import static io.ecs.LocalHttpServer.respond;
+import static io.ecs.LocalHttpServer.sleep;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for abort criteria checked against live metrics windows
+ */
+public class AbortMonitorTest {
+
+    // Hour-long windows, so the samples of a test always land in the window being checked
+    private static final long WINDOW_MILLIS = 3_600_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testParsesCriteria() {
+        AbortCriterion errorRate = AbortCriterion.parse("errorRate > 5% for 30s");
+        assertEquals(AbortCriterion.Metric.ERROR_RATE, errorRate.getMetric());
+        assertEquals(5.0, errorRate.getThreshold());
+        assertEquals(30_000, errorRate.getDurationMillis());
+
+        AbortCriterion p95 = AbortCriterion.parse("  P95>800ms for 2m ");
+        assertEquals(AbortCriterion.Metric.PERCENTILE, p95.getMetric());
+        assertEquals(120_000, p95.getDurationMillis());
+        assertTrue(p95.isBreachedBy(801));
+        assertFalse(p95.isBreachedBy(800));
+
+        AbortCriterion throughput = AbortCriterion.parse("throughput < 10/s");
+        assertEquals(0, throughput.getDurationMillis());
+        assertTrue(throughput.isBreachedBy(9.5));
+        assertFalse(throughput.isBreachedBy(Double.NaN));
+
+        assertThrows(IllegalArgumentException.class, () -> AbortCriterion.parse("errorRate above 5%"));
+        assertThrows(IllegalArgumentException.class, () -> AbortCriterion.parse("p95 > 5%"));
+        assertThrows(IllegalArgumentException.class, () -> AbortCriterion.parse("p0 > 5ms"));
+    }
+
+    @Test
+    public void testAbortsOnceWhenErrorRateIsBreached() {
+        MetricsCollector metrics = new MetricsCollector(2, WINDOW_MILLIS, 10);
+        for (int i = 0; i < 10; i++) {
+            metrics.recordSample("Login", 20, 20, 0, i % 2 == 0, false);
+        }
+        AtomicInteger stops = new AtomicInteger();
+        AbortMonitor monitor = new AbortMonitor(metrics,
+                List.of(AbortCriterion.parse("p95 > 1000ms"), AbortCriterion.parse("errorRate > 20%")),
+                stops::incrementAndGet);
+
+        // The window of the samples is still running
+        long now = System.currentTimeMillis();
+        assertFalse(monitor.check(now));
+
+        assertTrue(monitor.check(now + WINDOW_MILLIS));
+        assertTrue(monitor.isAborted());
+        assertEquals("errorRate > 20% (was 50.0%)", monitor.getVerdict());
+        assertTrue(monitor.check(now + 2 * WINDOW_MILLIS));
+        assertEquals(1, stops.get());
+    }
+
+    @Test
+    public void testWaitsUntilBreachedForDuration() {
+        MetricsCollector metrics = new MetricsCollector(2, WINDOW_MILLIS, 10);
+        metrics.recordSample("Search", 20, 20, 0, true, false);
+        AtomicInteger stops = new AtomicInteger();
+        AbortMonitor monitor = new AbortMonitor(metrics, List.of(
+                AbortCriterion.parse("throughput < 1/s for 2h"), AbortCriterion.parse("errorRate > 0%")),
+                stops::incrementAndGet);
+
+        long now = System.currentTimeMillis();
+        assertFalse(monitor.check(now + WINDOW_MILLIS));
+
+        // The next window has no samples, which counts as no throughput but leaves the error rate alone
+        assertTrue(monitor.check(now + 2 * WINDOW_MILLIS));
+        assertEquals("throughput < 1/s for 2h (was 0.0/s)", monitor.getVerdict());
+        assertEquals(1, stops.get());
+    }
+
+    @Test
+    public void testIgnoresPeriodsBeforeFirstSample() {
+        MetricsCollector metrics = new MetricsCollector(2, WINDOW_MILLIS, 10);
+        AbortMonitor monitor = new AbortMonitor(metrics, List.of(AbortCriterion.parse("throughput < 1/s")),
+                () -> fail("Aborted before any sample"));
+        assertFalse(monitor.check(System.currentTimeMillis() + WINDOW_MILLIS));
+        assertFalse(monitor.isAborted());
+        assertNull(monitor.getVerdict());
+    }
+
+    @Test
+    public void testAbortedScenarioIsReportedInItsMetrics() throws IOException {
+        try (LocalHttpServer server = new LocalHttpServer()) {
+            server.handle("/fail", exchange -> {
+                sleep(20);
+                respond(exchange, 503);
+            }).start();
+            Scenario scenario = ScenarioBuilder.create("Failing", "async")
+                    .threads(2)
+                    .hold(30)
+                    .abortOn("errorRate > 50%")
+                    .variable("baseUrl", server.getBaseUrl())
+                    .addRequest(get("Fail", "/fail"))
+                    .build();
+            TestExecutionSystem testSystem = new TestExecutionSystem(tempDir.toString());
+
+            long start = System.currentTimeMillis();
+            Map<String, Object> metrics = testSystem.executeScenario(scenario);
+            long elapsed = System.currentTimeMillis() - start;
+            testSystem.shutdown();
+
+            assertTrue(elapsed < 15_000, "stopped after " + elapsed + "ms");
+            assertEquals(Boolean.TRUE, metrics.get("aborted"));
+            String reason = (String) metrics.get("abortReason");
+            assertTrue(reason.startsWith("Aborted: errorRate > 50%"), reason);
+        }
+    }
+
+    @Test
+    public void testOnlyEnginesWithLiveMetricsWatchCriteria() {
+        for (String engineType : List.of("jmdsl", "jmtree", "async", "gatling")) {
+            Engine engine = EngineFactory.getEngine(engineType, new ExecutionConfig());
+            try {
+                // Gatling fills its collector from the simulation log once the run is over
+                assertEquals(!"gatling".equals(engineType), engine.supportsLiveMetrics(), engineType);
+            } finally {
+                engine.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.ecs;
+
+import io.ecs.core.ArrivalSchedule;
+import io.ecs.model.ArrivalStage;
+import io.ecs.model.ExecutionConfig;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the arrival times of open-model load profiles
+ */
+public class ArrivalScheduleTest {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * Check that a schedule has exactly its total arrivals, in order, all before the end of the schedule
+     */
+    private static void assertConsistent(ArrivalSchedule schedule, long expectedArrivals) {
+        assertEquals(expectedArrivals, schedule.getTotalArrivals());
+        long previous = -1;
+        for (long i = 0; i < expectedArrivals; i++) {
+            long offset = schedule.offsetNanos(i);
+            assertTrue(offset >= 0, "arrival " + i + " missing");
+            assertTrue(offset >= previous, "arrival " + i + " scheduled before arrival " + (i - 1));
+            assertTrue(offset < schedule.getDurationNanos(), "arrival " + i + " after the end of the schedule");
+            previous = offset;
+        }
+        assertEquals(-1, schedule.offsetNanos(expectedArrivals));
+        assertEquals(-1, schedule.offsetNanos(-1));
+    }
+
+    @Test
+    public void testConstantRate() {
+        ExecutionConfig config = new ExecutionConfig();
+        config.setArrivalRate(10);
+        config.setDuration(5);
+        ArrivalSchedule schedule = ArrivalSchedule.from(config);
+
+        assertEquals(5 * NANOS_PER_SECOND, schedule.getDurationNanos());
+        assertConsistent(schedule, 50);
+        assertEquals(0, schedule.offsetNanos(0));
+        assertEquals(100_000_000, schedule.offsetNanos(1), 1);
+        assertEquals(4_900_000_000L, schedule.offsetNanos(49), 1);
+    }
+
+    @Test
+    public void testRampUp() {
+        // 0 -> 20/s over 10s: n(t) = t^2, so arrival k is due at sqrt(k) seconds
+        ArrivalSchedule schedule = new ArrivalSchedule(0, List.of(new ArrivalStage(20, 10)));
+
+        assertConsistent(schedule, 100);
+        assertEquals(0, schedule.offsetNanos(0));
+        assertEquals(1 * NANOS_PER_SECOND, schedule.offsetNanos(1), 1_000);
+        assertEquals(5 * NANOS_PER_SECOND, schedule.offsetNanos(25), 1_000);
+        assertEquals((long) (Math.sqrt(99) * NANOS_PER_SECOND), schedule.offsetNanos(99), 1_000);
+
+        // Arrivals get closer together as the rate rises
+        long firstGap = schedule.offsetNanos(2) - schedule.offsetNanos(1);
+        long lastGap = schedule.offsetNanos(99) - schedule.offsetNanos(98);
+        assertTrue(lastGap < firstGap);
+    }
+
+    @Test
+    public void testRampDown() {
+        // 20 -> 0/s over 10s: n(t) = 20t - t^2, so arrival k is due at 10 - sqrt(100 - k) seconds
+        ArrivalSchedule schedule = new ArrivalSchedule(20, List.of(new ArrivalStage(0, 10)));
+
+        assertConsistent(schedule, 100);
+        assertEquals(0, schedule.offsetNanos(0));
+        assertEquals((long) ((10 - Math.sqrt(64)) * NANOS_PER_SECOND), schedule.offsetNanos(36), 1_000);
+        assertEquals((long) ((10 - Math.sqrt(1)) * NANOS_PER_SECOND), schedule.offsetNanos(99), 1_000);
+
+        long firstGap = schedule.offsetNanos(1) - schedule.offsetNanos(0);
+        long lastGap = schedule.offsetNanos(99) - schedule.offsetNanos(98);
+        assertTrue(lastGap > firstGap);
+    }
+
+    @Test
+    public void testMultipleStages() {
+        // Ramp 0 -> 10/s over 4s (20 arrivals), hold 10/s for 3s (30), ramp down to 5/s over 2s (15)
+        ArrivalSchedule schedule = new ArrivalSchedule(0, List.of(
+                new ArrivalStage(10, 4), new ArrivalStage(10, 3), new ArrivalStage(5, 2)));
+
+        assertEquals(9 * NANOS_PER_SECOND, schedule.getDurationNanos());
+        assertConsistent(schedule, 65);
+
+        // Stage boundaries fall on the cumulative arrival counts
+        assertEquals(4 * NANOS_PER_SECOND, schedule.offsetNanos(20), 1_000);
+        assertEquals(7 * NANOS_PER_SECOND, schedule.offsetNanos(50), 1_000);
+        // Within the hold, arrivals are 100ms apart
+        assertEquals(100_000_000, schedule.offsetNanos(31) - schedule.offsetNanos(30), 1_000);
+        // The last stage ends at 9s, so its last arrival is due before then
+        assertTrue(schedule.offsetNanos(64) < 9 * NANOS_PER_SECOND);
+    }
+
+    @Test
+    public void testFractionalArrivals() {
+        // 0 -> 3/s over 3s is 4.5 arrivals: the cumulative count reaches 0, 1, 2, 3 and 4 within the stage
+        ArrivalSchedule schedule = new ArrivalSchedule(0, List.of(new ArrivalStage(3, 3)));
+        assertConsistent(schedule, 5);
+
+        ArrivalSchedule idle = new ArrivalSchedule(0, List.of(new ArrivalStage(0, 5)));
+        assertConsistent(idle, 0);
+    }
+}
@@ -0,0 +1,175 @@
+package io.ecs;
+
+import io.ecs.engine.AsyncHttpEngine;
+import io.ecs.model.ExecutionConfig;
+import io.ecs.model.Request;
+import io.ecs.model.RequestBuilder;
+import io.ecs.model.TestResult;
+import io.ecs.report.MetricsCollector;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static io.ecs.LocalHttpServer.execution;
+import static io.ecs.LocalHttpServer.get;
+import static io.ecs.LocalHttpServer.respond;
+import static io.ecs.LocalHttpServer.sleep;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the non-blocking HTTP engine against a local server
+ */
+public class AsyncHttpEngineTest {
+
+    private LocalHttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final CountDownLatch slowRequestArrived = new CountDownLatch(1);
+    private final CountDownLatch stalledBodySent = new CountDownLatch(1);
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new LocalHttpServer()
+                .handle("/work", exchange -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    sleep(100);
+                    inFlight.decrementAndGet();
+                    respond(exchange, 200);
+                })
+                .handle("/missing", exchange -> respond(exchange, 404))
+                .handle("/slow", exchange -> {
+                    slowRequestArrived.countDown();
+                    sleep(300);
+                    respond(exchange, 200);
+                })
+                .handle("/stalled", exchange -> {
+                    // The headers arrive in time, the body only after the engine gave up on the user
+                    exchange.sendResponseHeaders(200, 0);
+                    try (OutputStream body = exchange.getResponseBody()) {
+                        body.flush();
+                        sleep(1_500);
+                        body.write('.');
+                    } finally {
+                        stalledBodySent.countDown();
+                    }
+                })
+                .start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private AsyncHttpEngine engine(ExecutionConfig config) {
+        AsyncHttpEngine engine = new AsyncHttpEngine(config);
+        Map<String, String> variables = server.variables();
+        variables.put("connectionTimeout", "1000");
+        variables.put("socketTimeout", "1000");
+        engine.initialize(variables);
+        return engine;
+    }
+
+    /**
+     * Count the selector threads, one of which runs per open java.net.http client
+     */
+    private static int clientThreads() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().endsWith("-SelectorManager"))
+                .count();
+    }
+
+    @Test
+    public void testVirtualUsersShareFewThreads() {
+        AsyncHttpEngine engine = engine(execution(20, 3));
+        try {
+            TestResult result = engine.executeRequest(get("Work", "/work"));
+
+            assertTrue(result.isSuccess());
+            MetricsCollector metrics = engine.getMetricsCollector();
+            assertEquals(60, (long) metrics.getTotalRequests());
+            assertEquals(60, (long) metrics.getLabelMetrics("Work").getSuccessfulRequests());
+            assertEquals(20, maxInFlight.get());
+            assertEquals(0, metrics.getActiveUsers());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedResponsesAreRecorded() {
+        AsyncHttpEngine engine = engine(execution(2, 2));
+        try {
+            TestResult result = engine.executeRequest(get("Missing", "/missing"));
+
+            assertFalse(result.isSuccess());
+            assertEquals(4, (long) engine.getMetricsCollector().getFailedRequests());
+
+            // A header that cannot be sent fails the request before any user starts
+            Request badHeader = RequestBuilder.create("Bad Header", "http").method("GET").endpoint("/work")
+                    .header("X-Bad", "line\nbreak").build();
+            TestResult badResult = engine.executeRequest(badHeader);
+            assertFalse(badResult.isSuccess());
+            assertNotNull(badResult.getError());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectedCallbackDoesNotHang() throws Exception {
+        AsyncHttpEngine engine = engine(execution(3, 2));
+
+        CompletableFuture<TestResult> run = CompletableFuture.supplyAsync(() -> engine.executeRequest(get("Slow", "/slow")));
+        assertTrue(slowRequestArrived.await(5, TimeUnit.SECONDS));
+
+        // The callback pool now rejects the completion callbacks of the requests in flight
+        engine.shutdown();
+
+        TestResult result = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> run.get());
+        assertFalse(result.isSuccess());
+        assertNotNull(result.getError());
+    }
+
+    @Test
+    public void testLateResponsesAreNotRecorded() throws Exception {
+        int before = clientThreads();
+        ExecutionConfig config = execution(1, 1);
+        AsyncHttpEngine engine = new AsyncHttpEngine(config);
+        Map<String, String> variables = server.variables();
+        // The user is ended after one iteration and one more request timeout, 600ms in all
+        variables.put("connectionTimeout", "100");
+        variables.put("socketTimeout", "200");
+        engine.initialize(variables);
+        try {
+            TestResult result = engine.executeRequest(get("Stalled", "/stalled"));
+
+            assertFalse(result.isSuccess());
+            assertTrue(result.getError().contains("did not finish"), result.getError());
+            assertEquals(before + 1, clientThreads());
+
+            // The cancelled request's body still arrives at the server's end, but is not counted
+            assertTrue(stalledBodySent.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            assertEquals(0, (long) engine.getMetricsCollector().getTotalRequests());
+            assertEquals(0, (long) engine.getMetricsCollector().getWarmUp().getTotalRequests());
+        } finally {
+            engine.shutdown();
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (clientThreads() > before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(before, clientThreads());
+    }
+}
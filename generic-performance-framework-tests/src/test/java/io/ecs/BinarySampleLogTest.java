@@ -0,0 +1,104 @@
+package io.ecs;
+
+import io.ecs.report.BinarySampleConverter;
+import io.ecs.report.BinarySampleReader;
+import io.ecs.report.JtlSink;
+import io.ecs.report.SampleFormat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binary sample log and its JTL export
+ */
+public class BinarySampleLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private void recordSamples(JtlSink sink, int count) {
+        for (int i = 0; i < count; i++) {
+            boolean success = i % 10 != 0;
+            assertTrue(sink.record(1_700_000_000_000L + i * 7L, 20 + i % 50, "Get User " + (i % 3),
+                    success ? "200" : "500", success ? "OK" : "Error", "Thread-" + (i % 4), "text",
+                    success, success ? "" : "Server error, retry", 512, 64, 4, 4,
+                    "http://localhost/users/" + i, 18, 0, 2));
+        }
+    }
+
+    @Test
+    public void testReadsBackEverySample() throws IOException {
+        Path file = tempDir.resolve("samples.jtlb");
+        try (JtlSink sink = new JtlSink(file.toString(), SampleFormat.BINARY)) {
+            recordSamples(sink, 1_000);
+        }
+
+        try (BinarySampleReader reader = new BinarySampleReader(file.toString())) {
+            int count = 0;
+            while (reader.next()) {
+                assertEquals(1_700_000_000_000L + count * 7L, reader.getTimeStamp());
+                assertEquals("Get User " + (count % 3), reader.getLabel());
+                assertEquals("http://localhost/users/" + count, reader.getUrl());
+                assertEquals(count % 10 != 0, reader.isSuccess());
+                count++;
+            }
+            assertEquals(1_000, count);
+        }
+    }
+
+    @Test
+    public void testExportsTheSameJtlAsTheCsvSink() throws IOException {
+        Path binary = tempDir.resolve("samples.jtlb");
+        Path csv = tempDir.resolve("direct.jtl");
+        try (JtlSink binarySink = new JtlSink(binary.toString(), SampleFormat.BINARY);
+             JtlSink csvSink = new JtlSink(csv.toString())) {
+            recordSamples(binarySink, 500);
+            recordSamples(csvSink, 500);
+        }
+
+        Path exported = tempDir.resolve("exported.jtl");
+        assertEquals(500, BinarySampleConverter.toJtl(binary.toString(), exported.toString()));
+        List<String> expected = Files.readAllLines(csv);
+        assertEquals(expected, Files.readAllLines(exported));
+        assertTrue(Files.size(binary) < Files.size(csv));
+        assertEquals("samples.jtl", BinarySampleConverter.defaultJtlPath("samples.jtlb"));
+    }
+
+    @Test
+    public void testReadsBackUniqueStringsAcrossResets() throws IOException {
+        Path file = tempDir.resolve("unique.jtlb");
+        int count = 70_000;
+        try (JtlSink sink = new JtlSink(file.toString(), SampleFormat.BINARY)) {
+            for (int i = 0; i < count; i++) {
+                // Retry dropped samples so the log must hold all of them
+                while (!sink.record(i, 1, "label", "200", "OK", "Thread-1", "text", true,
+                        "", 0, 0, 1, 1, "http://localhost/items/" + i, 1, 0, 0)) {
+                    Thread.yield();
+                }
+            }
+        }
+
+        try (BinarySampleReader reader = new BinarySampleReader(file.toString())) {
+            int read = 0;
+            while (reader.next()) {
+                assertEquals("http://localhost/items/" + read, reader.getUrl());
+                assertEquals("label", reader.getLabel());
+                read++;
+            }
+            assertEquals(count, read);
+        }
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("plain.jtl");
+        Files.writeString(file, "timeStamp,elapsed\n");
+        assertThrows(IOException.class, () -> new BinarySampleReader(file.toString()));
+    }
+}
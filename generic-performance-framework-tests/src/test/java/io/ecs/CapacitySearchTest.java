@@ -0,0 +1,92 @@
+package io.ecs;
+
+import io.ecs.model.CapacitySearchConfig;
+import io.ecs.system.CapacitySearch;
+import io.ecs.system.CapacitySearchResult;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the capacity search against a synthetic system under test
+ */
+public class CapacitySearchTest {
+
+    /**
+     * Throughput grows by 10/s per user up to 550/s, and errors start above 60 users
+     */
+    private static CapacitySearchResult.Step measure(int users) {
+        double throughput = Math.min(users * 10.0, 550.0);
+        double errorRate = users > 60 ? 5.0 : 0.0;
+        long p95 = users * 10L;
+        return new CapacitySearchResult.Step(users, (long) throughput * 60, throughput, errorRate, p95, false);
+    }
+
+    @Test
+    public void testStepsUpThenBisects() throws Exception {
+        CapacitySearchConfig config = new CapacitySearchConfig();
+        config.setStartUsers(10);
+        config.setStepUsers(20);
+        config.setMaxUsers(200);
+        config.setMaxErrorRate(1.0);
+        config.setRefineSteps(3);
+
+        List<Integer> ran = new ArrayList<>();
+        CapacitySearchResult result = new CapacitySearch("Checkout", config, users -> {
+            ran.add(users);
+            return measure(users);
+        }).run();
+
+        assertEquals(List.of(10, 30, 50, 70, 60, 65, 62), ran);
+        assertEquals(60, (long) result.getMaxSustainableStep().getUsers());
+        assertEquals(550.0, result.getMaxSustainableStep().getThroughput());
+        // Going from 60 to 62 users adds no throughput
+        assertEquals(60, (long) result.getKneeStep().getUsers());
+
+        Map<String, Object> metrics = result.toMap();
+        assertEquals("Checkout", metrics.get("scenarioName"));
+        assertEquals(550.0, metrics.get("maxSustainableThroughput"));
+        assertEquals(7, (long) ((List<?>) metrics.get("steps")).size());
+    }
+
+    @Test
+    public void testLatencyObjectiveAndAbortedSteps() throws Exception {
+        CapacitySearchConfig config = new CapacitySearchConfig();
+        config.setStartUsers(10);
+        config.setStepUsers(10);
+        config.setMaxErrorRate(100.0);
+        config.setMaxP95Millis(400);
+        config.setRefineSteps(0);
+
+        CapacitySearchResult result = new CapacitySearch("Search", config, CapacitySearchTest::measure).run();
+        assertEquals(5, (long) result.getSteps().size());
+        assertEquals(40, (long) result.getMaxSustainableStep().getUsers());
+        assertFalse(result.isSustainable(result.getSteps().get(4)));
+
+        CapacitySearchResult.Step aborted = new CapacitySearchResult.Step(10, 600, 100.0, 0.0, 100, true);
+        assertFalse(result.isSustainable(aborted));
+    }
+
+    @Test
+    public void testStopsAtMaxUsers() throws Exception {
+        CapacitySearchConfig config = new CapacitySearchConfig();
+        config.setStartUsers(20);
+        config.setStepUsers(20);
+        config.setMaxUsers(50);
+
+        List<Integer> ran = new ArrayList<>();
+        CapacitySearchResult result = new CapacitySearch("Browse", config, users -> {
+            ran.add(users);
+            return measure(users);
+        }).run();
+
+        // The limit is off the step grid, so the last step is clamped to it
+        assertEquals(List.of(20, 40, 50), ran);
+        assertEquals(50, (long) result.getMaxSustainableStep().getUsers());
+        assertEquals(50, (long) result.getKneeStep().getUsers());
+    }
+}
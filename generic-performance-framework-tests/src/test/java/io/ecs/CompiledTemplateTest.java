@@ -0,0 +1,79 @@
+package io.ecs;
+
+import io.ecs.util.CompiledTemplate;
+import io.ecs.util.DynamicVariableResolver;
+import io.ecs.util.TemplateProcessor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for compiled ${...} templates and the resolvers built on them
+ */
+public class CompiledTemplateTest {
+
+    @Test
+    public void testRendersPlaceholdersBetweenLiterals() {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("host", "example.com");
+        variables.put("id", "42");
+
+        CompiledTemplate template = CompiledTemplate.compile("https://${host}/users/${id}?expand=${id}");
+
+        assertEquals("https://example.com/users/42?expand=42", template.render(variables));
+        assertEquals(List.of("host", "id", "id"), template.getVariableNames());
+        assertFalse(template.isConstant());
+    }
+
+    @Test
+    public void testUnresolvedPlaceholdersAreKept() {
+        CompiledTemplate template = CompiledTemplate.compile("/users/${id}/${missing}");
+
+        assertEquals("/users/7/${missing}", template.render(Map.of("id", "7")));
+    }
+
+    @Test
+    public void testTextThatIsNotAPlaceholderIsLiteral() {
+        Map<String, String> variables = Map.of("a", "1");
+
+        assertEquals("${}", CompiledTemplate.compile("${}").render(variables));
+        assertEquals("$1", CompiledTemplate.compile("$${a}").render(variables));
+        assertEquals("x ${a", CompiledTemplate.compile("x ${a").render(variables));
+        assertTrue(CompiledTemplate.compile("plain text").isConstant());
+    }
+
+    @Test
+    public void testValuesAreInsertedVerbatim() {
+        // Replacement characters of String.replaceAll must not be interpreted
+        Map<String, String> variables = Map.of("price", "$5 \\ each");
+
+        assertEquals("cost: $5 \\ each", CompiledTemplate.compile("cost: ${price}").render(variables));
+    }
+
+    @Test
+    public void testCompiledTemplatesAreCached() {
+        assertSame(CompiledTemplate.compile("${cached}"), CompiledTemplate.compile("${cached}"));
+    }
+
+    @Test
+    public void testTemplateProcessorReplacesUndefinedWithEmpty() {
+        assertEquals("a=1, b=", new TemplateProcessor().processTemplate("a=${a}, b=${b}", Map.of("a", "1")));
+    }
+
+    @Test
+    public void testDynamicContextOverridesVariables() {
+        Map<String, String> variables = Map.of("user", "static", "other", "kept");
+        Map<String, Object> context = new HashMap<>();
+        context.put("user", "dynamic");
+        context.put("iteration", 3);
+
+        String result = DynamicVariableResolver.processTemplate(
+                "${user}-${other}-${iteration}-${threadNum}-${unknown}", variables, context);
+
+        assertEquals("dynamic-kept-3-1-${unknown}", result);
+    }
+}
@@ -0,0 +1,105 @@
+package io.ecs;
+
+import io.ecs.core.PerformanceTest;
+import io.ecs.core.ResponseValidator;
+import io.ecs.core.TestResult;
+import io.ecs.engine.Protocol;
+import io.ecs.model.Request;
+import io.ecs.model.RequestBuilder;
+import io.ecs.model.Response;
+import io.ecs.report.MetricsCollector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for recording coordinated-omission-corrected latencies next to raw ones
+ */
+public class CorrectedLatencyTest {
+
+    /**
+     * A protocol that responds after a fixed time
+     */
+    private static class FixedDelayProtocol implements Protocol {
+        private final long delayMillis;
+
+        FixedDelayProtocol(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void setGlobalVariables(Map<String, String> variables) {
+        }
+
+        @Override
+        public Response execute(String endpoint, String method, String body, Map<String, String> headers,
+                                Map<String, String> params, Map<String, String> requestVariables) throws Exception {
+            Thread.sleep(delayMillis);
+            Response response = new Response();
+            response.setStatusCode(200);
+            response.setSuccess(true);
+            return response;
+        }
+    }
+
+    @Test
+    public void testStallIsBackFilledInCorrectedPercentiles() {
+        MetricsCollector collector = new MetricsCollector(3);
+        for (int i = 0; i < 99; i++) {
+            collector.recordResponseTime(10, 10, 100);
+        }
+        // One stall of a second, during which a sender every 100ms would have sent nine more requests
+        collector.recordResponseTime(1000, 1000, 100);
+
+        assertEquals(100, collector.getResponseTimeHistogram().getTotalCount());
+        assertEquals(109, collector.getCorrectedResponseTimeHistogram().getTotalCount());
+        assertEquals(10, collector.getPercentile(95));
+        assertEquals(10, collector.getPercentile(99));
+        assertEquals(1000, collector.getPercentile(100));
+
+        // The back-filled 100..900ms samples are the slowest 9% of the corrected distribution
+        assertEquals(10, collector.getCorrectedPercentile(90));
+        assertEquals(500, collector.getCorrectedPercentile(95));
+        assertEquals(900, collector.getCorrectedPercentile(99));
+        assertEquals(1000, collector.getCorrectedPercentile(100));
+    }
+
+    @Test
+    public void testCorrectedIsNeverBelowRaw() {
+        MetricsCollector collector = new MetricsCollector(3);
+        // No expected interval: the corrected value is recorded once, without back-filling
+        collector.recordResponseTime(50, 400, 0);
+        // A corrected value below the raw one is a clock artifact and is raised to the raw value
+        collector.recordResponseTime(300, 200, 0);
+        // Without a correction the two distributions match
+        collector.recordResponseTime(70);
+
+        assertEquals(3, collector.getCorrectedResponseTimeHistogram().getTotalCount());
+        assertEquals(300, collector.getPercentile(100));
+        assertEquals(400, collector.getCorrectedPercentile(100));
+        assertEquals(70, collector.getCorrectedPercentile(1));
+        assertEquals(50, collector.getPercentile(1));
+    }
+
+    @Test
+    public void testScheduledTestIsMeasuredFromIntendedStart() {
+        Request request = RequestBuilder.create("Get Item", "http").method("GET").endpoint("/items/1").build();
+        Protocol protocol = new FixedDelayProtocol(20);
+
+        // Sent 200ms after it should have been
+        long intendedStart = System.nanoTime() - 200_000_000L;
+        TestResult late = new PerformanceTest(protocol, request, new HashMap<>(), intendedStart,
+                new ResponseValidator()).call();
+        assertTrue(late.getResponseTime() >= 20);
+        assertTrue(late.getResponseTime() < 200);
+        assertTrue(late.getCorrectedResponseTime() >= late.getResponseTime() + 200,
+                "corrected " + late.getCorrectedResponseTime() + "ms, raw " + late.getResponseTime() + "ms");
+
+        // An unscheduled test has no intended start to measure from
+        TestResult unscheduled = new PerformanceTest(protocol, request, new HashMap<>()).call();
+        assertEquals(unscheduled.getResponseTime(), unscheduled.getCorrectedResponseTime());
+    }
+}
@@ -0,0 +1,143 @@
+package io.ecs;
+
+import io.ecs.feeder.FeedStrategy;
+import io.ecs.feeder.Feeder;
+import io.ecs.util.VariableScope;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for feeders, their strategies and sharding
+ */
+public class FeederTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String writeFile(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file.toString();
+    }
+
+    private String writeIds(int count) throws IOException {
+        StringBuilder csv = new StringBuilder("id\n");
+        for (int i = 0; i < count; i++) {
+            csv.append(i).append('\n');
+        }
+        return writeFile("ids.csv", csv.toString());
+    }
+
+    private List<String> readAll(Feeder.Cursor cursor, int max) {
+        List<String> ids = new ArrayList<>();
+        while (ids.size() < max && cursor.next()) {
+            ids.add(cursor.get("id"));
+        }
+        return ids;
+    }
+
+    @Test
+    public void testParsesSpecs() throws IOException {
+        assertEquals("data/users.csv", Feeder.sourceOf("data/users.csv | unique"));
+        assertEquals("unique", Feeder.strategyOf("data/users.csv | unique"));
+        assertNull(Feeder.strategyOf("data/users.csv"));
+        assertEquals("data/users.csv|random", Feeder.toSpec("data/users.csv", "random"));
+        assertEquals(FeedStrategy.PARTITIONED, FeedStrategy.fromString("per-thread"));
+        assertThrows(IllegalArgumentException.class, () -> FeedStrategy.fromString("sideways"));
+
+        try (Feeder feeder = Feeder.open("ids", writeIds(3) + "|unique")) {
+            assertEquals(FeedStrategy.EXHAUST, feeder.getStrategy());
+        }
+    }
+
+    @Test
+    public void testSharedStrategyStartsOver() throws IOException {
+        try (Feeder feeder = Feeder.open("ids", writeIds(3))) {
+            assertEquals(List.of("0", "1", "2", "0"), readAll(feeder.cursor(0), 4));
+        }
+    }
+
+    @Test
+    public void testExhaustStrategyStopsWhenRecordsRunOut() throws IOException {
+        try (Feeder feeder = Feeder.open("ids", writeIds(3) + "|exhaust")) {
+            Feeder.Cursor first = feeder.cursor(0);
+            Feeder.Cursor second = feeder.cursor(1);
+            assertTrue(first.next());
+            assertTrue(second.next());
+            assertTrue(first.next());
+            assertFalse(second.next());
+            assertFalse(first.next());
+        }
+    }
+
+    @Test
+    public void testPartitionedStrategyGivesUsersDisjointSlices() throws IOException {
+        try (Feeder feeder = Feeder.open("ids", writeIds(5) + "|partitioned").setUsers(2)) {
+            assertEquals(List.of("0", "2", "4", "0"), readAll(feeder.cursor(0), 4));
+            assertEquals(List.of("1", "3", "1"), readAll(feeder.cursor(1), 3));
+        }
+    }
+
+    @Test
+    public void testShardsNeverShareRecords() throws IOException {
+        String csv = writeIds(10);
+        Set<String> seen = new HashSet<>();
+        int total = 0;
+        for (int shard = 0; shard < 3; shard++) {
+            try (Feeder feeder = Feeder.open("ids", csv + "|unique").setShard(shard, 3)) {
+                List<String> ids = readAll(feeder.cursor(0), 100);
+                total += ids.size();
+                seen.addAll(ids);
+            }
+        }
+        assertEquals(10, total);
+        assertEquals(10, seen.size());
+        assertThrows(IllegalArgumentException.class, () -> Feeder.open("ids", csv).setShard(3, 3));
+    }
+
+    @Test
+    public void testGeneratedRecordsAreUniqueAcrossUsers() throws IOException {
+        try (Feeder feeder = Feeder.open("users", "generated:id=user-${index};code=${randomInt(1,9)}|unique")) {
+            Feeder.Cursor first = feeder.cursor(0);
+            Feeder.Cursor second = feeder.cursor(1);
+            assertTrue(first.next());
+            assertTrue(second.next());
+            assertEquals("user-0", first.get("id"));
+            assertEquals("user-1", second.get("id"));
+            int code = Integer.parseInt(first.get("code"));
+            assertTrue(code >= 1 && code <= 9);
+        }
+    }
+
+    @Test
+    public void testReadsJsonLinesIntoScope() throws IOException {
+        String jsonl = writeFile("orders.jsonl",
+                "{\"orderId\": 7, \"items\": [1, 2]}\n\n{\"orderId\": 8}\n");
+
+        try (Feeder feeder = Feeder.open("orders", jsonl)) {
+            assertArrayEquals(new String[] {"orderId", "items"}, feeder.getColumns());
+
+            VariableScope scope = VariableScope.global(null).child(VariableScope.Level.ITERATION);
+            Feeder.Cursor cursor = feeder.cursor(0);
+            assertTrue(cursor.next());
+            cursor.copyTo(scope);
+            assertEquals("7", scope.get("orderId"));
+            assertEquals("[1,2]", scope.get("items"));
+
+            assertTrue(cursor.next());
+            cursor.copyTo(scope);
+            assertEquals("8", scope.get("orderId"));
+            assertEquals("", scope.get("items"));
+        }
+    }
+}
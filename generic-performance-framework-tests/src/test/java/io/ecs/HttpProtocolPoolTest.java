@@ -0,0 +1,149 @@
+package io.ecs;
+
+import io.ecs.config.TestConfiguration;
+import io.ecs.config.YamlConfig;
+import io.ecs.core.TestExecutor;
+import io.ecs.core.TestResult;
+import io.ecs.model.Response;
+import io.ecs.protocols.HttpProtocol;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import static io.ecs.LocalHttpServer.respond;
+import static io.ecs.LocalHttpServer.sleep;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that HttpProtocol releases its connection pool and idle-connection evictor thread
+ */
+public class HttpProtocolPoolTest {
+
+    private LocalHttpServer server;
+    private final CountDownLatch slowRequestArrived = new CountDownLatch(1);
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new LocalHttpServer()
+                .handle("/ping", exchange -> respond(exchange, 200, "pong"))
+                .handle("/slow", exchange -> {
+                    slowRequestArrived.countDown();
+                    sleep(500);
+                    respond(exchange, 200, "slow pong");
+                })
+                .start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    /**
+     * Count the idle-connection evictor threads, one of which runs per open pooled client
+     */
+    private static int evictorThreads() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && "Connection evictor".equals(thread.getName()))
+                .count();
+    }
+
+    private static void awaitEvictorThreads(IntPredicate expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!expected.test(evictorThreads()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        int count = evictorThreads();
+        assertTrue(expected.test(count), count + " evictor threads running");
+    }
+
+    private Map<String, String> variables(String connectionTimeout) {
+        Map<String, String> variables = server.variables();
+        variables.put("connectionTimeout", connectionTimeout);
+        return variables;
+    }
+
+    @Test
+    public void testCloseReleasesPool() throws Exception {
+        int before = evictorThreads();
+        HttpProtocol protocol = new HttpProtocol();
+        protocol.setGlobalVariables(variables("5000"));
+
+        Response response = protocol.execute("/ping", "GET", null, null, null);
+        assertEquals(200, response.getStatusCode());
+        assertEquals("pong", response.getBody());
+        assertEquals(before + 1, evictorThreads());
+
+        protocol.close();
+        awaitEvictorThreads(count -> count == before);
+
+        // A closed protocol opens a new pool when it is used again
+        assertEquals(200, protocol.execute("/ping", "GET", null, null, null).getStatusCode());
+        protocol.close();
+        awaitEvictorThreads(count -> count == before);
+    }
+
+    @Test
+    public void testReplacedClientDrainsInFlightRequests() throws Exception {
+        int before = evictorThreads();
+        HttpProtocol protocol = new HttpProtocol();
+        protocol.setGlobalVariables(variables("5000"));
+
+        CompletableFuture<Response> slow = CompletableFuture.supplyAsync(() -> {
+            try {
+                return protocol.execute("/slow", "GET", null, null, null);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(slowRequestArrived.await(5, TimeUnit.SECONDS));
+
+        // New connection settings replace the client while the slow request is still using it
+        protocol.setGlobalVariables(variables("4000"));
+        assertEquals(200, protocol.execute("/ping", "GET", null, null, null).getStatusCode());
+        assertEquals(before + 2, evictorThreads());
+
+        Response slowResponse = slow.get(5, TimeUnit.SECONDS);
+        assertEquals(200, slowResponse.getStatusCode());
+        assertEquals("slow pong", slowResponse.getBody());
+
+        // The replaced client is closed once its last request has finished
+        awaitEvictorThreads(count -> count == before + 1);
+        protocol.close();
+        awaitEvictorThreads(count -> count == before);
+    }
+
+    @Test
+    public void testExecutorClosesProtocol() throws Exception {
+        int before = evictorThreads();
+        TestConfiguration config = new YamlConfig().parse(
+                "variables:\n" +
+                "  baseUrl: " + server.getBaseUrl() + "\n" +
+                "execution:\n" +
+                "  threads: 2\n" +
+                "  iterations: 2\n" +
+                "scenarios:\n" +
+                "  - name: Ping\n" +
+                "    requests:\n" +
+                "      - name: Ping\n" +
+                "        endpoint: /ping\n");
+        HttpProtocol protocol = new HttpProtocol();
+        config.setProtocol(protocol);
+
+        List<TestResult> results = new TestExecutor().execute(config);
+
+        assertEquals(4, (long) results.size());
+        for (TestResult result : results) {
+            assertEquals(200, result.getResponse().getStatusCode());
+        }
+        awaitEvictorThreads(count -> count == before);
+    }
+}
@@ -0,0 +1,117 @@
+package io.ecs;
+
+import io.ecs.engine.JMDSLEngine;
+import io.ecs.model.ExecutionConfig;
+import io.ecs.model.Request;
+import io.ecs.model.RequestBuilder;
+import io.ecs.model.TestResult;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import static io.ecs.LocalHttpServer.execution;
+import static io.ecs.LocalHttpServer.respond;
+import static io.ecs.LocalHttpServer.sleep;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that JMDSLEngine runs its virtual users concurrently against a local server
+ */
+public class JMDSLConcurrencyTest {
+
+    private static final long RESPONSE_MILLIS = 200;
+
+    @TempDir
+    Path tempDir;
+
+    private LocalHttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Long> arrivals = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new LocalHttpServer()
+                .handle("/work", exchange -> {
+                    arrivals.add(System.currentTimeMillis());
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    sleep(RESPONSE_MILLIS);
+                    inFlight.decrementAndGet();
+                    respond(exchange, 200);
+                })
+                .start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private ExecutionConfig config(int threads, int iterations, int rampUpSeconds) {
+        ExecutionConfig config = execution(threads, iterations);
+        config.setRampUpSeconds(rampUpSeconds);
+        config.setReportDirectory(tempDir.toString());
+        return config;
+    }
+
+    private TestResult run(JMDSLEngine engine) {
+        Request request = RequestBuilder.create("Work", "http").method("GET").endpoint(server.getBaseUrl() + "/work").build();
+        engine.initialize(new HashMap<>());
+        try {
+            return engine.executeRequest(request);
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualUsersRunConcurrently() {
+        JMDSLEngine engine = new JMDSLEngine(config(5, 2, 0));
+
+        long start = System.currentTimeMillis();
+        TestResult result = run(engine);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(result.isSuccess());
+        assertEquals(10, (long) engine.getMetricsCollector().getTotalRequests());
+        assertEquals(10, (long) engine.getMetricsCollector().getLabelMetrics("Work").getTotalRequests());
+        assertEquals(5, maxInFlight.get());
+        // Sequential requests would take at least 10 x 200ms
+        assertTrue(elapsed < 10 * RESPONSE_MILLIS, "took " + elapsed + "ms");
+    }
+
+    @Test
+    public void testVirtualThreadExecutor() {
+        ExecutionConfig config = config(8, 1, 0);
+        config.setExecutor(ExecutionConfig.EXECUTOR_VIRTUAL);
+        JMDSLEngine engine = new JMDSLEngine(config);
+
+        assertTrue(run(engine).isSuccess());
+        assertEquals(8, (long) engine.getMetricsCollector().getTotalRequests());
+        assertEquals(8, maxInFlight.get());
+    }
+
+    @Test
+    public void testVirtualUsersRampUp() {
+        JMDSLEngine engine = new JMDSLEngine(config(4, 1, 1));
+
+        assertTrue(run(engine).isSuccess());
+        List<Long> times = new ArrayList<>(arrivals);
+        Collections.sort(times);
+        assertEquals(4, (long) times.size());
+        // Users start 250ms apart, so the first and last request are about 750ms apart
+        long spread = times.get(3) - times.get(0);
+        assertTrue(spread >= 600 && spread < 1_500, "requests spread over " + spread + "ms");
+        assertTrue(maxInFlight.get() < 4);
+    }
+}
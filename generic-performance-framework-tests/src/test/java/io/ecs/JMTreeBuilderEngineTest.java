@@ -0,0 +1,147 @@
+package io.ecs;
+
+import io.ecs.engine.JMTreeBuilderEngine;
+import io.ecs.model.ExecutionConfig;
+import io.ecs.model.Request;
+import io.ecs.model.RequestBuilder;
+import io.ecs.model.TestResult;
+import io.ecs.report.MetricsCollector;
+import io.ecs.system.AbortCriterion;
+import io.ecs.system.AbortMonitor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import static io.ecs.LocalHttpServer.execution;
+import static io.ecs.LocalHttpServer.get;
+import static io.ecs.LocalHttpServer.respond;
+import static io.ecs.LocalHttpServer.sleep;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the embedded JMeter engine against a local server
+ */
+public class JMTreeBuilderEngineTest {
+
+    private LocalHttpServer server;
+    private final ConcurrentLinkedQueue<String> received = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new LocalHttpServer()
+                .handle("/orders", exchange -> {
+                    try (InputStream body = exchange.getRequestBody()) {
+                        received.add(exchange.getRequestMethod() + " " + exchange.getRequestURI() + " "
+                                + exchange.getRequestHeaders().getFirst("X-Tenant") + " "
+                                + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                    respond(exchange, 201);
+                })
+                .handle("/fail", exchange -> {
+                    sleep(20);
+                    respond(exchange, 503);
+                })
+                .start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private JMTreeBuilderEngine engine(ExecutionConfig config) {
+        JMTreeBuilderEngine engine = new JMTreeBuilderEngine(config);
+        engine.initialize(server.variables());
+        return engine;
+    }
+
+    @Test
+    public void testRunsRequestsInEmbeddedEngine() {
+        ExecutionConfig config = execution(2, 3);
+        config.setWarmUpIterations(1);
+        JMTreeBuilderEngine engine = engine(config);
+        Request request = RequestBuilder.create("Create Order", "http").method("post").endpoint("/orders")
+                .header("X-Tenant", "acme").param("source", "test").body("{\"item\":1}").build();
+
+        TestResult result;
+        try {
+            result = engine.executeRequest(request);
+        } finally {
+            engine.shutdown();
+        }
+
+        assertTrue(result.isSuccess());
+        assertEquals(200, result.getStatusCode());
+        assertEquals(6, (long) received.size());
+        for (String line : received) {
+            assertEquals("POST /orders?source=test acme {\"item\":1}", line);
+        }
+
+        // The first iteration of each thread is warm-up
+        MetricsCollector metrics = engine.getMetricsCollector();
+        assertEquals(4, (long) metrics.getTotalRequests());
+        assertEquals(4, (long) metrics.getLabelMetrics("Create Order").getSuccessfulRequests());
+        assertEquals(2, (long) metrics.getWarmUp().getTotalRequests());
+    }
+
+    @Test
+    public void testConnectionFailureIsAnError() {
+        ExecutionConfig config = execution(1, 2);
+        JMTreeBuilderEngine engine = engine(config);
+        int port = server.getPort();
+        server.close();
+
+        TestResult result;
+        try {
+            result = engine.executeRequest(get("Refused", "http://127.0.0.1:" + port + "/orders"));
+        } finally {
+            engine.shutdown();
+        }
+
+        assertFalse(result.isSuccess());
+        assertEquals(500, result.getStatusCode());
+        assertNotNull(result.getError());
+        assertEquals(2, (long) engine.getMetricsCollector().getErrorCount());
+    }
+
+    @Test
+    public void testAbortsDuringHold() {
+        ExecutionConfig config = new ExecutionConfig();
+        config.setThreads(2);
+        config.setHoldSeconds(30);
+        JMTreeBuilderEngine engine = engine(config);
+        MetricsCollector liveMetrics = engine.getMetricsCollector();
+
+        // The monitor only sees the samples if they reach the engine's collector while the plan runs
+        AbortMonitor monitor = new AbortMonitor(liveMetrics,
+                List.of(AbortCriterion.parse("errorRate > 50%")), engine::stop).start();
+        long start = System.currentTimeMillis();
+        TestResult result;
+        try {
+            result = engine.executeRequest(get("Fail", "/fail"));
+        } finally {
+            monitor.close();
+            engine.shutdown();
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(monitor.isAborted());
+        assertTrue(monitor.getVerdict().startsWith("errorRate > 50%"), monitor.getVerdict());
+        assertTrue(elapsed < 15_000, "stopped after " + elapsed + "ms");
+        assertFalse(result.isSuccess());
+        assertEquals(503, result.getStatusCode());
+
+        // Samples are recorded once, not again when the run ends
+        int total = liveMetrics.getTotalRequests();
+        assertTrue(total > 0);
+        assertEquals(total, (long) liveMetrics.getFailedRequests());
+        assertEquals(total, (long) liveMetrics.getLabelMetrics("Fail").getTotalRequests());
+        assertTrue(result.getResponseBody().startsWith("Executed " + total + " requests"), result.getResponseBody());
+    }
+}
@@ -0,0 +1,122 @@
+package io.ecs;
+
+import io.ecs.report.JtlSink;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the background JTL writer
+ */
+public class JtlSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWritesHeaderAndQuotedValues() throws IOException {
+        Path file = tempDir.resolve("quoted.jtl");
+        try (JtlSink sink = new JtlSink(file.toString())) {
+            assertTrue(sink.record(1000L, 25, "Get, User", "200", "OK", "Thread-1", "text", true,
+                    "say \"hi\"", 512, 0, 1, 1, "http://localhost/users", 20, 0, 3));
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("timeStamp,elapsed,label,"));
+        assertEquals("1000,25,\"Get, User\",200,OK,Thread-1,text,true,\"say \"\"hi\"\"\",512,0,1,1,"
+                + "http://localhost/users,20,0,3", lines.get(1));
+    }
+
+    @Test
+    public void testWritesEverySampleFromConcurrentThreads() throws Exception {
+        Path file = tempDir.resolve("concurrent.jtl");
+        int threads = 4;
+        int samplesPerThread = 5_000;
+
+        try (JtlSink sink = new JtlSink(file.toString(), 1024, 10)) {
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String threadName = "Thread-" + t;
+                Thread producer = new Thread(() -> {
+                    for (int i = 0; i < samplesPerThread; i++) {
+                        // Retry dropped samples so the file must hold all of them
+                        while (!sink.record(i, 1, "label", "200", "OK", threadName, "text", true,
+                                "", 0, 0, 1, 1, "", 1, 0, 0)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(threads * samplesPerThread + 1, lines.size());
+        Set<String> unique = new HashSet<>(lines.subList(1, lines.size()));
+        assertEquals(threads * samplesPerThread, unique.size());
+    }
+
+    @Test
+    public void testDropsSamplesAfterClose() throws IOException {
+        JtlSink sink = new JtlSink(tempDir.resolve("closed.jtl").toString());
+        sink.close();
+
+        assertFalse(sink.record(Map.of("timeStamp", 1L, "label", "late")));
+        assertEquals(1, sink.getDroppedCount());
+    }
+
+    @Test
+    public void testEveryAcceptedSampleIsWrittenWhenClosedUnderLoad() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Path file = tempDir.resolve("racing-" + round + ".jtl");
+            JtlSink sink = new JtlSink(file.toString(), 1024, 10);
+            AtomicLong accepted = new AtomicLong();
+            AtomicLong rejected = new AtomicLong();
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread producer = new Thread(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 20_000; i++) {
+                        if (sink.record(i, 1, "label", "200", "OK", "Thread", "text", true,
+                                "", 0, 0, 1, 1, "", 1, 0, 0)) {
+                            accepted.incrementAndGet();
+                        } else {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+
+            // Close while the producers are still recording
+            started.await();
+            sink.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            // A sample is either written or counted as dropped, never silently lost
+            assertEquals(accepted.get() + 1, Files.readAllLines(file).size());
+            assertEquals(rejected.get(), sink.getDroppedCount());
+        }
+    }
+}
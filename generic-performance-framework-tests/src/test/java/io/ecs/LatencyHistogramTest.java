@@ -0,0 +1,127 @@
+package io.ecs;
+
+import io.ecs.report.LatencyHistogram;
+import io.ecs.report.MetricsCollector;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the fixed-memory latency histogram used by MetricsCollector
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.recordValue(value);
+        }
+
+        assertEquals(100, histogram.getTotalCount());
+        assertEquals(1, histogram.getMinValue());
+        assertEquals(100, histogram.getMaxValue());
+        assertEquals(50.5, histogram.getMean(), 0.0001);
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(90, histogram.getValueAtPercentile(90));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testLargeValuesStayWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram(LatencyHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE, 2);
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.recordValue(value);
+        }
+
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(Math.abs(p99 - 99_000) <= 99_000 / 100, "p99 was " + p99);
+        assertEquals(100_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testValuesAboveRangeAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram(10_000, 2);
+        histogram.recordValue(50_000);
+
+        assertEquals(1, histogram.getTotalCount());
+        assertEquals(50_000, histogram.getMaxValue());
+        assertTrue(histogram.getValueAtPercentile(100) <= 50_000);
+    }
+
+    @Test
+    public void testSnapshotsMerge() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.recordValue(10, 90);
+        second.recordValue(200, 10);
+
+        LatencyHistogram merged = first.snapshot();
+        merged.add(second.snapshot());
+
+        assertEquals(100, merged.getTotalCount());
+        assertEquals(10, merged.getValueAtPercentile(90));
+        assertEquals(200, merged.getValueAtPercentile(91));
+        assertEquals(90, first.getTotalCount());
+    }
+
+    @Test
+    public void testIncompatibleHistogramsCannotMerge() {
+        LatencyHistogram first = new LatencyHistogram(10_000, 2);
+        LatencyHistogram second = new LatencyHistogram(10_000, 3);
+
+        assertThrows(IllegalArgumentException.class, () -> first.add(second));
+    }
+
+    @Test
+    public void testEncodingRoundTrip() throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value += 7) {
+            histogram.recordValue(value);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        histogram.writeTo(new DataOutputStream(bytes));
+        LatencyHistogram decoded = LatencyHistogram.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(histogram.getTotalCount(), decoded.getTotalCount());
+        assertEquals(histogram.getMinValue(), decoded.getMinValue());
+        assertEquals(histogram.getMaxValue(), decoded.getMaxValue());
+        assertEquals(histogram.getMean(), decoded.getMean(), 0.0001);
+        assertEquals(histogram.getValueAtPercentile(99), decoded.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testCollectorSnapshotsMergeAcrossWorkers() throws IOException {
+        MetricsCollector first = new MetricsCollector();
+        MetricsCollector second = new MetricsCollector();
+        for (int i = 0; i < 90; i++) {
+            first.recordRequest();
+            first.recordSuccess();
+            first.recordResponseTime(10);
+        }
+        for (int i = 0; i < 10; i++) {
+            second.recordRequest();
+            second.recordFailure();
+            second.recordResponseTime(200);
+        }
+
+        MetricsCollector merged = new MetricsCollector();
+        for (MetricsCollector worker : new MetricsCollector[] {first, second}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            worker.writeTo(new DataOutputStream(bytes));
+            merged.merge(MetricsCollector.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        }
+
+        assertEquals(100, merged.getTotalRequests());
+        assertEquals(90.0, merged.getSuccessRate(), 0.0001);
+        assertEquals(10, merged.getPercentile(90));
+        assertEquals(200, merged.getPercentile(95));
+    }
+}
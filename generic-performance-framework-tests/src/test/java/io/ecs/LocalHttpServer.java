@@ -0,0 +1,139 @@
+package io.ecs;
+
+import io.ecs.model.ExecutionConfig;
+import io.ecs.model.Request;
+import io.ecs.model.RequestBuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local HTTP server for tests that run engines against a real endpoint
+ *
+ * The server listens on a free port of the loopback address and handles each exchange
+ * on its own pool thread. Closing the server also shuts down that pool, so tests do not
+ * leave handler threads behind.
+ */
+public class LocalHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * Create a server on a free port, to be started once its handlers are added
+     *
+     * @throws IOException if no port can be bound
+     */
+    public LocalHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Handle the requests to a path and every path below it
+     *
+     * @param path the path prefix
+     * @param handler the handler of the exchanges
+     * @return this server for chaining
+     */
+    public LocalHttpServer handle(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+        return this;
+    }
+
+    public LocalHttpServer start() {
+        server.start();
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    /**
+     * Get engine variables that point requests with relative endpoints at this server
+     *
+     * @return a new map holding baseUrl
+     */
+    public Map<String, String> variables() {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("baseUrl", getBaseUrl());
+        return variables;
+    }
+
+    /**
+     * Stop accepting requests and end the handler threads
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send a response without a body and end the exchange
+     */
+    public static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    /**
+     * Send a response with a text body and end the exchange
+     */
+    public static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Sleep in a handler, keeping the interrupt of a server being closed
+     */
+    public static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Build a GET request
+     */
+    public static Request get(String name, String endpoint) {
+        return RequestBuilder.create(name, "http").method("GET").endpoint(endpoint).build();
+    }
+
+    /**
+     * Build an execution configuration for a closed model
+     */
+    public static ExecutionConfig execution(int threads, int iterations) {
+        ExecutionConfig config = new ExecutionConfig();
+        config.setThreads(threads);
+        config.setIterations(iterations);
+        return config;
+    }
+}
@@ -0,0 +1,105 @@
+package io.ecs;
+
+import io.ecs.util.MappedCsvFeeder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped CSV feeder
+ */
+public class MappedCsvFeederTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String writeCsv(String content) throws IOException {
+        Path file = tempDir.resolve("data.csv");
+        Files.writeString(file, content);
+        return file.toString();
+    }
+
+    @Test
+    public void testParsesQuotedValuesAndSkipsEmptyLines() throws IOException {
+        String csv = writeCsv("id,name,note\r\n1,alice,\"a, b\"\r\n\r\n2,bob,\"say \"\"hi\"\"\"\n3,carol\n");
+
+        try (MappedCsvFeeder feeder = new MappedCsvFeeder(csv)) {
+            assertArrayEquals(new String[] {"id", "name", "note"}, feeder.getColumns());
+            assertEquals(3, feeder.getRowCount());
+
+            MappedCsvFeeder.Row row = feeder.newRow();
+            feeder.read(0, row);
+            assertEquals("alice", row.get("name"));
+            assertEquals("a, b", row.get("note"));
+
+            feeder.read(1, row);
+            assertEquals("say \"hi\"", row.get(2));
+
+            feeder.read(2, row);
+            assertEquals("carol", row.get("name"));
+            assertEquals("", row.get("note"));
+            assertNull(row.get("missing"));
+        }
+    }
+
+    @Test
+    public void testCircularModeStartsOver() throws IOException {
+        String csv = writeCsv("id\n1\n2\n");
+
+        try (MappedCsvFeeder feeder = new MappedCsvFeeder(csv, MappedCsvFeeder.Mode.CIRCULAR)) {
+            MappedCsvFeeder.Row row = feeder.newRow();
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                assertTrue(feeder.next(row));
+                ids.add(row.get("id"));
+            }
+            assertEquals(List.of("1", "2", "1", "2", "1"), ids);
+        }
+    }
+
+    @Test
+    public void testUniqueModeHandsOutEachRowOnceAcrossThreads() throws Exception {
+        StringBuilder content = new StringBuilder("user\n");
+        for (int i = 0; i < 10_000; i++) {
+            content.append("user").append(i).append('\n');
+        }
+        String csv = writeCsv(content.toString());
+
+        try (MappedCsvFeeder feeder = new MappedCsvFeeder(csv, MappedCsvFeeder.Mode.UNIQUE)) {
+            Set<String> seen = ConcurrentHashMap.newKeySet();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Thread thread = new Thread(() -> {
+                    MappedCsvFeeder.Row row = feeder.newRow();
+                    while (feeder.next(row)) {
+                        assertTrue(seen.add(row.get("user")), "Row handed out twice: " + row.get("user"));
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(10_000, seen.size());
+            assertFalse(feeder.next(feeder.newRow()));
+        }
+    }
+
+    @Test
+    public void testEmptyFileIsRejected() throws IOException {
+        String csv = writeCsv("");
+
+        assertThrows(IOException.class, () -> new MappedCsvFeeder(csv));
+    }
+}
@@ -0,0 +1,78 @@
+package io.ecs;
+
+import io.ecs.report.MetricsCollector;
+import io.ecs.report.MetricsEndpoint;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the OpenMetrics endpoint
+ */
+public class MetricsEndpointTest {
+
+    @Test
+    public void testWritesCountersAndCumulativeHistogram() {
+        MetricsCollector collector = new MetricsCollector();
+        collector.recordSample("Get \"User\"", 3, 3, 0, true, false);
+        collector.recordSample("Get \"User\"", 40, 40, 0, true, false);
+        collector.recordSample("Search", 70_000, 70_000, 0, false, true);
+        collector.userStarted();
+        collector.userStarted();
+        collector.userStopped();
+
+        StringBuilder text = new StringBuilder();
+        MetricsEndpoint.write(Map.of("checkout", collector), System.currentTimeMillis(), text);
+        String metrics = text.toString();
+
+        assertTrue(metrics.contains("# TYPE ecs_requests counter\n"));
+        assertTrue(metrics.contains("ecs_requests_total{scenario=\"checkout\"} 3\n"));
+        assertTrue(metrics.contains("ecs_failed_requests_total{scenario=\"checkout\"} 1\n"));
+        assertTrue(metrics.contains("ecs_errors_total{scenario=\"checkout\"} 1\n"));
+        assertTrue(metrics.contains("ecs_active_users{scenario=\"checkout\"} 1\n"));
+        assertTrue(metrics.contains("ecs_response_time_seconds_bucket{scenario=\"checkout\",le=\"0.005\"} 1\n"));
+        assertTrue(metrics.contains("ecs_response_time_seconds_bucket{scenario=\"checkout\",le=\"0.05\"} 2\n"));
+        assertTrue(metrics.contains("ecs_response_time_seconds_bucket{scenario=\"checkout\",le=\"60.0\"} 2\n"));
+        assertTrue(metrics.contains("ecs_response_time_seconds_bucket{scenario=\"checkout\",le=\"+Inf\"} 3\n"));
+        assertTrue(metrics.contains("ecs_response_time_seconds_count{scenario=\"checkout\"} 3\n"));
+        assertTrue(metrics.contains(
+                "ecs_label_requests_total{scenario=\"checkout\",label=\"Get \\\"User\\\"\"} 2\n"));
+        assertTrue(metrics.contains("ecs_label_failed_requests_total{scenario=\"checkout\",label=\"Search\"} 1\n"));
+        assertTrue(metrics.endsWith("# EOF\n"));
+    }
+
+    @Test
+    public void testServesLiveMetrics() throws IOException {
+        MetricsCollector collector = new MetricsCollector();
+        try (MetricsEndpoint endpoint = new MetricsEndpoint(() -> Map.of("soak", collector)).start(0)) {
+            collector.recordSample("Get User", 10, 10, 0, true, false);
+            assertTrue(scrape(endpoint).contains("ecs_requests_total{scenario=\"soak\"} 1\n"));
+
+            // Recording continues between scrapes
+            collector.recordSample("Get User", 10, 10, 0, true, false);
+            assertTrue(scrape(endpoint).contains("ecs_requests_total{scenario=\"soak\"} 2\n"));
+        }
+    }
+
+    private static String scrape(MetricsEndpoint endpoint) throws IOException {
+        URL url = URI.create("http://localhost:" + endpoint.getPort() + MetricsEndpoint.PATH).toURL();
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            assertEquals(200, connection.getResponseCode());
+            assertEquals(MetricsEndpoint.CONTENT_TYPE, connection.getContentType());
+            try (InputStream in = connection.getInputStream()) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
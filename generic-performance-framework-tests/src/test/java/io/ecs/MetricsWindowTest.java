@@ -0,0 +1,155 @@
+package io.ecs;
+
+import io.ecs.report.MetricsCollector;
+import io.ecs.report.MetricsWindow;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-label metrics and rolling time windows in MetricsCollector
+ */
+public class MetricsWindowTest {
+
+    @Test
+    public void testRecordsSamplesPerLabel() {
+        MetricsCollector collector = new MetricsCollector();
+        for (int i = 0; i < 10; i++) {
+            collector.recordSample("Get User", 10, 10, 0, true, false);
+        }
+        collector.recordSample("Search", 500, 500, 0, false, false);
+        collector.recordSample("Search", 700, 700, 0, false, true);
+
+        assertEquals(12, collector.getTotalRequests());
+        assertEquals(2, collector.getFailedRequests());
+        assertEquals(1, collector.getErrorCount());
+
+        Map<String, MetricsCollector> labels = collector.getLabels();
+        assertEquals(List.of("Get User", "Search"), new ArrayList<>(labels.keySet()));
+        assertEquals(10, labels.get("Get User").getTotalRequests());
+        assertEquals(10, labels.get("Get User").getMaxResponseTime());
+        assertEquals(2, collector.getLabelMetrics("Search").getFailedRequests());
+        assertEquals(700, collector.getLabelMetrics("Search").getMaxResponseTime(), 7);
+        assertNull(collector.getLabelMetrics("Login"));
+    }
+
+    @Test
+    public void testKeepsRollingWindows() throws InterruptedException {
+        MetricsCollector collector = new MetricsCollector(2, 20, 3);
+        for (int window = 0; window < 6; window++) {
+            collector.recordSample("label", 5, 5, 0, true, false);
+            Thread.sleep(25);
+        }
+
+        // Only the most recent windows within the retention are kept, oldest first
+        List<MetricsWindow> windows = collector.getWindows();
+        assertFalse(windows.isEmpty());
+        assertTrue(windows.size() <= 3);
+        long previous = Long.MIN_VALUE;
+        for (MetricsWindow window : windows) {
+            assertTrue(window.getStartTime() > previous);
+            assertEquals(20, window.getDurationMillis());
+            assertEquals(1, window.getTotalRequests());
+            assertEquals(5, window.getPercentile(95));
+            previous = window.getStartTime();
+        }
+        assertEquals(6, collector.getTotalRequests());
+        assertEquals(windows.size(), collector.getLabelMetrics("label").getWindows().size());
+    }
+
+    @Test
+    public void testConcurrentRecordingCountsEverySample() throws InterruptedException {
+        MetricsCollector collector = new MetricsCollector();
+        int threads = 4;
+        int samplesPerThread = 10_000;
+        List<Thread> recorders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String label = "label-" + (t % 2);
+            Thread recorder = new Thread(() -> {
+                for (int i = 0; i < samplesPerThread; i++) {
+                    collector.recordSample(label, i % 100, i % 100, 0, true, false);
+                }
+            });
+            recorders.add(recorder);
+            recorder.start();
+        }
+        for (Thread recorder : recorders) {
+            recorder.join();
+        }
+
+        assertEquals(threads * samplesPerThread, collector.getTotalRequests());
+        assertEquals(2 * samplesPerThread, collector.getLabelMetrics("label-0").getTotalRequests());
+        assertEquals(2 * samplesPerThread, collector.getLabelMetrics("label-1").getTotalRequests());
+    }
+
+    @Test
+    public void testLabelsAndWindowsSurviveEncodingAndMerge() throws IOException {
+        MetricsCollector first = new MetricsCollector();
+        MetricsCollector second = new MetricsCollector();
+        first.recordSample("Get User", 10, 10, 0, true, false);
+        second.recordSample("Get User", 20, 20, 0, true, false);
+        second.recordSample("Search", 30, 30, 0, false, false);
+
+        MetricsCollector merged = new MetricsCollector();
+        for (MetricsCollector worker : new MetricsCollector[] {first, second}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            worker.writeTo(new DataOutputStream(bytes));
+            merged.merge(MetricsCollector.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        }
+
+        assertEquals(3, merged.getTotalRequests());
+        assertEquals(2, merged.getLabelMetrics("Get User").getTotalRequests());
+        assertEquals(1, merged.getLabelMetrics("Search").getFailedRequests());
+        long windowed = 0;
+        for (MetricsWindow window : merged.getWindows()) {
+            windowed += window.getTotalRequests();
+        }
+        assertEquals(3, windowed);
+    }
+
+    @Test
+    public void testMergesCollectorUnderLabel() {
+        MetricsCollector requestMetrics = new MetricsCollector();
+        requestMetrics.recordRequest();
+        requestMetrics.recordSuccess();
+        requestMetrics.recordResponseTime(42);
+
+        MetricsCollector collector = new MetricsCollector();
+        collector.merge("Checkout", requestMetrics);
+        assertEquals(1, collector.getTotalRequests());
+        assertEquals(1, collector.getLabelMetrics("Checkout").getSuccessfulRequests());
+        assertEquals(42, collector.getLabelMetrics("Checkout").getMaxResponseTime());
+    }
+
+    @Test
+    public void testMergesCollectorAsOneLabel() {
+        MetricsCollector checkout = new MetricsCollector();
+        checkout.recordSample("Add To Cart", 20, 20, 0, true, false);
+        checkout.recordSample("Pay", 80, 80, 0, false, false);
+        checkout.recordWarmUpSample("Pay", 90, 90, 0, true, false);
+        MetricsCollector browse = new MetricsCollector();
+        browse.recordSample("Search", 30, 30, 0, true, false);
+
+        MetricsCollector combined = new MetricsCollector();
+        combined.mergeAsLabel("Checkout", checkout);
+        combined.mergeAsLabel("Browse", browse);
+
+        // Only the merged collectors become labels, not the requests inside them
+        assertEquals(List.of("Browse", "Checkout"), new ArrayList<>(combined.getLabels().keySet()));
+        assertEquals(3, combined.getTotalRequests());
+        assertEquals(2, combined.getLabelMetrics("Checkout").getTotalRequests());
+        assertEquals(1, combined.getLabelMetrics("Checkout").getFailedRequests());
+        assertTrue(combined.getLabelMetrics("Checkout").getLabels().isEmpty());
+        assertEquals(1, combined.getWarmUp().getTotalRequests());
+        assertEquals(List.of("Checkout"), new ArrayList<>(combined.getWarmUp().getLabels().keySet()));
+    }
+}
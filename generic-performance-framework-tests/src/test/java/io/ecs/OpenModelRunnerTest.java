@@ -0,0 +1,123 @@
+package io.ecs;
+
+import io.ecs.core.TestResult;
+import io.ecs.core.TestRunner;
+import io.ecs.engine.Protocol;
+import io.ecs.feeder.Feeder;
+import io.ecs.model.ExecutionConfig;
+import io.ecs.model.RequestBuilder;
+import io.ecs.model.Response;
+import io.ecs.model.Scenario;
+import io.ecs.model.ScenarioBuilder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for open-model runs against a system under test that responds slowly
+ */
+public class OpenModelRunnerTest {
+
+    private static final long RESPONSE_MILLIS = 300;
+
+    /**
+     * A protocol that takes a fixed time to respond and records when each request was sent
+     */
+    private static class SlowProtocol implements Protocol {
+        final ConcurrentLinkedQueue<Long> sentAt = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<String> ids = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void setGlobalVariables(Map<String, String> variables) {
+        }
+
+        @Override
+        public Response execute(String endpoint, String method, String body, Map<String, String> headers,
+                                Map<String, String> params, Map<String, String> requestVariables) throws Exception {
+            sentAt.add(System.nanoTime());
+            ids.add(String.valueOf(requestVariables.get("id")));
+            Thread.sleep(RESPONSE_MILLIS);
+            Response response = new Response();
+            response.setStatusCode(200);
+            response.setSuccess(true);
+            response.setResponseTime(RESPONSE_MILLIS);
+            return response;
+        }
+    }
+
+    @TempDir
+    Path tempDir;
+
+    private static Scenario scenario() {
+        return ScenarioBuilder.create("Slow API", "http")
+                .addRequest(RequestBuilder.create("Get Item", "http").method("GET").endpoint("/items/1").build())
+                .build();
+    }
+
+    private static ExecutionConfig openModel(double rate, int durationSeconds, int maxConcurrency) {
+        ExecutionConfig config = new ExecutionConfig();
+        config.setArrivalRate(rate);
+        config.setDuration(durationSeconds);
+        config.setMaxConcurrency(maxConcurrency);
+        return config;
+    }
+
+    @Test
+    public void testKeepsScheduleWhileResponsesAreSlow() throws Exception {
+        SlowProtocol protocol = new SlowProtocol();
+        TestRunner runner = new TestRunner(null, protocol, scenario(), openModel(20, 1, 0), Collections.emptyList());
+
+        List<TestResult> results = runner.run();
+
+        // A closed model with one user would need 20 x 300ms; arrivals here do not wait for responses
+        assertEquals(20, (long) results.size());
+        List<Long> sent = new ArrayList<>(protocol.sentAt);
+        long spreadMillis = (Collections.max(sent) - Collections.min(sent)) / 1_000_000;
+        assertTrue(spreadMillis < 1_500, "requests were sent over " + spreadMillis + "ms");
+        for (TestResult result : results) {
+            assertTrue(result.isSuccess());
+            assertTrue(result.getCorrectedResponseTime() >= result.getResponseTime());
+        }
+        assertEquals(20, (long) runner.getMetricsCollector().getTotalRequests());
+    }
+
+    @Test
+    public void testDropsArrivalsAboveMaxConcurrency() throws Exception {
+        SlowProtocol protocol = new SlowProtocol();
+        TestRunner runner = new TestRunner(null, protocol, scenario(), openModel(20, 1, 2), Collections.emptyList());
+
+        List<TestResult> results = runner.run();
+
+        // At most two iterations are in flight, each taking 300ms, over a one-second schedule
+        assertTrue(results.size() >= 2, "only " + results.size() + " arrivals ran");
+        assertTrue(results.size() <= 10, results.size() + " arrivals ran");
+        assertEquals(results.size(), protocol.sentAt.size());
+    }
+
+    @Test
+    public void testPartitionedFeederCarriesOnAcrossArrivals() throws Exception {
+        Path csv = Files.writeString(tempDir.resolve("items.csv"), "id\n0\n1\n2\n3\n4\n5\n");
+        SlowProtocol protocol = new SlowProtocol();
+        ExecutionConfig config = openModel(12, 1, 0);
+        config.setThreads(2);
+
+        try (Feeder feeder = Feeder.open("items", csv + "|partitioned")) {
+            TestRunner runner = new TestRunner(null, protocol, scenario(), config, List.of(feeder));
+            assertEquals(12, (long) runner.run().size());
+        }
+
+        // Each arrival is a new cursor, but arrivals on the same user slot move on through its records
+        assertEquals(Set.of("0", "1", "2", "3", "4", "5"), new HashSet<>(protocol.ids));
+    }
+}
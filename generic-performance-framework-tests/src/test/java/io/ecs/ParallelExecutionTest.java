@@ -0,0 +1,123 @@
+package io.ecs;
+
+import io.ecs.component.ConfigComponent;
+import io.ecs.config.Scenario;
+import io.ecs.report.MetricsCollector;
+import io.ecs.system.TestExecutionSystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for running scenarios in parallel with start offsets and a shared deadline
+ */
+public class ParallelExecutionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String writeConfig(String yaml) throws IOException {
+        Path file = tempDir.resolve("parallel.yaml");
+        Files.writeString(file, yaml);
+        return file.toString();
+    }
+
+    @Test
+    public void testLoadsParallelSettings() throws IOException {
+        String configFile = writeConfig(
+                "parallel: true\n" +
+                "deadline: 600\n" +
+                "scenarios:\n" +
+                "  - name: HTTP API Test\n" +
+                "    threads: 20\n" +
+                "  - name: HTTPS API Test\n" +
+                "    threads: 5\n" +
+                "    startOffset: 30\n");
+
+        ConfigComponent config = new ConfigComponent().loadConfig(configFile);
+        assertTrue(config.isParallel());
+        assertEquals(600, (long) config.getDeadline());
+        List<Scenario> scenarios = config.getScenarios();
+        assertEquals(0, (long) scenarios.get(0).getStartOffset());
+        assertEquals(30, (long) scenarios.get(1).getStartOffset());
+
+        TestExecutionSystem testSystem = new TestExecutionSystem(tempDir.resolve("reports").toString());
+        assertFalse(testSystem.isParallel());
+        testSystem.loadFromYaml(configFile);
+        assertTrue(testSystem.isParallel());
+    }
+
+    @Test
+    public void testSkipsScenariosDueAfterDeadline() throws IOException {
+        String configFile = writeConfig(
+                "parallel: true\n" +
+                "deadline: 1\n" +
+                "scenarios:\n" +
+                "  - name: Now\n" +
+                "    requests: []\n" +
+                "  - name: Also Now\n" +
+                "    requests: []\n" +
+                "  - name: Too Late\n" +
+                "    startOffset: 2\n" +
+                "    requests: []\n");
+
+        TestExecutionSystem testSystem = new TestExecutionSystem(tempDir.resolve("reports").toString());
+        testSystem.loadFromYaml(configFile);
+        List<Map<String, Object>> results = testSystem.executeAllScenarios();
+        assertEquals(2, (long) results.size());
+        testSystem.shutdown();
+    }
+
+    @Test
+    public void testCombinedMetricsStartEmpty() {
+        TestExecutionSystem testSystem = new TestExecutionSystem(tempDir.resolve("reports").toString())
+                .setParallel(true)
+                .setDeadline(60);
+        MetricsCollector combined = testSystem.getCombinedMetrics();
+        assertEquals(0, (long) combined.getTotalRequests());
+        assertTrue(combined.getLabels().isEmpty());
+    }
+
+    @Test
+    public void testCombinedMetricsHaveOneLabelPerScenario() throws IOException {
+        try (LocalHttpServer server = new LocalHttpServer()) {
+            server.handle("/", exchange -> LocalHttpServer.respond(exchange, 200)).start();
+            String configFile = writeConfig(
+                    "parallel: true\n" +
+                    "variables:\n" +
+                    "  baseUrl: " + server.getBaseUrl() + "\n" +
+                    "scenarios:\n" +
+                    "  - name: Browse\n" +
+                    "    requests:\n" +
+                    "      - name: List Items\n" +
+                    "        endpoint: /items\n" +
+                    "      - name: Get Item\n" +
+                    "        endpoint: /items/1\n" +
+                    "  - name: Checkout\n" +
+                    "    requests:\n" +
+                    "      - name: Get Cart\n" +
+                    "        endpoint: /cart\n");
+
+            TestExecutionSystem testSystem = new TestExecutionSystem(tempDir.resolve("reports").toString());
+            testSystem.loadFromYaml(configFile);
+            testSystem.executeAllScenarios();
+            MetricsCollector combined = testSystem.getCombinedMetrics();
+            testSystem.shutdown();
+
+            // Request labels stay in the scenarios' own collectors
+            assertEquals(List.of("Browse", "Checkout"), new ArrayList<>(combined.getLabels().keySet()));
+            int checkout = combined.getLabelMetrics("Checkout").getTotalRequests();
+            assertTrue(checkout > 0);
+            assertEquals(2 * checkout, (long) combined.getLabelMetrics("Browse").getTotalRequests());
+            assertEquals(3 * checkout, (long) combined.getTotalRequests());
+        }
+    }
+}
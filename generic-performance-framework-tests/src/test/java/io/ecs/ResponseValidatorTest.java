@@ -0,0 +1,97 @@
+package io.ecs;
+
+import io.ecs.core.ResponseValidator;
+import io.ecs.core.TestResult;
+import io.ecs.model.Request;
+import io.ecs.model.Response;
+import io.ecs.model.ValidationConfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for sampled and asynchronous response validation
+ */
+public class ResponseValidatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Request createRequest(ValidationConfig validation) throws IOException {
+        Path schema = tempDir.resolve("ok.schema.json");
+        Files.writeString(schema, "{\"type\": \"object\"}");
+
+        Request request = new Request();
+        request.setName("Get User");
+        request.setResponseValidators(Map.of("Success", schema.toString()));
+        request.setValidation(validation);
+        return request;
+    }
+
+    private Response createResponse(int statusCode) {
+        Response response = new Response();
+        response.setStatusCode(statusCode);
+        response.setBody("{\"id\": 1}");
+        return response;
+    }
+
+    @Test
+    public void testValidatesEveryNthResponse() throws Exception {
+        Request request = createRequest(new ValidationConfig(ValidationConfig.MODE_INLINE, 3, 100.0));
+        ResponseValidator validator = new ResponseValidator();
+
+        List<TestResult> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            TestResult result = new TestResult();
+            validator.validate(request, createResponse(i == 1 ? 500 : 200), result);
+            results.add(result);
+        }
+
+        assertEquals("Success", results.get(0).getStatus());
+        assertEquals("Success", results.get(3).getStatus());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Failed", results.get(1).getStatus());
+        assertTrue(results.get(2).isSuccess());
+        assertNull(results.get(2).getStatus());
+    }
+
+    @Test
+    public void testZeroPercentSkipsValidation() throws Exception {
+        Request request = createRequest(new ValidationConfig(ValidationConfig.MODE_INLINE, 1, 0.0));
+        ResponseValidator validator = new ResponseValidator();
+
+        TestResult result = new TestResult();
+        validator.validate(request, createResponse(200), result);
+        assertTrue(result.isSuccess());
+        assertNull(result.getStatus());
+    }
+
+    @Test
+    public void testAsyncResultsAreCompleteAfterAwaitingPending() throws Exception {
+        Request request = createRequest(new ValidationConfig(ValidationConfig.MODE_ASYNC, 1, 100.0));
+        ResponseValidator validator = new ResponseValidator(2, 1_000);
+
+        List<TestResult> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TestResult result = new TestResult();
+            result.setRequestName(request.getName());
+            validator.validate(request, createResponse(200), result);
+            results.add(result);
+        }
+
+        assertTrue(validator.awaitPending(10));
+        for (TestResult result : results) {
+            assertTrue(result.isSuccess());
+            assertEquals("Success", result.getStatus());
+            assertEquals("Get User", result.getRequestName());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.ecs;
+
+import io.ecs.report.JtlSink;
+import io.ecs.report.SampleFormat;
+import io.ecs.report.SampleReportGenerator;
+import io.ecs.report.SampleStatistics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming sample report
+ */
+public class SampleReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReadsJtlWithQuotedValues() throws IOException {
+        Path file = tempDir.resolve("results.jtl");
+        Files.writeString(file, "timeStamp,elapsed,label,responseCode,success,failureMessage,bytes\n"
+                + "1000,10,\"Get, User\",200,true,,100\n"
+                + "1500,30,\"Get, User\",500,false,\"line one\nline two\",100\n"
+                + "\n"
+                + "2000,20,Login,200,true,,50\n");
+
+        SampleStatistics statistics = SampleReportGenerator.read(file.toString());
+
+        SampleStatistics.LabelStatistics getUser = statistics.getLabel("Get, User");
+        assertNotNull(getUser);
+        assertEquals(2, getUser.getCount());
+        assertEquals(1, getUser.getErrorCount());
+        assertEquals(30, getUser.getHistogram().getMaxValue());
+        assertEquals(1, statistics.getLabel("Login").getCount());
+        assertEquals(3, statistics.getTotal().getCount());
+        assertEquals(250, statistics.getTotal().getBytes());
+        assertEquals(1, (long) statistics.getErrors().get("500 line one\nline two"));
+        assertEquals(2, statistics.getBucketCount());
+    }
+
+    @Test
+    public void testMergesBucketsOfLongRuns() {
+        SampleStatistics statistics = new SampleStatistics(1000, 10);
+        for (int second = 0; second < 100; second++) {
+            statistics.add(second * 1000L, 5, "label", true, "200", null, 0, 0);
+        }
+
+        // 100 seconds do not fit in 10 one-second buckets; 16-second buckets do
+        assertEquals(16_000, statistics.getBucketMillis());
+        assertEquals(7, statistics.getBucketCount());
+        SampleStatistics.LabelStatistics label = statistics.getLabel("label");
+        long total = 0;
+        for (int i = 0; i < statistics.getBucketCount(); i++) {
+            total += label.getBucketCount(i);
+        }
+        assertEquals(100, total);
+        assertEquals(16, label.getBucketCount(0));
+        assertEquals(4, label.getBucketCount(6));
+    }
+
+    @Test
+    public void testGeneratesReportFromBinarySampleLog() throws IOException {
+        Path samples = tempDir.resolve("results.jtlb");
+        try (JtlSink sink = new JtlSink(samples.toString(), SampleFormat.BINARY)) {
+            for (int i = 0; i < 1_000; i++) {
+                boolean success = i % 4 != 0;
+                assertTrue(sink.record(1_700_000_000_000L + i * 10L, 20 + i % 10, "<Search>",
+                        success ? "200" : "503", "OK", "Thread-1", "text", success,
+                        success ? "" : "Service Unavailable", 512, 64, 1, 1, "", 0, 0, 0));
+            }
+        }
+
+        Path report = tempDir.resolve("report/index.html");
+        assertEquals(report.toString(), SampleReportGenerator.generate(samples.toString(), report.toString(), "Search"));
+
+        String html = Files.readString(report);
+        assertTrue(html.contains("<td>&lt;Search&gt;</td><td>1000</td><td>250</td><td>25.00%</td>"));
+        assertTrue(html.contains("<td>503 Service Unavailable</td><td>250</td>"));
+        assertTrue(html.contains("<polyline"));
+        assertTrue(html.trim().endsWith("</html>"));
+        assertEquals(tempDir.resolve("results.html").toString(),
+                SampleReportGenerator.defaultReportPath(samples.toString()));
+    }
+}
@@ -0,0 +1,68 @@
+package io.ecs;
+
+import io.ecs.util.SchemaValidator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for schema validation with cached compiled schemas
+ */
+public class SchemaValidatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void clearCache() {
+        SchemaValidator.clearCache();
+    }
+
+    private String writeSchema(String content) throws IOException {
+        Path file = tempDir.resolve("response.schema.json");
+        Files.writeString(file, content);
+        return file.toString();
+    }
+
+    @Test
+    public void testCachedSchemaKeepsValidating() throws IOException {
+        String schema = writeSchema("{\"type\": \"object\", \"required\": [\"id\"]}");
+        SchemaValidator validator = new SchemaValidator();
+
+        assertTrue(validator.getValidationErrors("{\"id\": 1}", schema).isEmpty());
+        assertFalse(new SchemaValidator().getValidationErrors("{\"name\": \"x\"}", schema).isEmpty());
+        assertTrue(validator.getValidationErrors("{\"id\": 2}", schema).isEmpty());
+    }
+
+    @Test
+    public void testSchemaIsCompiledPerVariableValue() throws IOException {
+        String schema = writeSchema("{\"properties\": {\"status\": {\"const\": \"${expectedStatus}\"}}}");
+        SchemaValidator validator = new SchemaValidator();
+        String json = "{\"status\": \"active\"}";
+
+        assertTrue(validator.getValidationErrors(json, schema, Map.of("expectedStatus", "active")).isEmpty());
+        assertFalse(validator.getValidationErrors(json, schema, Map.of("expectedStatus", "closed")).isEmpty());
+        assertTrue(validator.getValidationErrors(json, schema,
+                Map.of("expectedStatus", "active", "unused", "1")).isEmpty());
+    }
+
+    @Test
+    public void testChangedSchemaFileIsReadAfterClearingCache() throws IOException {
+        String schema = writeSchema("{\"type\": \"object\"}");
+        SchemaValidator validator = new SchemaValidator();
+        assertTrue(validator.getValidationErrors("{}", schema).isEmpty());
+
+        writeSchema("{\"type\": \"object\", \"required\": [\"id\"]}");
+        assertTrue(validator.getValidationErrors("{}", schema).isEmpty());
+
+        SchemaValidator.clearCache();
+        assertFalse(validator.getValidationErrors("{}", schema).isEmpty());
+    }
+}
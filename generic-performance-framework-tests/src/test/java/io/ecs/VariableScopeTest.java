@@ -0,0 +1,106 @@
+package io.ecs;
+
+import io.ecs.util.CompiledTemplate;
+import io.ecs.util.VariableScope;
+import io.ecs.util.VariableSlots;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for layered, slot-indexed variable scopes
+ */
+public class VariableScopeTest {
+
+    @Test
+    public void testInnerLayersOverrideOuterLayers() {
+        VariableScope global = VariableScope.global(Map.of("baseUrl", "http://global", "user", "global"));
+        VariableScope scenario = global.child(VariableScope.Level.SCENARIO, Map.of("user", "scenario"));
+        VariableScope thread = scenario.child(VariableScope.Level.THREAD, Map.of("threadNum", "3"));
+        VariableScope iteration = thread.child(VariableScope.Level.ITERATION, Map.of("user", "row"));
+        VariableScope request = iteration.child(VariableScope.Level.REQUEST);
+
+        assertEquals("row", request.get("user"));
+        assertEquals("scenario", thread.get("user"));
+        assertEquals("http://global", request.get("baseUrl"));
+        assertEquals("3", request.get(VariableSlots.slotOf("threadNum")));
+        assertNull(request.get("undefined"));
+        assertTrue(request.extendsScope(global));
+    }
+
+    @Test
+    public void testClearResetsOnlyItsOwnLayer() {
+        VariableScope thread = VariableScope.global(Map.of("user", "global"))
+                .child(VariableScope.Level.THREAD);
+        VariableScope iteration = thread.child(VariableScope.Level.ITERATION);
+        VariableScope request = iteration.child(VariableScope.Level.REQUEST);
+
+        iteration.put("user", "first");
+        assertEquals("first", request.get("user"));
+
+        iteration.clear();
+        assertEquals("global", request.get("user"));
+
+        iteration.put("user", "second");
+        assertEquals("second", request.get("user"));
+    }
+
+    @Test
+    public void testRemoveHidesParentValues() {
+        VariableScope global = VariableScope.global(Map.of("user", "global", "token", "abc"));
+        VariableScope iteration = global.child(VariableScope.Level.ITERATION, Map.of("user", "row"));
+        VariableScope request = iteration.child(VariableScope.Level.REQUEST);
+
+        // put returns the value visible before, wherever it was defined
+        assertEquals("abc", request.put("token", "xyz"));
+        assertEquals("xyz", request.remove("token"));
+        assertFalse(request.containsKey("token"));
+        assertNull(request.get("token"));
+        assertEquals("abc", iteration.get("token"));
+
+        assertEquals("row", iteration.remove("user"));
+        assertNull(request.get("user"));
+        assertNull(iteration.remove("user"));
+        assertEquals(Map.of(), request);
+        assertTrue(request.isEmpty());
+        assertEquals("global", global.get("user"));
+
+        // A removed variable can be set again, and clearing the layer lets the parents show through
+        assertNull(iteration.put("user", "next"));
+        assertEquals("next", request.get("user"));
+        iteration.remove("user");
+        iteration.clear();
+        assertEquals("global", request.get("user"));
+        assertNull(request.remove("undefined"));
+    }
+
+    @Test
+    public void testLayersMustNestInward() {
+        VariableScope iteration = VariableScope.global(null).child(VariableScope.Level.ITERATION);
+
+        assertThrows(IllegalArgumentException.class, () -> iteration.child(VariableScope.Level.THREAD));
+        assertThrows(IllegalArgumentException.class, () -> iteration.child(VariableScope.Level.ITERATION));
+    }
+
+    @Test
+    public void testScopeIsAMapOfVisibleVariables() {
+        VariableScope scope = VariableScope.global(Map.of("a", "1", "b", "2"))
+                .child(VariableScope.Level.REQUEST, Map.of("b", "3"));
+
+        assertEquals(Map.of("a", "1", "b", "3"), scope);
+        assertEquals(2, scope.size());
+        assertFalse(scope.isEmpty());
+    }
+
+    @Test
+    public void testTemplatesRenderFromScopes() {
+        VariableScope scope = VariableScope.global(Map.of("host", "example.com"))
+                .child(VariableScope.Level.ITERATION, Map.of("id", "42"));
+        CompiledTemplate template = CompiledTemplate.compile("https://${host}/items/${id}/${missing}");
+
+        assertEquals("https://example.com/items/42/${missing}", template.render(scope));
+        assertEquals("https://example.com/items/42/", template.render(scope, ""));
+    }
+}
@@ -0,0 +1,124 @@
+package io.ecs;
+
+import io.ecs.component.ConfigComponent;
+import io.ecs.config.TestConfiguration;
+import io.ecs.config.YamlConfig;
+import io.ecs.core.TestRunner;
+import io.ecs.engine.Protocol;
+import io.ecs.model.ExecutionConfig;
+import io.ecs.model.RequestBuilder;
+import io.ecs.model.Response;
+import io.ecs.model.Scenario;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for selecting the virtual-thread executor from YAML
+ */
+public class VirtualThreadExecutorTest {
+
+    private static final String CONFIG =
+            "execution:\n" +
+            "  threads: 3\n" +
+            "  iterations: 2\n" +
+            "  executor: virtual\n" +
+            "scenarios:\n" +
+            "  - name: Default Executor\n" +
+            "  - name: Platform Executor\n" +
+            "    executor: platform\n" +
+            "  - name: Virtual Executor\n" +
+            "    executor: Virtual\n";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * A protocol that records whether each request was sent from a virtual thread
+     */
+    private static class ThreadRecordingProtocol implements Protocol {
+        final ConcurrentLinkedQueue<Boolean> virtual = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void setGlobalVariables(Map<String, String> variables) {
+        }
+
+        @Override
+        public Response execute(String endpoint, String method, String body, Map<String, String> headers,
+                                Map<String, String> params, Map<String, String> requestVariables) {
+            virtual.add(Thread.currentThread().isVirtual());
+            Response response = new Response();
+            response.setStatusCode(200);
+            response.setSuccess(true);
+            return response;
+        }
+    }
+
+    private static List<Boolean> runOnThreads(Scenario scenario, ExecutionConfig config) throws Exception {
+        scenario.setRequests(List.of(RequestBuilder.create("Ping", "http").method("GET").endpoint("/ping").build()));
+        ThreadRecordingProtocol protocol = new ThreadRecordingProtocol();
+        new TestRunner(null, protocol, scenario, config, Collections.emptyList()).run();
+        return List.copyOf(protocol.virtual);
+    }
+
+    @Test
+    public void testYamlSelectsExecutor() throws Exception {
+        TestConfiguration config = new YamlConfig().parse(CONFIG);
+        assertTrue(config.getExecutionConfig().isVirtualThreads());
+
+        List<Scenario> scenarios = config.getModelScenarios();
+        assertNull(scenarios.get(0).getExecutor());
+        assertEquals("platform", scenarios.get(1).getExecutor());
+        assertEquals("Virtual", scenarios.get(2).getExecutor());
+
+        ExecutionConfig execution = new ExecutionConfig();
+        execution.setExecutor(" VIRTUAL ");
+        assertTrue(execution.isVirtualThreads());
+        execution.setExecutor("");
+        assertEquals(ExecutionConfig.EXECUTOR_PLATFORM, execution.getExecutor());
+        assertFalse(execution.isVirtualThreads());
+    }
+
+    @Test
+    public void testConfigComponentKeepsScenarioExecutor() throws Exception {
+        Path file = tempDir.resolve("executor.yaml");
+        Files.writeString(file, CONFIG);
+        ConfigComponent component = new ConfigComponent().loadConfig(file.toString());
+
+        List<Scenario> scenarios = component.convertToModelScenarios(component.getScenarios());
+        assertNull(scenarios.get(0).getExecutor());
+        assertEquals("platform", scenarios.get(1).getExecutor());
+        assertEquals("Virtual", scenarios.get(2).getExecutor());
+    }
+
+    @Test
+    public void testRunnerUsesSelectedExecutor() throws Exception {
+        TestConfiguration config = new YamlConfig().parse(CONFIG);
+        ExecutionConfig execution = config.getExecutionConfig();
+        List<Scenario> scenarios = config.getModelScenarios();
+
+        // The execution block selects virtual threads for scenarios without their own executor
+        List<Boolean> defaults = runOnThreads(scenarios.get(0), execution);
+        assertEquals(6, (long) defaults.size());
+        assertTrue(defaults.stream().allMatch(Boolean::booleanValue));
+
+        // A scenario-level executor takes precedence
+        List<Boolean> platform = runOnThreads(scenarios.get(1), execution);
+        assertEquals(6, (long) platform.size());
+        assertTrue(platform.stream().noneMatch(Boolean::booleanValue));
+
+        ExecutionConfig platformExecution = new ExecutionConfig();
+        platformExecution.setThreads(3);
+        platformExecution.setIterations(2);
+        List<Boolean> virtual = runOnThreads(scenarios.get(2), platformExecution);
+        assertTrue(virtual.stream().allMatch(Boolean::booleanValue));
+    }
+}
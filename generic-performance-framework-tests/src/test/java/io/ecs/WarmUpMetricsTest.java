@@ -0,0 +1,111 @@
+package io.ecs;
+
+import io.ecs.report.MetricsCollector;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for keeping warm-up samples out of the headline metrics
+ */
+public class WarmUpMetricsTest {
+
+    @Test
+    public void testWarmUpSamplesAreKeptApart() {
+        MetricsCollector collector = new MetricsCollector();
+        // A cold JIT and empty connection pool: slow and failing first requests
+        for (int i = 0; i < 5; i++) {
+            collector.recordWarmUpSample("Login", 2000, 2000, 0, i % 2 == 0, false);
+        }
+        for (int i = 0; i < 100; i++) {
+            collector.recordSample("Login", 20, 20, 0, true, false);
+        }
+
+        assertEquals(100, (long) collector.getTotalRequests());
+        assertEquals(100.0, collector.getSuccessRate());
+        assertEquals(20, collector.getPercentile(99));
+        assertEquals(20, collector.getMaxResponseTime());
+        assertEquals(100, (long) collector.getLabelMetrics("Login").getTotalRequests());
+        long windowed = collector.getWindows().stream().mapToLong(window -> window.getTotalRequests()).sum();
+        assertEquals(100, windowed);
+
+        MetricsCollector warmUp = collector.getWarmUp();
+        assertEquals(5, (long) warmUp.getTotalRequests());
+        assertEquals(2, (long) warmUp.getFailedRequests());
+        assertEquals(2000, warmUp.getPercentile(50), 20);
+        assertEquals(5, (long) warmUp.getLabelMetrics("Login").getTotalRequests());
+    }
+
+    @Test
+    public void testTimedWarmUp() throws InterruptedException {
+        MetricsCollector collector = new MetricsCollector();
+        assertFalse(collector.isWarmingUp());
+        assertEquals(0, collector.getWarmUpUntil());
+
+        collector.startWarmUp(50);
+        assertTrue(collector.isWarmingUp());
+        Thread.sleep(60);
+        assertFalse(collector.isWarmingUp());
+
+        collector.startWarmUp(0);
+        assertEquals(0, collector.getWarmUpUntil());
+    }
+
+    @Test
+    public void testMeasuredThroughputLeavesOutWarmUp() throws InterruptedException {
+        MetricsCollector collector = new MetricsCollector();
+        assertEquals(0.0, collector.getMeasuredThroughput());
+
+        // Start-up and warm-up take most of the run
+        collector.recordWarmUpSample("Search", 10, 10, 0, true, false);
+        Thread.sleep(400);
+        collector.recordSample("Search", 10, 10, 0, true, false);
+        assertEquals(0.0, collector.getMeasuredThroughput());
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(20);
+            collector.recordSample("Search", 10, 10, 0, true, false);
+        }
+
+        // Ten samples over about 200ms, against eleven over the whole 600ms
+        double measured = collector.getMeasuredThroughput();
+        assertTrue(measured > 20 && measured <= 55, "measured " + measured + "/s");
+        assertTrue(collector.getThroughput() < 20, "overall " + collector.getThroughput() + "/s");
+
+        MetricsCollector merged = new MetricsCollector();
+        merged.merge(collector);
+        assertEquals(measured, merged.getMeasuredThroughput(), 0.001);
+    }
+
+    @Test
+    public void testWarmUpSurvivesEncodingAndMerge() throws IOException {
+        MetricsCollector worker = new MetricsCollector();
+        worker.recordWarmUpSample("Search", 900, 900, 0, true, false);
+        worker.recordSample("Search", 30, 30, 0, true, false);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        worker.writeTo(new DataOutputStream(bytes));
+        MetricsCollector decoded = MetricsCollector.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        MetricsCollector merged = new MetricsCollector();
+        merged.merge(decoded);
+        merged.merge(worker);
+        assertEquals(2, (long) merged.getTotalRequests());
+        assertEquals(2, (long) merged.getWarmUp().getTotalRequests());
+        assertEquals(2, (long) merged.getWarmUp().getLabelMetrics("Search").getTotalRequests());
+
+        // Collectors merged under a label keep their warm-up under the same label
+        MetricsCollector request = new MetricsCollector();
+        request.recordWarmUpSample(null, 500, 500, 0, false, true);
+        MetricsCollector scenario = new MetricsCollector();
+        scenario.merge("Checkout", request);
+        assertEquals(0, (long) scenario.getTotalRequests());
+        assertEquals(1, (long) scenario.getWarmUp().getErrorCount());
+        assertEquals(1, (long) scenario.getWarmUp().getLabelMetrics("Checkout").getTotalRequests());
+    }
+}
@@ -0,0 +1,149 @@
+package io.ecs.engine;
+
+import io.ecs.report.MetricsCollector;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading Gatling simulation logs and publishing simulation plans
+ *
+ * These classes are package-private, so the test lives in the engine package.
+ */
+public class GatlingSimulationLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void clearPlan() {
+        GatlingSimulationPlan.clear();
+    }
+
+    private File writeLog(String... lines) throws IOException {
+        Path file = tempDir.resolve("simulation.log");
+        Files.write(file, List.of(lines));
+        return file.toFile();
+    }
+
+    @Test
+    public void testParsesRequestRecords() throws IOException {
+        File logFile = writeLog(
+                "RUN\tio.ecs.engine.GatlingFrameworkSimulation\tcheckout\t1700000000000\t \t3.9.5",
+                "USER\tCheckout\tSTART\t1700000000000",
+                // Gatling 3.9 layout: empty group field before the name
+                "REQUEST\t\tGet Cart\t1700000000100\t1700000000150\tOK\t ",
+                "REQUEST\t\tGet Cart\t1700000000200\t1700000000300\tOK\t ",
+                // Older layout with a user id, and a name containing spaces
+                "REQUEST\t7\t\tPlace Order\t1700000000400\t1700000000900\tKO\tstatus.find.in(200,201), but actually found 503",
+                "REQUEST\t\tPlace Order\t1700000001000\t1700000001100\tKO\tj.n.ConnectException: Connection refused",
+                // A record without a message, then one that cannot be parsed
+                "REQUEST\t\tPlace Order\t1700000001200\t1700000001260\tOK",
+                "REQUEST\tbroken",
+                "USER\tCheckout\tEND\t1700000002000");
+
+        GatlingSimulationLog log = GatlingSimulationLog.read(logFile);
+
+        assertEquals(List.of("Get Cart", "Place Order"), new ArrayList<>(log.getRequests().keySet()));
+        assertEquals(1700000000100L, log.getStartTime());
+        assertEquals(1700000001260L, log.getEndTime());
+
+        GatlingSimulationLog.RequestStats cart = log.getRequests().get("Get Cart");
+        MetricsCollector cartMetrics = cart.getMetrics();
+        assertEquals(2, (long) cartMetrics.getTotalRequests());
+        assertEquals(100.0, cartMetrics.getSuccessRate());
+        assertEquals(75.0, cartMetrics.getAverageResponseTime(), 1.0);
+        assertEquals(200, cart.getStatusCode());
+        assertNull(cart.getLastError());
+
+        GatlingSimulationLog.RequestStats order = log.getRequests().get("Place Order");
+        MetricsCollector orderMetrics = order.getMetrics();
+        assertEquals(3, (long) orderMetrics.getTotalRequests());
+        assertEquals(2, (long) orderMetrics.getFailedRequests());
+        // Only the failure without a response counts as an error
+        assertEquals(1, (long) orderMetrics.getErrorCount());
+        assertEquals(500, order.getStatusCode());
+        assertEquals("j.n.ConnectException: Connection refused", order.getLastError());
+        assertEquals(500, orderMetrics.getMaxResponseTime(), 1.0);
+    }
+
+    @Test
+    public void testStatusOfLastFailureIsKept() throws IOException {
+        File logFile = writeLog(
+                "REQUEST\t\tSearch\t1000\t1010\tKO\tstatus.find.in(200), but actually found 404",
+                "REQUEST\t\tSearch\t1020\t1030\tOK\t ");
+
+        GatlingSimulationLog.RequestStats search = GatlingSimulationLog.read(logFile).getRequests().get("Search");
+        assertEquals(404, search.getStatusCode());
+        assertEquals(0, (long) search.getMetrics().getErrorCount());
+    }
+
+    @Test
+    public void testWarmUpRequestsAreKeptApart() throws IOException {
+        File logFile = writeLog(
+                "REQUEST\t\tLogin\t1000\t3000\tKO\tj.n.SocketTimeoutException: Read timed out",
+                "REQUEST\t\tLogin\t1500\t1700\tOK\t ",
+                "REQUEST\t\tLogin\t5000\t5020\tOK\t ",
+                "REQUEST\t\tLogin\t6000\t6020\tOK\t ");
+
+        GatlingSimulationLog log = GatlingSimulationLog.read(logFile, 5000);
+        MetricsCollector login = log.getRequests().get("Login").getMetrics();
+
+        assertEquals(2, (long) login.getTotalRequests());
+        assertEquals(100.0, login.getSuccessRate());
+        assertEquals(20, login.getMaxResponseTime());
+        assertEquals(2, (long) login.getWarmUp().getTotalRequests());
+        assertEquals(1, (long) login.getWarmUp().getErrorCount());
+        // The log's time span still covers the warm-up
+        assertEquals(1000, log.getStartTime());
+    }
+
+    @Test
+    public void testEmptyLog() throws IOException {
+        GatlingSimulationLog log = GatlingSimulationLog.read(writeLog("RUN\tsimulation\tempty\t1000\t \t3.9.5"));
+        assertTrue(log.getRequests().isEmpty());
+        assertEquals(0, log.getStartTime());
+        assertEquals(0, log.getEndTime());
+    }
+
+    @Test
+    public void testPublishesPlan() {
+        assertThrows(IllegalStateException.class, GatlingSimulationPlan::current);
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json");
+        GatlingSimulationPlan.PlannedRequest request = new GatlingSimulationPlan.PlannedRequest(
+                "Create User", "POST", "http://localhost:8080/users", headers, "{\"name\":\"Ann\"}");
+        List<GatlingSimulationPlan.PlannedRequest> requests = new ArrayList<>(List.of(request));
+        GatlingSimulationPlan plan = new GatlingSimulationPlan("Users", requests, 0, -1, -5, 30, 0);
+
+        // Values out of range are clamped and the plan does not follow later changes to its inputs
+        requests.clear();
+        headers.put("X-Later", "ignored");
+        assertEquals(1, plan.getUsers());
+        assertEquals(1, plan.getIterations());
+        assertEquals(0, plan.getRampUpSeconds());
+        assertEquals(30, plan.getHoldSeconds());
+        assertEquals(1, plan.getMaxConnectionsPerHost());
+        assertEquals(1, (long) plan.getRequests().size());
+        assertThrows(UnsupportedOperationException.class, () -> plan.getRequests().clear());
+        assertThrows(UnsupportedOperationException.class, () -> request.getHeaders().clear());
+
+        GatlingSimulationPlan.publish(plan);
+        assertSame(plan, GatlingSimulationPlan.current());
+        assertEquals("Create User", GatlingSimulationPlan.current().getRequests().get(0).getName());
+        GatlingSimulationPlan.clear();
+        assertThrows(IllegalStateException.class, GatlingSimulationPlan::current);
+    }
+}
@@ -0,0 +1,137 @@
+package io.ecs.engine;
+
+import io.ecs.report.MetricsCollector;
+
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jmeter.util.JMeterUtils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for streaming JMeter samples into metrics collectors
+ *
+ * MetricsResultCollector is package-private, so the test lives in the engine package.
+ */
+public class MetricsResultCollectorTest {
+
+    @BeforeAll
+    public static void loadJMeterProperties(@TempDir Path jmeterHome) throws IOException {
+        // Sample results read their save settings from the JMeter properties
+        Path properties = Files.createFile(jmeterHome.resolve("jmeter.properties"));
+        JMeterUtils.setJMeterHome(jmeterHome.toString());
+        JMeterUtils.loadJMeterProperties(properties.toString());
+        JMeterUtils.initLocale();
+    }
+
+    @AfterEach
+    public void clearContext() {
+        JMeterContextService.getContext().clear();
+    }
+
+    private static SampleEvent sample(String label, long start, long elapsed, boolean success,
+                                      String code, String message) {
+        SampleResult result = SampleResult.createTestSample(start, start + elapsed);
+        result.setSampleLabel(label);
+        result.setSuccessful(success);
+        result.setResponseCode(code);
+        result.setResponseMessage(message);
+        return new SampleEvent(result, "Thread Group");
+    }
+
+    @Test
+    public void testMapsFailureStatus() {
+        MetricsCollector live = new MetricsCollector();
+        MetricsResultCollector collector = new MetricsResultCollector("Orders Metrics", live, 0);
+        long now = System.currentTimeMillis();
+
+        collector.sampleOccurred(sample("Orders", now, 30, true, "200", "OK"));
+        assertEquals(200, collector.getStatusCode());
+        assertNull(collector.getLastFailureMessage());
+
+        collector.sampleOccurred(sample("Orders", now, 40, false, "404", "Not Found"));
+        assertEquals(404, collector.getStatusCode());
+        assertEquals("Not Found", collector.getLastFailureMessage());
+
+        // JMeter reports exceptions with a non-HTTP response code
+        collector.sampleOccurred(sample("Orders", now, 50, false,
+                "Non HTTP response code: java.net.ConnectException", "Connection refused"));
+        assertEquals(500, collector.getStatusCode());
+        assertEquals("Connection refused", collector.getLastFailureMessage());
+
+        // The last failure wins, and a later success does not clear it
+        collector.sampleOccurred(sample("Orders", now, 20, false, "503", "Service Unavailable"));
+        collector.sampleOccurred(sample("Orders", now, 20, true, "200", "OK"));
+        assertEquals(503, collector.getStatusCode());
+
+        MetricsCollector run = collector.getMetrics();
+        assertEquals(5, (long) run.getTotalRequests());
+        assertEquals(3, (long) run.getFailedRequests());
+        // Only the failure without an HTTP response counts as an error
+        assertEquals(1, (long) run.getErrorCount());
+        assertEquals(5, (long) run.getLabelMetrics("Orders").getTotalRequests());
+    }
+
+    @Test
+    public void testRecordsIntoLiveAndRunCollectors() {
+        MetricsCollector live = new MetricsCollector();
+        live.recordSample("Earlier Run", 10, 10, 0, true, false);
+        MetricsResultCollector collector = new MetricsResultCollector("Search Metrics", live, 0);
+
+        collector.sampleOccurred(sample("Search", System.currentTimeMillis(), 25, true, "200", "OK"));
+
+        // The engine's collector sees the sample as it is taken; the run's view holds this run only
+        assertEquals(2, (long) live.getTotalRequests());
+        assertEquals(1, (long) live.getLabelMetrics("Search").getTotalRequests());
+        assertEquals(1, (long) collector.getMetrics().getTotalRequests());
+        assertNotSame(live, collector.getMetrics());
+    }
+
+    @Test
+    public void testTimedWarmUp() {
+        MetricsCollector live = new MetricsCollector();
+        live.startWarmUp(60_000);
+        MetricsResultCollector collector = new MetricsResultCollector("Login Metrics", live, 0);
+        long warmUpUntil = live.getWarmUpUntil();
+
+        collector.sampleOccurred(sample("Login", warmUpUntil - 1_000, 500, false, "500", "Server Error"));
+        collector.sampleOccurred(sample("Login", warmUpUntil, 20, true, "200", "OK"));
+
+        assertEquals(1, (long) live.getTotalRequests());
+        assertEquals(1, (long) live.getWarmUp().getTotalRequests());
+        assertEquals(1, (long) collector.getMetrics().getTotalRequests());
+        assertEquals(1, (long) collector.getMetrics().getWarmUp().getTotalRequests());
+        // Warm-up failures do not decide the run's status
+        assertEquals(200, collector.getStatusCode());
+        assertEquals(20, collector.getMetrics().getMaxResponseTime());
+    }
+
+    @Test
+    public void testWarmUpIterations() {
+        MetricsCollector live = new MetricsCollector();
+        MetricsResultCollector collector = new MetricsResultCollector("Cart Metrics", live, 2);
+        JMeterVariables threadVariables = new JMeterVariables();
+        JMeterContextService.getContext().setVariables(threadVariables);
+        long now = System.currentTimeMillis();
+
+        // Iterations count from 1, so the first two iterations of the thread are warm-up
+        for (int iteration = 1; iteration <= 4; iteration++) {
+            threadVariables.incIteration();
+            collector.sampleOccurred(sample("Cart", now, 10 * iteration, true, "200", "OK"));
+        }
+
+        assertEquals(2, (long) live.getTotalRequests());
+        assertEquals(2, (long) live.getWarmUp().getTotalRequests());
+        assertEquals(30, live.getMinResponseTime());
+    }
+}
@@ -0,0 +1,226 @@
+package io.ecs.system;
+
+import io.ecs.LocalHttpServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import static io.ecs.LocalHttpServer.respond;
+import static io.ecs.LocalHttpServer.sleep;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for running a configuration across a controller and in-JVM workers
+ *
+ * DistributedProtocol is package-private, so the test lives in the system package
+ * and can stand in for a worker that fails.
+ */
+public class DistributedModeTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalHttpServer server;
+    private final AtomicInteger received = new AtomicInteger();
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new LocalHttpServer()
+                .handle("/items", exchange -> {
+                    received.incrementAndGet();
+                    sleep(20);
+                    respond(exchange, 200);
+                })
+                .start();
+    }
+
+    @AfterEach
+    public void stopWorkers() throws InterruptedException {
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        server.close();
+    }
+
+    private String writeConfig() throws IOException {
+        Path file = tempDir.resolve("distributed.yaml");
+        Files.writeString(file,
+                "scenarios:\n" +
+                "  - name: Browse\n" +
+                "    engine: async\n" +
+                "    threads: 4\n" +
+                "    iterations: 5\n" +
+                "    requests:\n" +
+                "      - name: List Items\n" +
+                "        url: /items\n");
+        return file.toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private DistributedController controller(int port, int workerCount) {
+        return new DistributedController(tempDir.resolve("reports").toString())
+                .setWorkers(workerCount)
+                .setPort(port)
+                .setLaunchLocalWorkers(false)
+                .setConnectTimeoutMillis(5_000)
+                .setStartDelayMillis(200)
+                .setSnapshotIntervalMillis(100)
+                .setGlobalVariables(server.variables());
+    }
+
+    /**
+     * Start a worker in this JVM, retrying until the controller listens
+     */
+    private Future<?> startWorker(int port) {
+        return workers.submit(() -> {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (true) {
+                try {
+                    new DistributedWorker("localhost", port).run();
+                    return null;
+                } catch (ConnectException e) {
+                    if (System.currentTimeMillis() > deadline) {
+                        throw e;
+                    }
+                    Thread.sleep(50);
+                }
+            }
+        });
+    }
+
+    /**
+     * Start a worker that follows the protocol up to the start and then reports a failure
+     */
+    private Future<?> startFailingWorker(int port) {
+        return workers.submit(() -> {
+            long deadline = System.currentTimeMillis() + 5_000;
+            Socket socket = null;
+            while (socket == null) {
+                try {
+                    socket = new Socket("localhost", port);
+                } catch (ConnectException e) {
+                    if (System.currentTimeMillis() > deadline) {
+                        throw e;
+                    }
+                    Thread.sleep(50);
+                }
+            }
+            try (Socket connection = socket) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                out.writeByte(DistributedProtocol.HELLO);
+                out.writeInt(DistributedProtocol.VERSION);
+                DistributedProtocol.writeText(out, "failing-worker");
+                out.flush();
+
+                assertEquals(DistributedProtocol.CONFIG, in.readByte());
+                in.readInt();
+                in.readInt();
+                DistributedProtocol.readText(in);
+                DistributedProtocol.readVariables(in);
+                DistributedProtocol.readText(in);
+                in.readLong();
+                out.writeByte(DistributedProtocol.READY);
+                out.flush();
+
+                assertEquals(DistributedProtocol.START, in.readByte());
+                in.readLong();
+                out.writeByte(DistributedProtocol.FAILED);
+                DistributedProtocol.writeText(out, "disk full");
+                out.flush();
+                // Wait for the controller to hang up
+                while (in.read() >= 0) {
+                }
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void testMergesResultsOfAllWorkers() throws Exception {
+        int port = freePort();
+        List<Future<?>> started = new ArrayList<>();
+        started.add(startWorker(port));
+        started.add(startWorker(port));
+
+        Map<String, Map<String, Object>> results = controller(port, 2).execute(writeConfig());
+        for (Future<?> worker : started) {
+            worker.get(10, TimeUnit.SECONDS);
+        }
+
+        // Each worker ran two of the four threads, five iterations each
+        assertEquals(20, received.get());
+        Map<String, Object> browse = results.get("Browse");
+        assertNotNull(browse, "results: " + results);
+        assertEquals(2, browse.get("workers"));
+        assertEquals(20, browse.get("totalRequests"));
+        assertEquals(100.0, (double) browse.get("successRate"));
+        long p95 = ((Number) browse.get("95thPercentile")).longValue();
+        assertTrue(p95 >= 20, "p95 " + p95);
+        assertTrue(((Number) browse.get("90thPercentile")).longValue() <= p95);
+        assertTrue(p95 <= ((Number) browse.get("99thPercentile")).longValue());
+        assertTrue(((Number) browse.get("minResponseTime")).longValue() >= 20);
+
+        // The merged report is written next to the workers' own reports
+        try (var files = Files.list(tempDir.resolve("reports"))) {
+            assertTrue(files.anyMatch(file -> file.getFileName().toString().startsWith("distributed_Browse_")));
+        }
+    }
+
+    @Test
+    public void testFailedWorkerLeavesPartialResults() throws Exception {
+        int port = freePort();
+        Future<?> worker = startWorker(port);
+        Future<?> failing = startFailingWorker(port);
+
+        Map<String, Map<String, Object>> results = controller(port, 2).execute(writeConfig());
+        worker.get(10, TimeUnit.SECONDS);
+        failing.get(10, TimeUnit.SECONDS);
+
+        // Only the worker that ran sent snapshots
+        assertEquals(10, received.get());
+        assertEquals(10, results.get("Browse").get("totalRequests"));
+    }
+
+    @Test
+    public void testWorkerThatNeverConnects() throws Exception {
+        int port = freePort();
+        Future<?> worker = startWorker(port);
+
+        DistributedController controller = controller(port, 2).setConnectTimeoutMillis(1_000);
+        String configFile = writeConfig();
+        IOException error = assertThrows(IOException.class, () -> controller.execute(configFile));
+        assertEquals("Only 1 of 2 workers connected", error.getMessage());
+
+        // The connected worker is released rather than left waiting for the start
+        Exception workerError = assertThrows(Exception.class, () -> worker.get(10, TimeUnit.SECONDS));
+        assertFalse(workerError instanceof TimeoutException, workerError.toString());
+        assertEquals(0, received.get());
+    }
+}